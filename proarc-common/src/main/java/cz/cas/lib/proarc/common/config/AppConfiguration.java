@@ -93,6 +93,9 @@ public final class AppConfiguration {
     private static final String PROPERTY_USERS_HOME = "proarc.users.home";
     private static final String PROPERTY_STORAGE = "proarc.storage";
     private static final String PROPERTY_SESSION_TIMEOUT = "proarc.sessionTimeout";
+    private static final String PROPERTY_DISPATCHER = "proarc.dispatcher";
+    private static final String PROPERTY_JHOVE_CACHE = "proarc.jhoveCache";
+    private static final String PROPERTY_JHOVE_CACHE_MAX_SIZE = "proarc.jhoveCache.maxSize";
     public static final String EXPORT_KWIS_POST_PROCESSOR = "export.export_post_processor.processor";
     public static final String EXPORT_BAGIT_POST_PROCESSOR = "export.bagit_post_processor.processor";
     public static final String EXPORT_BAGIT_PATH = "export.bagit.path";
@@ -101,6 +104,8 @@ public final class AppConfiguration {
     public static final String EXPORT_LTP_CESNET_GROUP_TOKEN = "export.ltpCesnet.groupToken";
     public static final String EXPORT_LTP_CESNET_SCRIPT_PATH = "export.ltpCesnet.scriptPath";
     public static final String EXPORT_BAGIT_SCRIPT_PATH = "export.bagit.scriptPath";
+    public static final String EXPORT_BAGIT_ZIP_THREADS = "export.bagit.zipThreads";
+    public static final String VALIDATION_THREADS = "validation.threads";
 //    public static final String PROPERTY_NEW_CLIENT_URL = "proarc.client.url";
 
     private static final Logger LOG = Logger.getLogger(AppConfiguration.class.getName());
@@ -134,6 +139,27 @@ public final class AppConfiguration {
         return users;
     }
 
+    /**
+     * Gets the folder of the JHOVE cache.
+     *
+     * @return the folder or {@code null} if the cache is disabled
+     */
+    public File getJhoveCacheFolder() {
+        String path = config.getString(PROPERTY_JHOVE_CACHE);
+        if (path == null || path.trim().isEmpty()) {
+            return null;
+        }
+        return new File(path);
+    }
+
+    /**
+     * Gets the max size of the JHOVE cache in bytes.
+     */
+    public long getJhoveCacheMaxSize() {
+        long megabytes = config.getLong(PROPERTY_JHOVE_CACHE_MAX_SIZE, 1024);
+        return megabytes * 1024 * 1024;
+    }
+
     public int getMaxSessionTime() {
         int value = config.getInt(PROPERTY_SESSION_TIMEOUT, MAX_SESSION_INTERVAL);
         return value;
@@ -187,6 +213,22 @@ public final class AppConfiguration {
         return config.getString(EXPORT_BAGIT_SCRIPT_PATH);
     }
 
+    /**
+     * Gets the number of threads compressing files of a Bagit package.
+     */
+    public int getBagitZipThreads() {
+        int threads = config.getInt(EXPORT_BAGIT_ZIP_THREADS, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        return Math.max(1, threads);
+    }
+
+    /**
+     * Gets the number of threads validating objects of a tree.
+     */
+    public int getValidationThreads() {
+        int threads = config.getInt(VALIDATION_THREADS, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        return Math.max(1, threads);
+    }
+
     public String getFedoraUsername() {
         return config.getString(PROPERTY_FEDORA_CLIENT_USERNAME);
     }
@@ -215,6 +257,15 @@ public final class AppConfiguration {
         return profiles;
     }
 
+    /**
+     * Gets the scheduler options of a process dispatcher.
+     *
+     * @param dispatcher import, export or internal
+     */
+    public Configuration getDispatcherConfiguration(String dispatcher) {
+        return config.subset(PROPERTY_DISPATCHER + "." + dispatcher);
+    }
+
     public Configuration getJobCofig() {
         return config.subset(JobHandler.PROPERTY_JOBS);
     }
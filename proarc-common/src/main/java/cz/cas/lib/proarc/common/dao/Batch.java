@@ -52,6 +52,8 @@ public class Batch {
     public static final String UPLOAD_KRAMERIUS = "uploadProfile.kramerius";
 
     public static final String INTERNAL_REINDEX = "internalProfile.reindex";
+    public static final String INTERNAL_FULL_REINDEX = "internalProfile.fullReindex";
+    public static final String INTERNAL_KRAMERIUS_HARVEST = "internalProfile.krameriusHarvest";
     public static final String INTERNAL_CHANGE_OBJECTS_OWNERS = "internalProfile.changeOwners";
     public static final String INTERNAL_UPDATE_CATALOG_RECORDS = "internalProfile.updateCatalogRecords";
     public static final String INTERNAL_VALIDATION = "internalProfile.validation";
@@ -37,4 +37,9 @@ public interface BatchItemDao extends Dao {
 
     void update(BatchItem item);
 
+    /**
+     * Inserts new items in a single batch. The items get their IDs and timestamps.
+     */
+    void insert(List<BatchItem> items);
+
 }
@@ -106,6 +106,12 @@ public class BatchParams {
         this.krameriusInstanceId = krameriusInstanceId;
     }
 
+    public BatchParams(List<String> pids, String krameriusInstanceId, List<String> dsIds) {
+        this.pids = pids;
+        this.krameriusInstanceId = krameriusInstanceId;
+        this.dsIds = dsIds;
+    }
+
     public BatchParams(List<String> pids, boolean hierarchy, boolean forDownload, boolean dryRun) {
         this.pids = pids;
         this.hierarchy = hierarchy;
@@ -238,6 +238,13 @@ public class BatchUtils {
     public static void finishedInternalRunningBatch(BatchManager ibm, AppConfiguration config) {
         List<Batch> batches2finished = ibm.findInternalRunningBatches();
         for (Batch batch : batches2finished) {
+            if (Batch.INTERNAL_FULL_REINDEX.equals(batch.getProfileId())
+                    || Batch.INTERNAL_KRAMERIUS_HARVEST.equals(batch.getProfileId())) {
+                // resumes from its checkpoint or from the downloaded files
+                batch.setState(Batch.State.INTERNAL_PLANNED);
+                ibm.update(batch);
+                continue;
+            }
             finishedInternalWithError(ibm, batch, batch.getFolder(), Batch.State.INTERNAL_FAILED, new Exception("Application has been stopped."));
         }
     }
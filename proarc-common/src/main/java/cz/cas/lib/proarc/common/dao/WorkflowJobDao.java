@@ -38,5 +38,11 @@ public interface WorkflowJobDao extends Dao {
 
     String getDevice(BigDecimal id);
 
+    /**
+     * Recomputes the summary of the job used by {@link #view}. Call it whenever
+     * tasks or materials of the job change.
+     */
+    void updateSummary(BigDecimal jobId);
+
     void delete(BigDecimal id);
 }
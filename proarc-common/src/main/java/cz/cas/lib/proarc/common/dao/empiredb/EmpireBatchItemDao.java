@@ -19,12 +19,22 @@ package cz.cas.lib.proarc.common.dao.empiredb;
 import cz.cas.lib.proarc.common.dao.BatchItemDao;
 import cz.cas.lib.proarc.common.dao.BatchItem;
 import cz.cas.lib.proarc.common.dao.empiredb.ProarcDatabase.BatchItemTable;
+import cz.cas.lib.proarc.common.sql.DbUtils;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import org.apache.empire.data.bean.BeanResult;
+import org.apache.empire.db.DBCmdParam;
+import org.apache.empire.db.DBColumn;
 import org.apache.empire.db.DBCommand;
 import org.apache.empire.db.DBRecord;
+import org.apache.empire.db.exceptions.StatementFailedException;
 
 /**
  *
@@ -63,6 +73,68 @@ public class EmpireBatchItemDao extends EmpireDao implements BatchItemDao {
         }
     }
 
+    @Override
+    public void insert(List<BatchItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        DBCommand cmd = db.createCommand();
+        DBColumn[] columns = {table.batchId, table.pid, table.dsId, table.file,
+                table.state, table.type, table.log, table.timestamp};
+        DBCmdParam[] params = new DBCmdParam[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            params[i] = cmd.addParam(columns[i], null);
+            cmd.set(columns[i].to(params[i]));
+        }
+        String sql = cmd.getInsert();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Connection c = getConnection();
+        long start = System.nanoTime();
+        try {
+            PreparedStatement stmt = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            try {
+                for (BatchItem item : items) {
+                    item.setTimestamp(now);
+                    params[0].setValue(item.getBatchId());
+                    params[1].setValue(item.getPid());
+                    params[2].setValue(item.getDsId());
+                    params[3].setValue(item.getFile());
+                    params[4].setValue(item.getState());
+                    params[5].setValue(item.getTypeAsString());
+                    params[6].setValue(item.getLog());
+                    params[7].setValue(now);
+                    Object[] values = cmd.getParamValues();
+                    for (int i = 0; i < values.length; i++) {
+                        stmt.setObject(i + 1, values[i]);
+                    }
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                ResultSet keys = stmt.getGeneratedKeys();
+                try {
+                    int count = 0;
+                    Iterator<BatchItem> it = items.iterator();
+                    for (; keys.next(); count++) {
+                        if (it.hasNext()) {
+                            it.next().setId(keys.getInt(table.id.getName()));
+                        }
+                    }
+                    if (count != items.size()) {
+                        throw new SQLException(String.format("Generated %s keys for %s items.", count, items.size()));
+                    }
+                } finally {
+                    DbUtils.close(keys);
+                }
+            } finally {
+                DbUtils.close(stmt);
+            }
+        } catch (SQLException ex) {
+            throw new StatementFailedException(db, sql, ex);
+        } finally {
+            SqlStatistics.getDefault().addBatch(sql, items.size(), System.nanoTime() - start);
+        }
+    }
+
     @Override
     public BatchItem find(int id) {
         DBRecord dbr = new DBRecord();
@@ -97,7 +169,8 @@ public class EmpireBatchItemDao extends EmpireDao implements BatchItemDao {
         if (type != null) {
             cmd.where(table.type.is(type));
         }
-        cmd.orderBy(table.timestamp);
+        // items inserted in a single batch share the timestamp
+        cmd.orderBy(table.timestamp, table.id);
         result.fetch(getConnection());
         return Collections.unmodifiableList(result);
     }
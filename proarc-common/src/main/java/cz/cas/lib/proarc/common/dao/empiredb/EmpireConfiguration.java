@@ -18,6 +18,7 @@ package cz.cas.lib.proarc.common.dao.empiredb;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import javax.sql.DataSource;
@@ -93,12 +94,20 @@ public final class EmpireConfiguration {
         }
     }
 
+    /**
+     * Gets a connection. The wait for the connection is recorded
+     * in {@link SqlStatistics#getDefault()}.
+     */
     public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection c;
         if (dataSource != null) {
-            return dataSource.getConnection();
+            c = dataSource.getConnection();
         } else {
-            return getPostgresConnection();
+            c = getPostgresConnection();
         }
+        SqlStatistics.getDefault().addConnection(System.nanoTime() - start);
+        return c;
     }
 
     private Connection getPostgresConnection() throws SQLException {
@@ -173,6 +182,26 @@ public final class EmpireConfiguration {
             return super.getSQLDateTimeString(value, sqlTemplate, sqlPattern, sqlCurrentDate);
         }
 
+        @Override
+        public ResultSet executeQuery(String sqlCmd, Object[] sqlParams, boolean scrollable, Connection conn) throws SQLException {
+            long start = System.nanoTime();
+            try {
+                return super.executeQuery(sqlCmd, sqlParams, scrollable, conn);
+            } finally {
+                SqlStatistics.getDefault().addStatement(sqlCmd, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public int executeSQL(String sqlCmd, Object[] sqlParams, Connection conn, DBSetGenKeys genKeys) throws SQLException {
+            long start = System.nanoTime();
+            try {
+                return super.executeSQL(sqlCmd, sqlParams, conn, genKeys);
+            } finally {
+                SqlStatistics.getDefault().addStatement(sqlCmd, System.nanoTime() - start);
+            }
+        }
+
         @Override
         public Timestamp getUpdateTimestamp(Connection conn) {
             return new Timestamp(System.currentTimeMillis());
@@ -34,7 +34,9 @@ import org.apache.empire.db.DBColumnExpr;
 import org.apache.empire.db.DBCommand;
 import org.apache.empire.db.DBDatabase;
 import org.apache.empire.db.DBDatabaseDriver;
+import org.apache.empire.db.DBDriverFeature;
 import org.apache.empire.db.DBExpr;
+import org.apache.empire.db.DBReader;
 import org.apache.empire.db.DBRelation;
 import org.apache.empire.db.DBSQLScript;
 import org.apache.empire.db.DBTable;
@@ -97,6 +99,32 @@ class EmpireUtils {
         addOrderBy(cmd, selections, columnBeanPropertyName, defaultSortByColumn, defaultDescending);
     }
 
+    /**
+     * Limits the command to a page of rows if the database driver supports it.
+     * The database skips the rows then instead of the reader.
+     * @param cmd SQL command
+     * @param offset the number of rows to skip
+     * @param maxCount the maximum number of rows to read
+     * @return the number of rows the reader still has to skip with {@link DBReader#skipRows}
+     */
+    public static int addLimit(DBCommand cmd, int offset, int maxCount) {
+        DBDatabaseDriver driver = cmd.getDatabase().getDriver();
+        if (maxCount < 0 || !driver.isSupported(DBDriverFeature.QUERY_LIMIT_ROWS)) {
+            return offset;
+        }
+        if (offset <= 0) {
+            cmd.limitRows(maxCount);
+            return 0;
+        } else if (driver.isSupported(DBDriverFeature.QUERY_SKIP_ROWS)) {
+            cmd.skipRows(offset);
+            cmd.limitRows(maxCount);
+            return 0;
+        } else {
+            cmd.limitRows((int) Math.min(Integer.MAX_VALUE, (long) offset + maxCount));
+            return offset;
+        }
+    }
+
     private static void addOrderBy(DBCommand cmd, List<? extends DBColumnExpr> selections,
             String columnBeanPropertyName, DBTableColumn defaultSortByColumn,
             boolean defaultDescending
@@ -18,19 +18,21 @@ package cz.cas.lib.proarc.common.dao.empiredb;
 
 import cz.cas.lib.proarc.common.dao.ConcurrentModificationException;
 import cz.cas.lib.proarc.common.dao.WorkflowJobDao;
+import cz.cas.lib.proarc.common.dao.empiredb.ProarcDatabase.WorkflowJobSummaryTable;
 import cz.cas.lib.proarc.common.dao.empiredb.ProarcDatabase.WorkflowJobTable;
+import cz.cas.lib.proarc.common.dao.empiredb.ProarcDatabase.WorkflowParameterTable;
+import cz.cas.lib.proarc.common.dao.empiredb.ProarcDatabase.WorkflowTaskTable;
 import cz.cas.lib.proarc.common.workflow.model.Job;
 import cz.cas.lib.proarc.common.workflow.model.JobFilter;
 import cz.cas.lib.proarc.common.workflow.model.JobView;
 import java.math.BigDecimal;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import org.apache.empire.db.DBCmdParam;
 import org.apache.empire.db.DBColumnExpr;
 import org.apache.empire.db.DBCommand;
 import org.apache.empire.db.DBJoinType;
@@ -40,6 +42,7 @@ import org.apache.empire.db.DBRecord;
 import org.apache.empire.db.DBRecordData;
 import org.apache.empire.db.exceptions.RecordNotFoundException;
 import org.apache.empire.db.exceptions.RecordUpdateInvalidException;
+import org.apache.empire.db.expr.compare.DBCompareExpr;
 
 /**
  *
@@ -99,9 +102,145 @@ public class EmpireWorkflowJobDao extends EmpireDao implements WorkflowJobDao {
         DBCommand cmd = db.createCommand();
         cmd.select(tableJob.getColumns());
         //cmd.select(db.tableUser.username);
+        final WorkflowJobSummaryTable ts = db.tableWorkflowJobSummary;
+        cmd.select(ts.barcode, ts.detail, ts.field001, ts.issue, ts.sigla, ts.signature, ts.volume, ts.year, ts.edition);
+        cmd.select(ts.pid, ts.rawPath, ts.taskName, ts.taskDate, ts.taskUser);
+        //cmd.join(tableJob.ownerId, db.tableUser.id, DBJoinType.LEFT);
+        cmd.join(tableJob.id, ts.jobId, DBJoinType.LEFT);
+
+        final ProarcDatabase.UserTable tUsers = db.tableUser;
+        final DBColumnExpr taskUserName = tUsers.username.as("task_Username");
+        cmd.select(taskUserName);
+        cmd.join(ts.taskUser, tUsers.id, DBJoinType.LEFT);
+
+        if (filter.getIds() != null) {
+            EmpireUtils.addWhereIsIn(cmd, tableJob.id, filter.getIds());
+        } else {
+            EmpireUtils.addWhereIs(cmd, tableJob.id, () -> filter.getId());
+        }
+        EmpireUtils.addWhereLikeIgnoreCase(cmd, tableJob.label, () -> filter.getLabel());
+        EmpireUtils.addWhereLike(cmd, tableJob.financed, () -> filter.getFinanced());
+        EmpireUtils.addWhereLike(cmd, ts.barcode, () -> filter.getMaterialBarcode());
+        EmpireUtils.addWhereLike(cmd, ts.detail, () -> filter.getMaterialDetail());
+        EmpireUtils.addWhereLike(cmd, ts.field001, () -> filter.getMaterialField001());
+        EmpireUtils.addWhereLike(cmd, ts.issue, () -> filter.getMaterialIssue());
+        EmpireUtils.addWhereLike(cmd, ts.sigla, () -> filter.getMaterialSigla());
+        EmpireUtils.addWhereLikeIgnoreCase(cmd, ts.signature, () -> filter.getMaterialSignature());
+        EmpireUtils.addWhereLike(cmd, ts.volume, () -> filter.getMaterialVolume());
+        EmpireUtils.addWhereLike(cmd, ts.year, () -> filter.getMaterialYear());
+        EmpireUtils.addWhereLike(cmd, ts.edition, () -> filter.getMaterialEdition());
+        EmpireUtils.addWhereIs(cmd, tableJob.parentId, () -> filter.getParentId());
+        EmpireUtils.addWhereIs(cmd, tableJob.profileName, () -> filter.getProfileName());
+        EmpireUtils.addWhereIs(cmd, tableJob.state, () -> filter.getState() == null ? null : filter.getState().name());
+        EmpireUtils.addWhereIs(cmd, tableJob.ownerId, () -> filter.getUserId());
+        EmpireUtils.addWhereIs(cmd, tableJob.priority, () -> filter.getPriority());
+        EmpireUtils.addWhereLike(cmd, ts.taskName, () -> filter.getTaskName());
+        EmpireUtils.addWhereDate(cmd, db.tableWorkflowJob.timestamp, filter.getTaskDate());
+        EmpireUtils.addWhereIs(cmd, ts.taskUser, () -> filter.getTaskUser());
+        EmpireUtils.addWhereLike(cmd, ts.rawPath, () -> filter.getRawPath());
+        EmpireUtils.addWhereLike(cmd, ts.pid, () -> filter.getPid());
+
+        EmpireUtils.addWhereDate(cmd, tableJob.created, filter.getCreated());
+        EmpireUtils.addWhereDate(cmd, tableJob.timestamp, filter.getModified());
+
+        EmpireUtils.addOrderBy(cmd, filter.getSortBy(), tableJob.timestamp, true);
+
+        int offset = filter.getOffset();
+        Boolean descending = getTimestampOrder(filter.getSortBy());
+        if (descending != null) {
+            // the job ID makes the order unique so that pages do not overlap
+            cmd.orderBy(tableJob.id, descending);
+            Job after = filter.getAfterId() == null ? null : find(filter.getAfterId());
+            if (after != null) {
+                addWhereAfter(cmd, after, descending);
+                offset = 0;
+            }
+        }
+        offset = EmpireUtils.addLimit(cmd, offset, filter.getMaxCount());
+
+        DBReader reader = new DBReader();
+        try {
+            reader.open(cmd, getConnection());
+            if (!reader.skipRows(offset)) {
+                return Collections.emptyList();
+            }
+            ArrayList<JobView> viewItems = new ArrayList<JobView>(filter.getMaxCount());
+            for (Iterator<DBRecordData> it = reader.iterator(filter.getMaxCount()); it.hasNext();) {
+                DBRecordData rec = it.next();
+                JobView view = new JobView();
+                rec.getBeanProperties(view);
+                viewItems.add(view);
+            }
+            return viewItems;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Gets the direction of the job order.
+     *
+     * @return {@code null} if the jobs are not sorted by the timestamp
+     *          or {@code true} for the descending order
+     */
+    private Boolean getTimestampOrder(String sortBy) {
+        String timestamp = tableJob.timestamp.getBeanPropertyName();
+        if (sortBy == null || sortBy.equals('-' + timestamp)) {
+            return true;
+        } else if (sortBy.equals(timestamp)) {
+            return false;
+        }
+        return null;
+    }
+
+    /**
+     * Selects jobs following the job in the order of timestamps and IDs.
+     * The timestamp is passed as a parameter to keep its full precision.
+     */
+    private void addWhereAfter(DBCommand cmd, Job after, boolean descending) {
+        DBCmdParam timestamp = cmd.addParam(tableJob.timestamp, after.getTimestamp());
+        DBCmdParam sameTimestamp = cmd.addParam(tableJob.timestamp, after.getTimestamp());
+        DBCompareExpr next;
+        DBCompareExpr sameNext;
+        if (descending) {
+            next = tableJob.timestamp.isSmallerThan(timestamp);
+            sameNext = tableJob.timestamp.is(sameTimestamp).and(tableJob.id.isSmallerThan(after.getId()));
+        } else {
+            next = tableJob.timestamp.isGreaterThan(timestamp);
+            sameNext = tableJob.timestamp.is(sameTimestamp).and(tableJob.id.isGreaterThan(after.getId()));
+        }
+        cmd.where(next.or(sameNext));
+    }
+
+    @Override
+    public void updateSummary(BigDecimal jobId) {
+        if (jobId == null) {
+            throw new IllegalArgumentException("Unsupported missing jobId!");
+        }
+        Connection c = getConnection();
+        deleteSummary(jobId, c);
+        insertSummary(db, jobId, c);
+    }
+
+    private void deleteSummary(BigDecimal jobId, Connection c) {
+        DBCommand cmd = db.createCommand();
+        cmd.where(db.tableWorkflowJobSummary.jobId.is(jobId));
+        db.executeDelete(db.tableWorkflowJobSummary, cmd, c);
+    }
+
+    /**
+     * Resolves the physical document, the digital object, the raw scan folder
+     * and the last finished task of jobs and stores them as job summaries.
+     *
+     * @param jobId the job to summarize or {@code null} for all jobs
+     */
+    static void insertSummary(ProarcDatabase db, BigDecimal jobId, Connection c) {
+        final WorkflowJobTable tableJob = db.tableWorkflowJob;
+        final WorkflowJobSummaryTable ts = db.tableWorkflowJobSummary;
+        DBCommand cmd = db.createCommand();
+        cmd.select(tableJob.id);
         final ProarcDatabase.WorkflowPhysicalDocTable tpd = db.tableWorkflowPhysicalDoc;
         cmd.select(tpd.barcode, tpd.detail, tpd.field001, tpd.issue, tpd.sigla, tpd.signature, tpd.volume, tpd.year, tpd.edition);
-        //cmd.join(tableJob.ownerId, db.tableUser.id, DBJoinType.LEFT);
 
         DBCommand pmatCmd = db.createCommand();
         final DBColumnExpr pmatMaterialId = db.tableWorkflowMaterial.id.min().as(db.tableWorkflowMaterial.id);
@@ -110,6 +249,7 @@ public class EmpireWorkflowJobDao extends EmpireDao implements WorkflowJobDao {
         pmatCmd.join(db.tableWorkflowMaterial.id, db.tableWorkflowMaterialInTask.materialId);
         pmatCmd.join(db.tableWorkflowTask.id, db.tableWorkflowMaterialInTask.taskId);
         pmatCmd.where(db.tableWorkflowMaterial.type.is("PHYSICAL_DOCUMENT"));
+        EmpireUtils.addWhereIs(pmatCmd, db.tableWorkflowTask.jobId, () -> jobId);
         pmatCmd.groupBy(db.tableWorkflowTask.jobId);
         DBQuery pmatQuery = new DBQuery(pmatCmd);
 
@@ -129,6 +269,7 @@ public class EmpireWorkflowJobDao extends EmpireDao implements WorkflowJobDao {
         digObjCmd.join(db.tableWorkflowMaterial.id, db.tableWorkflowMaterialInTask.materialId);
         digObjCmd.join(db.tableWorkflowTask.id, db.tableWorkflowMaterialInTask.taskId);
         digObjCmd.where(db.tableWorkflowMaterial.type.is("DIGITAL_OBJECT"));
+        EmpireUtils.addWhereIs(digObjCmd, db.tableWorkflowTask.jobId, () -> jobId);
         digObjCmd.groupBy(db.tableWorkflowTask.jobId);
         DBQuery digObjQuery = new DBQuery(digObjCmd);
 
@@ -138,8 +279,7 @@ public class EmpireWorkflowJobDao extends EmpireDao implements WorkflowJobDao {
         cmd.join(tdo.materialId, doId, DBJoinType.RIGHT);
 
         final ProarcDatabase.WorkflowFolderTable twfR = db.tableWorkflowFolder;
-        final DBColumnExpr rawPath = twfR.path.as("raw_Path");
-        cmd.select(rawPath);
+        cmd.select(twfR.path);
 
         DBCommand rawCmd = db.createCommand();
         final DBColumnExpr rawMaterialId = db.tableWorkflowMaterial.id.min().as(db.tableWorkflowMaterial.id);
@@ -148,6 +288,7 @@ public class EmpireWorkflowJobDao extends EmpireDao implements WorkflowJobDao {
         rawCmd.join(db.tableWorkflowMaterial.id, db.tableWorkflowMaterialInTask.materialId);
         rawCmd.join(db.tableWorkflowTask.id, db.tableWorkflowMaterialInTask.taskId);
         rawCmd.where(db.tableWorkflowMaterial.name.is("material.folder.rawScan"));
+        EmpireUtils.addWhereIs(rawCmd, db.tableWorkflowTask.jobId, () -> jobId);
         rawCmd.groupBy(db.tableWorkflowTask.jobId);
         DBQuery rawQuery = new DBQuery(rawCmd);
 
@@ -158,16 +299,13 @@ public class EmpireWorkflowJobDao extends EmpireDao implements WorkflowJobDao {
 
 
         final ProarcDatabase.WorkflowTaskTable twTt = db.tableWorkflowTask;
-        final DBColumnExpr taskName = twTt.typeRef.as("task_Name");
-        final DBColumnExpr taskDate = twTt.timestamp.as("task_Date");
-        final DBColumnExpr taskUserId = twTt.ownerId.as("task_User");
-        cmd.select(taskName, taskDate, taskUserId);
+        cmd.select(twTt.typeRef, twTt.timestamp, twTt.ownerId);
         DBCommand taskCmd = db.createCommand();
         final DBColumnExpr taskExpression = db.tableWorkflowTask.id.max().as(db.tableWorkflowTask.id);
         taskCmd.select(taskExpression);
         taskCmd.select(db.tableWorkflowTask.jobId);
-//        taskCmd.join(db.tableWorkflowTask.jobId, db.tableWorkflowJob.id);
         taskCmd.where(db.tableWorkflowTask.state.is("FINISHED"));
+        EmpireUtils.addWhereIs(taskCmd, db.tableWorkflowTask.jobId, () -> jobId);
         taskCmd.groupBy(db.tableWorkflowTask.jobId);
         DBQuery taskQuery = new DBQuery(taskCmd);
         DBQuery.DBQueryColumn taskJobId = taskQuery.findQueryColumn(db.tableWorkflowTask.jobId);
@@ -175,78 +313,36 @@ public class EmpireWorkflowJobDao extends EmpireDao implements WorkflowJobDao {
         cmd.join(tableJob.id, taskJobId, DBJoinType.LEFT);
         cmd.join(twTt.id, taskId, DBJoinType.RIGHT);
 
+        EmpireUtils.addWhereIs(cmd, tableJob.id, () -> jobId);
 
-        final ProarcDatabase.UserTable tUsers = db.tableUser;
-        final DBColumnExpr taskUserName = tUsers.username.as("task_Username");
-        cmd.select(taskUserName);
-        cmd.join(taskUserId, db.tableUser.id, DBJoinType.LEFT);
-
-        if (filter.getIds() != null) {
-            EmpireUtils.addWhereIsIn(cmd, tableJob.id, filter.getIds());
-        } else {
-            EmpireUtils.addWhereIs(cmd, tableJob.id, () -> filter.getId());
-        }
-        EmpireUtils.addWhereLikeIgnoreCase(cmd, tableJob.label, () -> filter.getLabel());
-        EmpireUtils.addWhereLike(cmd, tableJob.financed, () -> filter.getFinanced());
-        EmpireUtils.addWhereLike(cmd, tpd.barcode, () -> filter.getMaterialBarcode());
-        EmpireUtils.addWhereLike(cmd, tpd.detail, () -> filter.getMaterialDetail());
-        EmpireUtils.addWhereLike(cmd, tpd.field001, () -> filter.getMaterialField001());
-        EmpireUtils.addWhereLike(cmd, tpd.issue, () -> filter.getMaterialIssue());
-        EmpireUtils.addWhereLike(cmd, tpd.sigla, () -> filter.getMaterialSigla());
-        EmpireUtils.addWhereLikeIgnoreCase(cmd, tpd.signature, () -> filter.getMaterialSignature());
-        EmpireUtils.addWhereLike(cmd, tpd.volume, () -> filter.getMaterialVolume());
-        EmpireUtils.addWhereLike(cmd, tpd.year, () -> filter.getMaterialYear());
-        EmpireUtils.addWhereLike(cmd, tpd.edition, () -> filter.getMaterialEdition());
-        EmpireUtils.addWhereIs(cmd, tableJob.parentId, () -> filter.getParentId());
-        EmpireUtils.addWhereIs(cmd, tableJob.profileName, () -> filter.getProfileName());
-        EmpireUtils.addWhereIs(cmd, tableJob.state, () -> filter.getState() == null ? null : filter.getState().name());
-        EmpireUtils.addWhereIs(cmd, tableJob.ownerId, () -> filter.getUserId());
-        EmpireUtils.addWhereIs(cmd, tableJob.priority, () -> filter.getPriority());
-        EmpireUtils.addWhereLike(cmd, taskName, () -> filter.getTaskName());
-        EmpireUtils.addWhereDate(cmd, db.tableWorkflowJob.timestamp, filter.getTaskDate());
-        EmpireUtils.addWhereIs(cmd, taskUserId, () -> filter.getTaskUser());
-        EmpireUtils.addWhereLike(cmd, rawPath, () -> filter.getRawPath());
-        EmpireUtils.addWhereLike(cmd, tdo.pid, () -> filter.getPid());
-
-        EmpireUtils.addWhereDate(cmd, tableJob.created, filter.getCreated());
-        EmpireUtils.addWhereDate(cmd, tableJob.timestamp, filter.getModified());
-
-        EmpireUtils.addOrderBy(cmd, filter.getSortBy(), tableJob.timestamp, true);
-
-        DBReader reader = new DBReader();
-        try {
-            reader.open(cmd, getConnection());
-            if (!reader.skipRows(filter.getOffset())) {
-                return Collections.emptyList();
-            }
-            ArrayList<JobView> viewItems = new ArrayList<JobView>(filter.getMaxCount());
-            for (Iterator<DBRecordData> it = reader.iterator(filter.getMaxCount()); it.hasNext();) {
-                DBRecordData rec = it.next();
-                JobView view = new JobView();
-                rec.getBeanProperties(view);
-                viewItems.add(view);
-            }
-            return viewItems;
-        } finally {
-            reader.close();
-        }
+        List<DBColumnExpr> columns = Arrays.<DBColumnExpr>asList(ts.jobId,
+                ts.barcode, ts.detail, ts.field001, ts.issue, ts.sigla, ts.signature, ts.volume, ts.year, ts.edition,
+                ts.pid, ts.rawPath, ts.taskName, ts.taskDate, ts.taskUser);
+        db.executeSQL(cmd.getInsertInto(ts, columns), cmd.getParamValues(), c);
     }
 
     @Override
     public String getDevice(BigDecimal jobId) {
+        WorkflowTaskTable tableTask = db.tableWorkflowTask;
+        WorkflowParameterTable tableParam = db.tableWorkflowParameter;
+        // parameters keep the statement the same for all jobs so that it can be cached
+        DBCommand cmd = db.createCommand();
+        cmd.select(tableParam.value);
+        cmd.join(tableTask.id, tableParam.taskId);
+        cmd.where(tableTask.jobId.is(cmd.addParam(tableTask.jobId, jobId)));
+        cmd.where(tableTask.typeRef.is(cmd.addParam(tableTask.typeRef, "task.scan")));
+        cmd.where(tableParam.paramRef.is(cmd.addParam(tableParam.paramRef, "param.scan.scannerNew")));
         String device = "";
+        DBReader reader = new DBReader();
         try {
-            Connection connection = getConnection();
-            PreparedStatement SCANNER = connection.prepareStatement("select p1.value_string as device from proarc_wf_job j1 left join proarc_wf_task t1 on j1.id = t1.job_id left join proarc_wf_parameter p1 on t1.id = p1.task_id where t1.type_ref='task.scan' and p1.param_ref='param.scan.scannerNew' and j1.id = " + String.valueOf(jobId));
-            final ResultSet resultSet = SCANNER.executeQuery();
-            while(resultSet.next()) {
-                device = resultSet.getString("device");
+            reader.open(cmd, getConnection());
+            while (reader.moveNext()) {
+                device = reader.getString(tableParam.value);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         } finally {
-            return device;
+            reader.close();
         }
+        return device;
     }
 
     @Override
@@ -255,6 +351,7 @@ public class EmpireWorkflowJobDao extends EmpireDao implements WorkflowJobDao {
             throw new IllegalArgumentException("Unsupported missing jobId!");
         }
         Connection c = getConnection();
+        deleteSummary(jobId, c);
         DBCommand cmd = db.createCommand();
         cmd.where(db.tableWorkflowJob.id.is(jobId));
         db.executeDelete(db.tableWorkflowJob, cmd, c);
@@ -33,6 +33,7 @@ import org.apache.empire.db.DBColumn;
 import org.apache.empire.db.DBCommand;
 import org.apache.empire.db.DBDatabase;
 import org.apache.empire.db.DBDatabaseDriver;
+import org.apache.empire.db.DBIndex;
 import org.apache.empire.db.DBRecord;
 import org.apache.empire.db.DBRelation;
 import org.apache.empire.db.DBSQLScript;
@@ -42,7 +43,7 @@ import org.apache.empire.db.exceptions.QueryFailedException;
 import org.apache.empire.db.postgresql.DBDatabaseDriverPostgreSQL;
 
 /**
- * Database schema version 14. It adds user permission.
+ * Database schema version 18. It adds the summary of workflow jobs.
  *
  * <p><b>Warning:</b> declare sequence names the same way like PostgreSql
  * ({@code {tablename}_{column_name}_seq}).
@@ -54,7 +55,7 @@ public class ProarcDatabase extends DBDatabase {
     private static final long serialVersionUID = 1L;
     private static final Logger LOG = Logger.getLogger(ProarcDatabase.class.getName());
     /** the schema version */
-    public static final int VERSION = 17;
+    public static final int VERSION = 18;
 
     public final ProarcVersionTable tableProarcVersion = new ProarcVersionTable(this);
     public final BatchTable tableBatch = new BatchTable(this);
@@ -64,6 +65,7 @@ public class ProarcDatabase extends DBDatabase {
     public final GroupMemberTable tableGroupMember = new GroupMemberTable(this);
     public final GroupPermissionTable tableGroupPermission = new GroupPermissionTable(this);
     public final WorkflowJobTable tableWorkflowJob = new WorkflowJobTable(this);
+    public final WorkflowJobSummaryTable tableWorkflowJobSummary = new WorkflowJobSummaryTable(this);
     public final WorkflowTaskTable tableWorkflowTask = new WorkflowTaskTable(this);
     public final WorkflowMaterialInTaskTable tableWorkflowMaterialInTask = new WorkflowMaterialInTaskTable(this);
     public final WorkflowParameterTable tableWorkflowParameter = new WorkflowParameterTable(this);
@@ -326,6 +328,8 @@ public class ProarcDatabase extends DBDatabase {
         public final DBTableColumn state;
         public final DBTableColumn model;
         public final DBTableColumn timestamp;
+        /** The default order of job views. */
+        public final DBIndex timestampIndex;
 
         public WorkflowJobTable(DBDatabase db) {
             super("PROARC_WF_JOB", db);
@@ -344,11 +348,60 @@ public class ProarcDatabase extends DBDatabase {
             created = addColumn("CREATED", DataType.DATETIME, 0, true);
             timestamp = addTimestampColumn("TIMESTAMP");
             setPrimaryKey(id);
+            timestampIndex = addIndex(String.format("%s_TIMESTAMP_IDX", getName()), false, new DBColumn[] { timestamp, id });
 //            addIndex(String.format("%s_IDX", getName()), false, new DBColumn[] {
 //                ownerId, created, timestamp, state, priority, financed });
         }
     }
 
+    /**
+     * Columns of job views resolved from tasks and materials of jobs.
+     * The rows are derived data; they are replaced whenever tasks or materials
+     * of the job change.
+     */
+    public static final class WorkflowJobSummaryTable extends EnhancedDBTable {
+
+        private static final long serialVersionUID = 1L;
+        public final DBTableColumn jobId;
+        public final DBTableColumn barcode;
+        public final DBTableColumn detail;
+        public final DBTableColumn field001;
+        public final DBTableColumn issue;
+        public final DBTableColumn sigla;
+        public final DBTableColumn signature;
+        public final DBTableColumn volume;
+        public final DBTableColumn year;
+        public final DBTableColumn edition;
+        /** PID of the digital object. */
+        public final DBTableColumn pid;
+        /** The path of the raw scan folder. */
+        public final DBTableColumn rawPath;
+        /** The last finished task. */
+        public final DBTableColumn taskName;
+        public final DBTableColumn taskDate;
+        public final DBTableColumn taskUser;
+
+        public WorkflowJobSummaryTable(DBDatabase db) {
+            super("PROARC_WF_JOB_SUMMARY", db);
+            jobId = addColumn("JOB_ID", DataType.INTEGER, 0, true);
+            barcode = addColumn("BARCODE", DataType.TEXT, 100, false);
+            detail = addColumn("DETAIL", DataType.TEXT, 200, false);
+            field001 = addColumn("FIELD001", DataType.TEXT, 100, false);
+            issue = addColumn("ISSUE", DataType.TEXT, 100, false);
+            sigla = addColumn("SIGLA", DataType.TEXT, 6, false);
+            signature = addColumn("SIGNATURE", DataType.TEXT, 2000, false);
+            volume = addColumn("VOLUME", DataType.TEXT, 100, false);
+            year = addColumn("YEAR", DataType.TEXT, 100, false);
+            edition = addColumn("EDITION", DataType.TEXT, 2000, false);
+            pid = addColumn("PID", DataType.TEXT, 100, false);
+            rawPath = addColumn("RAW_PATH", DataType.TEXT, 2000, false);
+            taskName = addColumn("TASK_NAME", DataType.TEXT, 500, false);
+            taskDate = addColumn("TASK_DATE", DataType.DATETIME, 0, false);
+            taskUser = addColumn("TASK_USER", DataType.INTEGER, 0, false);
+            setPrimaryKey(jobId);
+        }
+    }
+
     public static final class WorkflowTaskTable extends EnhancedDBTable {
 
         private static final long serialVersionUID = 1L;
@@ -559,7 +612,7 @@ public class ProarcDatabase extends DBDatabase {
             int schemaVersion = schemaExists(this, conn);
             if (schemaVersion > 0) {
                 LOG.log(Level.INFO, "Upgrading ProArc schema from version " + schemaVersion + ".");
-                schemaVersion = ProarcDatabaseV16.upgradeToVersion17(
+                schemaVersion = ProarcDatabaseV17.upgradeToVersion18(
                         schemaVersion, this, conn, conf);
                 if (schemaVersion != VERSION) {
                     throw new SQLException("Invalid schema version " + schemaVersion);
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.dao.empiredb;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects times spent by waiting for connections of the pool
+ * and by running SQL statements.
+ *
+ * <p>Statements running longer than {@link #getSlowThreshold() the threshold}
+ * are logged as warnings. All statements are logged with level {@code FINE}.
+ */
+public final class SqlStatistics {
+
+    private static final Logger LOG = Logger.getLogger(SqlStatistics.class.getName());
+
+    public static final long DEFAULT_SLOW_THRESHOLD = 1000;
+
+    private static final SqlStatistics DEFAULT = new SqlStatistics();
+
+    private final Counter connections = new Counter();
+    private final Counter statements = new Counter();
+    private final LongAdder batchedRows = new LongAdder();
+    private volatile long slowThreshold = DEFAULT_SLOW_THRESHOLD;
+
+    /**
+     * Gets statistics of the application database.
+     */
+    public static SqlStatistics getDefault() {
+        return DEFAULT;
+    }
+
+    SqlStatistics() {
+    }
+
+    /**
+     * Records a connection taken from the pool.
+     *
+     * @param nanos the time spent by waiting for the connection
+     */
+    public void addConnection(long nanos) {
+        connections.add(nanos);
+        if (nanos >= TimeUnit.MILLISECONDS.toNanos(slowThreshold)) {
+            LOG.log(Level.WARNING, "Waited {0} ms for a connection.", TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+    }
+
+    /**
+     * Records an executed statement.
+     *
+     * @param sql the statement
+     * @param nanos the time spent by running the statement
+     */
+    public void addStatement(String sql, long nanos) {
+        statements.add(nanos);
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (millis >= slowThreshold) {
+            LOG.log(Level.WARNING, "Slow SQL ({0} ms): {1}", new Object[]{millis, sql});
+        } else if (LOG.isLoggable(Level.FINE)) {
+            LOG.log(Level.FINE, "SQL ({0} ms): {1}", new Object[]{millis, sql});
+        }
+    }
+
+    /**
+     * Records a batch of rows executed by a single statement.
+     */
+    public void addBatch(String sql, int rows, long nanos) {
+        batchedRows.add(rows);
+        addStatement(sql, nanos);
+    }
+
+    public long getConnectionCount() {
+        return connections.count.sum();
+    }
+
+    /**
+     * @return the total time in milliseconds spent by waiting for connections
+     */
+    public long getConnectionTime() {
+        return TimeUnit.NANOSECONDS.toMillis(connections.time.sum());
+    }
+
+    /**
+     * @return the longest wait for a connection in milliseconds
+     */
+    public long getMaxConnectionTime() {
+        return TimeUnit.NANOSECONDS.toMillis(connections.max.get());
+    }
+
+    public long getStatementCount() {
+        return statements.count.sum();
+    }
+
+    /**
+     * @return the total time in milliseconds spent by running statements
+     */
+    public long getStatementTime() {
+        return TimeUnit.NANOSECONDS.toMillis(statements.time.sum());
+    }
+
+    /**
+     * @return the longest statement run in milliseconds
+     */
+    public long getMaxStatementTime() {
+        return TimeUnit.NANOSECONDS.toMillis(statements.max.get());
+    }
+
+    public long getBatchedRows() {
+        return batchedRows.sum();
+    }
+
+    /**
+     * @return the time in milliseconds after which statements are logged as slow
+     */
+    public long getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    public void setSlowThreshold(long millis) {
+        this.slowThreshold = millis;
+    }
+
+    @Override
+    public String toString() {
+        return "SqlStatistics{"
+                + "connections=" + getConnectionCount()
+                + ", connectionTime=" + getConnectionTime()
+                + ", maxConnectionTime=" + getMaxConnectionTime()
+                + ", statements=" + getStatementCount()
+                + ", statementTime=" + getStatementTime()
+                + ", maxStatementTime=" + getMaxStatementTime()
+                + ", batchedRows=" + getBatchedRows()
+                + '}';
+    }
+
+    private static final class Counter {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder time = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void add(long nanos) {
+            count.increment();
+            time.add(nanos);
+            max.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+}
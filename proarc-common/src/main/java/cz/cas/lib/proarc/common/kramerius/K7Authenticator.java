@@ -21,12 +21,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
-import org.apache.http.client.HttpClient;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
@@ -56,7 +54,6 @@ public class K7Authenticator {
 
         LOG.info("Trying to authenticate " + loginUrl);
 
-        HttpClient httpClient = HttpClients.createDefault();
         HttpPost httpPost = new HttpPost(loginUrl);
 
         List<NameValuePair> params = new ArrayList<>();
@@ -72,46 +69,47 @@ public class K7Authenticator {
 
         httpPost.setEntity(new UrlEncodedFormEntity(params, "UTF-8"));
 
-        HttpResponse response = httpClient.execute(httpPost);
-        if (HTTP_OK == response.getStatusLine().getStatusCode()) {
-            HttpEntity entity = response.getEntity();
-            if (entity != null) {
-                String result = EntityUtils.toString(response.getEntity());
-                if (result.startsWith("{")) {
-                    JSONObject jsonObject = new JSONObject(result);
-                    String token = jsonObject.optString("access_token");
-                    if (token != null || !token.isEmpty()) {
-                        LOG.info("Connected to Kramerius and get token");
-                        LOG.fine("Connected to Kramerius and get token " + token);
-                        return token;
-                    } else {
-                        LOG.severe("Connected to Kramerius but access_token is null");
-                    }
-                } else if (result.startsWith("[")){
-                    JSONArray jsonArray = new JSONArray(result);
-                    for (int i = 0; i < jsonArray.length(); i++) {
-                        JSONObject jsonObject = jsonArray.getJSONObject(i);
+        try (CloseableHttpResponse response = KrameriusHttpClients.get(instance).execute(httpPost)) {
+            if (HTTP_OK == response.getStatusLine().getStatusCode()) {
+                HttpEntity entity = response.getEntity();
+                if (entity != null) {
+                    String result = EntityUtils.toString(response.getEntity());
+                    if (result.startsWith("{")) {
+                        JSONObject jsonObject = new JSONObject(result);
                         String token = jsonObject.optString("access_token");
                         if (token != null || !token.isEmpty()) {
+                            LOG.info("Connected to Kramerius and get token");
                             LOG.fine("Connected to Kramerius and get token " + token);
                             return token;
                         } else {
                             LOG.severe("Connected to Kramerius but access_token is null");
                         }
+                    } else if (result.startsWith("[")){
+                        JSONArray jsonArray = new JSONArray(result);
+                        for (int i = 0; i < jsonArray.length(); i++) {
+                            JSONObject jsonObject = jsonArray.getJSONObject(i);
+                            String token = jsonObject.optString("access_token");
+                            if (token != null || !token.isEmpty()) {
+                                LOG.fine("Connected to Kramerius and get token " + token);
+                                return token;
+                            } else {
+                                LOG.severe("Connected to Kramerius but access_token is null");
+                            }
+                        }
+                    } else {
+                        LOG.severe("Connected to Kramerius but can not found access_token");
+                        throw new IOException("Connected to Kramerius but can not found access_token");
                     }
                 } else {
-                    LOG.severe("Connected to Kramerius but can not found access_token");
-                    throw new IOException("Connected to Kramerius but can not found access_token");
+                    LOG.severe("Connected to Kramerius but entity is null");
+                    throw new IOException("Connected to Kramerius but entity is null");
                 }
+                LOG.severe("Connected to Kramerius but access_token is null");
+                throw new IOException("Connected to Kramerius but access_token is null");
             } else {
-                LOG.severe("Connected to Kramerius but entity is null");
-                throw new IOException("Connected to Kramerius but entity is null");
+                LOG.severe("Connecing to Kramerius ended with code " + response.getStatusLine().getStatusCode());
+                throw new IOException("Connecing to Kramerius ended with code " + response.getStatusLine().getStatusCode());
             }
-            LOG.severe("Connected to Kramerius but access_token is null");
-            throw new IOException("Connected to Kramerius but access_token is null");
-        } else {
-            LOG.severe("Connecing to Kramerius ended with code " + response.getStatusLine().getStatusCode());
-            throw new IOException("Connecing to Kramerius ended with code " + response.getStatusLine().getStatusCode());
         }
     }
 }
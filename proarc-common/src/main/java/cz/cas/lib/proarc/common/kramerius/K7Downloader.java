@@ -21,14 +21,23 @@ import cz.cas.lib.proarc.common.process.export.mets.MetsUtils;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.client.methods.HttpHead;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.util.EntityUtils;
 import org.codehaus.jettison.json.JSONException;
@@ -53,7 +62,6 @@ public class K7Downloader {
         String downloadFoxmlUrl = instance.getUrl() + instance.getUrlDownloadFoxml() + krameriusPid + "/foxml";
         LOG.info("Trying to download FOXML from " + downloadFoxmlUrl);
 
-        HttpClient httpClient = HttpClients.createDefault();
         HttpGet httpGet = new HttpGet(downloadFoxmlUrl);
 
         httpGet.setHeader(new BasicHeader("Keep-Alive", "timeout=600, max=1000"));
@@ -63,41 +71,170 @@ public class K7Downloader {
         httpGet.setHeader(new BasicHeader("Connection", "Keep-Alive, Upgrade"));
         httpGet.setHeader(new BasicHeader("Accept-Language", "cs,en;q=0.9,de;q=0.8,cs-CZ;q=0.7,sk;q=0.6"));
 
-        HttpResponse response = httpClient.execute(httpGet);
-        if (HTTP_OK == response.getStatusLine().getStatusCode()) {
-            HttpEntity entity = response.getEntity();
-            if (entity != null) {
-                String result = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
-                if (result != null && !result.isEmpty()) {
-                    return result;
+        try (CloseableHttpResponse response = KrameriusHttpClients.get(instance).execute(httpGet)) {
+            if (HTTP_OK == response.getStatusLine().getStatusCode()) {
+                HttpEntity entity = response.getEntity();
+                if (entity != null) {
+                    String result = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+                    if (result != null && !result.isEmpty()) {
+                        return result;
+                    } else {
+                        LOG.warning("Downloaded FOXML but result is null or empty");
+                        throw new IOException("Downloaded FOXML but result is null or empty");
+                    }
                 } else {
-                    LOG.warning("Downloaded FOXML but result is null or empty");
-                    throw new IOException("Downloaded FOXML but result is null or empty");
+                    LOG.warning("Downloaded FOXML but entity is null");
+                    throw new IOException("Downloaded FOXML but entity is null");
                 }
-            } else {
-                LOG.warning("Downloaded FOXML but entity is null");
-                throw new IOException("Downloaded FOXML but entity is null");
-            }
-        } else if (HTTP_INTERNAL_ERROR == response.getStatusLine().getStatusCode()) {
-            LOG.warning("Downloading FOXML ended with code " + response.getStatusLine().getStatusCode());
-            HttpEntity entity = response.getEntity();
-            if (entity != null) {
-                String result = EntityUtils.toString(response.getEntity());
-                if (result != null && !result.isEmpty()) {
-                    JSONObject object = new JSONObject(result);
-                    LOG.warning("Downloaded FOXML ended with code " + response.getStatusLine().getStatusCode() + " and reason is " + object.get("message"));
-                    throw new IOException("Downloaded FOXML ended with code " + response.getStatusLine().getStatusCode() + " and reason is " + object.get("message"));
+            } else if (HTTP_INTERNAL_ERROR == response.getStatusLine().getStatusCode()) {
+                LOG.warning("Downloading FOXML ended with code " + response.getStatusLine().getStatusCode());
+                HttpEntity entity = response.getEntity();
+                if (entity != null) {
+                    String result = EntityUtils.toString(response.getEntity());
+                    if (result != null && !result.isEmpty()) {
+                        JSONObject object = new JSONObject(result);
+                        LOG.warning("Downloaded FOXML ended with code " + response.getStatusLine().getStatusCode() + " and reason is " + object.get("message"));
+                        throw new IOException("Downloaded FOXML ended with code " + response.getStatusLine().getStatusCode() + " and reason is " + object.get("message"));
+                    } else {
+                        LOG.warning("Downloaded FOXML ended with code " + response.getStatusLine().getStatusCode() + " and the result is null");
+                        throw new IOException("Downloaded FOXML ended with code " + response.getStatusLine().getStatusCode() + " and the result is null");
+                    }
                 } else {
-                    LOG.warning("Downloaded FOXML ended with code " + response.getStatusLine().getStatusCode() + " and the result is null");
-                    throw new IOException("Downloaded FOXML ended with code " + response.getStatusLine().getStatusCode() + " and the result is null");
+                    LOG.warning("Downloaded FOXML ended with code " + response.getStatusLine().getStatusCode() + " and the entity is null");
+                    throw new IOException("Downloaded FOXML ended with code " + response.getStatusLine().getStatusCode() + " and the entity is null");
                 }
             } else {
-                LOG.warning("Downloaded FOXML ended with code " + response.getStatusLine().getStatusCode() + " and the entity is null");
-                throw new IOException("Downloaded FOXML ended with code " + response.getStatusLine().getStatusCode() + " and the entity is null");
+                LOG.warning("Downloading FOXML ended with code " + response.getStatusLine().getStatusCode());
+                throw new IOException("Downloading FOXML ended with code " + response.getStatusLine().getStatusCode());
+            }
+        }
+    }
+
+    /**
+     * Downloads the FOXML straight to the file. The file is replaced only when the download completes.
+     */
+    public void downloadFromK7(String krameriusPid, String token, File target) throws IOException {
+        download(getFoxmlUrl(krameriusPid), token, target);
+    }
+
+    /**
+     * Downloads the full image of the object straight to the file. The file is replaced only when the download completes.
+     */
+    public void downloadImageFromK7(String krameriusPid, String token, File target) throws IOException {
+        download(getImageUrl(krameriusPid), token, target);
+    }
+
+    /**
+     * Checks whether the file holds the current FOXML of the object.
+     */
+    public boolean isCurrentFoxml(String krameriusPid, String token, File target) {
+        return isCurrent(getFoxmlUrl(krameriusPid), token, target);
+    }
+
+    /**
+     * Checks whether the file holds the current full image of the object.
+     */
+    public boolean isCurrentImage(String krameriusPid, String token, File target) {
+        return isCurrent(getImageUrl(krameriusPid), token, target);
+    }
+
+    private String getFoxmlUrl(String krameriusPid) {
+        return instance.getUrl() + instance.getUrlDownloadFoxml() + krameriusPid + "/foxml";
+    }
+
+    private String getImageUrl(String krameriusPid) {
+        return instance.getUrl() + instance.getUrlImage() + krameriusPid + "/full/max/0/default.jpg";
+    }
+
+    /**
+     * Checks the completion marker of the file first, so that a resumed harvest
+     * trusts the files it has completed before. Otherwise it compares the size
+     * of the file with the Content-Length reported by Kramerius. The file is
+     * stale when Kramerius does not report the length, e.g. for chunked FOXML,
+     * or the request fails.
+     */
+    private boolean isCurrent(String url, String token, File target) {
+        if (!target.isFile()) {
+            return false;
+        }
+        if (isComplete(target)) {
+            return true;
+        }
+        HttpHead httpHead = new HttpHead(url);
+        if (token != null && !token.isEmpty()) {
+            httpHead.setHeader(new BasicHeader("Authorization", "Bearer " + token));
+        }
+        try (CloseableHttpResponse response = KrameriusHttpClients.get(instance).execute(httpHead)) {
+            Header length = response.getFirstHeader(HttpHeaders.CONTENT_LENGTH);
+            return HTTP_OK == response.getStatusLine().getStatusCode()
+                    && length != null && String.valueOf(target.length()).equals(length.getValue());
+        } catch (IOException ex) {
+            LOG.log(Level.FINE, "Cannot check " + url, ex);
+            return false;
+        }
+    }
+
+    private void download(String url, String token, File target) throws IOException {
+        LOG.fine("Trying to download " + url);
+
+        HttpGet httpGet = new HttpGet(url);
+
+        httpGet.setHeader(new BasicHeader("Keep-Alive", "timeout=600, max=1000"));
+        if (token != null && !token.isEmpty()) {
+            httpGet.setHeader(new BasicHeader("Authorization", "Bearer " + token));
+        }
+
+        try (CloseableHttpResponse response = KrameriusHttpClients.get(instance).execute(httpGet)) {
+            HttpEntity entity = response.getEntity();
+            if (HTTP_OK != response.getStatusLine().getStatusCode() || entity == null) {
+                EntityUtils.consume(entity);
+                LOG.warning("Downloading " + url + " ended with code " + response.getStatusLine().getStatusCode());
+                throw new IOException("Downloading " + url + " ended with code " + response.getStatusLine().getStatusCode());
+            }
+            File part = new File(target.getParentFile(), target.getName() + ".part");
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ex);
             }
-        } else {
-            LOG.warning("Downloading FOXML ended with code " + response.getStatusLine().getStatusCode());
-            throw new IOException("Downloading FOXML ended with code " + response.getStatusLine().getStatusCode());
+            try (OutputStream outputStream = new DigestOutputStream(new FileOutputStream(part), digest)) {
+                entity.writeTo(outputStream);
+            }
+            if (part.length() == 0) {
+                Files.deleteIfExists(part.toPath());
+                throw new IOException("Downloaded " + url + " but result is empty");
+            }
+            File marker = getCompletionMarker(target);
+            Files.deleteIfExists(marker.toPath());
+            Files.move(part.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            String completion = target.length() + " " + new String(Hex.encodeHex(digest.digest()));
+            Files.write(marker.toPath(), completion.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Gets the file with the size and MD5 checksum of the completed download.
+     */
+    static File getCompletionMarker(File target) {
+        return new File(target.getParentFile(), target.getName() + ".done");
+    }
+
+    /**
+     * Checks that the file was completely downloaded and not changed since.
+     */
+    static boolean isComplete(File target) {
+        File marker = getCompletionMarker(target);
+        if (!marker.isFile() || marker.lastModified() < target.lastModified()) {
+            return false;
+        }
+        try {
+            String completion = new String(Files.readAllBytes(marker.toPath()), StandardCharsets.UTF_8);
+            String[] values = completion.trim().split(" ");
+            return values.length == 2 && String.valueOf(target.length()).equals(values[0]);
+        } catch (IOException ex) {
+            LOG.log(Level.FINE, "Cannot read " + marker, ex);
+            return false;
         }
     }
 
@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.kramerius;
+
+import cz.cas.lib.proarc.common.config.AppConfiguration;
+import cz.cas.lib.proarc.common.process.export.Kramerius4Export;
+import cz.cas.lib.proarc.common.storage.relation.RelationResource;
+import cz.cas.lib.proarc.common.storage.relation.Relations;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.codehaus.jettison.json.JSONException;
+
+/**
+ * Downloads a tree of Kramerius 7 objects.
+ *
+ * <p>Starting with the root PID it downloads the FOXML of each object, reads
+ * the children from its RELS-EXT and continues with them. At most
+ * {@link KrameriusOptions.KrameriusInstance#getHarvestThreads()} objects are
+ * downloaded at once. Responses are written straight to the files used by
+ * {@link KUtils#getFile}. The objects whose file has the size reported by
+ * Kramerius are not downloaded again, so an interrupted harvest continues
+ * where it stopped.
+ */
+public class K7Harvester {
+
+    private static final Logger LOG = Logger.getLogger(K7Harvester.class.getName());
+
+    /** Relations of the Kramerius RELS-EXT that point to the children. */
+    static final Set<String> CHILD_RELATIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "hasPage", "hasVolume", "hasItem", "hasUnit", "hasIntCompPart", "hasSoundUnit", "hasTrack")));
+    /** The model of objects with an image. */
+    static final String MODEL_PAGE = "model:page";
+
+    private final AppConfiguration appConfig;
+    private final KrameriusOptions.KrameriusInstance instance;
+    private final boolean withImages;
+    private final K7Downloader downloader;
+    private final AtomicLong downloaded = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong images = new AtomicLong();
+    private final List<String> failed = Collections.synchronizedList(new ArrayList<String>());
+    private volatile String token;
+
+    /**
+     * @param withImages whether to download full images of pages
+     */
+    public K7Harvester(AppConfiguration appConfig, KrameriusOptions.KrameriusInstance instance, boolean withImages) {
+        this.appConfig = appConfig;
+        this.instance = instance;
+        this.withImages = withImages;
+        this.downloader = new K7Downloader(appConfig, instance);
+    }
+
+    /**
+     * Downloads the tree of the root object.
+     */
+    public Result harvest(String rootPid) throws IOException, JSONException, InterruptedException {
+        token = new K7Authenticator(instance).authenticate();
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(instance.getHarvestThreads());
+        try {
+            CompletionService<List<String>> completion = new ExecutorCompletionService<>(executor);
+            Set<String> visited = new HashSet<>();
+            visited.add(rootPid);
+            completion.submit(() -> harvestObject(rootPid));
+            for (int pending = 1; pending > 0; pending--) {
+                for (String child : getResult(completion)) {
+                    if (visited.add(child)) {
+                        completion.submit(() -> harvestObject(child));
+                        pending++;
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Result result = new Result(downloaded.get(), skipped.get(), images.get(), new ArrayList<>(failed),
+                System.currentTimeMillis() - start);
+        LOG.info("Harvested " + rootPid + " from " + instance.getId() + ": " + result);
+        return result;
+    }
+
+    private List<String> harvestObject(String pid) throws IOException {
+        try {
+            File foxml = KUtils.getFile(appConfig, instance.getId(), pid);
+            if (downloader.isCurrentFoxml(pid, token, foxml)) {
+                skipped.incrementAndGet();
+            } else {
+                download(pid, foxml, false);
+                downloaded.incrementAndGet();
+            }
+            ObjectRelations relations;
+            try (InputStream stream = new FileInputStream(foxml)) {
+                relations = readRelations(stream);
+            }
+            if (withImages && MODEL_PAGE.equals(relations.getModel())) {
+                File image = new File(foxml.getParentFile(), KUtils.getPidAsFile(pid) + ".jpg");
+                if (!downloader.isCurrentImage(pid, token, image)) {
+                    download(pid, image, true);
+                    images.incrementAndGet();
+                }
+            }
+            return relations.getChildren();
+        } catch (IOException | XMLStreamException | JSONException ex) {
+            LOG.log(Level.WARNING, "Cannot harvest " + pid, ex);
+            failed.add(pid);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Downloads the content. A failed download is repeated once with a new token
+     * as the token may expire during a long harvest.
+     */
+    private void download(String pid, File target, boolean image) throws IOException, JSONException {
+        String usedToken = token;
+        try {
+            download(pid, target, image, usedToken);
+        } catch (IOException ex) {
+            LOG.log(Level.FINE, "Repeating download of " + pid, ex);
+            download(pid, target, image, refreshToken(usedToken));
+        }
+    }
+
+    private void download(String pid, File target, boolean image, String token) throws IOException {
+        if (image) {
+            downloader.downloadImageFromK7(pid, token, target);
+        } else {
+            downloader.downloadFromK7(pid, token, target);
+        }
+    }
+
+    private synchronized String refreshToken(String expiredToken) throws IOException, JSONException {
+        if (expiredToken == null ? token == null : expiredToken.equals(token)) {
+            token = new K7Authenticator(instance).authenticate();
+        }
+        return token;
+    }
+
+    private static List<String> getResult(CompletionService<List<String>> completion) throws InterruptedException, IOException {
+        try {
+            return completion.take().get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Reads the model and the children from the RELS-EXT of a Kramerius FOXML.
+     */
+    static ObjectRelations readRelations(InputStream foxml) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XMLStreamReader reader = factory.createXMLStreamReader(foxml);
+        try {
+            String model = null;
+            List<String> children = new ArrayList<>();
+            int descriptionDepth = -1;
+            int depth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String ns = reader.getNamespaceURI();
+                    String name = reader.getLocalName();
+                    if (descriptionDepth < 0) {
+                        if (Relations.RDF_NS.equals(ns) && "Description".equals(name)) {
+                            descriptionDepth = depth;
+                        }
+                    } else if (depth == descriptionDepth + 1) {
+                        String resource = reader.getAttributeValue(Relations.RDF_NS, "resource");
+                        if (resource == null || resource.isEmpty()) {
+                            continue;
+                        }
+                        if (model == null && Relations.FEDORA_MODEL_NS.equals(ns) && "hasModel".equals(name)) {
+                            model = RelationResource.toPid(resource);
+                        } else if (Kramerius4Export.KRAMERIUS_RELATION_NS.equals(ns) && CHILD_RELATIONS.contains(name)) {
+                            children.add(RelationResource.toPid(resource));
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (depth == descriptionDepth) {
+                        // only the first RELS-EXT description
+                        break;
+                    }
+                    depth--;
+                }
+            }
+            return new ObjectRelations(model, children);
+        } finally {
+            reader.close();
+        }
+    }
+
+    static final class ObjectRelations {
+
+        private final String model;
+        private final List<String> children;
+
+        ObjectRelations(String model, List<String> children) {
+            this.model = model;
+            this.children = children;
+        }
+
+        String getModel() {
+            return model;
+        }
+
+        List<String> getChildren() {
+            return children;
+        }
+    }
+
+    /**
+     * The summary of a harvest.
+     */
+    public static final class Result {
+
+        private final long downloaded;
+        private final long skipped;
+        private final long images;
+        private final List<String> failed;
+        private final long time;
+
+        Result(long downloaded, long skipped, long images, List<String> failed, long time) {
+            this.downloaded = downloaded;
+            this.skipped = skipped;
+            this.images = images;
+            this.failed = failed;
+            this.time = time;
+        }
+
+        /** Number of downloaded FOXMLs. */
+        public long getDownloaded() {
+            return downloaded;
+        }
+
+        /** Number of current FOXMLs downloaded by a previous harvest. */
+        public long getSkipped() {
+            return skipped;
+        }
+
+        /** Number of downloaded images. */
+        public long getImages() {
+            return images;
+        }
+
+        /** PIDs of the objects that could not be harvested. */
+        public List<String> getFailed() {
+            return failed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("downloaded: %s, already downloaded: %s, images: %s, failed: %s, time: %s s",
+                    downloaded, skipped, images, failed.size(), time / 1000);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.kramerius;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.util.EntityUtils;
+import org.codehaus.jettison.json.JSONObject;
+
+import static cz.cas.lib.proarc.common.kramerius.KUtils.KRAMERIUS_BATCH_FAILED_V7;
+import static cz.cas.lib.proarc.common.kramerius.KUtils.KRAMERIUS_BATCH_PLANNED_V7;
+import static cz.cas.lib.proarc.common.kramerius.KUtils.KRAMERIUS_BATCH_RUNNING_V7;
+import static cz.cas.lib.proarc.common.kramerius.KUtils.KRAMERIUS_PROCESS_FINISHED;
+import static cz.cas.lib.proarc.common.kramerius.KUtils.KRAMERIUS_PROCESS_PLANNED;
+import static cz.cas.lib.proarc.common.kramerius.KUtils.KRAMERIUS_PROCESS_RUNNING;
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
+import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
+
+/**
+ * Tracks the state of Kramerius 7 processes.
+ *
+ * <p>The states are polled by scheduled tasks on a small pool, so nobody sleeps
+ * between two requests and a slow instance does not delay the others.
+ * The returned future completes when Kramerius finishes the process
+ * and its batch. Dependent actions should not run in the pool.
+ *
+ * <p>The authorization token is refreshed when it gets old or when
+ * Kramerius refuses it.
+ */
+public final class K7ProcessTracker {
+
+    private static final Logger LOG = Logger.getLogger(K7ProcessTracker.class.getName());
+
+    /** Number of forbidden responses accepted in a row, e.g. while the token is refreshed. */
+    private static final int MAX_FORBIDDEN_RESPONSES = 25;
+    /** Delay in seconds after a forbidden response. */
+    private static final int FORBIDDEN_DELAY = 30;
+    /** Age in ms after which the token is refreshed before the next request. */
+    static final long TOKEN_MAX_AGE = TimeUnit.MINUTES.toMillis(4);
+    private static final int THREAD_COUNT = 4;
+
+    private static final K7ProcessTracker INSTANCE = new K7ProcessTracker();
+
+    private final ScheduledExecutorService scheduler;
+    private final Set<Tracking> trackings = ConcurrentHashMap.newKeySet();
+
+    public static K7ProcessTracker getInstance() {
+        return INSTANCE;
+    }
+
+    K7ProcessTracker() {
+        this(THREAD_COUNT);
+    }
+
+    K7ProcessTracker(int threadCount) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(threadCount, r -> {
+            Thread thread = new Thread(r, "kramerius-process-tracker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts tracking of the process.
+     *
+     * @param processUuid ID of the Kramerius process
+     * @param token authorization token or {@code null}
+     * @return the final state of the process
+     */
+    public CompletableFuture<KUtils.ImportState> track(KrameriusOptions.KrameriusInstance instance, String processUuid, String token) {
+        return track(instance, processUuid, token, () -> new K7Authenticator(instance).authenticate());
+    }
+
+    /**
+     * @param authenticator gets a new token
+     */
+    CompletableFuture<KUtils.ImportState> track(KrameriusOptions.KrameriusInstance instance, String processUuid,
+            String token, Callable<String> authenticator) {
+
+        Tracking tracking = new Tracking(instance, processUuid, token, authenticator);
+        trackings.add(tracking);
+        tracking.future.whenComplete((state, ex) -> trackings.remove(tracking));
+        schedule(tracking, 0);
+        return tracking.future;
+    }
+
+    /**
+     * Stops the tracking. Unfinished futures complete exceptionally.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        for (Tracking tracking : trackings) {
+            tracking.future.completeExceptionally(new IOException("Tracking of Kramerius process " + tracking.processUuid + " stopped."));
+        }
+    }
+
+    static boolean isRunning(String state, String batchState) {
+        return state.equals(KRAMERIUS_PROCESS_PLANNED) || state.equals(KRAMERIUS_PROCESS_RUNNING)
+                || (state.equals(KRAMERIUS_PROCESS_FINISHED)
+                        && (batchState.equals(KRAMERIUS_BATCH_PLANNED_V7) || batchState.equals(KRAMERIUS_BATCH_RUNNING_V7)));
+    }
+
+    private void schedule(Tracking tracking, int delay) {
+        try {
+            scheduler.schedule(tracking, delay, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException ex) {
+            tracking.future.completeExceptionally(ex);
+        }
+    }
+
+    private final class Tracking implements Runnable {
+
+        private final KrameriusOptions.KrameriusInstance instance;
+        private final String processUuid;
+        private final Callable<String> authenticator;
+        private final CompletableFuture<KUtils.ImportState> future = new CompletableFuture<>();
+        private String token;
+        private long tokenTime = System.currentTimeMillis();
+        private String state = KRAMERIUS_PROCESS_PLANNED;
+        private String batchState = KRAMERIUS_BATCH_PLANNED_V7;
+        private int error403counter = 0;
+
+        Tracking(KrameriusOptions.KrameriusInstance instance, String processUuid, String token, Callable<String> authenticator) {
+            this.instance = instance;
+            this.processUuid = processUuid;
+            this.token = token;
+            this.authenticator = authenticator;
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                poll();
+            } catch (Exception ex) {
+                future.completeExceptionally(ex);
+            }
+        }
+
+        private void poll() throws Exception {
+            if (token != null && System.currentTimeMillis() - tokenTime >= TOKEN_MAX_AGE) {
+                refreshToken();
+            }
+            String processQueryUrl = instance.getUrl() + instance.getUrlStateQuery() + processUuid;
+            LOG.fine("Trying to get Kramerius process status " + processQueryUrl);
+
+            HttpGet httpGet = new HttpGet(processQueryUrl);
+            httpGet.setHeader(new BasicHeader("Connection", "keep-alive"));
+            if (token != null && !token.isEmpty()) {
+                httpGet.setHeader(new BasicHeader("Authorization", "Bearer " + token));
+            }
+            httpGet.setHeader(new BasicHeader("Content-Type", "application/json"));
+
+            try (CloseableHttpResponse response = KrameriusHttpClients.get(instance).execute(httpGet)) {
+                int statusCode = response.getStatusLine().getStatusCode();
+                if (statusCode < HTTP_BAD_REQUEST) {
+                    error403counter = 0;
+                    String result = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+                    JSONObject objectProcess = new JSONObject(result).getJSONObject("process");
+                    if (objectProcess != null) {
+                        state = objectProcess.getString("state");
+                    } else {
+                        throw new IOException("ProArc can not get state of process " + processUuid);
+                    }
+                    JSONObject objectBatch = new JSONObject(result).getJSONObject("batch");
+                    if (objectBatch != null) {
+                        batchState = objectBatch.getString("state");
+                    } else {
+                        throw new IOException("ProArc can not get state of batch " + processUuid);
+                    }
+                } else {
+                    EntityUtils.consume(response.getEntity());
+                    if ((statusCode == HTTP_FORBIDDEN || statusCode == HTTP_UNAUTHORIZED)
+                            && error403counter < MAX_FORBIDDEN_RESPONSES) {
+                        error403counter++;
+                        // the first refusal is likely an expired token, retry at once with a new one
+                        schedule(this, refreshToken() && error403counter == 1 ? 0 : FORBIDDEN_DELAY);
+                        return;
+                    }
+                    state = KRAMERIUS_BATCH_FAILED_V7;
+                }
+            }
+            if (isRunning(state, batchState)) {
+                schedule(this, instance.getStatePollInterval());
+            } else {
+                future.complete(new KUtils.ImportState(state, batchState));
+            }
+        }
+
+        /**
+         * @return {@code true} if a new token was obtained
+         */
+        private boolean refreshToken() {
+            tokenTime = System.currentTimeMillis();
+            try {
+                token = authenticator.call();
+                return true;
+            } catch (Exception ex) {
+                LOG.log(Level.WARNING, "Cannot refresh the token of " + instance.getId(), ex);
+                return false;
+            }
+        }
+    }
+}
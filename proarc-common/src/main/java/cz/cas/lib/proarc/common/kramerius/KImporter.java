@@ -19,6 +19,7 @@ package cz.cas.lib.proarc.common.kramerius;
 import cz.cas.lib.proarc.common.config.AppConfiguration;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 import org.codehaus.jettison.json.JSONException;
 
@@ -39,6 +40,43 @@ public class KImporter {
     }
 
     public KUtils.ImportState importToKramerius(File exportFolder, boolean updateExisting, String exportType, String policy, String license) throws JSONException, IOException, InterruptedException {
+        setPermissions(exportFolder);
+        String krameriusVersion = getVersion();
+        if (krameriusVersion.startsWith("7")) {
+            K7Importer k7Importer = new K7Importer(appConfig, instance);
+            return k7Importer.importToKramerius(exportFolder, updateExisting, exportType, policy, license);
+        } else if (krameriusVersion.startsWith("5")) {
+            K5Importer k5Importer = new K5Importer(appConfig, instance);
+            return k5Importer.importToKramerius(exportFolder, updateExisting, exportType, policy);
+        } else {
+            LOG.severe("Unknown kramerius version. Expected values are 5.x or 7.x");
+            throw new IOException("Unknown kramerius version \"" + instance.getVersion() + "\". Expected values are 5.x or 7.x");
+        }
+    }
+
+    /**
+     * Starts the import without waiting for its end. Kramerius 7 processes are
+     * tracked by {@link K7ProcessTracker}, Kramerius 5 imports still finish before
+     * the return.
+     *
+     * @return the final state of the import
+     */
+    public CompletableFuture<KUtils.ImportState> importToKrameriusAsync(File exportFolder, boolean updateExisting, String exportType, String policy, String license) throws JSONException, IOException, InterruptedException {
+        setPermissions(exportFolder);
+        String krameriusVersion = getVersion();
+        if (krameriusVersion.startsWith("7")) {
+            K7Importer k7Importer = new K7Importer(appConfig, instance);
+            return k7Importer.importToKrameriusAsync(exportFolder, updateExisting, exportType, policy, license);
+        } else if (krameriusVersion.startsWith("5")) {
+            K5Importer k5Importer = new K5Importer(appConfig, instance);
+            return CompletableFuture.completedFuture(k5Importer.importToKramerius(exportFolder, updateExisting, exportType, policy));
+        } else {
+            LOG.severe("Unknown kramerius version. Expected values are 5.x or 7.x");
+            throw new IOException("Unknown kramerius version \"" + instance.getVersion() + "\". Expected values are 5.x or 7.x");
+        }
+    }
+
+    private static void setPermissions(File exportFolder) {
         if (exportFolder != null && exportFolder.exists()) {
             Process process;
             try {
@@ -51,20 +89,13 @@ public class KImporter {
                 e.printStackTrace();
             }
         }
+    }
+
+    private String getVersion() {
         String krameriusVersion = instance.getVersion();
         if (krameriusVersion == null || krameriusVersion.isEmpty()) {
             LOG.severe("Kramerius have to set field \"version\".");
         }
-        krameriusVersion = krameriusVersion.replaceAll("[^0-9]", "");
-        if (krameriusVersion.startsWith("7")) {
-            K7Importer k7Importer = new K7Importer(appConfig, instance);
-            return k7Importer.importToKramerius(exportFolder, updateExisting, exportType, policy, license);
-        } else if (krameriusVersion.startsWith("5")) {
-            K5Importer k5Importer = new K5Importer(appConfig, instance);
-            return k5Importer.importToKramerius(exportFolder, updateExisting, exportType, policy);
-        } else {
-            LOG.severe("Unknown kramerius version. Expected values are 5.x or 7.x");
-            throw new IOException("Unknown kramerius version \"" + instance.getVersion() + "\". Expected values are 5.x or 7.x");
-        }
+        return krameriusVersion.replaceAll("[^0-9]", "");
     }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.kramerius;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+/**
+ * Shared HTTP clients of Kramerius instances.
+ *
+ * <p>Each instance gets a client with a pool of keep-alive connections limited
+ * by {@link KrameriusOptions.KrameriusInstance#getHttpMaxConnections()}. Callers
+ * must consume or close the response entities to return connections to the pool.
+ */
+public final class KrameriusHttpClients {
+
+    private static final Logger LOG = Logger.getLogger(KrameriusHttpClients.class.getName());
+
+    private static final Map<String, CloseableHttpClient> CLIENTS = new ConcurrentHashMap<>();
+
+    private KrameriusHttpClients() {
+    }
+
+    /**
+     * Gets the shared client of the instance.
+     */
+    public static CloseableHttpClient get(KrameriusOptions.KrameriusInstance instance) {
+        return CLIENTS.computeIfAbsent(instance.getId(), id -> create(instance));
+    }
+
+    /**
+     * Closes all clients and their connections.
+     */
+    public static void closeAll() {
+        List<String> ids = new ArrayList<>(CLIENTS.keySet());
+        for (String id : ids) {
+            CloseableHttpClient client = CLIENTS.remove(id);
+            if (client != null) {
+                try {
+                    client.close();
+                } catch (IOException ex) {
+                    LOG.log(Level.WARNING, "Cannot close HTTP client of " + id, ex);
+                }
+            }
+        }
+    }
+
+    private static CloseableHttpClient create(KrameriusOptions.KrameriusInstance instance) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(instance.getHttpMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(instance.getHttpMaxConnections());
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) TimeUnit.SECONDS.toMillis(instance.getHttpConnectTimeout()))
+                .setConnectionRequestTimeout((int) TimeUnit.SECONDS.toMillis(instance.getHttpConnectTimeout()))
+                .setSocketTimeout((int) TimeUnit.SECONDS.toMillis(instance.getHttpSocketTimeout()))
+                .build();
+        LOG.fine("Creating HTTP client of " + instance.getId() + " with " + instance.getHttpMaxConnections() + " connections.");
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(60L, TimeUnit.SECONDS)
+                .build();
+    }
+}
@@ -225,6 +225,11 @@ public class KrameriusOptions {
         static final String PROPERTY_DELETE_AFTER_IMPORT = "deleteAfterImport";
         static final String PROPERTY_UPLOAD_TO_CATALOG = "uploadToCatalog";
         static final String PROPERTY_PATH_TYPE = "pathType";
+        static final String PROPERTY_HTTP_MAX_CONNECTIONS = "httpMaxConnections";
+        static final String PROPERTY_HTTP_CONNECT_TIMEOUT = "httpConnectTimeout";
+        static final String PROPERTY_HTTP_SOCKET_TIMEOUT = "httpSocketTimeout";
+        static final String PROPERTY_STATE_POLL_INTERVAL = "statePollInterval";
+        static final String PROPERTY_HARVEST_THREADS = "harvestThreads";
 
         private final String id;
         private final Configuration config;
@@ -348,6 +353,41 @@ public class KrameriusOptions {
             return pathtype;
         }
 
+        /**
+         * Max number of pooled HTTP connections to the instance.
+         */
+        public int getHttpMaxConnections() {
+            return config.getInt(PROPERTY_HTTP_MAX_CONNECTIONS, 10);
+        }
+
+        /**
+         * Timeout in seconds to connect to the instance.
+         */
+        public int getHttpConnectTimeout() {
+            return config.getInt(PROPERTY_HTTP_CONNECT_TIMEOUT, 30);
+        }
+
+        /**
+         * Timeout in seconds to wait for data from the instance.
+         */
+        public int getHttpSocketTimeout() {
+            return config.getInt(PROPERTY_HTTP_SOCKET_TIMEOUT, 600);
+        }
+
+        /**
+         * Interval in seconds between two requests for the state of a Kramerius process.
+         */
+        public int getStatePollInterval() {
+            return config.getInt(PROPERTY_STATE_POLL_INTERVAL, 20);
+        }
+
+        /**
+         * Max number of objects downloaded at once while harvesting a tree.
+         */
+        public int getHarvestThreads() {
+            return config.getInt(PROPERTY_HARVEST_THREADS, 4);
+        }
+
         public List<KrameriusLicense> getLicenses() {
             if (KRAMERIUS_INSTANCE_LOCAL.equals(this.getId())) {
                 return null;
@@ -42,7 +42,6 @@ import cz.cas.lib.proarc.common.storage.relation.RelationEditor;
 import cz.cas.lib.proarc.common.process.imports.FileSet;
 import cz.cas.lib.proarc.common.process.imports.TiffAsJp2Importer;
 import cz.cas.lib.proarc.common.process.external.TiffToJpgConvert;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -50,17 +49,19 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.sql.Timestamp;
 import java.util.Date;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
-import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
 
 import org.apache.commons.configuration.Configuration;
@@ -101,6 +102,11 @@ public class DefaultDisseminationHandler implements DisseminationHandler {
 
     @Override
     public Response getDissemination(Request httpRequest) throws DigitalObjectException, DigitalObjectNotFoundException {
+        return getDissemination(httpRequest, null);
+    }
+
+    @Override
+    public Response getDissemination(Request httpRequest, HttpHeaders httpHeaders) throws DigitalObjectException, DigitalObjectNotFoundException {
         String pid = fobject.getPid();
         if (dsId == null) {
             return Response.ok(fobject.asText(), MediaType.TEXT_XML_TYPE)
@@ -119,10 +125,11 @@ public class DefaultDisseminationHandler implements DisseminationHandler {
             }
 
             Date lastModification = new Date(loader.getLastModified());
-            ResponseBuilder evaluatePreconditions = httpRequest == null
-                    ? null : httpRequest.evaluatePreconditions(lastModification);
-            if (evaluatePreconditions != null) {
-                return evaluatePreconditions.build();
+            StreamingDissemination streaming = new StreamingDissemination(httpRequest, httpHeaders);
+            EntityTag etag = StreamingDissemination.getEntityTag(loader.getProfile());
+            Response notModified = streaming.evaluatePreconditions(lastModification, etag);
+            if (notModified != null) {
+                return notModified;
             }
 
   /*          //transform jp2 or tiff to jpg
@@ -138,13 +145,12 @@ public class DefaultDisseminationHandler implements DisseminationHandler {
                 }
             } else {
 */
-            return Response.ok(entity, loader.getProfile().getDsMIME())
-                        .header("Content-Disposition", "inline; filename=\"" + entity.getName() + '"')
-                        .lastModified(lastModification).build();
+            return streaming.file(entity, loader.getProfile().getDsMIME(), lastModification, etag,
+                        "inline; filename=\"" + entity.getName() + '"');
 //            }
         } else if (fobject instanceof AkubraObject) {
             AkubraObject akubraObject = (AkubraObject) fobject;
-            return getResponse(akubraObject, dsId);
+            return getResponse(akubraObject, dsId, httpRequest, httpHeaders);
         } else if (fobject instanceof RemoteObject) {
             RemoteObject remote = (RemoteObject) fobject;
             return getResponse(remote, dsId);
@@ -153,6 +159,17 @@ public class DefaultDisseminationHandler implements DisseminationHandler {
     }
 
     public static Response getResponse(ProArcObject object, String dsId) throws DigitalObjectException {
+        return getResponse(object, dsId, null, null);
+    }
+
+    /**
+     * Gets contents of the datastream. Conditional and range requests
+     * are answered for Akubra objects.
+     *
+     * @param httpRequest {@code null} or request to manage cached contents
+     * @param httpHeaders {@code null} or headers with the requested range
+     */
+    public static Response getResponse(ProArcObject object, String dsId, Request httpRequest, HttpHeaders httpHeaders) throws DigitalObjectException {
         // This should limit fedora calls to 1.
         // XXX It works around FedoraClient.FedoraClient.getDatastreamDissemination that hides HTTP headers of the response.
         // Unfortunattely fedora does not return modification date as HTTP header
@@ -186,73 +203,56 @@ public class DefaultDisseminationHandler implements DisseminationHandler {
                     .build();
 //        }
         } else if (object instanceof AkubraObject) {
+            StreamingDissemination streaming = new StreamingDissemination(httpRequest, httpHeaders);
             if (DeviceRepository.DESCRIPTION_DS_ID.equals(dsId)) {
                 XmlStreamEditor editor = getMixDescriptionEditor(object);
-                InputStream inputStream = editor.readStream();
-                if (inputStream == null) {
-                    throw new DigitalObjectNotFoundException(pid, null, dsId, "no content", null);
-                }
                 Date lastModification = new Date(editor.getLastModified());
-                return Response.ok(inputStream, "text/xml").lastModified(lastModification).build();
-            } else if (MixEditor.RAW_ID.equals(dsId)) {
-                MixEditor editor = MixEditor.raw(object);
-                String mix = editor.readAsString();
-                if (mix == null) {
-                    throw new DigitalObjectNotFoundException(pid, null, dsId, "no content", null);
+                Response notModified = streaming.evaluatePreconditions(lastModification, null);
+                if (notModified != null) {
+                    return notModified;
                 }
-                InputStream inputStream = new ByteArrayInputStream(mix.getBytes());
-                Date lastModification = new Date(editor.getLastModified());
-                return Response.ok(inputStream, "text/xml").lastModified(lastModification).build();
-            } else if (MixEditor.NDK_ARCHIVAL_ID.equals(dsId)) {
-                MixEditor editor = MixEditor.ndkArchival(object);
-                String mix = editor.readAsString();
-                if (mix == null) {
+                InputStream inputStream = editor.readStream();
+                if (inputStream == null) {
                     throw new DigitalObjectNotFoundException(pid, null, dsId, "no content", null);
                 }
-                InputStream inputStream = new ByteArrayInputStream(mix.getBytes());
-                Date lastModification = new Date(editor.getLastModified());
                 return Response.ok(inputStream, "text/xml").lastModified(lastModification).build();
-            } else if (AesEditor.RAW_ID.equals(dsId)) {
-                AesEditor editor = AesEditor.raw(object);
-                String aes = editor.readAsString();
-                if (aes == null) {
-                    throw new DigitalObjectNotFoundException(pid, null, dsId, "no content", null);
-                }
-                InputStream inputStream = new ByteArrayInputStream(aes.getBytes());
+            } else if (MixEditor.RAW_ID.equals(dsId) || MixEditor.NDK_ARCHIVAL_ID.equals(dsId)) {
+                MixEditor editor = MixEditor.RAW_ID.equals(dsId) ? MixEditor.raw(object) : MixEditor.ndkArchival(object);
                 Date lastModification = new Date(editor.getLastModified());
-                return Response.ok(inputStream, "text/xml").lastModified(lastModification).build();
-            } else if (AesEditor.NDK_ARCHIVAL_ID.equals(dsId)) {
-                AesEditor editor = AesEditor.ndkArchival(object);
-                String aes = editor.readAsString();
-                if (aes == null) {
-                    throw new DigitalObjectNotFoundException(pid, null, dsId, "no content", null);
+                Response notModified = streaming.evaluatePreconditions(lastModification, null);
+                if (notModified != null) {
+                    return notModified;
                 }
-                InputStream inputStream = new ByteArrayInputStream(aes.getBytes());
+                return getXmlResponse(editor.readAsString(), lastModification, pid, dsId);
+            } else if (AesEditor.RAW_ID.equals(dsId) || AesEditor.NDK_ARCHIVAL_ID.equals(dsId)) {
+                AesEditor editor = AesEditor.RAW_ID.equals(dsId) ? AesEditor.raw(object) : AesEditor.ndkArchival(object);
                 Date lastModification = new Date(editor.getLastModified());
-                return Response.ok(inputStream, "text/xml").lastModified(lastModification).build();
-            } else if (CodingHistoryEditor.RAW_ID.equals(dsId)) {
-                CodingHistoryEditor editor = CodingHistoryEditor.raw(object);
-                String codingHistory = editor.readAsString();
-                if (codingHistory == null) {
-                    throw new DigitalObjectNotFoundException(pid, null, dsId, "no content", null);
+                Response notModified = streaming.evaluatePreconditions(lastModification, null);
+                if (notModified != null) {
+                    return notModified;
                 }
-                InputStream inputStream = new ByteArrayInputStream(codingHistory.getBytes());
+                return getXmlResponse(editor.readAsString(), lastModification, pid, dsId);
+            } else if (CodingHistoryEditor.RAW_ID.equals(dsId) || CodingHistoryEditor.NDK_ARCHIVAL_ID.equals(dsId)) {
+                CodingHistoryEditor editor = CodingHistoryEditor.RAW_ID.equals(dsId)
+                        ? CodingHistoryEditor.raw(object) : CodingHistoryEditor.ndkArchival(object);
                 Date lastModification = new Date(editor.getLastModified());
-                return Response.ok(inputStream, "text/xml").lastModified(lastModification).build();
-            } else if (CodingHistoryEditor.NDK_ARCHIVAL_ID.equals(dsId)) {
-                CodingHistoryEditor editor = CodingHistoryEditor.ndkArchival(object);
-                String codingHistory = editor.readAsString();
-                if (codingHistory == null) {
-                    throw new DigitalObjectNotFoundException(pid, null, dsId, "no content", null);
+                Response notModified = streaming.evaluatePreconditions(lastModification, null);
+                if (notModified != null) {
+                    return notModified;
                 }
-                InputStream inputStream = new ByteArrayInputStream(codingHistory.getBytes());
-                Date lastModification = new Date(editor.getLastModified());
-                return Response.ok(inputStream, "text/xml").lastModified(lastModification).build();
+                return getXmlResponse(editor.readAsString(), lastModification, pid, dsId);
             } else {
                 BinaryEditor loader = BinaryEditor.dissemination((AkubraObject) object, dsId);
                 if (loader == null) {
                     throw new DigitalObjectNotFoundException(pid, null, dsId, null, null);
                 }
+                DatastreamProfile profile = loader.getProfile();
+                Date lastModification = new Date(loader.getLastModified());
+                EntityTag etag = StreamingDissemination.getEntityTag(profile);
+                Response notModified = streaming.evaluatePreconditions(lastModification, etag);
+                if (notModified != null) {
+                    return notModified;
+                }
                 File entity = loader.read();
                 if (entity == null) {
                     //throw new DigitalObjectNotFoundException(pid, null, dsId, "no content", null);
@@ -263,28 +263,26 @@ public class DefaultDisseminationHandler implements DisseminationHandler {
                         }
                         throw new DigitalObjectNotFoundException(pid, null, dsId, "no content", null);
                     }
-                    Date lastModification = new Date(loader.getLastModified());
-//                ResponseBuilder evaluatePreconditions = httpRequest == null ? null : httpRequest.evaluatePreconditions(lastModification);
-//                if (evaluatePreconditions != null) {
-//                    return evaluatePreconditions.build();
-//                }
-                    return Response.ok(inputStream, loader.getProfile().getDsMIME()).lastModified(lastModification).build();
+                    // the size is recorded together with the checksum
+                    long size = etag != null && profile.getDsSize() != null ? profile.getDsSize().longValue() : -1;
+                    return streaming.stream(inputStream, size, profile.getDsMIME(), lastModification, etag);
                 }
-                Date lastModification = new Date(loader.getLastModified());
-//            ResponseBuilder evaluatePreconditions = httpRequest == null
-//                    ? null : httpRequest.evaluatePreconditions(lastModification);
-//            if (evaluatePreconditions != null) {
-//                return evaluatePreconditions.build();
-//            }
-                return Response.ok(entity, loader.getProfile().getDsMIME())
-                        .header("Content-Disposition", "inline; filename=\"" + entity.getName() + '"')
-                        .lastModified(lastModification).build();
+                return streaming.file(entity, profile.getDsMIME(), lastModification, etag,
+                        "inline; filename=\"" + entity.getName() + '"');
             }
         } else {
             throw new DigitalObjectException(pid, "Missing implementation for DefaultDisseminationHandler:getResponse.");
         }
     }
 
+    private static Response getXmlResponse(String xml, Date lastModification, String pid, String dsId) throws DigitalObjectNotFoundException {
+        if (xml == null) {
+            throw new DigitalObjectNotFoundException(pid, null, dsId, "no content", null);
+        }
+        // JAXB declares UTF-8
+        return Response.ok(xml.getBytes(StandardCharsets.UTF_8), "text/xml").lastModified(lastModification).build();
+    }
+
     private static byte[] convertToBrowserCompatible(InputStream entity, String dsId) throws IOException, AppConfigurationException {
         File inFile = File.createTempFile(String.valueOf(new Timestamp(System.currentTimeMillis())),".jp2");
 
@@ -48,6 +48,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.xml.transform.Source;
@@ -157,6 +158,11 @@ public class DerDesaPlugin implements DigitalObjectPlugin,
             return defaultHandler.getDissemination(httpRequest);
         }
 
+        @Override
+        public Response getDissemination(Request httpRequest, HttpHeaders httpHeaders) throws DigitalObjectException {
+            return defaultHandler.getDissemination(httpRequest, httpHeaders);
+        }
+
         @Override
         public void setDissemination(DisseminationInput input, Storage storageType, String message) throws DigitalObjectException {
             defaultHandler.setDissemination(input, storageType, message);
@@ -18,6 +18,7 @@ package cz.cas.lib.proarc.common.object;
 
 import cz.cas.lib.proarc.common.storage.DigitalObjectException;
 import cz.cas.lib.proarc.common.storage.Storage;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
@@ -34,6 +35,16 @@ public interface DisseminationHandler {
      */
     Response getDissemination(Request httpRequest) throws DigitalObjectException;
 
+    /**
+     * Gets contents as it is persisted. It may answer conditional
+     * and range requests.
+     * @param httpRequest {@code null} or request to manage cached contents.
+     * @param httpHeaders {@code null} or headers of the request with the requested range.
+     * @return contents
+     * @throws DigitalObjectException failure
+     */
+    Response getDissemination(Request httpRequest, HttpHeaders httpHeaders) throws DigitalObjectException;
+
     /**
      * Updates contents.
      * @param input contents
@@ -19,6 +19,7 @@ package cz.cas.lib.proarc.common.object;
 import cz.cas.lib.proarc.common.storage.DigitalObjectException;
 import cz.cas.lib.proarc.common.storage.ProArcObject;
 import cz.cas.lib.proarc.common.storage.Storage;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
@@ -42,6 +43,11 @@ public class ReadonlyDisseminationHandler implements DisseminationHandler {
         return DefaultDisseminationHandler.getResponse(object, dsId);
     }
 
+    @Override
+    public Response getDissemination(Request httpRequest, HttpHeaders httpHeaders) throws DigitalObjectException {
+        return DefaultDisseminationHandler.getResponse(object, dsId, httpRequest, httpHeaders);
+    }
+
     @Override
     public void setDissemination(DisseminationInput input, Storage storageType, String message) throws DigitalObjectException {
         throw new UnsupportedOperationException("Not supported.");
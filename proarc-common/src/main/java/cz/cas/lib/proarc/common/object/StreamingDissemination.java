@@ -0,0 +1,324 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.object;
+
+import com.yourmediashelf.fedora.generated.management.DatastreamProfile;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Builds responses with datastream contents.
+ *
+ * <p>Conditional requests are answered before the contents are opened.
+ * The strong entity tag is the checksum of the datastream, if the repository
+ * knows it. A single byte range of the contents is served on request
+ * so that clients can resume downloads and seek in audio.
+ *
+ * <p>File contents are copied by {@link FileChannel#transferTo}. The servlet
+ * output stream is not a channel, so the bytes still pass through a small
+ * buffer; it is not a zero-copy transfer.
+ */
+public final class StreamingDissemination {
+
+    static final String HEADER_ACCEPT_RANGES = "Accept-Ranges";
+    static final String HEADER_CONTENT_RANGE = "Content-Range";
+    static final String HEADER_RANGE = "Range";
+    static final String HEADER_IF_RANGE = "If-Range";
+
+    /** The requested range cannot be served. */
+    static final long[] UNSATISFIABLE = new long[0];
+
+    private final Request httpRequest;
+    private final HttpHeaders httpHeaders;
+
+    /**
+     * @param httpRequest {@code null} or request to manage cached contents
+     * @param httpHeaders {@code null} or headers with the requested range
+     */
+    public StreamingDissemination(Request httpRequest, HttpHeaders httpHeaders) {
+        this.httpRequest = httpRequest;
+        this.httpHeaders = httpHeaders;
+    }
+
+    /**
+     * Gets the strong entity tag of the datastream.
+     *
+     * @return the tag or {@code null} if the checksum is unknown
+     */
+    public static EntityTag getEntityTag(DatastreamProfile profile) {
+        String checksum = profile == null ? null : profile.getDsChecksum();
+        if (checksum == null || checksum.isEmpty() || "none".equalsIgnoreCase(checksum)) {
+            return null;
+        }
+        return new EntityTag(checksum);
+    }
+
+    /**
+     * Evaluates conditional headers of the request.
+     *
+     * @return the response to send instead of the contents or {@code null}
+     */
+    public Response evaluatePreconditions(Date lastModified, EntityTag etag) {
+        if (httpRequest == null) {
+            return null;
+        }
+        ResponseBuilder builder;
+        if (etag != null) {
+            builder = httpRequest.evaluatePreconditions(lastModified, etag);
+        } else {
+            builder = httpRequest.evaluatePreconditions(lastModified);
+        }
+        return builder == null ? null : builder.tag(etag).lastModified(lastModified).build();
+    }
+
+    /**
+     * Gets the response with contents of the file.
+     */
+    public Response file(File file, String mime, Date lastModified, EntityTag etag, String disposition) {
+        long size = file.length();
+        long[] range = getRange(size, lastModified, etag);
+        ResponseBuilder builder;
+        if (range == null) {
+            builder = whole(new FileOutput(file, 0, size), mime, size);
+        } else if (range == UNSATISFIABLE) {
+            return unsatisfiable(size);
+        } else {
+            builder = partial(new FileOutput(file, range[0], range[1] - range[0] + 1), mime, range, size);
+        }
+        if (disposition != null) {
+            builder.header("Content-Disposition", disposition);
+        }
+        return complete(builder, lastModified, etag);
+    }
+
+    /**
+     * Gets the response with contents of the stream.
+     *
+     * @param input the opened contents; it is closed by the response
+     * @param size the size of the contents or {@code -1} if unknown; ranges
+     *          are served only for a known size
+     */
+    public Response stream(InputStream input, long size, String mime, Date lastModified, EntityTag etag) {
+        long[] range = size < 0 ? null : getRange(size, lastModified, etag);
+        ResponseBuilder builder;
+        if (range == null && size >= 0 && input instanceof FileInputStream) {
+            builder = whole(new StreamOutput(input, 0, size), mime, size);
+        } else if (range == null) {
+            builder = Response.ok(input, mime);
+        } else if (range == UNSATISFIABLE) {
+            IOUtils.closeQuietly(input);
+            return unsatisfiable(size);
+        } else {
+            builder = partial(new StreamOutput(input, range[0], range[1] - range[0] + 1), mime, range, size);
+        }
+        if (size < 0) {
+            return builder.lastModified(lastModified).tag(etag).build();
+        }
+        return complete(builder, lastModified, etag);
+    }
+
+    private static ResponseBuilder whole(StreamingOutput output, String mime, long size) {
+        return Response.ok(output, mime)
+                .header(HttpHeaders.CONTENT_LENGTH, size);
+    }
+
+    private static ResponseBuilder partial(StreamingOutput output, String mime, long[] range, long size) {
+        return Response.status(Status.PARTIAL_CONTENT)
+                .entity(output)
+                .type(mime)
+                .header(HEADER_CONTENT_RANGE, "bytes " + range[0] + '-' + range[1] + '/' + size)
+                .header(HttpHeaders.CONTENT_LENGTH, range[1] - range[0] + 1);
+    }
+
+    private static Response complete(ResponseBuilder builder, Date lastModified, EntityTag etag) {
+        return builder.header(HEADER_ACCEPT_RANGES, "bytes")
+                .lastModified(lastModified)
+                .tag(etag)
+                .build();
+    }
+
+    private static Response unsatisfiable(long size) {
+        return Response.status(Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HEADER_CONTENT_RANGE, "bytes */" + size)
+                .build();
+    }
+
+    private long[] getRange(long size, Date lastModified, EntityTag etag) {
+        if (httpHeaders == null) {
+            return null;
+        }
+        String range = httpHeaders.getHeaderString(HEADER_RANGE);
+        if (range == null) {
+            return null;
+        }
+        String ifRange = httpHeaders.getHeaderString(HEADER_IF_RANGE);
+        if (ifRange != null && !matchesIfRange(ifRange, lastModified, etag)) {
+            return null;
+        }
+        return parseRange(range, size);
+    }
+
+    /**
+     * Checks whether the client has the current contents.
+     * Entity tags are compared strongly.
+     */
+    static boolean matchesIfRange(String ifRange, Date lastModified, EntityTag etag) {
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return etag != null && !ifRange.startsWith("W/") && ifRange.equals('"' + etag.getValue() + '"');
+        }
+        if (lastModified == null) {
+            return false;
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return date.toEpochSecond() == lastModified.getTime() / 1000;
+        } catch (DateTimeParseException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses the value of the Range header.
+     *
+     * @param range e.g. {@code bytes=0-499}, {@code bytes=500-} or {@code bytes=-500}
+     * @param size the size of the contents
+     * @return the first and the last position, {@link #UNSATISFIABLE}
+     *          or {@code null} to send the whole contents
+     */
+    static long[] parseRange(String range, long size) {
+        range = range.trim();
+        if (!range.startsWith("bytes=")) {
+            return null;
+        }
+        String spec = range.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0) {
+            // multiple ranges are not supported; the whole contents is a valid answer
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return UNSATISFIABLE;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                long lastValue = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                if (start < 0 || lastValue < start) {
+                    return null;
+                }
+                if (start >= size) {
+                    return UNSATISFIABLE;
+                }
+                end = Math.min(lastValue, size - 1);
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes a range of the file.
+     */
+    private static final class FileOutput implements StreamingOutput {
+
+        private final File file;
+        private final long start;
+        private final long length;
+
+        FileOutput(File file, long start, long length) {
+            this.file = file;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public void write(OutputStream output) throws IOException {
+            try (FileInputStream input = new FileInputStream(file)) {
+                transfer(input, output, start, length);
+            }
+        }
+    }
+
+    private static final class StreamOutput implements StreamingOutput {
+
+        private final InputStream input;
+        private final long start;
+        private final long length;
+
+        StreamOutput(InputStream input, long start, long length) {
+            this.input = input;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public void write(OutputStream output) throws IOException {
+            try {
+                if (input instanceof FileInputStream) {
+                    transfer((FileInputStream) input, output, start, length);
+                } else {
+                    IOUtils.copyLarge(input, output, start, length);
+                }
+            } finally {
+                input.close();
+            }
+        }
+    }
+
+    private static void transfer(FileInputStream input, OutputStream output, long start, long length) throws IOException {
+        FileChannel channel = input.getChannel();
+        WritableByteChannel target = Channels.newChannel(output);
+        long position = start;
+        long remaining = length;
+        while (remaining > 0) {
+            long count = channel.transferTo(position, remaining, target);
+            if (count <= 0) {
+                throw new IOException("Unexpected end of contents at " + position);
+            }
+            position += count;
+            remaining -= count;
+        }
+    }
+}
@@ -30,6 +30,7 @@ import cz.cas.lib.proarc.common.object.DisseminationInput;
 import cz.cas.lib.proarc.common.process.external.GenericExternalProcess;
 import java.io.File;
 import java.io.IOException;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
@@ -57,6 +58,11 @@ public class BornDigitalDisseminationHandler implements DisseminationHandler {
         return ddh.getDissemination(httpRequest);
     }
 
+    @Override
+    public Response getDissemination(Request httpRequest, HttpHeaders httpHeaders) throws DigitalObjectException {
+        return ddh.getDissemination(httpRequest, httpHeaders);
+    }
+
     @Override
     public void setDissemination(DisseminationInput input, Storage storagetype, String message) throws DigitalObjectException {
 //        MediaType mime = input.getMime();
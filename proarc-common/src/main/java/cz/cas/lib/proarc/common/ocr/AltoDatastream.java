@@ -22,14 +22,22 @@ import cz.cas.lib.proarc.common.storage.DigitalObjectException;
 import cz.cas.lib.proarc.common.storage.ProArcObject;
 import cz.cas.lib.proarc.common.storage.FoxmlUtils;
 import cz.cas.lib.proarc.common.storage.XmlStreamEditor;
+import cz.cas.lib.proarc.common.xml.SchemaRegistry;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import javax.xml.XMLConstants;
-import javax.xml.transform.stream.StreamSource;
+import java.util.logging.Logger;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import javax.xml.transform.stax.StAXSource;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
 
 import cz.cas.lib.proarc.common.process.imports.ImportProfile;
 import org.xml.sax.SAXException;
@@ -41,19 +49,29 @@ import org.xml.sax.SAXException;
  */
 public final class AltoDatastream {
 
+    private static final Logger LOG = Logger.getLogger(AltoDatastream.class.getName());
+
     public static final String ALTO_ID = "ALTO";
     public static final String ALTO_LABEL = "ALTO for this object";
     public static final String ALTO_FORMAT_URI = "http://www.loc.gov/standards/alto/ns-v2#";
-    private static Schema ALTO_SCHEMA;
+    public static final String ALTO_V3_NS = "http://www.loc.gov/standards/alto/ns-v3#";
     private static final String ALTO_SCHEMA_PATH_20 = "/xml/alto-v2.0.xsd";
     private static final String ALTO_SCHEMA_PATH_21 = "/xml/alto-v2.1.xsd";
     private static final String ALTO_SCHEMA_PATH_30 = "/xml/alto-v3.0.xsd";
     public static ImportProfile config;
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
 
     public AltoDatastream(ImportProfile config) {
         this.config = config;
     }
 
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        return factory;
+    }
+
     public static DatastreamProfile altoProfile() {
         return FoxmlUtils.managedProfile(ALTO_ID, ALTO_FORMAT_URI, ALTO_LABEL);
     }
@@ -67,12 +85,9 @@ public final class AltoDatastream {
      */
     public static void importAlto(ProArcObject fo, URI altoUri, String msg) throws DigitalObjectException {
         try {
-            if (!isAlto(altoUri)) {
-                throw new DigitalObjectException(fo.getPid(),
-                        String.format("%s: missing expected ALTO version: %s",
-                                altoUri.toASCIIString(), AltoDatastream.ALTO_FORMAT_URI),
-                        null);
-            }
+            Statistics statistics = validate(altoUri);
+            LOG.fine(String.format("%s: %s words, confidence %s",
+                    altoUri.toASCIIString(), statistics.getWordCount(), statistics.getConfidence()));
         } catch (Exception ex) {
             throw new DigitalObjectException(fo.getPid(), altoUri.toASCIIString(), ex);
         }
@@ -86,45 +101,100 @@ public final class AltoDatastream {
      * @throws IOException failure
      */
     static boolean isAlto(URI alto) throws IOException, SAXException {
-        return validSchema(getSchemas(), alto);
-        //getSchema().newValidator().validate(new StreamSource(alto.toASCIIString()));
+        validate(alto);
+        return true;
     }
 
-    private static boolean validSchema(List<Schema> schemas, URI alto) throws IOException, SAXException {
-        SAXException exception = new SAXException();
-
+    /**
+     * Validates the ALTO and collects its statistics in a single pass.
+     * The schema is chosen by the namespace of the root element unless
+     * the ALTO version is configured. ALTO 2.0 and 2.1 share the namespace;
+     * 2.0 is tried only if the content is not valid ALTO 2.1.
+     *
+     * @param alto URI
+     * @return statistics of the valid ALTO
+     * @throws SAXException invalid content
+     */
+    public static Statistics validate(URI alto) throws IOException, SAXException {
+        List<Schema> schemas;
+        String path = config == null ? null : getSchemaPath(config.getAltoFileVersion());
+        if (path != null) {
+            schemas = Collections.singletonList(getSchema(path));
+        } else {
+            String namespace = readNamespace(alto);
+            if (ALTO_V3_NS.equals(namespace)) {
+                schemas = Collections.singletonList(getSchema(ALTO_SCHEMA_PATH_30));
+            } else if (ALTO_FORMAT_URI.equals(namespace)) {
+                schemas = Arrays.asList(getSchema(ALTO_SCHEMA_PATH_21), getSchema(ALTO_SCHEMA_PATH_20));
+            } else {
+                throw new SAXException(String.format("%s: unsupported ALTO namespace: %s", alto, namespace));
+            }
+        }
+        SAXException exception = null;
         for (Schema schema : schemas) {
             try {
-                schema.newValidator().validate(new StreamSource(alto.toASCIIString()));
-                return true;
+                return validate(schema, alto);
             } catch (SAXException ex) {
                 exception = ex;
             }
         }
-        if (!exception.getMessage().isEmpty()) {
-            throw exception;
+        throw exception;
+    }
+
+    private static Statistics validate(Schema schema, URI alto) throws IOException, SAXException {
+        try (InputStream input = alto.toURL().openStream()) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(alto.toASCIIString(), input);
+            try {
+                StatisticsReader statisticsReader = new StatisticsReader(reader);
+                schema.newValidator().validate(new StAXSource(statisticsReader));
+                return statisticsReader.statistics;
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException ex) {
+            throw new SAXException(ex);
+        }
+    }
+
+    private static String readNamespace(URI alto) throws IOException, SAXException {
+        try (InputStream input = alto.toURL().openStream()) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(alto.toASCIIString(), input);
+            try {
+                reader.nextTag();
+                return reader.getNamespaceURI();
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException ex) {
+            throw new SAXException(ex);
+        }
+    }
+
+    private static String getSchemaPath(String version) {
+        if (version == null) {
+            return null;
+        }
+        switch (version) {
+            case "2.0":
+                return ALTO_SCHEMA_PATH_20;
+            case "2.1":
+                return ALTO_SCHEMA_PATH_21;
+            case "3.0":
+                return ALTO_SCHEMA_PATH_30;
+            default:
+                return null;
         }
-        return false;
+    }
+
+    private static Schema getSchema(String path) throws SAXException {
+        return SchemaRegistry.get(AltoDatastream.class.getResource(path), MetsLSResolver.getInstance());
     }
 
     public static List<Schema> getSchemas() throws SAXException {
         List<Schema> schema = new ArrayList<>();
-        SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        schemaFactory.setResourceResolver(MetsLSResolver.getInstance());
-        if (config != null) {
-            switch (config.getAltoFileVersion()) {
-                case "2.0":
-                    schema.add(schemaFactory.newSchema(AltoDatastream.class.getResource(ALTO_SCHEMA_PATH_20)));
-                    break;
-                case "2.1":
-                    schema.add(schemaFactory.newSchema(AltoDatastream.class.getResource(ALTO_SCHEMA_PATH_21)));
-                    break;
-                case "3.0":
-                    schema.add(schemaFactory.newSchema(AltoDatastream.class.getResource(ALTO_SCHEMA_PATH_30)));
-                    break;
-                default:
-                    schema.addAll(getSchemasList());
-            }
+        String path = config == null ? null : getSchemaPath(config.getAltoFileVersion());
+        if (path != null) {
+            schema.add(getSchema(path));
         } else {
             schema.addAll(getSchemasList());
         }
@@ -133,11 +203,65 @@ public final class AltoDatastream {
 
     public static List<Schema> getSchemasList() throws SAXException {
         List <Schema> schemas = new ArrayList<>();
-        SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        schemaFactory.setResourceResolver(MetsLSResolver.getInstance());
-        schemas.add(schemaFactory.newSchema(AltoDatastream.class.getResource(ALTO_SCHEMA_PATH_20)));
-        schemas.add(schemaFactory.newSchema(AltoDatastream.class.getResource(ALTO_SCHEMA_PATH_21)));
-        schemas.add(schemaFactory.newSchema(AltoDatastream.class.getResource(ALTO_SCHEMA_PATH_30)));
+        schemas.add(getSchema(ALTO_SCHEMA_PATH_20));
+        schemas.add(getSchema(ALTO_SCHEMA_PATH_21));
+        schemas.add(getSchema(ALTO_SCHEMA_PATH_30));
         return schemas;
     }
+
+    /**
+     * Word statistics of an ALTO.
+     */
+    public static final class Statistics {
+
+        private int wordCount;
+        private int confidenceCount;
+        private double confidenceSum;
+
+        /**
+         * Gets the number of words (String elements).
+         */
+        public int getWordCount() {
+            return wordCount;
+        }
+
+        /**
+         * Gets the mean word confidence (WC attribute) in range 0-1.
+         *
+         * @return the confidence or {@code null} if no word declares it
+         */
+        public Double getConfidence() {
+            return confidenceCount == 0 ? null : confidenceSum / confidenceCount;
+        }
+    }
+
+    /**
+     * Collects statistics from the events read by the validator.
+     */
+    private static final class StatisticsReader extends StreamReaderDelegate {
+
+        private final Statistics statistics = new Statistics();
+
+        StatisticsReader(XMLStreamReader reader) {
+            super(reader);
+        }
+
+        @Override
+        public int next() throws XMLStreamException {
+            int event = super.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "String".equals(getLocalName())) {
+                statistics.wordCount++;
+                String wc = getAttributeValue(null, "WC");
+                if (wc != null) {
+                    try {
+                        statistics.confidenceSum += Double.parseDouble(wc.trim());
+                        statistics.confidenceCount++;
+                    } catch (NumberFormatException ex) {
+                        // the validator reports it
+                    }
+                }
+            }
+            return event;
+        }
+    }
 }
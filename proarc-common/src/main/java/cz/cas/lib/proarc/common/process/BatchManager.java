@@ -50,6 +50,7 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
@@ -533,31 +534,33 @@ public class BatchManager {
         BatchItemDao bitemDao = daos.createBatchItem();
         Transaction tx = daos.createTransaction();
         bitemDao.setTransaction(tx);
-        String filename = null;
+        List<String> filenames = new ArrayList<String>(files.size());
         try {
+            List<BatchItem> items = new ArrayList<BatchItem>(files.size());
             for (FileEntry file : files) {
-                filename = file.getFile().getName();
-                addFileItem(batchId, pid, state.name(), filename, bitemDao);
+                String filename = file.getFile().getName();
+                filenames.add(filename);
+                items.add(createFileItem(batchId, pid, state.name(), filename, bitemDao));
             }
+            bitemDao.insert(items);
             tx.commit();
         } catch (Throwable ex) {
             tx.rollback();
             throw new IllegalStateException(
-                    String.format("batch: %s, pid: %s, state: %s, file: %s", batchId, pid, state, filename),
+                    String.format("batch: %s, pid: %s, state: %s, files: %s", batchId, pid, state, filenames),
                     ex);
         } finally {
             tx.close();
         }
     }
 
-    private BatchItem addFileItem(int batchId, String pid, String state, String file, BatchItemDao bitemDao) {
+    private BatchItem createFileItem(int batchId, String pid, String state, String file, BatchItemDao bitemDao) {
         BatchItem bitem = bitemDao.create();
         bitem.setBatchId(batchId);
         bitem.setFile(file);
         bitem.setPid(pid);
         bitem.setState(state);
         bitem.setType(BatchItem.Type.FILE);
-        bitemDao.update(bitem);
         return bitem;
     }
 
@@ -636,7 +639,7 @@ public class BatchManager {
         return result;
     }
 
-    public boolean addChildRelation(Batch batch, String parentPid, String childPid) throws DigitalObjectException {
+    public synchronized boolean addChildRelation(Batch batch, String parentPid, String childPid) throws DigitalObjectException {
         if (batch == null) {
             throw new NullPointerException("batch");
         }
@@ -658,6 +661,39 @@ public class BatchManager {
         return true;
     }
 
+    /**
+     * Reorders members of the batch root. Listed PIDs go first in the given order,
+     * the other members keep their order.
+     *
+     * @param batch batch to update
+     * @param pids ordered PIDs
+     */
+    public synchronized void sortChildRelations(Batch batch, List<String> pids) throws DigitalObjectException {
+        if (batch == null) {
+            throw new NullPointerException("batch");
+        }
+        LocalObject rootObject = getRootObject(batch);
+        RelationEditor relationEditor = new RelationEditor(rootObject);
+        List<String> members = relationEditor.getMembers();
+        Set<String> memberSet = new HashSet<String>(members);
+        List<String> sorted = new ArrayList<String>(members.size());
+        for (String pid : pids) {
+            if (memberSet.remove(pid)) {
+                sorted.add(pid);
+            }
+        }
+        for (String member : members) {
+            if (memberSet.contains(member)) {
+                sorted.add(member);
+            }
+        }
+        if (!sorted.equals(members)) {
+            relationEditor.setMembers(sorted);
+            relationEditor.write(relationEditor.getLastModified(), null);
+            rootObject.flush();
+        }
+    }
+
     boolean removeChildRelation(Batch batch, String parentPid, Collection<String> childPid) throws DigitalObjectException {
         if (batch == null) {
             throw new NullPointerException("batch");
@@ -16,19 +16,21 @@
  */
 package cz.cas.lib.proarc.common.process;
 
+import cz.cas.lib.proarc.common.dao.Batch;
 import java.lang.Thread.UncaughtExceptionHandler;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.apache.commons.configuration.Configuration;
 
 /**
  * Dispatcher controls scheduling of {@link InternalExternalProcess}.
  *
- * For now it runs processes in single thread to preserve memory resources.
+ * By default it runs processes in single thread to preserve memory resources.
+ * See {@link ProcessScheduler} for the options.
  *
  * @author Lukas Sykora
  */
@@ -37,18 +39,31 @@ public final class InternalExternalDispatcher {
     private static final Logger LOG = Logger.getLogger(InternalExternalDispatcher.class.getName());
     private static InternalExternalDispatcher INSTANCE = new InternalExternalDispatcher();
 
-    private ExecutorService pool;
+    private ProcessScheduler pool;
     private final int threadCount;
+    private final Configuration limits;
 
     public InternalExternalDispatcher() {
         this(1);
     }
 
     InternalExternalDispatcher(int threadCount) {
+        this(threadCount, null);
+    }
+
+    /**
+     * @param limits thread limits of the {@link ProcessScheduler scheduler}
+     */
+    public InternalExternalDispatcher(Configuration limits) {
+        this(1, limits);
+    }
+
+    private InternalExternalDispatcher(int threadCount, Configuration limits) {
         if (threadCount < 1) {
             throw new IllegalArgumentException("threadCount: " + threadCount);
         }
         this.threadCount = threadCount;
+        this.limits = limits;
     }
 
     public static InternalExternalDispatcher getDefault() {
@@ -99,7 +114,15 @@ public final class InternalExternalDispatcher {
 
     <T extends Runnable> Future<T> addTask(T task) {
         checkRunning();
-        return pool.submit(new ExceptionHandlingTask(task), task);
+        Batch batch = task instanceof InternalExternalProcess ? ((InternalExternalProcess) task).getBatch() : null;
+        return pool.submit(new ExceptionHandlingTask(task), task, batch);
+    }
+
+    /**
+     * Gets queue depth and wait time statistics.
+     */
+    public ProcessScheduler.Metrics getMetrics() {
+        return pool == null ? null : pool.getMetrics();
     }
 
     private void checkRunning() {
@@ -117,9 +140,9 @@ public final class InternalExternalDispatcher {
         }
     }
 
-    private ExecutorService newThreadPool() {
-        ExecutorService executorService = Executors.newFixedThreadPool(threadCount, new InternalDispatcherThreadFactory());
-        return executorService;
+    private ProcessScheduler newThreadPool() {
+        return new ProcessScheduler(InternalExternalDispatcher.class.getSimpleName(), threadCount, limits,
+                new InternalDispatcherThreadFactory());
     }
 
     private static final class ExceptionHandlingTask implements Runnable {
@@ -20,10 +20,14 @@ import cz.cas.lib.proarc.common.config.AppConfiguration;
 import cz.cas.lib.proarc.common.dao.Batch;
 import cz.cas.lib.proarc.common.dao.BatchParams;
 import cz.cas.lib.proarc.common.dao.BatchUtils;
+import cz.cas.lib.proarc.common.kramerius.K7Harvester;
+import cz.cas.lib.proarc.common.kramerius.KrameriusOptions;
 import cz.cas.lib.proarc.common.process.export.ExportDispatcher;
 import cz.cas.lib.proarc.common.process.external.PdfaProcess;
 import cz.cas.lib.proarc.common.process.external.PeroProcess;
+import cz.cas.lib.proarc.common.process.internal.ReindexProcess;
 import cz.cas.lib.proarc.common.process.internal.ValidationProcess;
+import cz.cas.lib.proarc.common.storage.BinaryEditor;
 import cz.cas.lib.proarc.common.storage.akubra.AkubraConfiguration;
 import cz.cas.lib.proarc.common.user.UserManager;
 import cz.cas.lib.proarc.common.user.UserProfile;
@@ -63,6 +67,10 @@ public final class InternalExternalProcess implements Runnable {
         this.options = options;
     }
 
+    public Batch getBatch() {
+        return options.getBatch();
+    }
+
     /**
      * Prepares a new other process.
      * to run with {@link #start} immediately or later with {@link ExportDispatcher}.
@@ -122,6 +130,12 @@ public final class InternalExternalProcess implements Runnable {
                 case Batch.INTERNAL_VALIDATION:
                     batch = BatchUtils.startWaitingInternalBatch(batchManager, batch);
                     return validationProcess(batch, params);
+                case Batch.INTERNAL_FULL_REINDEX:
+                    batch = BatchUtils.startWaitingInternalBatch(batchManager, batch);
+                    return reindexProcess(batch);
+                case Batch.INTERNAL_KRAMERIUS_HARVEST:
+                    batch = BatchUtils.startWaitingInternalBatch(batchManager, batch);
+                    return harvestProcess(batch, params);
                 default:
                     return finishedInternalWithError(batchManager, batch, batch.getFolder(), new Exception("Unknown profile."));
             }
@@ -178,6 +192,41 @@ public final class InternalExternalProcess implements Runnable {
         }
     }
 
+    private Batch reindexProcess(Batch batch) {
+        try {
+            File checkpoint = new File(config.getConfigHome(), "reindex-" + batch.getId() + ".checkpoint");
+            ReindexProcess reindexProcess = new ReindexProcess(akubraConfiguration, checkpoint, progress -> {
+                batch.setLog(progress.toString());
+                batchManager.update(batch);
+            });
+            ReindexProcess.Progress result = reindexProcess.reindex();
+            return BatchUtils.finishedSuccessfully(batchManager, batch, batch.getFolder(), result.toString(), Batch.State.INTERNAL_DONE);
+        } catch (Exception ex) {
+            return finishedInternalWithError(this.batchManager, batch, batch.getFolder(), ex);
+        }
+    }
+
+    private Batch harvestProcess(Batch batch, BatchParams params) {
+        try {
+            KrameriusOptions.KrameriusInstance instance = KrameriusOptions.findKrameriusInstance(
+                    config.getKrameriusOptions().getKrameriusInstances(), params.getKrameriusInstanceId());
+            if (instance == null) {
+                throw new IOException("Unknown Kramerius instance " + params.getKrameriusInstanceId());
+            }
+            boolean withImages = params.getDsIds() != null && params.getDsIds().contains(BinaryEditor.FULL_ID);
+            K7Harvester harvester = new K7Harvester(config, instance, withImages);
+            K7Harvester.Result result = harvester.harvest(params.getPids().get(0));
+            if (result.getFailed().isEmpty()) {
+                return BatchUtils.finishedSuccessfully(batchManager, batch, batch.getFolder(), result.toString(), Batch.State.INTERNAL_DONE);
+            } else {
+                return finishedInternalWithError(this.batchManager, batch, batch.getFolder(),
+                        result + "\nFailed objects: " + result.getFailed());
+            }
+        } catch (Exception ex) {
+            return finishedInternalWithError(this.batchManager, batch, batch.getFolder(), ex);
+        }
+    }
+
     public static void resumeAll(BatchManager ibm, InternalExternalDispatcher dispatcher, AppConfiguration config, AkubraConfiguration akubraConfiguration) {
         List<Batch> batches2schedule = ibm.findWaitingInternalBatches();
         for (Batch batch : batches2schedule) {
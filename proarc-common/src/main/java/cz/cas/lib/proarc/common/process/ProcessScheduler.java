@@ -0,0 +1,359 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.process;
+
+import cz.cas.lib.proarc.common.dao.Batch;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+
+/**
+ * Schedules batch processes of a dispatcher.
+ *
+ * <p>The scheduler runs at most {@code threads} processes. A process waits
+ * while its profile runs {@code profile.threads.<profileId>} processes or
+ * its device runs {@code device.threads} processes. Among the waiting processes
+ * it picks the highest batch priority, then the user with fewer running
+ * processes and then the oldest batch.
+ *
+ * <p>The {@link #getMetrics() metrics} are logged with the first started process
+ * and then at most once per {@code metrics.interval}.
+ */
+public final class ProcessScheduler {
+
+    private static final Logger LOG = Logger.getLogger(ProcessScheduler.class.getName());
+
+    /** Max number of running processes. */
+    public static final String PROPERTY_THREADS = "threads";
+    /** Max number of running processes of a profile; the key is suffixed with the profile ID. */
+    public static final String PROPERTY_PROFILE_THREADS = "profile.threads.";
+    /** Max number of running processes of a device, 0 stands for no limit. */
+    public static final String PROPERTY_DEVICE_THREADS = "device.threads";
+    /** Min interval in seconds between logged metrics, 0 disables the logging. */
+    public static final String PROPERTY_METRICS_INTERVAL = "metrics.interval";
+    static final int DEFAULT_METRICS_INTERVAL = 600;
+
+    private final String name;
+    private final int threadCount;
+    private final Configuration limits;
+    private final ThreadPoolExecutor executor;
+    private final long metricsInterval;
+    private final List<Job<?>> pending = new ArrayList<>();
+    private final Map<String, Integer> runningProfiles = new HashMap<>();
+    private final Map<String, Integer> runningUsers = new HashMap<>();
+    private final Map<String, Integer> runningDevices = new HashMap<>();
+    private int running;
+    private long sequence;
+    private boolean shutdown;
+    private long startedCount;
+    private long totalWaitTime;
+    private long maxWaitTime;
+    private long lastMetricsLog;
+
+    /**
+     * @param name name used in logs
+     * @param threadCount default number of threads, overridden with {@link #PROPERTY_THREADS}
+     * @param limits configuration of limits or {@code null}
+     * @param threadFactory factory of worker threads
+     */
+    public ProcessScheduler(String name, int threadCount, Configuration limits, ThreadFactory threadFactory) {
+        this.name = name;
+        this.limits = limits == null ? new BaseConfiguration() : limits;
+        this.threadCount = this.limits.getInt(PROPERTY_THREADS, threadCount);
+        if (this.threadCount < 1) {
+            throw new IllegalArgumentException("threadCount: " + this.threadCount);
+        }
+        this.metricsInterval = TimeUnit.SECONDS.toMillis(
+                this.limits.getInt(PROPERTY_METRICS_INTERVAL, DEFAULT_METRICS_INTERVAL));
+        this.executor = new ThreadPoolExecutor(this.threadCount, this.threadCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), threadFactory);
+    }
+
+    /**
+     * Schedules the task of the batch.
+     *
+     * @param batch batch of the task or {@code null}
+     */
+    public <T> Future<T> submit(Runnable task, T result, Batch batch) {
+        Job<T> job = new Job<>(task, result, batch);
+        synchronized (this) {
+            if (shutdown) {
+                throw new RejectedExecutionException(name + " is shut down.");
+            }
+            job.sequence = sequence++;
+            pending.add(job);
+            dispatch();
+        }
+        return job;
+    }
+
+    /**
+     * Runs the pending processes and refuses new ones.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        terminateIfDone();
+    }
+
+    /**
+     * Cancels the pending processes and interrupts the running ones.
+     */
+    public synchronized void shutdownNow() {
+        shutdown = true;
+        for (Job<?> job : pending) {
+            job.cancel(false);
+        }
+        pending.clear();
+        executor.shutdownNow();
+    }
+
+    public synchronized boolean isShutdown() {
+        return shutdown;
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Gets a snapshot of the queue and wait time statistics.
+     */
+    public synchronized Metrics getMetrics() {
+        Map<String, Integer> queueDepths = new HashMap<>();
+        for (Job<?> job : pending) {
+            queueDepths.merge(String.valueOf(job.profile), 1, Integer::sum);
+        }
+        return new Metrics(pending.size(), queueDepths, running, startedCount,
+                startedCount == 0 ? 0 : totalWaitTime / startedCount, maxWaitTime);
+    }
+
+    private void dispatch() {
+        while (running < threadCount) {
+            Job<?> next = null;
+            for (Iterator<Job<?>> it = pending.iterator(); it.hasNext();) {
+                Job<?> job = it.next();
+                if (job.isCancelled()) {
+                    it.remove();
+                } else if (isRunnable(job) && (next == null || compare(job, next) < 0)) {
+                    next = job;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+            pending.remove(next);
+            start(next);
+        }
+    }
+
+    private boolean isRunnable(Job<?> job) {
+        if (job.profile != null
+                && get(runningProfiles, job.profile) >= limits.getInt(PROPERTY_PROFILE_THREADS + job.profile, threadCount)) {
+            return false;
+        }
+        int deviceLimit = limits.getInt(PROPERTY_DEVICE_THREADS, 0);
+        return job.device == null || deviceLimit <= 0 || get(runningDevices, job.device) < deviceLimit;
+    }
+
+    private int compare(Job<?> job1, Job<?> job2) {
+        if (job1.priority != job2.priority) {
+            return job1.priority > job2.priority ? -1 : 1;
+        }
+        int users1 = job1.user == null ? 0 : get(runningUsers, job1.user);
+        int users2 = job2.user == null ? 0 : get(runningUsers, job2.user);
+        if (users1 != users2) {
+            return users1 < users2 ? -1 : 1;
+        }
+        if (job1.created != job2.created) {
+            return job1.created < job2.created ? -1 : 1;
+        }
+        return Long.compare(job1.sequence, job2.sequence);
+    }
+
+    private void start(Job<?> job) {
+        long now = System.currentTimeMillis();
+        long waitTime = now - job.submitted;
+        running++;
+        increment(runningProfiles, job.profile, 1);
+        increment(runningUsers, job.user, 1);
+        increment(runningDevices, job.device, 1);
+        startedCount++;
+        totalWaitTime += waitTime;
+        maxWaitTime = Math.max(maxWaitTime, waitTime);
+        LOG.log(Level.FINE, "{0}: starting {1} after {2} ms, queue: {3}",
+                new Object[]{name, job.profile, waitTime, pending.size()});
+        if (metricsInterval > 0 && now - lastMetricsLog >= metricsInterval) {
+            lastMetricsLog = now;
+            LOG.log(Level.INFO, "{0}: {1}", new Object[]{name, getMetrics()});
+        }
+        executor.execute(() -> {
+            try {
+                job.run();
+            } finally {
+                finished(job);
+            }
+        });
+    }
+
+    private synchronized void finished(Job<?> job) {
+        running--;
+        increment(runningProfiles, job.profile, -1);
+        increment(runningUsers, job.user, -1);
+        increment(runningDevices, job.device, -1);
+        if (!executor.isShutdown()) {
+            dispatch();
+            terminateIfDone();
+        }
+    }
+
+    private void terminateIfDone() {
+        if (shutdown && running == 0 && pending.isEmpty()) {
+            executor.shutdown();
+        }
+    }
+
+    private static int get(Map<String, Integer> counts, String key) {
+        Integer count = counts.get(key);
+        return count == null ? 0 : count;
+    }
+
+    private static void increment(Map<String, Integer> counts, String key, int delta) {
+        if (key != null) {
+            int count = get(counts, key) + delta;
+            if (count == 0) {
+                counts.remove(key);
+            } else {
+                counts.put(key, count);
+            }
+        }
+    }
+
+    /**
+     * Transforms the batch priority to a number. The higher number runs first.
+     */
+    static int transformPriority(String priority) {
+        if (priority == null) {
+            return 0;
+        } else if (Batch.PRIORITY_HIGHEST.equals(priority)) {
+            return 2;
+        } else if (Batch.PRIORITY_HIGH.equals(priority)) {
+            return 1;
+        } else if (Batch.PRIORITY_MEDIUM.equals(priority)) {
+            return 0;
+        } else if (Batch.PRIORITY_LOW.equals(priority)) {
+            return -1;
+        } else if (Batch.PRIORITY_LOWEST.equals(priority)) {
+            return -2;
+        } else {
+            return 0;
+        }
+    }
+
+    private static final class Job<T> extends FutureTask<T> {
+
+        private final String profile;
+        private final String user;
+        private final String device;
+        private final int priority;
+        private final long created;
+        private final long submitted = System.currentTimeMillis();
+        private long sequence;
+
+        Job(Runnable task, T result, Batch batch) {
+            super(task, result);
+            this.profile = batch == null ? null : batch.getProfileId();
+            this.user = batch == null || batch.getUserId() == null ? null : String.valueOf(batch.getUserId());
+            this.device = batch == null ? null : batch.getDevice();
+            this.priority = batch == null ? 0 : transformPriority(batch.getPriority());
+            this.created = batch == null || batch.getCreate() == null ? submitted : batch.getCreate().getTime();
+        }
+    }
+
+    /**
+     * Statistics of the scheduler.
+     */
+    public static final class Metrics {
+
+        private final int queueDepth;
+        private final Map<String, Integer> queueDepthByProfile;
+        private final int running;
+        private final long started;
+        private final long averageWaitTime;
+        private final long maxWaitTime;
+
+        Metrics(int queueDepth, Map<String, Integer> queueDepthByProfile, int running,
+                long started, long averageWaitTime, long maxWaitTime) {
+            this.queueDepth = queueDepth;
+            this.queueDepthByProfile = Collections.unmodifiableMap(queueDepthByProfile);
+            this.running = running;
+            this.started = started;
+            this.averageWaitTime = averageWaitTime;
+            this.maxWaitTime = maxWaitTime;
+        }
+
+        /** Number of waiting processes. */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /** Number of waiting processes per profile ID. */
+        public Map<String, Integer> getQueueDepthByProfile() {
+            return queueDepthByProfile;
+        }
+
+        public int getRunning() {
+            return running;
+        }
+
+        /** Number of processes started since the scheduler was created. */
+        public long getStarted() {
+            return started;
+        }
+
+        /** Average time in ms a process waited in the queue. */
+        public long getAverageWaitTime() {
+            return averageWaitTime;
+        }
+
+        /** Max time in ms a process waited in the queue. */
+        public long getMaxWaitTime() {
+            return maxWaitTime;
+        }
+
+        @Override
+        public String toString() {
+            return "Metrics{queueDepth=" + queueDepth + ", queueDepthByProfile=" + queueDepthByProfile
+                    + ", running=" + running + ", started=" + started
+                    + ", averageWaitTime=" + averageWaitTime + ", maxWaitTime=" + maxWaitTime + '}';
+        }
+    }
+}
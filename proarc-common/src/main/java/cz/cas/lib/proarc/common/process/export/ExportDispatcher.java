@@ -16,19 +16,22 @@
  */
 package cz.cas.lib.proarc.common.process.export;
 
+import cz.cas.lib.proarc.common.dao.Batch;
+import cz.cas.lib.proarc.common.process.ProcessScheduler;
 import java.lang.Thread.UncaughtExceptionHandler;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.apache.commons.configuration.Configuration;
 
 /**
  * Dispatcher controls scheduling of {@link ExportProcess}.
  *
- * For now it runs processes in single thread to preserve memory resources.
+ * By default it runs processes in single thread to preserve memory resources.
+ * See {@link ProcessScheduler} for the options.
  *
  * @author Lukas Sykora
  */
@@ -37,18 +40,31 @@ public final class ExportDispatcher {
     private static final Logger LOG = Logger.getLogger(ExportDispatcher.class.getName());
     private static ExportDispatcher INSTANCE = new ExportDispatcher();
 
-    private ExecutorService pool;
+    private ProcessScheduler pool;
     private final int threadCount;
+    private final Configuration limits;
 
     public ExportDispatcher() {
         this(1);
     }
 
     ExportDispatcher(int threadCount) {
+        this(threadCount, null);
+    }
+
+    /**
+     * @param limits thread limits of the {@link ProcessScheduler scheduler}
+     */
+    public ExportDispatcher(Configuration limits) {
+        this(1, limits);
+    }
+
+    private ExportDispatcher(int threadCount, Configuration limits) {
         if (threadCount < 1) {
             throw new IllegalArgumentException("threadCount: " + threadCount);
         }
         this.threadCount = threadCount;
+        this.limits = limits;
     }
 
     public static ExportDispatcher getDefault() {
@@ -99,7 +115,15 @@ public final class ExportDispatcher {
 
     <T extends Runnable> Future<T> addTask(T task) {
         checkRunning();
-        return pool.submit(new ExceptionHandlingTask(task), task);
+        Batch batch = task instanceof ExportProcess ? ((ExportProcess) task).getBatch() : null;
+        return pool.submit(new ExceptionHandlingTask(task), task, batch);
+    }
+
+    /**
+     * Gets queue depth and wait time statistics.
+     */
+    public ProcessScheduler.Metrics getMetrics() {
+        return pool == null ? null : pool.getMetrics();
     }
 
     private void checkRunning() {
@@ -117,9 +141,9 @@ public final class ExportDispatcher {
         }
     }
 
-    private ExecutorService newThreadPool() {
-        ExecutorService executorService = Executors.newFixedThreadPool(threadCount, new ExportDispatcherThreadFactory());
-        return executorService;
+    private ProcessScheduler newThreadPool() {
+        return new ProcessScheduler(ExportDispatcher.class.getSimpleName(), threadCount, limits,
+                new ExportDispatcherThreadFactory());
     }
 
     private static final class ExceptionHandlingTask implements Runnable {
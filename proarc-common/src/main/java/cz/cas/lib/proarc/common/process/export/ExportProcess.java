@@ -82,6 +82,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.commons.io.FileUtils;
@@ -118,6 +120,10 @@ public final class ExportProcess implements Runnable {
         this.user = user;
     }
 
+    public Batch getBatch() {
+        return exportOptions.getBatch();
+    }
+
     /**
      * Prepares a new export process.
      * to run with {@link #start} immediately or later with {@link ExportDispatcher}.
@@ -731,15 +737,22 @@ public final class ExportProcess implements Runnable {
                     }
                     return BatchUtils.finishedExportSuccessfully(this.batchManager, batch, ndkResults.get(0).getTargetFolder().getAbsolutePath());
                 } else {
-                    for (NdkExport.Result r : ndkResults) {
-                        if (r.getKrameriusImportState() != null && KRAMERIUS_PROCESS_FAILED.equals(r.getKrameriusImportState())) {
-                            batch = finishedExportWithError(this.batchManager, batch, r.getTargetFolder().getAbsolutePath(), r.getMessage());
-                        } else if (r.getKrameriusImportState() != null && KRAMERIUS_PROCESS_WARNING.equals(r.getKrameriusImportState())) {
-                            batch = BatchUtils.finishedExportWithWarning(this.batchManager, batch, r.getTargetFolder().getAbsolutePath(), r.getMessage());
-                        } else if (r.getKrameriusImportState() != null && KRAMERIUS_PROCESS_FINISHED.equals(r.getKrameriusImportState())) {
-                            batch = BatchUtils.finishedExportSuccessfully(this.batchManager, batch, r.getTargetFolder().getAbsolutePath(), r.getMessage());
+                    // the batch is done once Kramerius imports all packages
+                    batch = BatchUtils.startWaitingExportBatch(this.batchManager, batch);
+                    CompletableFuture<?>[] imports = ndkResults.stream().map(NdkExport.Result::getKrameriusImport).toArray(CompletableFuture[]::new);
+                    whenImported(CompletableFuture.allOf(imports), batch, importedBatch -> {
+                        for (NdkExport.Result r : ndkResults) {
+                            export.setKrameriusImportState(r, params.getKrameriusInstanceId(), r.getKrameriusImport().join());
+                            if (r.getKrameriusImportState() != null && KRAMERIUS_PROCESS_FAILED.equals(r.getKrameriusImportState())) {
+                                importedBatch = finishedExportWithError(this.batchManager, importedBatch, r.getTargetFolder().getAbsolutePath(), r.getMessage());
+                            } else if (r.getKrameriusImportState() != null && KRAMERIUS_PROCESS_WARNING.equals(r.getKrameriusImportState())) {
+                                importedBatch = BatchUtils.finishedExportWithWarning(this.batchManager, importedBatch, r.getTargetFolder().getAbsolutePath(), r.getMessage());
+                            } else if (r.getKrameriusImportState() != null && KRAMERIUS_PROCESS_FINISHED.equals(r.getKrameriusImportState())) {
+                                importedBatch = BatchUtils.finishedExportSuccessfully(this.batchManager, importedBatch, r.getTargetFolder().getAbsolutePath(), r.getMessage());
+                            }
                         }
-                    }
+                        return importedBatch;
+                    });
                     return batch;
                 }
             } else {
@@ -859,13 +872,21 @@ public final class ExportProcess implements Runnable {
                     batch = BatchUtils.finishedExportSuccessfully(this.batchManager, batch, k4Result.getFile().getAbsolutePath());
 //                    return BatchUtils.finishedExportSuccessfully(batchManager, batch, k4Result.getFile().getAbsolutePath());
                 } else {
-                    if (k4Result.getKrameriusImportState() != null && KRAMERIUS_PROCESS_FAILED.equals(k4Result.getKrameriusImportState())) {
-                        batch = finishedExportWithError(this.batchManager, batch, k4Result.getFile().getAbsolutePath(), k4Result.getMessage());
-                    } else if (k4Result.getKrameriusImportState() != null && KRAMERIUS_PROCESS_WARNING.equals(k4Result.getKrameriusImportState())) {
-                        batch = BatchUtils.finishedExportWithWarning(this.batchManager, batch, k4Result.getFile().getAbsolutePath(), k4Result.getMessage());
-                    } else if (k4Result.getKrameriusImportState() != null && KRAMERIUS_PROCESS_FINISHED.equals(k4Result.getKrameriusImportState())) {
-                        batch = BatchUtils.finishedExportSuccessfully(this.batchManager, batch, k4Result.getFile().getAbsolutePath(), k4Result.getMessage());
-                    }
+                    whenImported(k4Result.getKrameriusImport(), batch, importedBatch -> {
+                        export.setKrameriusImportState(k4Result, params.getKrameriusInstanceId(), k4Result.getKrameriusImport().join(), params.getPids().get(0));
+                        if (k4Result.getKrameriusImportState() != null && KRAMERIUS_PROCESS_FAILED.equals(k4Result.getKrameriusImportState())) {
+                            importedBatch = finishedExportWithError(this.batchManager, importedBatch, k4Result.getFile().getAbsolutePath(), k4Result.getMessage());
+                        } else if (k4Result.getKrameriusImportState() != null && KRAMERIUS_PROCESS_WARNING.equals(k4Result.getKrameriusImportState())) {
+                            importedBatch = BatchUtils.finishedExportWithWarning(this.batchManager, importedBatch, k4Result.getFile().getAbsolutePath(), k4Result.getMessage());
+                        } else if (k4Result.getKrameriusImportState() != null && KRAMERIUS_PROCESS_FINISHED.equals(k4Result.getKrameriusImportState())) {
+                            importedBatch = BatchUtils.finishedExportSuccessfully(this.batchManager, importedBatch, k4Result.getFile().getAbsolutePath(), k4Result.getMessage());
+                        }
+                        for (String pid : params.getPids()) {
+                            setWorkflowExport("task.exportK4", "param.exportK4", k4Result.getPageCount(), params, getRoot(pid, exportFolder));
+                        }
+                        return importedBatch;
+                    });
+                    return batch;
                 }
                 for (String pid : params.getPids()) {
                     setWorkflowExport("task.exportK4", "param.exportK4", k4Result.getPageCount(), params, getRoot(pid, exportFolder));
@@ -881,6 +902,42 @@ public final class ExportProcess implements Runnable {
         }
     }
 
+    /**
+     * Finishes the batch when the import to a remote Kramerius completes.
+     * The export worker does not wait for the import; the finisher runs
+     * as a separate task of the export dispatcher.
+     */
+    private void whenImported(CompletableFuture<?> imports, Batch batch, ImportFinisher finisher) {
+        imports.whenComplete((v, t) -> {
+            Runnable task = () -> {
+                Batch importedBatch = batchManager.get(batch.getId());
+                if (Batch.State.STOPPED.equals(importedBatch.getState())) {
+                    return;
+                }
+                try {
+                    if (t != null) {
+                        throw t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+                    }
+                    finisher.finish(importedBatch);
+                } catch (Throwable ex) {
+                    finishedExportWithError(batchManager, importedBatch, importedBatch.getFolder(), ex);
+                }
+            };
+            ExportDispatcher dispatcher = ExportDispatcher.getDefault();
+            if (dispatcher == null) {
+                task.run();
+            } else {
+                dispatcher.addTask(task);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface ImportFinisher {
+
+        Batch finish(Batch batch) throws Exception;
+    }
+
     private URI runK4Export(String path, BatchParams params, String exportPageContext, Batch batch) throws Exception {
         Kramerius4Export export = new Kramerius4Export(config, akubraConfiguration, params.getPolicy(), params.getLicense(), params.isArchive());
         if (path == null || path.isEmpty()) {
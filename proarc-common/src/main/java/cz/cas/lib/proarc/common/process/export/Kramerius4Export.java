@@ -92,6 +92,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.xml.XMLConstants;
@@ -101,6 +102,7 @@ import javax.xml.bind.Unmarshaller;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import org.apache.commons.io.IOUtils;
+import org.codehaus.jettison.json.JSONException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -243,59 +245,8 @@ public final class Kramerius4Export {
             if (!(krameriusInstanceId == null || krameriusInstanceId.isEmpty() || KRAMERIUS_INSTANCE_LOCAL.equals(krameriusInstanceId))) {
                 KrameriusOptions.KrameriusInstance instance = findKrameriusInstance(appConfig.getKrameriusOptions().getKrameriusInstances(), krameriusInstanceId);
                 KImporter kImporter = new KImporter(appConfig, instance);
-                KUtils.ImportState state = kImporter.importToKramerius(krameriusResult.getFile(), false, KUtils.EXPORT_KRAMERIUS, policy, license);
-                if (KRAMERIUS_PROCESS_FINISHED.equals(state.getProcessState()) && (KRAMERIUS_BATCH_FINISHED_V5.equals(state.getBatchState()) || KRAMERIUS_BATCH_FINISHED_V7.equals(state.getBatchState()))) {
-                    if (instance.deleteAfterImport()) {
-                        MetsUtils.deleteFolder(krameriusResult.getFile());
-                    }
-                }
-                switch (state.getBatchState()) {
-                    case KRAMERIUS_BATCH_FINISHED_V5:
-                    case KRAMERIUS_BATCH_FINISHED_V7:
-                        krameriusResult.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") prošel bez chyby.");
-                        krameriusResult.setKrameriusImportState(KRAMERIUS_PROCESS_FINISHED);
-
-                        try {
-                            if (instance.uploadToCatalog() != null && !instance.uploadToCatalog().isEmpty()) {
-                                LOG.info("Nahravam informace do katalogu.");
-                                CatalogRecord catalogRecord = new CatalogRecord(appConfig, akubraConfiguration);
-                                catalogRecord.update(instance.uploadToCatalog(), pids[0]);
-                            } else {
-                                LOG.info("Neni zapnuta volba nahrani informaci do katalogu.");
-                            }
-                        } catch (DigitalObjectException | IOException e) {
-                            LOG.log(Level.SEVERE, e.getMessage(), e);
-                            krameriusResult.setMessage("Import do Krameria proběhl, ale nepodařilo se upravit záznam v katalogu." + e.getMessage());
-                            krameriusResult.setKrameriusImportState(KRAMERIUS_PROCESS_WARNING);
-                        }
-                        break;
-                    case KRAMERIUS_BATCH_FAILED_V5:
-                    case KRAMERIUS_BATCH_FAILED_V7:
-                    case KRAMERIUS_BATCH_KILLED_V7:
-                        krameriusResult.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") selhal.");
-                        krameriusResult.setKrameriusImportState(KRAMERIUS_PROCESS_FAILED);
-                        break;
-                    case KRAMERIUS_BATCH_NO_BATCH_V5:
-                        switch (state.getProcessState()) {
-                            case KRAMERIUS_PROCESS_FINISHED:
-                                krameriusResult.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") prošel, ale nebyla spuštěna indexace.");
-                                krameriusResult.setKrameriusImportState(KRAMERIUS_PROCESS_WARNING);
-                                break;
-                            case KRAMERIUS_PROCESS_FAILED:
-                                krameriusResult.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") selhal.");
-                                krameriusResult.setKrameriusImportState(KRAMERIUS_PROCESS_FAILED);
-                                break;
-                            case KRAMERIUS_PROCESS_WARNING:
-                                krameriusResult.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") prošel s chybou.");
-                                krameriusResult.setKrameriusImportState(KRAMERIUS_PROCESS_WARNING);
-                                break;
-                        }
-                        break;
-                    default:
-                        krameriusResult.setKrameriusImportState(KRAMERIUS_PROCESS_FAILED);
-                        krameriusResult.setMessage("Unknown status: " + state.getBatchState());
-                        break;
-                }
+                // the export worker does not wait, see setKrameriusImportState
+                krameriusResult.setKrameriusImport(kImporter.importToKrameriusAsync(krameriusResult.getFile(), false, KUtils.EXPORT_KRAMERIUS, policy, license));
             }
         } catch (RuntimeException ex) {
             ex.printStackTrace();
@@ -340,6 +291,67 @@ public final class Kramerius4Export {
         return krameriusResult;
     }
 
+    /**
+     * Completes the result with the final state of the Kramerius import.
+     *
+     * @param pid the exported PID updated in the catalog
+     */
+    public void setKrameriusImportState(Result krameriusResult, String krameriusInstanceId, KUtils.ImportState state, String pid) throws JSONException {
+        KrameriusOptions.KrameriusInstance instance = findKrameriusInstance(appConfig.getKrameriusOptions().getKrameriusInstances(), krameriusInstanceId);
+        if (KRAMERIUS_PROCESS_FINISHED.equals(state.getProcessState()) && (KRAMERIUS_BATCH_FINISHED_V5.equals(state.getBatchState()) || KRAMERIUS_BATCH_FINISHED_V7.equals(state.getBatchState()))) {
+            if (instance.deleteAfterImport()) {
+                MetsUtils.deleteFolder(krameriusResult.getFile());
+            }
+        }
+        switch (state.getBatchState()) {
+            case KRAMERIUS_BATCH_FINISHED_V5:
+            case KRAMERIUS_BATCH_FINISHED_V7:
+                krameriusResult.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") prošel bez chyby.");
+                krameriusResult.setKrameriusImportState(KRAMERIUS_PROCESS_FINISHED);
+
+                try {
+                    if (instance.uploadToCatalog() != null && !instance.uploadToCatalog().isEmpty()) {
+                        LOG.info("Nahravam informace do katalogu.");
+                        CatalogRecord catalogRecord = new CatalogRecord(appConfig, akubraConfiguration);
+                        catalogRecord.update(instance.uploadToCatalog(), pid);
+                    } else {
+                        LOG.info("Neni zapnuta volba nahrani informaci do katalogu.");
+                    }
+                } catch (DigitalObjectException | IOException e) {
+                    LOG.log(Level.SEVERE, e.getMessage(), e);
+                    krameriusResult.setMessage("Import do Krameria proběhl, ale nepodařilo se upravit záznam v katalogu." + e.getMessage());
+                    krameriusResult.setKrameriusImportState(KRAMERIUS_PROCESS_WARNING);
+                }
+                break;
+            case KRAMERIUS_BATCH_FAILED_V5:
+            case KRAMERIUS_BATCH_FAILED_V7:
+            case KRAMERIUS_BATCH_KILLED_V7:
+                krameriusResult.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") selhal.");
+                krameriusResult.setKrameriusImportState(KRAMERIUS_PROCESS_FAILED);
+                break;
+            case KRAMERIUS_BATCH_NO_BATCH_V5:
+                switch (state.getProcessState()) {
+                    case KRAMERIUS_PROCESS_FINISHED:
+                        krameriusResult.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") prošel, ale nebyla spuštěna indexace.");
+                        krameriusResult.setKrameriusImportState(KRAMERIUS_PROCESS_WARNING);
+                        break;
+                    case KRAMERIUS_PROCESS_FAILED:
+                        krameriusResult.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") selhal.");
+                        krameriusResult.setKrameriusImportState(KRAMERIUS_PROCESS_FAILED);
+                        break;
+                    case KRAMERIUS_PROCESS_WARNING:
+                        krameriusResult.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") prošel s chybou.");
+                        krameriusResult.setKrameriusImportState(KRAMERIUS_PROCESS_WARNING);
+                        break;
+                }
+                break;
+            default:
+                krameriusResult.setKrameriusImportState(KRAMERIUS_PROCESS_FAILED);
+                krameriusResult.setMessage("Unknown status: " + state.getBatchState());
+                break;
+        }
+    }
+
     private Collection<Pair> createPair(String parentsPid, Collection<String> selectedPids) {
         List<Pair> list = new ArrayList<>();
         Iterator<String> iterator = selectedPids.iterator();
@@ -1392,6 +1404,7 @@ public final class Kramerius4Export {
         private Exception ex;
         private String message;
         private String krameriusImportState;
+        private CompletableFuture<KUtils.ImportState> krameriusImport;
 
         public File getFile() {
             return file;
@@ -1440,6 +1453,17 @@ public final class Kramerius4Export {
         public void setKrameriusImportState(String krameriusImportState) {
             this.krameriusImportState = krameriusImportState;
         }
+
+        /**
+         * Gets the running Kramerius import or {@code null}.
+         */
+        public CompletableFuture<KUtils.ImportState> getKrameriusImport() {
+            return krameriusImport;
+        }
+
+        public void setKrameriusImport(CompletableFuture<KUtils.ImportState> krameriusImport) {
+            this.krameriusImport = krameriusImport;
+        }
     }
 
     private class Pair {
@@ -31,18 +31,14 @@ import java.util.logging.Logger;
 import org.apache.commons.io.FileUtils;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
-import net.lingala.zip4j.ZipFile;
-import net.lingala.zip4j.exception.ZipException;
-import net.lingala.zip4j.model.ZipParameters;
-import net.lingala.zip4j.model.enums.CompressionLevel;
-import net.lingala.zip4j.model.enums.CompressionMethod;
-import net.lingala.zip4j.model.enums.EncryptionMethod;
 
 public class BagitExport {
 
     private File exportFolder;
     private File bagitFolder;
     private File destinationFolder;
+    /** The checksum of the zip computed while it was written. */
+    private String zipMd5;
     private final AppConfiguration appConfiguration;
 
     private static final Logger LOG = Logger.getLogger(BagitExport.class.getName());
@@ -76,22 +72,12 @@ public class BagitExport {
         File file2Zip = new File(tmpFile.getParentFile(), tmpFile.getName().substring(0, tmpFile.getName().length() - 4));
         tmpFile.renameTo(file2Zip);
         File zipFileName = createZipFile();
-        try {
-            ZipFile zipFile = new ZipFile(zipFileName);
-            ZipParameters zipParameters = new ZipParameters();
-            zipParameters.setEncryptionMethod(EncryptionMethod.ZIP_STANDARD);
-            zipParameters.setCompressionMethod(CompressionMethod.DEFLATE);
-            zipParameters.setCompressionLevel(CompressionLevel.NORMAL);
-            zipParameters.setIncludeRootFolder(true);
-            zipParameters.setDefaultFolderPath(file2Zip.getAbsolutePath());
-            zipFile.addFiles(listZipFiles(file2Zip), zipParameters);
-        } catch (ZipException e) {
-            throw new RuntimeException(e);
-        }
-
+        ZipPackager packager = new ZipPackager(appConfiguration.getBagitZipThreads());
+        packager.zip(file2Zip, listZipFiles(file2Zip), zipFileName);
+        zipMd5 = packager.getMd5();
     }
 
-    private ArrayList listZipFiles(File exportFolder) {
+    private ArrayList<File> listZipFiles(File exportFolder) {
         ArrayList<File> files = new ArrayList<File>();
         ArrayList<File> subfiles = new ArrayList<File>();
         for (File file : exportFolder.listFiles()) {
@@ -157,6 +143,12 @@ public class BagitExport {
         }
     }
 
+    /**
+     * Writes checksums of the files in the bagit folder. The folder holds the zip
+     * of the package. Its checksum was computed by {@link #zip()} while the zip was
+     * written, so it is not read again. The contentDigest stored in FOXML cannot be
+     * used here, as it describes a single datastream and not the zipped package.
+     */
     public void createMd5File() throws IOException, NoSuchAlgorithmException {
         if (!bagitFolder.exists()) {
             throw new IOException("Bagit folder doesn´t exists " + bagitFolder.getName());
@@ -166,9 +158,15 @@ public class BagitExport {
 //            byte[] bytes = Files.readAllBytes(Paths.get(file.getPath()));
 //            byte[] hash = MessageDigest.getInstance("MD5").digest(bytes);
 //            String hashValue = DatatypeConverter.printHexBinary(hash);
-            ByteSource byteSource = Files.asByteSource(file);
-            HashCode hc = byteSource.hash(Hashing.md5());
-            checksumBuilder.append("MD5").append(" ").append(hc.toString().toLowerCase());
+            String checksum;
+            if (zipMd5 != null && file.getName().equals(createZipFile().getName())) {
+                checksum = zipMd5;
+            } else {
+                ByteSource byteSource = Files.asByteSource(file);
+                HashCode hc = byteSource.hash(Hashing.md5());
+                checksum = hc.toString();
+            }
+            checksumBuilder.append("MD5").append(" ").append(checksum.toLowerCase());
         }
         File checksumFile = new File(bagitFolder, exportFolder.getName() + ".sums");
         BufferedWriter writer = null;
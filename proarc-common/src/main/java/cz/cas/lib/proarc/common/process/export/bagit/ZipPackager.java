@@ -0,0 +1,445 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.process.export.bagit;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+
+/**
+ * Writes a folder to a ZIP archive.
+ *
+ * <p>Files are compressed on a pool of threads ahead of the writer, which
+ * streams them to the archive in the given order. Already compressed images
+ * and media are stored without compression. The MD5 checksum of the archive
+ * is computed while it is written, so it does not have to be read again.
+ * Large archives use the ZIP64 extensions.
+ */
+final class ZipPackager {
+
+    private static final Logger LOG = Logger.getLogger(ZipPackager.class.getName());
+
+    /** Extensions of files that do not get smaller with DEFLATE. */
+    static final Set<String> STORED_EXTENSIONS = new HashSet<String>(Arrays.asList(
+            "jp2", "jpx", "j2k", "jpg", "jpeg", "png", "gif",
+            "mp3", "mp4", "ogg", "flac", "zip", "gz"));
+
+    /** Compressed entries up to this size are kept in memory. */
+    private static final int MEMORY_LIMIT = 8 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int threads;
+    private String md5;
+
+    ZipPackager(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Writes the files to the archive.
+     *
+     * @param baseFolder entry names are relative to this folder
+     * @param files files to write
+     * @param zipFile the archive to create
+     */
+    void zip(File baseFolder, List<File> files, File zipFile) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        File tempFolder = Files.createTempDirectory(
+                zipFile.getAbsoluteFile().getParentFile().toPath(), zipFile.getName()).toFile();
+        ExecutorService executor = threads > 1 ? createExecutor() : null;
+        Deque<Future<Entry>> pending = new ArrayDeque<Future<Entry>>();
+        long start = System.currentTimeMillis();
+        try (ZipWriter writer = new ZipWriter(new DigestOutputStream(
+                new BufferedOutputStream(new FileOutputStream(zipFile), BUFFER_SIZE), digest))) {
+            for (File file : files) {
+                String name = entryName(baseFolder, file);
+                Callable<Entry> task = () -> prepare(file, name, tempFolder);
+                if (executor == null) {
+                    writer.write(call(task));
+                    continue;
+                }
+                pending.add(executor.submit(task));
+                while (pending.size() >= 2 * threads) {
+                    writer.write(get(pending.poll()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                writer.write(get(pending.poll()));
+            }
+            writer.finish();
+        } finally {
+            if (executor != null) {
+                for (Future<Entry> future : pending) {
+                    future.cancel(true);
+                }
+                executor.shutdownNow();
+                try {
+                    executor.awaitTermination(1, TimeUnit.MINUTES);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            FileUtils.deleteQuietly(tempFolder);
+        }
+        md5 = new String(Hex.encodeHex(digest.digest()));
+        LOG.fine("Zipped " + files.size() + " files to " + zipFile + " in "
+                + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    /**
+     * Gets the MD5 checksum of the last written archive.
+     */
+    String getMd5() {
+        return md5;
+    }
+
+    private ExecutorService createExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "bagit-zip-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    static String entryName(File baseFolder, File file) {
+        String base = baseFolder.getAbsoluteFile().toURI().getPath();
+        String path = file.getAbsoluteFile().toURI().getPath();
+        if (!path.startsWith(base)) {
+            throw new IllegalArgumentException(file + " is not in " + baseFolder);
+        }
+        return path.substring(base.length());
+    }
+
+    static boolean isStored(String name) {
+        int index = name.lastIndexOf('.');
+        return index >= 0 && STORED_EXTENSIONS.contains(name.substring(index + 1).toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Computes the CRC and compresses the file if it makes sense.
+     */
+    private static Entry prepare(File file, String name, File tempFolder) throws IOException {
+        Entry entry = new Entry(name, file);
+        CRC32 crc = new CRC32();
+        if (isStored(name)) {
+            entry.method = ZipWriter.STORED;
+            try (InputStream input = new CheckedInputStream(new FileInputStream(file), crc)) {
+                entry.size = IOUtils.copyLarge(input, NullOutputStream.NULL_OUTPUT_STREAM, new byte[BUFFER_SIZE]);
+            }
+            entry.compressedSize = entry.size;
+        } else {
+            entry.method = ZipWriter.DEFLATED;
+            OutputStream target;
+            if (file.length() <= MEMORY_LIMIT) {
+                target = entry.data = new ByteArrayOutputStream((int) Math.max(32, file.length() / 2));
+            } else {
+                entry.dataFile = File.createTempFile("entry", ".deflate", tempFolder);
+                target = new BufferedOutputStream(new FileOutputStream(entry.dataFile), BUFFER_SIZE);
+            }
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            CountingOutputStream counter = new CountingOutputStream(target);
+            try (InputStream input = new CheckedInputStream(new FileInputStream(file), crc);
+                    OutputStream output = new DeflaterOutputStream(counter, deflater, BUFFER_SIZE)) {
+                entry.size = IOUtils.copyLarge(input, output, new byte[BUFFER_SIZE]);
+            } finally {
+                deflater.end();
+            }
+            entry.compressedSize = counter.getByteCount();
+        }
+        entry.crc = crc.getValue();
+        return entry;
+    }
+
+    private static Entry call(Callable<Entry> task) throws IOException {
+        try {
+            return task.call();
+        } catch (IOException | RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    private static Entry get(Future<Entry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Zipping interrupted.", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * The prepared entry. The compressed contents are either in memory
+     * or in a temporary file; stored entries are read from the source file.
+     */
+    private static final class Entry {
+
+        private final String name;
+        private final File file;
+        private int method;
+        private long crc;
+        private long size;
+        private long compressedSize;
+        private ByteArrayOutputStream data;
+        private File dataFile;
+
+        Entry(String name, File file) {
+            this.name = name;
+            this.file = file;
+        }
+    }
+
+    /**
+     * Writes entries with known sizes and CRC, so that the archive is
+     * written sequentially and never patched.
+     */
+    private static final class ZipWriter implements AutoCloseable {
+
+        static final int STORED = 0;
+        static final int DEFLATED = 8;
+
+        private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+        private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+        private static final int VERSION = 20;
+        private static final int VERSION_ZIP64 = 45;
+        /** Names are in UTF-8. */
+        private static final int FLAG_UTF8 = 0x0800;
+
+        private final CountingOutputStream out;
+        private final List<CentralEntry> entries = new ArrayList<CentralEntry>();
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        ZipWriter(OutputStream out) {
+            this.out = new CountingOutputStream(out);
+        }
+
+        void write(Entry entry) throws IOException {
+            long offset = out.getByteCount();
+            byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+            long time = dosTime(entry.file.lastModified());
+            boolean zip64 = entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC;
+            writeInt(0x04034b50);
+            writeShort(zip64 ? VERSION_ZIP64 : VERSION);
+            writeShort(FLAG_UTF8);
+            writeShort(entry.method);
+            writeInt(time);
+            writeInt(entry.crc);
+            writeInt(zip64 ? ZIP64_MAGIC : entry.compressedSize);
+            writeInt(zip64 ? ZIP64_MAGIC : entry.size);
+            writeShort(name.length);
+            writeShort(zip64 ? 20 : 0);
+            out.write(name);
+            if (zip64) {
+                writeShort(0x0001);
+                writeShort(16);
+                writeLong(entry.size);
+                writeLong(entry.compressedSize);
+            }
+            try {
+                writeData(entry);
+            } finally {
+                if (entry.dataFile != null) {
+                    entry.dataFile.delete();
+                }
+            }
+            entries.add(new CentralEntry(name, entry, time, offset));
+        }
+
+        private void writeData(Entry entry) throws IOException {
+            long written;
+            if (entry.data != null) {
+                entry.data.writeTo(out);
+                written = entry.data.size();
+            } else {
+                File source = entry.dataFile != null ? entry.dataFile : entry.file;
+                try (InputStream input = new FileInputStream(source)) {
+                    written = IOUtils.copyLarge(input, out, buffer);
+                }
+            }
+            if (written != entry.compressedSize) {
+                throw new IOException(entry.file + " changed while zipping.");
+            }
+        }
+
+        void finish() throws IOException {
+            long cdOffset = out.getByteCount();
+            for (CentralEntry entry : entries) {
+                boolean zip64 = entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC
+                        || entry.offset >= ZIP64_MAGIC;
+                writeInt(0x02014b50);
+                writeShort(VERSION_ZIP64);
+                writeShort(zip64 ? VERSION_ZIP64 : VERSION);
+                writeShort(FLAG_UTF8);
+                writeShort(entry.method);
+                writeInt(entry.time);
+                writeInt(entry.crc);
+                writeInt(zip64 ? ZIP64_MAGIC : entry.compressedSize);
+                writeInt(zip64 ? ZIP64_MAGIC : entry.size);
+                writeShort(entry.name.length);
+                writeShort(zip64 ? 28 : 0);
+                writeShort(0); // comment
+                writeShort(0); // disk
+                writeShort(0); // internal attributes
+                writeInt(0); // external attributes
+                writeInt(zip64 ? ZIP64_MAGIC : entry.offset);
+                out.write(entry.name);
+                if (zip64) {
+                    writeShort(0x0001);
+                    writeShort(24);
+                    writeLong(entry.size);
+                    writeLong(entry.compressedSize);
+                    writeLong(entry.offset);
+                }
+            }
+            long cdSize = out.getByteCount() - cdOffset;
+            long count = entries.size();
+            if (count >= ZIP64_MAGIC_COUNT || cdOffset >= ZIP64_MAGIC || cdSize >= ZIP64_MAGIC) {
+                long zip64Offset = out.getByteCount();
+                writeInt(0x06064b50);
+                writeLong(44);
+                writeShort(VERSION_ZIP64);
+                writeShort(VERSION_ZIP64);
+                writeInt(0);
+                writeInt(0);
+                writeLong(count);
+                writeLong(count);
+                writeLong(cdSize);
+                writeLong(cdOffset);
+                // locator
+                writeInt(0x07064b50);
+                writeInt(0);
+                writeLong(zip64Offset);
+                writeInt(1);
+            }
+            writeInt(0x06054b50);
+            writeShort(0);
+            writeShort(0);
+            writeShort((int) Math.min(count, ZIP64_MAGIC_COUNT));
+            writeShort((int) Math.min(count, ZIP64_MAGIC_COUNT));
+            writeInt(Math.min(cdSize, ZIP64_MAGIC));
+            writeInt(Math.min(cdOffset, ZIP64_MAGIC));
+            writeShort(0);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private void writeShort(int value) throws IOException {
+            out.write(value & 0xFF);
+            out.write((value >>> 8) & 0xFF);
+        }
+
+        private void writeInt(long value) throws IOException {
+            writeShort((int) (value & 0xFFFF));
+            writeShort((int) ((value >>> 16) & 0xFFFF));
+        }
+
+        private void writeLong(long value) throws IOException {
+            writeInt(value & ZIP64_MAGIC);
+            writeInt(value >>> 32);
+        }
+
+        private static long dosTime(long time) {
+            Calendar c = Calendar.getInstance();
+            c.setTimeInMillis(time);
+            int year = c.get(Calendar.YEAR);
+            if (year < 1980) {
+                return (1 << 21) | (1 << 16);
+            }
+            return (year - 1980) << 25 | (c.get(Calendar.MONTH) + 1) << 21
+                    | c.get(Calendar.DAY_OF_MONTH) << 16 | c.get(Calendar.HOUR_OF_DAY) << 11
+                    | c.get(Calendar.MINUTE) << 5 | c.get(Calendar.SECOND) >> 1;
+        }
+    }
+
+    private static final class CentralEntry {
+
+        private final byte[] name;
+        private final int method;
+        private final long time;
+        private final long crc;
+        private final long size;
+        private final long compressedSize;
+        private final long offset;
+
+        CentralEntry(byte[] name, Entry entry, long time, long offset) {
+            this.name = name;
+            this.method = entry.method;
+            this.time = time;
+            this.crc = entry.crc;
+            this.size = entry.size;
+            this.compressedSize = entry.compressedSize;
+            this.offset = offset;
+        }
+    }
+}
@@ -30,6 +30,7 @@ import cz.cas.lib.proarc.common.process.export.mets.ValidationErrorHandler;
 import cz.cas.lib.proarc.common.storage.DigitalObjectException;
 import cz.cas.lib.proarc.common.storage.FoxmlUtils;
 import cz.cas.lib.proarc.common.xml.ProarcXmlUtils;
+import cz.cas.lib.proarc.common.xml.SchemaRegistry;
 import cz.cas.lib.proarc.common.xml.SimpleLSResourceResolver;
 import cz.cas.lib.proarc.common.xml.SimpleNamespaceContext;
 import cz.cas.lib.proarc.common.xml.TransformErrorListener;
@@ -57,7 +58,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
-import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -72,7 +72,6 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathExpression;
@@ -92,7 +91,6 @@ import org.xml.sax.SAXException;
  */
 class CrossrefBuilder {
 
-    private static Schema SCHEMA_CROSSREF;
     private static final String XSD_FILENAME = "crossref5.3.1.xsd";
 
     private final File outputFolder;
@@ -569,14 +567,8 @@ class CrossrefBuilder {
     }
 
     static Schema getCrossrefSchema() throws SAXException {
-        if (SCHEMA_CROSSREF == null) {
-            SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-            factory.setResourceResolver(new SimpleLSResourceResolver()
-                    .base(CrossrefBuilder.class)
-            );
-            SCHEMA_CROSSREF = factory.newSchema(CrossrefBuilder.class.getResource(XSD_FILENAME));
-        }
-        return SCHEMA_CROSSREF;
+        return SchemaRegistry.get(CrossrefBuilder.class.getResource(XSD_FILENAME),
+                new SimpleLSResourceResolver().base(CrossrefBuilder.class));
     }
 
 }
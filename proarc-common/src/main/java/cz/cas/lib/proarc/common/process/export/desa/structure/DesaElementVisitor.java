@@ -123,7 +123,7 @@ public class DesaElementVisitor implements IDesaElementVisitor {
             Document dcDoc = MetsUtils.getDocumentFromList(desaElement.getDescriptor());
             List<String> validationErrors;
             try {
-                validationErrors = MetsUtils.validateAgainstXSD(dcDoc, OaiDcType.class.getResourceAsStream("dc_oai.xsd"));
+                validationErrors = MetsUtils.validateAgainstXSD(dcDoc, OaiDcType.class.getResource("dc_oai.xsd"));
             } catch (Exception ex) {
                 throw new MetsExportException(desaElement.getOriginalPid(), "Error while validating DC document in BIBLIO_MODS for:" + desaElement.getOriginalPid() + "(" + desaElement.getElementType() + ")", false, ex);
             }
@@ -142,7 +142,7 @@ public class DesaElementVisitor implements IDesaElementVisitor {
             Document nsessDoc = MetsUtils.getDocumentFromList(desaElement.getDescriptor());
             List<String> validationErrors;
             try {
-                validationErrors = MetsUtils.validateAgainstXSD(nsessDoc, Spis.class.getResourceAsStream("nsesss2.xsd"));
+                validationErrors = MetsUtils.validateAgainstXSD(nsessDoc, Spis.class.getResource("nsesss2.xsd"));
             } catch (Exception ex) {
                 throw new MetsExportException(desaElement.getOriginalPid(), "Error while validating NSESSS document in BIBLIO_MODS for:" + desaElement.getOriginalPid() + "(" + desaElement.getElementType() + ")", false, ex);
             }
@@ -271,7 +271,7 @@ public class DesaElementVisitor implements IDesaElementVisitor {
         }
         List<String> validationErrors;
         try {
-            validationErrors = MetsUtils.validateAgainstXSD(outputFile, Mets.class.getResourceAsStream("mets.xsd"));
+            validationErrors = MetsUtils.validateAgainstXSD(outputFile, Mets.class.getResource("mets.xsd"));
         } catch (Exception ex) {
             throw new MetsExportException("Error while validating Mets file: " + outputFile, false, ex);
         }
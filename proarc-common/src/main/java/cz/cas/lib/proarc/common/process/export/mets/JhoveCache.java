@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.process.export.mets;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openpreservation.jhove.ReleaseDetails;
+
+/**
+ * Persistent cache of JHOVE outputs.
+ *
+ * <p>The outputs are stored as files named by the MD5 checksum of the described
+ * content in a folder of the JHOVE release. The same content gets the same
+ * output, so the JHOVE run made by an import can be reused by all later exports
+ * of the object. Outputs of other JHOVE releases are not used.
+ *
+ * <p>When the outputs exceed the size limit, the least recently used ones
+ * are deleted.
+ */
+public final class JhoveCache {
+
+    private static final Logger LOG = Logger.getLogger(JhoveCache.class.getName());
+
+    private static volatile JhoveCache defaultCache;
+
+    private final File folder;
+    private final long maxBytes;
+    /** The size of the cached outputs or -1 if not counted yet. */
+    private final AtomicLong bytes = new AtomicLong(-1);
+
+    /**
+     * Gets the cache used by {@link JhoveUtility}.
+     *
+     * @return the cache or {@code null} if not configured
+     */
+    public static JhoveCache getDefault() {
+        return defaultCache;
+    }
+
+    public static void setDefault(JhoveCache cache) {
+        defaultCache = cache;
+    }
+
+    public JhoveCache(File folder) {
+        this(folder, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param folder the root folder of the cache
+     * @param maxBytes max size of the cached outputs
+     */
+    public JhoveCache(File folder, long maxBytes) {
+        if (folder == null) {
+            throw new NullPointerException("folder");
+        }
+        this.folder = new File(folder, getJhoveRelease().replaceAll("[^0-9A-Za-z._-]", "_"));
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gets the release of JHOVE that makes the outputs.
+     */
+    static String getJhoveRelease() {
+        String version = ReleaseDetails.getInstance().getVersion();
+        return version == null || version.isEmpty() ? "unknown" : version;
+    }
+
+    /**
+     * Gets the cached output.
+     *
+     * @param checksum MD5 checksum of the content
+     * @return the output file or {@code null}
+     */
+    public File get(String checksum) {
+        File file = getFile(checksum);
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+        // keeps recently used outputs in the cache
+        file.setLastModified(System.currentTimeMillis());
+        return file;
+    }
+
+    /**
+     * Moves the output to the cache. A failure is only logged as the output
+     * can be generated again.
+     *
+     * @param checksum MD5 checksum of the content
+     * @param jhoveOutput the output file; it is moved or deleted
+     */
+    public void put(String checksum, File jhoveOutput) {
+        File file = getFile(checksum);
+        File temp = null;
+        try {
+            if (file == null) {
+                return;
+            }
+            File parent = file.getParentFile();
+            if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+                throw new IOException("Cannot create " + parent);
+            }
+            // other threads may read the file; it must appear complete
+            temp = File.createTempFile(file.getName(), ".part", parent);
+            Files.move(jhoveOutput.toPath(), temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            long length = temp.length();
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+            if (bytes.get() < 0) {
+                bytes.compareAndSet(-1, size());
+            } else {
+                bytes.addAndGet(length);
+            }
+            if (bytes.get() > maxBytes) {
+                evict();
+            }
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Cannot cache JHOVE output " + checksum, ex);
+        } finally {
+            jhoveOutput.delete();
+            if (temp != null) {
+                temp.delete();
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used outputs to get below 90 % of the limit.
+     */
+    synchronized void evict() throws IOException {
+        List<File> files = listOutputs();
+        // snapshot of the access times; other threads may touch the files during the sort
+        final Map<File, Long> accessed = new HashMap<File, Long>();
+        long size = 0;
+        for (File file : files) {
+            size += file.length();
+            accessed.put(file, file.lastModified());
+        }
+        Collections.sort(files, new Comparator<File>() {
+
+            @Override
+            public int compare(File o1, File o2) {
+                return Long.compare(accessed.get(o1), accessed.get(o2));
+            }
+        });
+        long limit = maxBytes / 10 * 9;
+        for (int i = 0; i < files.size() && size > limit; i++) {
+            File file = files.get(i);
+            long length = file.length();
+            if (file.delete()) {
+                size -= length;
+            }
+        }
+        bytes.set(size);
+        LOG.fine("Evicted JHOVE outputs from " + folder + ", size: " + size);
+    }
+
+    /**
+     * Gets the size of the cached outputs.
+     */
+    long size() throws IOException {
+        long size = 0;
+        for (File file : listOutputs()) {
+            size += file.length();
+        }
+        return size;
+    }
+
+    private List<File> listOutputs() throws IOException {
+        final List<File> files = new ArrayList<File>();
+        if (!folder.isDirectory()) {
+            return files;
+        }
+        Files.walkFileTree(folder.toPath(), new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (file.getFileName().toString().endsWith(".xml")) {
+                    files.add(file.toFile());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return files;
+    }
+
+    private File getFile(String checksum) {
+        if (checksum == null || checksum.length() < 3) {
+            return null;
+        }
+        String name = checksum.toLowerCase(Locale.ENGLISH);
+        return new File(new File(folder, name.substring(0, 2)), name + ".xml");
+    }
+}
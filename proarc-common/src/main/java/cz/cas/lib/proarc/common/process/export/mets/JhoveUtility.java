@@ -50,7 +50,9 @@ import cz.cas.lib.proarc.mix.StringType;
 import cz.cas.lib.proarc.mix.TypeOfDateType;
 import cz.cas.lib.proarc.mix.TypeOfOrientationType;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigInteger;
 import java.net.URL;
 import java.util.Calendar;
@@ -63,6 +65,7 @@ import javax.xml.datatype.XMLGregorianCalendar;
 import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.xpath.XPath;
@@ -74,6 +77,7 @@ import org.apache.xerces.dom.DeferredTextImpl;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
 
 /**
  * @author Robert Simonovsky
@@ -270,9 +274,25 @@ public class JhoveUtility {
      * @throws MetsExportException
      */
     public static JHoveOutput getMix(File targetFile, MetsContext metsContext, MixType deviceMix, XMLGregorianCalendar dateCreated, String originalFileName) throws MetsExportException {
+        return getMix(targetFile, metsContext, null, deviceMix, dateCreated, originalFileName);
+    }
+
+    /**
+     * Returns the MIX data for given element
+     *
+     * @param targetFile
+     * @param metsContext
+     * @param checksum known MD5 checksum of the file or {@code null}
+     * @param deviceMix
+     * @param dateCreated
+     * @param originalFileName
+     * @return
+     * @throws MetsExportException
+     */
+    public static JHoveOutput getMix(File targetFile, MetsContext metsContext, String checksum, MixType deviceMix, XMLGregorianCalendar dateCreated, String originalFileName) throws MetsExportException {
         initJhove(metsContext);
         JhoveContext jhoveContext = metsContext.getJhoveContext();
-        return getMix(targetFile, jhoveContext, deviceMix, dateCreated, originalFileName);
+        return getMix(targetFile, jhoveContext, checksum, deviceMix, dateCreated, originalFileName);
     }
 
     /**
@@ -619,88 +639,188 @@ public class JhoveUtility {
             MixType deviceMix, XMLGregorianCalendar dateCreated, String originalFileName
             ) throws MetsExportException {
 
-        JHoveOutput jhoveOutput = new JHoveOutput();
+        return getMix(sourceFile, jhoveContext, null, deviceMix, dateCreated, originalFileName);
+    }
+
+    /**
+     * Gets MIX of a source image file.
+     *
+     * @param sourceFile image file to describe with MIX
+     * @param jhoveContext JHove
+     * @param checksum known MD5 checksum of the file or {@code null}
+     * @param deviceMix optional device description
+     * @param dateCreated optional date of creation of the source
+     * @param originalFileName optional image file name
+     * @return the MIX description
+     * @throws MetsExportException failure
+     */
+    public static JHoveOutput getMix(File sourceFile, JhoveContext jhoveContext, String checksum,
+            MixType deviceMix, XMLGregorianCalendar dateCreated, String originalFileName
+            ) throws MetsExportException {
 
         if (sourceFile == null || !sourceFile.isFile() || !sourceFile.exists()) {
             LOG.log(Level.SEVERE, "target file '" + sourceFile + "' cannot be found.");
             throw new MetsExportException("target file '" + sourceFile + "' cannot be found.", false, null);
         }
         try {
-            JhoveBase jhoveBase = jhoveContext.getJhoveBase();
-            File outputFile = File.createTempFile("jhove", "output");
-            LOG.log(Level.FINE, "JHOVE output file " + outputFile);
-            Module module = jhoveBase.getModule(null);
-            OutputHandler aboutHandler = jhoveBase.getHandler(null);
-            OutputHandler xmlHandler = jhoveBase.getHandler("XML");
-            LOG.log(Level.FINE, "Calling JHOVE dispatch(...) on file " + sourceFile);
-            jhoveBase.dispatch(jhoveContext.getJhoveApp(), module, aboutHandler, xmlHandler, outputFile.getAbsolutePath(), new String[] { sourceFile.getAbsolutePath() });
-            DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-            builderFactory.setNamespaceAware(true);
-            DocumentBuilder builder = builderFactory.newDocumentBuilder();
-            Document jHoveDoc = builder.parse(outputFile);
+            Document jHoveDoc = characterize(sourceFile, jhoveContext, checksum);
+            return getMix(jHoveDoc, deviceMix, dateCreated, originalFileName);
+        } catch (Exception e) {
+            throw new MetsExportException("Error inspecting file '" + sourceFile + "' - " + e.getMessage(), false, e);
+        }
+    }
 
-            outputFile.delete();
-            Node node = getNodeRecursive(jHoveDoc, "mix");
-            if (node == null) {
-                return jhoveOutput;
-            }
-            Mix mix = MixUtils.unmarshal(new DOMSource(node), Mix.class);
+    /**
+     * Gets MIX of a content described by JHOVE before.
+     *
+     * @param checksum MD5 checksum of the content
+     * @param deviceMix optional device description
+     * @param dateCreated optional date of creation of the source
+     * @param originalFileName optional image file name
+     * @return the MIX description or {@code null} if there is no cached JHOVE output
+     * @see JhoveCache
+     */
+    public static JHoveOutput getCachedMix(String checksum,
+            MixType deviceMix, XMLGregorianCalendar dateCreated, String originalFileName) {
 
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            String formatVersion = xpath.compile("*[local-name()='jhove']/*[local-name()='repInfo']/*[local-name()='version']").evaluate(jHoveDoc);
-            if ((formatVersion == null) || ("0".equals(formatVersion)) || (formatVersion.trim().length() == 0)) {
-                formatVersion = "1.0";
-            }
-            String formatName = xpath.compile("*[local-name()='jhove']/*[local-name()='repInfo']/*[local-name()='mimeType']").evaluate(jHoveDoc);
-            if ((formatName == null) || (formatName.trim().length() == 0)) {
-                formatName = "unknown";
+        JhoveCache cache = JhoveCache.getDefault();
+        File cached = cache == null ? null : cache.get(checksum);
+        if (cached == null) {
+            return null;
+        }
+        try {
+            return getMix(parseJhoveOutput(cached), deviceMix, dateCreated, originalFileName);
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "Invalid cached JHOVE output " + cached, e);
+            return null;
+        }
+    }
+
+    private static JHoveOutput getMix(Document jHoveDoc,
+            MixType deviceMix, XMLGregorianCalendar dateCreated, String originalFileName
+            ) throws Exception {
+
+        JHoveOutput jhoveOutput = new JHoveOutput();
+        Node node = getNodeRecursive(jHoveDoc, "mix");
+        if (node == null) {
+            return jhoveOutput;
+        }
+        Mix mix = MixUtils.unmarshal(new DOMSource(node), Mix.class);
+
+        XPath xpath = XPathFactory.newInstance().newXPath();
+        String formatVersion = xpath.compile("*[local-name()='jhove']/*[local-name()='repInfo']/*[local-name()='version']").evaluate(jHoveDoc);
+        if ((formatVersion == null) || ("0".equals(formatVersion)) || (formatVersion.trim().length() == 0)) {
+            formatVersion = "1.0";
+        }
+        String formatName = xpath.compile("*[local-name()='jhove']/*[local-name()='repInfo']/*[local-name()='mimeType']").evaluate(jHoveDoc);
+        if ((formatName == null) || (formatName.trim().length() == 0)) {
+            formatName = "unknown";
+        }
+        jhoveOutput.setFormatVersion(formatVersion);
+        // merge device and jhove Mix
+        mergeMix(mix, deviceMix);
+        // insert date time created
+        if ((dateCreated != null) && (mix != null)) {
+            insertImageCaptureMetadata(mix, dateCreated);
+        }
+
+        // insert ChangeHistory
+        if ((dateCreated != null) && (originalFileName != null)) {
+            insertChangeHistory(mix, dateCreated, originalFileName);
+        }
+
+        // add formatVersion
+        if (mix != null) {
+            if (mix.getBasicDigitalObjectInformation() == null) {
+                mix.setBasicDigitalObjectInformation(new BasicDigitalObjectInformationType());
             }
-            jhoveOutput.setFormatVersion(formatVersion);
-            // merge device and jhove Mix
-            mergeMix(mix, deviceMix);
-            // insert date time created
-            if ((dateCreated != null) && (mix != null)) {
-                insertImageCaptureMetadata(mix, dateCreated);
+            if (mix.getBasicDigitalObjectInformation().getFormatDesignation() == null) {
+                mix.getBasicDigitalObjectInformation().setFormatDesignation(new BasicDigitalObjectInformationType.FormatDesignation());
             }
+            StringType formatNameType = new StringType();
+            StringType formatVersionType = new StringType();
+            formatNameType.setValue(formatName);
+            formatVersionType.setValue(formatVersion);
+            mix.getBasicDigitalObjectInformation().getFormatDesignation().setFormatName(formatNameType);
+            mix.getBasicDigitalObjectInformation().getFormatDesignation().setFormatVersion(formatVersionType);
+        }
 
-            // insert ChangeHistory
-            if ((dateCreated != null) && (originalFileName != null)) {
-                insertChangeHistory(mix, dateCreated, originalFileName);
+        // workarround for bug in Jhove - Unknown compression for jpeg2000
+        if ("image/jp2".equals(formatName)) {
+            if (mix.getBasicDigitalObjectInformation() == null) {
+                mix.setBasicDigitalObjectInformation(new BasicDigitalObjectInformationType());
             }
+            mix.getBasicDigitalObjectInformation().getCompression().clear();
+            Compression compression = new BasicDigitalObjectInformationType.Compression();
+            StringType jpeg2000Type = new StringType();
+            jpeg2000Type.setValue("JPEG 2000");
+            compression.setCompressionScheme(jpeg2000Type);
+            mix.getBasicDigitalObjectInformation().getCompression().add(compression);
+        }
+        jhoveOutput.setMix(mix);
+        return jhoveOutput;
+    }
 
-            // add formatVersion
-            if (mix != null) {
-                if (mix.getBasicDigitalObjectInformation() == null) {
-                    mix.setBasicDigitalObjectInformation(new BasicDigitalObjectInformationType());
-                }
-                if (mix.getBasicDigitalObjectInformation().getFormatDesignation() == null) {
-                    mix.getBasicDigitalObjectInformation().setFormatDesignation(new BasicDigitalObjectInformationType.FormatDesignation());
+    /**
+     * Describes the file with JHOVE. The output of a content described
+     * before is taken from {@link JhoveCache}.
+     *
+     * @return the JHOVE output
+     */
+    private static Document characterize(File sourceFile, JhoveContext jhoveContext) throws Exception {
+        return characterize(sourceFile, jhoveContext, null);
+    }
+
+    /**
+     * Describes the file with JHOVE. The output of a content described
+     * before is taken from {@link JhoveCache}.
+     *
+     * @param checksum known MD5 checksum of the file, e.g. the digest stored
+     *          with the datastream; if {@code null} the file is read to compute it
+     * @return the JHOVE output
+     */
+    private static Document characterize(File sourceFile, JhoveContext jhoveContext, String checksum) throws Exception {
+        JhoveCache cache = JhoveCache.getDefault();
+        if (cache != null) {
+            if (checksum == null) {
+                try (InputStream is = new FileInputStream(sourceFile)) {
+                    checksum = MetsUtils.getDigest(is).getMd5();
                 }
-                StringType formatNameType = new StringType();
-                StringType formatVersionType = new StringType();
-                formatNameType.setValue(formatName);
-                formatVersionType.setValue(formatVersion);
-                mix.getBasicDigitalObjectInformation().getFormatDesignation().setFormatName(formatNameType);
-                mix.getBasicDigitalObjectInformation().getFormatDesignation().setFormatVersion(formatVersionType);
             }
-
-            // workarround for bug in Jhove - Unknown compression for jpeg2000
-            if ("image/jp2".equals(formatName)) {
-                if (mix.getBasicDigitalObjectInformation() == null) {
-                    mix.setBasicDigitalObjectInformation(new BasicDigitalObjectInformationType());
+            File cached = cache.get(checksum);
+            if (cached != null) {
+                try {
+                    LOG.log(Level.FINE, "Cached JHOVE output " + cached + " of file " + sourceFile);
+                    return parseJhoveOutput(cached);
+                } catch (SAXException ex) {
+                    LOG.log(Level.WARNING, "Invalid cached JHOVE output " + cached, ex);
                 }
-                mix.getBasicDigitalObjectInformation().getCompression().clear();
-                Compression compression = new BasicDigitalObjectInformationType.Compression();
-                StringType jpeg2000Type = new StringType();
-                jpeg2000Type.setValue("JPEG 2000");
-                compression.setCompressionScheme(jpeg2000Type);
-                mix.getBasicDigitalObjectInformation().getCompression().add(compression);
             }
-            jhoveOutput.setMix(mix);
-        } catch (Exception e) {
-            throw new MetsExportException("Error inspecting file '" + sourceFile + "' - " + e.getMessage(), false, e);
         }
-        return jhoveOutput;
+        JhoveBase jhoveBase = jhoveContext.getJhoveBase();
+        File outputFile = File.createTempFile("jhove", "output");
+        try {
+            LOG.log(Level.FINE, "JHOVE output file " + outputFile);
+            Module module = jhoveBase.getModule(null);
+            OutputHandler aboutHandler = jhoveBase.getHandler(null);
+            OutputHandler xmlHandler = jhoveBase.getHandler("XML");
+            LOG.log(Level.FINE, "Calling JHOVE dispatch(...) on file " + sourceFile);
+            jhoveBase.dispatch(jhoveContext.getJhoveApp(), module, aboutHandler, xmlHandler, outputFile.getAbsolutePath(), new String[] { sourceFile.getAbsolutePath() });
+            Document jHoveDoc = parseJhoveOutput(outputFile);
+            if (cache != null) {
+                cache.put(checksum, outputFile);
+            }
+            return jHoveDoc;
+        } finally {
+            outputFile.delete();
+        }
+    }
+
+    private static Document parseJhoveOutput(File outputFile) throws ParserConfigurationException, SAXException, IOException {
+        DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
+        builderFactory.setNamespaceAware(true);
+        DocumentBuilder builder = builderFactory.newDocumentBuilder();
+        return builder.parse(outputFile);
     }
 
     /**
@@ -725,20 +845,7 @@ public class JhoveUtility {
             throw new MetsExportException("target file '" + sourceFile + "' cannot be found.", false, null);
         }
         try {
-            JhoveBase jhoveBase = jhoveContext.getJhoveBase();
-            File outputFile = File.createTempFile("jhove", "output");
-            LOG.log(Level.FINE, "JHOVE output file " + outputFile);
-            Module module = jhoveBase.getModule(null);
-            OutputHandler aboutHandler = jhoveBase.getHandler(null);
-            OutputHandler xmlHandler = jhoveBase.getHandler("XML");
-            LOG.log(Level.FINE, "Calling JHOVE dispatch(...) on file " + sourceFile);
-            jhoveBase.dispatch(jhoveContext.getJhoveApp(), module, aboutHandler, xmlHandler, outputFile.getAbsolutePath(), new String[] { sourceFile.getAbsolutePath() });
-            DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-            builderFactory.setNamespaceAware(true);
-            DocumentBuilder builder = builderFactory.newDocumentBuilder();
-            Document jHoveDoc = builder.parse(outputFile);
-
-            outputFile.delete();
+            Document jHoveDoc = characterize(sourceFile, jhoveContext);
             Node node = getNodeRecursive(jHoveDoc, "audioObject");
             if (node == null) {
                 return jhoveOutput;
@@ -784,20 +891,7 @@ public class JhoveUtility {
             throw new MetsExportException("target file '" + sourceFile + "' cannot be found.", false, null);
         }
         try {
-            JhoveBase jhoveBase = jhoveContext.getJhoveBase();
-            File outputFile = File.createTempFile("jhove", "output");
-            LOG.log(Level.FINE, "JHOVE output file " + outputFile);
-            Module module = jhoveBase.getModule(null);
-            OutputHandler aboutHandler = jhoveBase.getHandler(null);
-            OutputHandler xmlHandler = jhoveBase.getHandler("XML");
-            LOG.log(Level.FINE, "Calling JHOVE dispatch(...) on file " + sourceFile);
-            jhoveBase.dispatch(jhoveContext.getJhoveApp(), module, aboutHandler, xmlHandler, outputFile.getAbsolutePath(), new String[] { sourceFile.getAbsolutePath() });
-            DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-            builderFactory.setNamespaceAware(true);
-            DocumentBuilder builder = builderFactory.newDocumentBuilder();
-            Document jHoveDoc = builder.parse(outputFile);
-
-            outputFile.delete();
+            Document jHoveDoc = characterize(sourceFile, jhoveContext);
             Node nodeExtension = getNodeRecursive(jHoveDoc, "name", "BroadcastAudioExtension");
             if (nodeExtension == null) {
                 return jhoveOutput;
@@ -837,20 +931,7 @@ public class JhoveUtility {
             throw new MetsExportException("target file '" + sourceFile + "' cannot be found.", false, null);
         }
         try {
-            JhoveBase jhoveBase = jhoveContext.getJhoveBase();
-            File outputFile = File.createTempFile("jhove", "output");
-            LOG.log(Level.FINE, "JHOVE output file " + outputFile);
-            Module module = jhoveBase.getModule(null);
-            OutputHandler aboutHandler = jhoveBase.getHandler(null);
-            OutputHandler xmlHandler = jhoveBase.getHandler("XML");
-            LOG.log(Level.FINE, "Calling JHOVE dispatch(...) on file " + sourceFile);
-            jhoveBase.dispatch(jhoveContext.getJhoveApp(), module, aboutHandler, xmlHandler, outputFile.getAbsolutePath(), new String[] { sourceFile.getAbsolutePath() });
-            DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-            builderFactory.setNamespaceAware(true);
-            DocumentBuilder builder = builderFactory.newDocumentBuilder();
-            Document jHoveDoc = builder.parse(outputFile);
-
-            outputFile.delete();
+            Document jHoveDoc = characterize(sourceFile, jhoveContext);
             Node nodeExtension = getNodeRecursive(jHoveDoc, "name", "PDFMetadata");
             if (nodeExtension == null) {
                 return jhoveOutput;
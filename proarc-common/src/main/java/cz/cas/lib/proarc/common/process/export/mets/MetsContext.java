@@ -65,6 +65,7 @@ public class MetsContext {
     private String proarcVersion;
     private Float packageVersion;
     private JhoveContext jhoveContext;
+    private final ThreadLocal<JhoveContext> threadJhoveContext = new ThreadLocal<JhoveContext>();
     private NdkExportOptions options;
 
     /** Sets options */
@@ -355,10 +356,11 @@ public class MetsContext {
     }
 
     /**
-     * Gets the shared JHOVE instance.
+     * Gets the JHOVE instance of the current thread or the shared JHOVE instance.
      */
     public JhoveContext getJhoveContext() {
-        return jhoveContext;
+        JhoveContext threadContext = threadJhoveContext.get();
+        return threadContext != null ? threadContext : jhoveContext;
     }
 
     /**
@@ -368,6 +370,20 @@ public class MetsContext {
         this.jhoveContext = jhoveContext;
     }
 
+    /**
+     * Sets a JHOVE instance used by the current thread instead of the shared one.
+     * JHOVE is not thread-safe, each thread processing pages needs its own instance.
+     *
+     * @param jhoveContext the instance or {@code null} to use the shared one again
+     */
+    public void setThreadJhoveContext(JhoveContext jhoveContext) {
+        if (jhoveContext == null) {
+            threadJhoveContext.remove();
+        } else {
+            threadJhoveContext.set(jhoveContext);
+        }
+    }
+
     public Storage getTypeOfStorage() {
         return typeOfStorage;
     }
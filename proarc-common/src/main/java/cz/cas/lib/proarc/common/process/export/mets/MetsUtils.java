@@ -43,6 +43,7 @@ import cz.cas.lib.proarc.common.storage.akubra.AkubraStorage;
 import cz.cas.lib.proarc.common.storage.akubra.AkubraStorage.AkubraObject;
 import cz.cas.lib.proarc.common.storage.akubra.AkubraUtils;
 import cz.cas.lib.proarc.common.xml.ProArcPrefixNamespaceMapper;
+import cz.cas.lib.proarc.common.xml.SchemaRegistry;
 import cz.cas.lib.proarc.mets.Mets;
 import cz.cas.lib.proarc.mets.MetsType.FileSec.FileGrp;
 import cz.cas.lib.proarc.mets.info.Info;
@@ -81,7 +82,6 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.stream.Collectors;
-import javax.xml.XMLConstants;
 import javax.xml.bind.DataBindingException;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
@@ -102,7 +102,7 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
@@ -763,31 +763,23 @@ public class MetsUtils {
      *
      * Validates given document agains an XSD schema
      *
+     * <p>A namespace aware document is validated directly. Other documents are
+     * serialized first as the validator cannot read their elements.
+     *
      * @param document
      * @param xsd
      * @return
      */
-    public static List<String> validateAgainstXSD(Document document, InputStream xsd) throws Exception {
-        SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        factory.setResourceResolver(MetsLSResolver.getInstance());
-        Schema schema = factory.newSchema(new StreamSource(xsd));
+    public static List<String> validateAgainstXSD(Document document, URL xsd) throws Exception {
+        Element root = document.getDocumentElement();
+        if (root != null && root.getLocalName() != null) {
+            return validateAgainstXSD(new DOMSource(document), xsd);
+        }
         TransformerFactory tFactory = TransformerFactory.newInstance();
         Transformer transformer = tFactory.newTransformer();
-        DOMSource domSource = new DOMSource(document);
-        StreamResult sResult = new StreamResult();
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        sResult.setOutputStream(bos);
-        transformer.transform(domSource, sResult);
-        InputStream is = new ByteArrayInputStream(bos.toByteArray());
-        DocumentBuilderFactory dbfactory = DocumentBuilderFactory.newInstance();
-        dbfactory.setValidating(false);
-        dbfactory.setNamespaceAware(true);
-        dbfactory.setSchema(schema);
-        DocumentBuilder documentBuilder = dbfactory.newDocumentBuilder();
-        ValidationErrorHandler errorHandler = new ValidationErrorHandler();
-        documentBuilder.setErrorHandler(errorHandler);
-        documentBuilder.parse(is);
-        return errorHandler.getValidationErrors();
+        transformer.transform(new DOMSource(document), new StreamResult(bos));
+        return validateAgainstXSD(new StreamSource(new ByteArrayInputStream(bos.toByteArray())), xsd);
     }
 
     /**
@@ -798,20 +790,9 @@ public class MetsUtils {
      * @param xsd
      * @return
      */
-    public static List<String> validateAgainstXSD(File file, InputStream xsd) throws Exception {
-        SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        factory.setResourceResolver(MetsLSResolver.getInstance());
-        Schema schema = factory.newSchema(new StreamSource(xsd));
-        DocumentBuilderFactory dbfactory = DocumentBuilderFactory.newInstance();
-        dbfactory.setValidating(false);
-        dbfactory.setNamespaceAware(true);
-        dbfactory.setSchema(schema);
-        DocumentBuilder documentBuilder = dbfactory.newDocumentBuilder();
-        ValidationErrorHandler errorHandler = new ValidationErrorHandler();
-        documentBuilder.setErrorHandler(errorHandler);
-        documentBuilder.parse(file);
+    public static List<String> validateAgainstXSD(File file, URL xsd) throws Exception {
         List<String> validationErrors = new ArrayList<>();
-        for (String validationError : errorHandler.getValidationErrors()) {
+        for (String validationError : validateAgainstXSD(new StreamSource(file), xsd)) {
             if (!validationError.contains("Cannot resolve 'premis:file' to a type definition for element 'premis:object'.")) {
                 validationErrors.add(validationError);
             }
@@ -819,6 +800,23 @@ public class MetsUtils {
         return validationErrors;
     }
 
+    /**
+     *
+     * Validates given XML source against an XSD schema
+     *
+     * @param source
+     * @param xsd the schema; it is compiled once by {@link SchemaRegistry}
+     * @return
+     */
+    public static List<String> validateAgainstXSD(Source source, URL xsd) throws Exception {
+        Schema schema = SchemaRegistry.get(xsd, MetsLSResolver.getInstance());
+        Validator validator = schema.newValidator();
+        ValidationErrorHandler errorHandler = new ValidationErrorHandler();
+        validator.setErrorHandler(errorHandler);
+        validator.validate(source);
+        return errorHandler.getValidationErrors();
+    }
+
     /**
      *
      * Indicates if the "has..." is used for defining children
@@ -1007,7 +1005,7 @@ public class MetsUtils {
 
         List<String> validationErrors;
         try {
-            validationErrors = MetsUtils.validateAgainstXSD(infoFile, Info.class.getResourceAsStream("info.xsd"));
+            validationErrors = MetsUtils.validateAgainstXSD(infoFile, Info.class.getResource("info.xsd"));
         } catch (Exception e) {
             throw new MetsExportException("Error while validating info.xml", false, e);
         }
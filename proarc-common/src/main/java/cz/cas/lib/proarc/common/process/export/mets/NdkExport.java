@@ -47,12 +47,14 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
 import org.apache.commons.lang.Validate;
+import org.codehaus.jettison.json.JSONException;
 
 import static cz.cas.lib.proarc.common.kramerius.KUtils.KRAMERIUS_BATCH_FAILED_V5;
 import static cz.cas.lib.proarc.common.kramerius.KUtils.KRAMERIUS_BATCH_FAILED_V7;
@@ -121,7 +123,6 @@ public class NdkExport {
             BatchUtils.updateExportingBatch(BatchManager.getInstance(), batch, target);
         }
         List<Result> results = new ArrayList<>(pids.size());
-        KUtils.ImportState state = null;
         for (String pid : pids) {
             ExportResultLog.ExportResult logItem = new ExportResultLog.ExportResult();
             logItem.setInputPid(pid);
@@ -139,60 +140,8 @@ public class NdkExport {
                 if (!(krameriusInstanceId == null || krameriusInstanceId.isEmpty() || KRAMERIUS_INSTANCE_LOCAL.equals(krameriusInstanceId))) {
                     KrameriusOptions.KrameriusInstance instance = findKrameriusInstance(appConfig.getKrameriusOptions().getKrameriusInstances(), krameriusInstanceId);
                     KImporter kImporter = new KImporter(appConfig, instance);
-                    state = kImporter.importToKramerius(result.getTargetFolder(), false, KUtils.EXPORT_NDK, policy, license);
-                    LOG.fine("PROCESS " + state.getProcessState() + " BATCH " + state.getBatchState() + " DELETE " + instance.deleteAfterImport());
-                    if (KRAMERIUS_PROCESS_FINISHED.equals(state.getProcessState())  && (KRAMERIUS_BATCH_FINISHED_V5.equals(state.getBatchState()) || KRAMERIUS_BATCH_FINISHED_V7.equals(state.getBatchState()))) {
-                        if (instance.deleteAfterImport()) {
-                            LOG.fine("Mazu soubor " + result.getTargetFolder());
-                            MetsUtils.deleteFolder(result.getTargetFolder());
-                        }
-                    }
-                    switch (state.getBatchState()) {
-                        case KRAMERIUS_BATCH_FINISHED_V5:
-                        case KRAMERIUS_BATCH_FINISHED_V7:
-                            result.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") prošel bez chyby.");
-                            result.setKrameriusImportState(KRAMERIUS_PROCESS_FINISHED);
-                            try {
-                                if (instance.uploadToCatalog() != null && !instance.uploadToCatalog().isEmpty()) {
-                                    LOG.info("Nahravam informace do katalogu.");
-                                    CatalogRecord catalogRecord = new CatalogRecord(appConfig, akubraConfiguration);
-                                    catalogRecord.update(instance.uploadToCatalog(), pid);
-                                } else {
-                                    LOG.info("Neni zapnuta volba nahrani informaci do katalogu.");
-                                }
-                            } catch (DigitalObjectException | IOException e) {
-                                LOG.log(Level.SEVERE, e.getMessage(), e);
-                                result.setMessage("Import do Krameria proběhl, ale nepodařilo se upravit záznam v katalogu." + e.getMessage());
-                                result.setKrameriusImportState(KRAMERIUS_PROCESS_WARNING);
-                            }
-                            break;
-                        case KRAMERIUS_BATCH_FAILED_V5:
-                        case KRAMERIUS_BATCH_FAILED_V7:
-                        case KRAMERIUS_BATCH_KILLED_V7:
-                            result.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") selhal.");
-                            result.setKrameriusImportState(KRAMERIUS_PROCESS_FAILED);
-                            break;
-                        case KRAMERIUS_BATCH_NO_BATCH_V5:
-                            switch (state.getProcessState()) {
-                                case KRAMERIUS_PROCESS_FINISHED:
-                                    result.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") prošel, ale nebyla spuštěna indexace.");
-                                    result.setKrameriusImportState(KRAMERIUS_PROCESS_WARNING);
-                                    break;
-                                case KRAMERIUS_PROCESS_FAILED:
-                                    result.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") selhal.");
-                                    result.setKrameriusImportState(KRAMERIUS_PROCESS_FAILED);
-                                    break;
-                                case KRAMERIUS_PROCESS_WARNING:
-                                    result.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") prošel s chybou.");
-                                    result.setKrameriusImportState(KRAMERIUS_PROCESS_WARNING);
-                                    break;
-                            }
-                            break;
-                        default:
-                            result.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") selhal.");
-                            result.setKrameriusImportState(KRAMERIUS_PROCESS_FAILED);
-                            break;
-                    }
+                    // the export worker does not wait, see setKrameriusImportState
+                    result.setKrameriusImport(kImporter.importToKrameriusAsync(result.getTargetFolder(), false, KUtils.EXPORT_NDK, policy, license));
                 }
             } catch (ExportException ex) {
                 logItem.setStatus(ResultStatus.FAILED);
@@ -221,13 +170,80 @@ public class NdkExport {
         if (krameriusInstanceId == null || krameriusInstanceId.isEmpty() || KRAMERIUS_INSTANCE_LOCAL.equals(krameriusInstanceId)) {
             ExportUtils.writeExportResult(target, reslog);
         } else {
-            if (!(KRAMERIUS_PROCESS_FINISHED.equals(state.getProcessState())  && (KRAMERIUS_BATCH_FINISHED_V5.equals(state.getBatchState()) || KRAMERIUS_BATCH_FINISHED_V7.equals(state.getBatchState())))) {
-                ExportUtils.writeExportResult(target, reslog);
-            }
+            CompletableFuture<?>[] imports = results.stream().map(Result::getKrameriusImport).toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(imports).whenComplete((v, t) -> {
+                if (t != null || !results.stream().allMatch(r -> isImported(r.getKrameriusImport().join()))) {
+                    ExportUtils.writeExportResult(target, reslog);
+                }
+            });
         }
         return results;
     }
 
+    /**
+     * Completes the result with the final state of the Kramerius import.
+     */
+    public void setKrameriusImportState(Result result, String krameriusInstanceId, KUtils.ImportState state) throws JSONException {
+        KrameriusOptions.KrameriusInstance instance = findKrameriusInstance(appConfig.getKrameriusOptions().getKrameriusInstances(), krameriusInstanceId);
+        LOG.fine("PROCESS " + state.getProcessState() + " BATCH " + state.getBatchState() + " DELETE " + instance.deleteAfterImport());
+        if (isImported(state)) {
+            if (instance.deleteAfterImport()) {
+                LOG.fine("Mazu soubor " + result.getTargetFolder());
+                MetsUtils.deleteFolder(result.getTargetFolder());
+            }
+        }
+        switch (state.getBatchState()) {
+            case KRAMERIUS_BATCH_FINISHED_V5:
+            case KRAMERIUS_BATCH_FINISHED_V7:
+                result.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") prošel bez chyby.");
+                result.setKrameriusImportState(KRAMERIUS_PROCESS_FINISHED);
+                try {
+                    if (instance.uploadToCatalog() != null && !instance.uploadToCatalog().isEmpty()) {
+                        LOG.info("Nahravam informace do katalogu.");
+                        CatalogRecord catalogRecord = new CatalogRecord(appConfig, akubraConfiguration);
+                        catalogRecord.update(instance.uploadToCatalog(), result.getPid());
+                    } else {
+                        LOG.info("Neni zapnuta volba nahrani informaci do katalogu.");
+                    }
+                } catch (DigitalObjectException | IOException e) {
+                    LOG.log(Level.SEVERE, e.getMessage(), e);
+                    result.setMessage("Import do Krameria proběhl, ale nepodařilo se upravit záznam v katalogu." + e.getMessage());
+                    result.setKrameriusImportState(KRAMERIUS_PROCESS_WARNING);
+                }
+                break;
+            case KRAMERIUS_BATCH_FAILED_V5:
+            case KRAMERIUS_BATCH_FAILED_V7:
+            case KRAMERIUS_BATCH_KILLED_V7:
+                result.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") selhal.");
+                result.setKrameriusImportState(KRAMERIUS_PROCESS_FAILED);
+                break;
+            case KRAMERIUS_BATCH_NO_BATCH_V5:
+                switch (state.getProcessState()) {
+                    case KRAMERIUS_PROCESS_FINISHED:
+                        result.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") prošel, ale nebyla spuštěna indexace.");
+                        result.setKrameriusImportState(KRAMERIUS_PROCESS_WARNING);
+                        break;
+                    case KRAMERIUS_PROCESS_FAILED:
+                        result.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") selhal.");
+                        result.setKrameriusImportState(KRAMERIUS_PROCESS_FAILED);
+                        break;
+                    case KRAMERIUS_PROCESS_WARNING:
+                        result.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") prošel s chybou.");
+                        result.setKrameriusImportState(KRAMERIUS_PROCESS_WARNING);
+                        break;
+                }
+                break;
+            default:
+                result.setMessage("Import do Krameria (" + instance.getId() + " --> " + instance.getUrl() + ") selhal.");
+                result.setKrameriusImportState(KRAMERIUS_PROCESS_FAILED);
+                break;
+        }
+    }
+
+    private static boolean isImported(KUtils.ImportState state) {
+        return KRAMERIUS_PROCESS_FINISHED.equals(state.getProcessState()) && (KRAMERIUS_BATCH_FINISHED_V5.equals(state.getBatchState()) || KRAMERIUS_BATCH_FINISHED_V7.equals(state.getBatchState()));
+    }
+
     public List<Result> exportNdkArchive(File exportsFolder, List<String> pids,
                                          boolean hierarchy, boolean keepResult, Boolean overwrite,
                                          boolean ignoreMissingUrnNbn, String log) throws ExportException {
@@ -583,6 +599,7 @@ public class NdkExport {
         private String pid;
         private Integer pageIndexCount;
         private String krameriusImportState;
+        private CompletableFuture<KUtils.ImportState> krameriusImport;
         private String message;
 
         public MetsExportException getValidationError() {
@@ -641,6 +658,19 @@ public class NdkExport {
             this.krameriusImportState = krameriusImportState;
         }
 
+        /**
+         * Gets the pending import to Kramerius.
+         *
+         * @return {@code null} if the result is not imported to Kramerius
+         */
+        public CompletableFuture<KUtils.ImportState> getKrameriusImport() {
+            return krameriusImport;
+        }
+
+        public void setKrameriusImport(CompletableFuture<KUtils.ImportState> krameriusImport) {
+            this.krameriusImport = krameriusImport;
+        }
+
         public String getMessage() {
             return message;
         }
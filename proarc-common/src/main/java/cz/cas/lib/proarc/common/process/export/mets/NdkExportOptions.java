@@ -27,12 +27,16 @@ public class NdkExportOptions {
     static final String PROP_NDK_AGENT_ARCHIVIST = "export.ndk.agent.archivist";
     static final String PROP_NDK_AGENT_CREATOR = "export.ndk.agent.creator";
     static final String PROP_NDK_PREMIS_EVENTTYPE_DELETION = "export.ndk.premis.eventType.deletion";
+    static final String PROP_NDK_PAGE_THREADS = "export.ndk.pageThreads";
+    static final String PROP_NDK_VERIFY_DIGESTS = "export.ndk.verifyDigests";
     static final String PROP_PROARC_VERSION = "proarc.version";
     static final String PROP_PROARC_REVISION = "proarc.build.revision";
     static final String PROP_PROARC_TIMESTAMP = "proarc.build.timestamp";
     private String archivist;
     private String creator;
     private Boolean premisEventTypeDeletion;
+    private int pageThreads = 1;
+    private boolean verifyDigests;
     private String version;
     private String timestamp;
     private String revision;
@@ -68,6 +72,12 @@ public class NdkExportOptions {
         Boolean premisEventTypeDeletion = config.getBoolean(PROP_NDK_PREMIS_EVENTTYPE_DELETION, false);
         options.setPremisEventTypeDeletion(premisEventTypeDeletion);
 
+        int pageThreads = config.getInt(PROP_NDK_PAGE_THREADS,
+                Math.min(4, Runtime.getRuntime().availableProcessors()));
+        options.setPageThreads(pageThreads);
+
+        options.setVerifyDigests(config.getBoolean(PROP_NDK_VERIFY_DIGESTS, false));
+
         return options;
     }
 
@@ -124,4 +134,26 @@ public class NdkExportOptions {
     public void setPremisEventTypeDeletion(Boolean premisEventTypeDeletion) {
         this.premisEventTypeDeletion = premisEventTypeDeletion;
     }
+
+    /** Returns the number of threads processing files of pages. */
+    public int getPageThreads() {
+        return pageThreads;
+    }
+
+    /** Sets the number of threads processing files of pages; {@code 1} processes pages one by one. */
+    public void setPageThreads(int pageThreads) {
+        this.pageThreads = Math.max(1, pageThreads);
+    }
+
+    /**
+     * Returns {@code true} if the contents should be read again and checked
+     * against digests stored in the repository instead of trusting them.
+     */
+    public boolean isVerifyDigests() {
+        return verifyDigests;
+    }
+
+    public void setVerifyDigests(boolean verifyDigests) {
+        this.verifyDigests = verifyDigests;
+    }
 }
@@ -46,6 +46,7 @@ import cz.cas.lib.proarc.common.process.export.mets.MetsContext;
 import cz.cas.lib.proarc.common.process.export.mets.MetsExportException;
 import cz.cas.lib.proarc.common.process.export.mets.MetsUtils;
 import cz.cas.lib.proarc.common.process.export.mets.MimeType;
+import cz.cas.lib.proarc.common.process.export.mets.NdkExportOptions;
 import cz.cas.lib.proarc.common.storage.AesEditor;
 import cz.cas.lib.proarc.common.storage.BinaryEditor;
 import cz.cas.lib.proarc.common.storage.CodingHistoryEditor;
@@ -104,6 +105,7 @@ import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
@@ -151,6 +153,7 @@ public class MetsElementVisitor implements IMetsElementVisitor {
     protected int titleCounter = 1;
     int audioPageCounter = 0;
     private boolean ignoreMissingUrnNbn = false;
+    private PageTasks pageTasks;
 
     /**
      * creates directory structure for mets elements
@@ -393,7 +396,7 @@ public class MetsElementVisitor implements IMetsElementVisitor {
             }
             List<String> validationErrors;
             try {
-                validationErrors = MetsUtils.validateAgainstXSD(outputFile, Mets.class.getResourceAsStream("mets.xsd"));
+                validationErrors = MetsUtils.validateAgainstXSD(outputFile, Mets.class.getResource("mets.xsd"));
             } catch (Exception ex) {
                 throw new MetsExportException("Error while validation document:" + outputFile, false, ex);
             }
@@ -570,6 +573,15 @@ public class MetsElementVisitor implements IMetsElementVisitor {
      * @return
      */
     protected FileType prepareFileType(int seq, String metsStreamName, HashMap<String, Object> fileNames, HashMap<String, String> mimeTypes, IMetsElement metsElement, HashMap<String, String> outputFileNames, HashMap<String, FileMD5Info> md5InfosMap) throws MetsExportException {
+        return prepareFileType(seq, metsStreamName, fileNames, mimeTypes, metsElement, outputFileNames, md5InfosMap, metsElement.getMetsContext().getFileList());
+    }
+
+    /**
+     * Prepares a mets FileType element for a file
+     *
+     * @param fileList collects the checksums of the written file
+     */
+    private FileType prepareFileType(int seq, String metsStreamName, HashMap<String, Object> fileNames, HashMap<String, String> mimeTypes, IMetsElement metsElement, HashMap<String, String> outputFileNames, HashMap<String, FileMD5Info> md5InfosMap, List<FileMD5Info> fileList) throws MetsExportException {
         // String streamName = Const.streamMapping.get(metsStreamName);
         MetsContext metsContext = metsElement.getMetsContext();
         FileType fileType = new FileType();
@@ -623,6 +635,8 @@ public class MetsElementVisitor implements IMetsElementVisitor {
         String outputFileName = fileType.getID() + "." + MimeType.getExtension(mimeTypes.get(metsStreamName));
         String fullOutputFileName = metsContext.getPackageDir().getAbsolutePath() + File.separator + Const.streamMappingFile.get(metsStreamName) + File.separator + outputFileName;
         outputFileNames.put(metsStreamName, fullOutputFileName);
+        // the checksum stored in the repository; the contents are copied anyway
+        String storedMd5 = md5InfosMap.get(metsStreamName) == null ? null : md5InfosMap.get(metsStreamName).getMd5();
         try {
             FileMD5Info fileMD5Info;
             if (md5InfosMap.get(metsStreamName) == null) {
@@ -638,10 +652,11 @@ public class MetsElementVisitor implements IMetsElementVisitor {
             fileMD5Info.setFileName(File.separator + Const.streamMappingFile.get(metsStreamName) + File.separator + outputFileName);
             fileMD5Info.setMimeType(fileType.getMIMETYPE());
             fileType.setCHECKSUM(fileMD5Info.getMd5());
-            metsContext.getFileList().add(fileMD5Info);
+            fileList.add(fileMD5Info);
         } catch (Exception e) {
             throw new MetsExportException("Unable to process file " + fullOutputFileName, false, e);
         }
+        checkDigest(metsElement, metsStreamName, storedMd5, fileType.getCHECKSUM());
         FLocat flocat = new FLocat();
         flocat.setLOCTYPE("URL");
         URI uri;
@@ -778,6 +793,7 @@ public class MetsElementVisitor implements IMetsElementVisitor {
                                 fileMd5Info = md5InfosMap.get(streamName);
                             }
                             fileMd5Info.setCreated(rawDS.getDatastreamVersion().get(0).getCREATED());
+                            fileMd5Info.setMd5(FoxmlUtils.getContentDigest(rawDS.getDatastreamVersion().get(0), "MD5"));
 
                             GetDatastreamDissemination dsRaw = FedoraClient.getDatastreamDissemination(metsElement.getOriginalPid(), dataStream);
                             createDates.put(streamName, rawDS.getDatastreamVersion().get(0).getCREATED());
@@ -824,6 +840,7 @@ public class MetsElementVisitor implements IMetsElementVisitor {
                                         fileMd5Info = md5InfosMap.get(streamName);
                                     }
                                     fileMd5Info.setCreated(dv.getCREATED());
+                                    fileMd5Info.setMd5(FoxmlUtils.getContentDigest(dv, "MD5"));
 //                                }
 //                                if (dv.getBinaryContent() != null) {
 //                                    fileNames.put(streamName, dv.getBinaryContent());
@@ -892,6 +909,15 @@ public class MetsElementVisitor implements IMetsElementVisitor {
         InputStream is = null;
         DatastreamType rawDS = FoxmlUtils.findDatastream(metsElement.getSourceObject(), "RAW");
         if (rawDS != null) {
+            DatastreamVersionType rawVersion = FoxmlUtils.findDataStreamVersion(metsElement.getSourceObject(), "RAW");
+            String storedMd5 = FoxmlUtils.getContentDigest(rawVersion, "MD5");
+            if (storedMd5 != null && rawVersion.getSIZE() > 0 && !isVerifyDigests(metsElement)) {
+                // the checksum computed by the repository, no need to read the contents
+                rawInfo = new FileMD5Info(storedMd5, rawVersion.getSIZE());
+                rawInfo.setMimeType(rawDS.getDatastreamVersion().get(0).getMIMETYPE());
+                rawInfo.setCreated(rawDS.getDatastreamVersion().get(0).getCREATED());
+                return rawInfo;
+            }
             if (Storage.FEDORA.equals(metsElement.getMetsContext().getTypeOfStorage())) {
                 try {
                     GetDatastreamDissemination dsRaw = FedoraClient.getDatastreamDissemination(metsElement.getOriginalPid(), "RAW");
@@ -928,6 +954,7 @@ public class MetsElementVisitor implements IMetsElementVisitor {
             } catch (Exception e) {
                 throw new MetsExportException("Unable to process raw file for pid " + metsElement.getOriginalPid(), false, e);
             }
+            checkDigest(metsElement, "RAW", storedMd5, rawInfo.getMd5());
             rawInfo.setMimeType(rawDS.getDatastreamVersion().get(0).getMIMETYPE());
             rawInfo.setCreated(rawDS.getDatastreamVersion().get(0).getCREATED());
         }
@@ -935,6 +962,31 @@ public class MetsElementVisitor implements IMetsElementVisitor {
     }
 
 
+    private static boolean isVerifyDigests(IMetsElement metsElement) {
+        NdkExportOptions options = metsElement.getMetsContext().getOptions();
+        return options != null && options.isVerifyDigests();
+    }
+
+    /**
+     * Compares the checksum of the exported contents with the one stored
+     * in the repository.
+     *
+     * @param storedMd5 the stored checksum or {@code null}
+     * @throws MetsExportException in case of a mismatch when digests are verified;
+     *          otherwise the mismatch is only logged
+     */
+    private void checkDigest(IMetsElement metsElement, String streamName, String storedMd5, String md5) throws MetsExportException {
+        if (storedMd5 == null || storedMd5.equalsIgnoreCase(md5)) {
+            return;
+        }
+        String msg = "Fixity check failed for " + streamName + " of " + metsElement.getOriginalPid()
+                + ": stored checksum " + storedMd5 + ", computed " + md5;
+        if (isVerifyDigests(metsElement)) {
+            throw new MetsExportException(metsElement.getOriginalPid(), msg, false, null);
+        }
+        LOG.warning(msg);
+    }
+
     /**
      * Returns the description of scanner
      *
@@ -1046,10 +1098,11 @@ public class MetsElementVisitor implements IMetsElementVisitor {
      * @param seq
      * @param fileGrpPage
      * @param mimeTypes
-     * @param pageDiv
+     * @param fileList collects the checksums of the written files
+     * @return the TECHMDGRP file or {@code null} if the page has its own
      * @throws MetsExportException
      */
-    private void generateTechMetadata(IMetsElement metsElement, HashMap<String, Object> fileNames, int seq, HashMap<String, FileGrp> fileGrpPage, HashMap<String, String> mimeTypes, DivType pageDiv, HashMap<String, String> outputFileNames, HashMap<String, FileMD5Info> md5InfosMap) throws MetsExportException {
+    private FileType generateTechMetadata(IMetsElement metsElement, HashMap<String, Object> fileNames, int seq, HashMap<String, FileGrp> fileGrpPage, HashMap<String, String> mimeTypes, HashMap<String, String> outputFileNames, HashMap<String, FileMD5Info> md5InfosMap, List<FileMD5Info> fileList) throws MetsExportException {
         if (fileNames.get("TECHMDGRP") == null) {
             LOG.log(Level.FINE, "Generating tech");
             Mets amdSecMets = new Mets();
@@ -1127,9 +1180,18 @@ public class MetsElementVisitor implements IMetsElementVisitor {
                     toGenerate.put(Const.MIX001, "RAW");
 
                     jHoveOutputRaw = JhoveUtility.getMix(metsElement, MixEditor.RAW_ID, null, null, null, null);
+                    JHoveOutput jHoveOutputRawCached = null;
+                    FileMD5Info rawMd5Info = md5InfosMap.get("RAW");
+                    if (jHoveOutputRaw == null && rawMd5Info != null) {
+                        jHoveOutputRawCached = JhoveUtility.getCachedMix(rawMd5Info.getMd5(), mixDevice, rawMd5Info.getCreated(), null);
+                    }
 
-                    // If not present, then generate new
-                    if (jHoveOutputRaw == null) {
+                    if (jHoveOutputRawCached != null && jHoveOutputRawCached.getMix() != null) {
+                        // RAW described by the import or by a previous export, no need to copy it
+                        jHoveOutputRaw = jHoveOutputRawCached;
+                        rawCreated = rawMd5Info.getCreated();
+                    } else if (jHoveOutputRaw == null) {
+                        // If not present, then generate new
                         if (Storage.FEDORA.equals(metsElement.getMetsContext().getTypeOfStorage())) {
                             DatastreamType rawDS = FoxmlUtils.findDatastream(metsElement.getSourceObject(), "RAW");
                             if (rawDS != null) {
@@ -1138,7 +1200,7 @@ public class MetsElementVisitor implements IMetsElementVisitor {
                                     rawCreated = rawDS.getDatastreamVersion().get(0).getCREATED();
                                     InputStream is = dsRaw.execute(metsElement.getMetsContext().getFedoraClient()).getEntityInputStream();
                                     String rawExtendsion = MimeType.getExtension(rawDS.getDatastreamVersion().get(0).getMIMETYPE());
-                                    rawFile = new File(metsElement.getMetsContext().getOutputPath() + File.separator + metsElement.getMetsContext().getPackageID() + File.separator + "raw" + "." + rawExtendsion);
+                                    rawFile = new File(metsElement.getMetsContext().getOutputPath() + File.separator + metsElement.getMetsContext().getPackageID() + File.separator + "raw_" + seq + "." + rawExtendsion);
                                     FileMD5Info rawinfo;
                                     try {
                                         rawinfo = MetsUtils.getDigestAndCopy(is, new FileOutputStream(rawFile));
@@ -1169,7 +1231,7 @@ public class MetsElementVisitor implements IMetsElementVisitor {
                                                 rawCreated = datastreamVersionType.getCREATED();
                                                 InputStream is = AkubraUtils.getStreamContent(datastreamVersionType, akubraObject.getManager());
                                                 String rawExtendsion = MimeType.getExtension(datastreamVersionType.getMIMETYPE());
-                                                rawFile = new File(metsElement.getMetsContext().getOutputPath() + File.separator + metsElement.getMetsContext().getPackageID() + File.separator + "raw" + "." + rawExtendsion);
+                                                rawFile = new File(metsElement.getMetsContext().getOutputPath() + File.separator + metsElement.getMetsContext().getPackageID() + File.separator + "raw_" + seq + "." + rawExtendsion);
                                                 FileMD5Info rawinfo;
                                                 try {
                                                     rawinfo = MetsUtils.getDigestAndCopy(is, new FileOutputStream(rawFile));
@@ -1190,7 +1252,10 @@ public class MetsElementVisitor implements IMetsElementVisitor {
                                 throw new MetsExportException(metsElement.getOriginalPid(), "Missing RAW datastream for PID " + metsElement.getOriginalPid() + ".", false, null);
                             }
                         }
-                        jHoveOutputRaw = JhoveUtility.getMix(rawFile, metsElement.getMetsContext(), mixDevice, rawCreated, null);
+                        // the digest computed by the copy or stored with the datastream spares reading the file again
+                        FileMD5Info rawFileInfo = md5InfosMap.get("RAW");
+                        String rawChecksum = rawFileInfo == null ? null : rawFileInfo.getMd5();
+                        jHoveOutputRaw = JhoveUtility.getMix(rawFile, metsElement.getMetsContext(), rawChecksum, mixDevice, rawCreated, null);
                         if (jHoveOutputRaw.getMix() == null) {
                             throw new MetsExportException(metsElement.getOriginalPid(), "Unable to generate Mix information for RAW image", false, null);
                         }
@@ -1214,7 +1279,10 @@ public class MetsElementVisitor implements IMetsElementVisitor {
                         String originalFile = MetsUtils.xPathEvaluateString(metsElement.getRelsExt(), "*[local-name()='RDF']/*[local-name()='Description']/*[local-name()='importFile']");
                         jHoveOutputMC = JhoveUtility.getMix(metsElement, MixEditor.NDK_ARCHIVAL_ID, outputFileName, null, md5InfosMap.get(Const.MC_GRP_ID).getCreated(), originalFile);
                         if (jHoveOutputMC == null) {
-                            jHoveOutputMC = JhoveUtility.getMix(new File(outputFileName), metsElement.getMetsContext(), null, md5InfosMap.get(Const.MC_GRP_ID).getCreated(), originalFile);
+                            jHoveOutputMC = JhoveUtility.getCachedMix(md5InfosMap.get(Const.MC_GRP_ID).getMd5(), null, md5InfosMap.get(Const.MC_GRP_ID).getCreated(), originalFile);
+                        }
+                        if (jHoveOutputMC == null || jHoveOutputMC.getMix() == null) {
+                            jHoveOutputMC = JhoveUtility.getMix(new File(outputFileName), metsElement.getMetsContext(), md5InfosMap.get(Const.MC_GRP_ID).getMd5(), null, md5InfosMap.get(Const.MC_GRP_ID).getCreated(), originalFile);
                             if (jHoveOutputMC.getMix() == null) {
                                 throw new MetsExportException(metsElement.getOriginalPid(), "Unable to generate Mix information for MC image", false, null);
                             }
@@ -1232,7 +1300,7 @@ public class MetsElementVisitor implements IMetsElementVisitor {
                                 rawCreated = rawDsAes.getDatastreamVersion().get(0).getCREATED();
                                 InputStream is = dsRawAes.execute(metsElement.getMetsContext().getFedoraClient()).getEntityInputStream();
                                 String rawExtendsion = MimeType.getExtension(rawDsAes.getDatastreamVersion().get(0).getMIMETYPE());
-                                rawFile = new File(metsElement.getMetsContext().getOutputPath() + File.separator + metsElement.getMetsContext().getPackageID() + File.separator + "rawAes" + "." + rawExtendsion);
+                                rawFile = new File(metsElement.getMetsContext().getOutputPath() + File.separator + metsElement.getMetsContext().getPackageID() + File.separator + "rawAes_" + seq + "." + rawExtendsion);
                                 FileMD5Info rawinfo;
                                 try {
                                     rawinfo = MetsUtils.getDigestAndCopy(is, new FileOutputStream(rawFile));
@@ -1266,7 +1334,7 @@ public class MetsElementVisitor implements IMetsElementVisitor {
                                             DatastreamVersionType datastreamVersionType = datastreamType.getDatastreamVersion().get(0);
                                             InputStream is = AkubraUtils.getStreamContent(datastreamVersionType, akubraObject.getManager());
                                             String rawExtendsion = MimeType.getExtension(datastreamVersionType.getMIMETYPE());
-                                            rawFile = new File(metsElement.getMetsContext().getOutputPath() + File.separator + metsElement.getMetsContext().getPackageID() + File.separator + "rawAes" + "." + rawExtendsion);
+                                            rawFile = new File(metsElement.getMetsContext().getOutputPath() + File.separator + metsElement.getMetsContext().getPackageID() + File.separator + "rawAes_" + seq + "." + rawExtendsion);
                                             FileMD5Info rawinfo;
                                             try {
                                                 rawinfo = MetsUtils.getDigestAndCopy(is, new FileOutputStream(rawFile));
@@ -1449,19 +1517,9 @@ public class MetsElementVisitor implements IMetsElementVisitor {
 
             saveAmdSec(metsElement, amdSecMets, fileNames, mimeTypes);
 
-            FileType fileType = prepareFileType(seq, "TECHMDGRP", fileNames, mimeTypes, metsElement, outputFileNames, md5InfosMap);
-            this.fileGrpMap.get("TECHMDGRP").
-
-                    getFile().
-
-                    add(fileType);
-
-            Fptr fptr = new Fptr();
-            fptr.setFILEID(fileType);
-            pageDiv.getFptr().
-
-                    add(fptr);
+            return prepareFileType(seq, "TECHMDGRP", fileNames, mimeTypes, metsElement, outputFileNames, md5InfosMap, fileList);
         }
+        return null;
     }
 
     private void addEditedPremisToAmdSec(AmdSecType amdSec, Mets premisMets) {
@@ -1560,8 +1618,7 @@ public class MetsElementVisitor implements IMetsElementVisitor {
             byte[] byteArray = bos.toByteArray();
             fileNames.put("TECHMDGRP", byteArray);
             mimeTypes.put("TECHMDGRP", "text/xml");
-            Document document = MetsUtils.getDocumentFromBytes(byteArray);
-            MetsUtils.validateAgainstXSD(document, Mets.class.getResourceAsStream("mets.xsd"));
+            MetsUtils.validateAgainstXSD(new StreamSource(new ByteArrayInputStream(byteArray)), Mets.class.getResource("mets.xsd"));
         } catch (Exception ex) {
             throw new MetsExportException(metsElement.getOriginalPid(), "Error while saving AMDSec file", false, ex);
         }
@@ -1665,7 +1722,8 @@ public class MetsElementVisitor implements IMetsElementVisitor {
     }
 
     /**
-     * Inserts Page structure to the mets
+     * Inserts Page structure to the mets. The files of the page are processed
+     * by {@link PageTasks} and added to the mets later in the order of pages.
      *
      * @param physicalDiv
      * @param metsElement
@@ -1679,48 +1737,97 @@ public class MetsElementVisitor implements IMetsElementVisitor {
             File packageDir = createPackageDir(metsElement);
             metsElement.getMetsContext().setPackageDir(packageDir);
         }
-        HashMap<String, String> outputFileNames = new HashMap<String, String>();
 
         if (!Const.PAGE.equals(metsElement.getElementType()) && !Const.MONOGRAPH_UNIT.equals(metsElement.getElementType())) {
             throw new MetsExportException(metsElement.getOriginalPid(), "Expected page, got " + metsElement.getElementType(), false, null);
         }
-        HashMap<String, FileGrp> fileGrpPage = MetsUtils.initFileGroups();
         DivType pageDiv = new DivType();
         physicalDiv.getDiv().add(pageDiv);
         validatePageIndexAndNumber(metsElement, pageIndex);
         fillPageIndexOrder(metsElement, pageDiv);
         String ID = "DIV_P_PAGE_" + metsElement.getElementID().replace("PAGE_", "");
         pageDiv.setID(ID);
+
+        StructLinkMapping structLinkMapping = new StructLinkMapping();
+        structLinkMapping.pageDiv = metsElement.getParent().getModsElementID();
+        structLinkMapping.pageOrder = pageDiv.getORDER();
+        pageOrderToDivMap.put(structLinkMapping, ID);
+        for (IMetsElement sourceElement : sourceElements) {
+            addMappingPageStruct(structLinkMapping, transformSupplementId(sourceElement.getModsElementID()));
+        }
+
+        getPageTasks(metsElement).submit(() -> insertPageFiles(pageDiv, metsElement, pageCounter));
+    }
+
+    /**
+     * Copies files of the page and generates its technical metadata. It may run
+     * in a worker thread, so it does not touch the mets.
+     *
+     * @return the action adding the files to the mets
+     */
+    private Runnable insertPageFiles(DivType pageDiv, IMetsElement metsElement, int pageCounter) throws MetsExportException {
+        HashMap<String, String> outputFileNames = new HashMap<String, String>();
+        HashMap<String, FileGrp> fileGrpPage = MetsUtils.initFileGroups();
         HashMap<String, Object> fileNames = new HashMap<String, Object>();
         HashMap<String, String> mimeTypes = new HashMap<String, String>();
         HashMap<String, XMLGregorianCalendar> createDates = new HashMap<String, XMLGregorianCalendar>();
         HashMap<String, FileMD5Info> md5InfosMap = new HashMap<String, FileMD5Info>();
+        List<FileMD5Info> fileList = new ArrayList<FileMD5Info>();
+        Map<String, FileType> pageFiles = new LinkedHashMap<String, FileType>();
         processPageFiles(metsElement, pageCounter, fileNames, mimeTypes, createDates, md5InfosMap);
         for (String streamName : Const.streamMapping.keySet()) {
             if (fileNames.containsKey(streamName)) {
-                FileType fileType = prepareFileType(pageCounter, streamName, fileNames, mimeTypes, metsElement, outputFileNames, md5InfosMap);
+                FileType fileType = prepareFileType(pageCounter, streamName, fileNames, mimeTypes, metsElement, outputFileNames, md5InfosMap, fileList);
                 fileGrpPage.get(streamName).getFile().add(fileType);
-                fileGrpMap.get(streamName).getFile().add(fileType);
+                pageFiles.put(streamName, fileType);
+            } else {
+                if (isMandatoryStream(streamName) && (!metsElement.getMetsContext().isAllowNonCompleteStreams())) {
+                    throw new MetsExportException(metsElement.getOriginalPid(), "Stream:" + streamName + " is missing", false, null);
+                }
+            }
+        }
+        FileType techFile = generateTechMetadata(metsElement, fileNames, pageCounter, fileGrpPage, mimeTypes, outputFileNames, md5InfosMap, fileList);
+        if (techFile != null) {
+            pageFiles.put("TECHMDGRP", techFile);
+        }
+
+        return () -> {
+            for (Map.Entry<String, FileType> pageFile : pageFiles.entrySet()) {
+                FileType fileType = pageFile.getValue();
+                fileGrpMap.get(pageFile.getKey()).getFile().add(fileType);
                 Fptr fptr = new Fptr();
                 fptr.setFILEID(fileType);
                 pageDiv.getFptr().add(fptr);
-                if (Const.ALTO_GRP_ID.equals(streamName)) {
+                if (Const.ALTO_GRP_ID.equals(pageFile.getKey())) {
                     metsElement.setAltoFile(fileType);
                 }
-            } else {
-                if (isMandatoryStream(streamName) && (!metsElement.getMetsContext().isAllowNonCompleteStreams())) {
-                    throw new MetsExportException(metsElement.getOriginalPid(), "Stream:" + streamName + " is missing", false, null);
-                }
             }
+            metsElement.getMetsContext().getFileList().addAll(fileList);
+        };
+    }
+
+    private PageTasks getPageTasks(IMetsElement metsElement) {
+        if (pageTasks == null) {
+            MetsContext metsContext = metsElement.getMetsContext();
+            int threads = metsContext.getOptions() == null ? 1 : metsContext.getOptions().getPageThreads();
+            pageTasks = new PageTasks(metsContext, threads);
         }
-        generateTechMetadata(metsElement, fileNames, pageCounter, fileGrpPage, mimeTypes, pageDiv, outputFileNames, md5InfosMap);
+        return pageTasks;
+    }
 
-        StructLinkMapping structLinkMapping = new StructLinkMapping();
-        structLinkMapping.pageDiv = metsElement.getParent().getModsElementID();
-        structLinkMapping.pageOrder = pageDiv.getORDER();
-        pageOrderToDivMap.put(structLinkMapping, ID);
-        for (IMetsElement sourceElement : sourceElements) {
-            addMappingPageStruct(structLinkMapping, transformSupplementId(sourceElement.getModsElementID()));
+    /**
+     * Waits for the files of the inserted pages.
+     */
+    private void finishPages() throws MetsExportException {
+        if (pageTasks != null) {
+            pageTasks.finish();
+        }
+    }
+
+    private void closePages() {
+        if (pageTasks != null) {
+            pageTasks.close();
+            pageTasks = null;
         }
     }
 
@@ -2148,6 +2255,8 @@ public class MetsElementVisitor implements IMetsElementVisitor {
         if (structStream == null) {
             return;
         }
+        // the ALTO files of pages are referenced
+        finishPages();
         List<IntPartInfo> partInfoList = parseAltoInfo(MetsUtils.getDocumentFromBytes(structStream));
         for (IntPartInfo partInfo : partInfoList) {
             DivType divType = new DivType();
@@ -2396,8 +2505,10 @@ public class MetsElementVisitor implements IMetsElementVisitor {
                 metsElement.getMetsContext().setPackageDir(packageDirFile);
             }
 
+            finishPages();
             saveMets(mets, new File(metsElement.getMetsContext().getPackageDir().getAbsolutePath() + File.separator + "mets_" + MetsUtils.removeNonAlpabetChars(metsElement.getMetsContext().getPackageID()) + ".xml"), metsElement);
         } finally {
+            closePages();
             JhoveUtility.destroyConfigFiles(metsElement.getMetsContext().getJhoveContext());
         }
     }
@@ -2476,6 +2587,8 @@ public class MetsElementVisitor implements IMetsElementVisitor {
     }
 
     private void insertAudioPage(DivType physicalDiv, IMetsElement metsElement, int audioPageCounter, List<IMetsElement> sourceElements, IMetsElement sourceElement) throws MetsExportException {
+        // audio pages are processed in the calling thread after the pages
+        finishPages();
         if (metsElement.getMetsContext().getPackageDir() == null) {
             File packageDir = createPackageDir(metsElement);
             metsElement.getMetsContext().setPackageDir(packageDir);
@@ -2528,7 +2641,13 @@ public class MetsElementVisitor implements IMetsElementVisitor {
             }
         }
 
-        generateTechMetadata(metsElement, fileNames, audioPageCounter, fileGrpAudioPage, mimeTypes, audioPageDiv, outputFileName, md5InfosMap);
+        FileType techFile = generateTechMetadata(metsElement, fileNames, audioPageCounter, fileGrpAudioPage, mimeTypes, outputFileName, md5InfosMap, metsElement.getMetsContext().getFileList());
+        if (techFile != null) {
+            fileGrpMap.get("TECHMDGRP").getFile().add(techFile);
+            Fptr fptr = new Fptr();
+            fptr.setFILEID(techFile);
+            audioPageDiv.getFptr().add(fptr);
+        }
 
         StructLinkMapping structLinkMapping = new StructLinkMapping();
         structLinkMapping.pageDiv = metsElement.getParent().getModsElementID();
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.process.export.mets.structure;
+
+import cz.cas.lib.proarc.common.process.export.mets.JhoveContext;
+import cz.cas.lib.proarc.common.process.export.mets.JhoveUtility;
+import cz.cas.lib.proarc.common.process.export.mets.MetsContext;
+import cz.cas.lib.proarc.common.process.export.mets.MetsExportException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Processes files of pages on a bounded pool of threads.
+ *
+ * <p>A task does the expensive work (copies, checksums, JHOVE) and returns
+ * an action that adds its results to the METS. The actions run in the calling
+ * thread in the order in which the tasks were submitted, so the fileSec
+ * and the structMap do not depend on the order in which the tasks finish.
+ * At most twice the number of threads tasks wait for their actions.
+ *
+ * <p>Each worker thread gets its own JHOVE instance as JHOVE is not thread-safe.
+ * With a single thread the tasks run immediately in the calling thread.
+ */
+final class PageTasks {
+
+    private static final Logger LOG = Logger.getLogger(PageTasks.class.getName());
+
+    /**
+     * The work with the files of a page.
+     */
+    interface PageTask {
+
+        /**
+         * @return the action adding the results to the METS
+         */
+        Runnable call() throws MetsExportException;
+    }
+
+    private final MetsContext metsContext;
+    private final int threads;
+    private final ExecutorService executor;
+    private final Deque<Future<Runnable>> pending = new ArrayDeque<Future<Runnable>>();
+    private final ThreadLocal<JhoveContext> workerJhoveContext = new ThreadLocal<JhoveContext>();
+    private final List<JhoveContext> jhoveContexts = Collections.synchronizedList(new ArrayList<JhoveContext>());
+
+    PageTasks(MetsContext metsContext, int threads) {
+        this.metsContext = metsContext;
+        this.threads = Math.max(1, threads);
+        if (this.threads > 1) {
+            AtomicInteger counter = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(this.threads, r -> {
+                Thread thread = new Thread(r, "ndk-export-page-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Submits the task. It may apply results of previous tasks to keep
+     * the number of waiting tasks bounded.
+     */
+    void submit(PageTask task) throws MetsExportException {
+        if (executor == null) {
+            task.call().run();
+            return;
+        }
+        pending.add(executor.submit(() -> {
+            initWorker();
+            return task.call();
+        }));
+        while (pending.size() >= 2 * threads) {
+            applyNext();
+        }
+    }
+
+    /**
+     * Waits for all submitted tasks and applies their results.
+     */
+    void finish() throws MetsExportException {
+        while (!pending.isEmpty()) {
+            applyNext();
+        }
+    }
+
+    /**
+     * Stops the threads and releases their JHOVE instances. Results of
+     * unfinished tasks are discarded.
+     */
+    void close() {
+        if (executor != null) {
+            for (Future<Runnable> future : pending) {
+                future.cancel(true);
+            }
+            pending.clear();
+            executor.shutdownNow();
+            try {
+                if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    LOG.warning("Threads processing pages did not stop.");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (jhoveContexts) {
+            for (JhoveContext jhoveContext : jhoveContexts) {
+                jhoveContext.destroy();
+            }
+            jhoveContexts.clear();
+        }
+    }
+
+    private void initWorker() throws MetsExportException {
+        if (workerJhoveContext.get() == null) {
+            JhoveContext jhoveContext = JhoveUtility.createContext();
+            jhoveContexts.add(jhoveContext);
+            workerJhoveContext.set(jhoveContext);
+            metsContext.setThreadJhoveContext(jhoveContext);
+        }
+    }
+
+    private void applyNext() throws MetsExportException {
+        Future<Runnable> future = pending.poll();
+        Runnable action;
+        try {
+            action = future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MetsExportException("Processing of pages interrupted", false, ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof MetsExportException) {
+                throw (MetsExportException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            LOG.log(Level.SEVERE, "Processing of pages failed", cause);
+            throw new MetsExportException("Processing of pages failed", false, (Exception) cause);
+        }
+        action.run();
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.process.external;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.ConversionException;
+
+/**
+ * Generates OCR and ALTO of many images with {@link OcrGenerator}.
+ *
+ * <p>The images are staged in the calling thread while a bounded pool of threads
+ * runs the OCR processor. At most twice the number of threads images wait
+ * for the processor or for their results. The results are handed over
+ * in the calling thread as soon as they are generated, in the order in which
+ * they finish.
+ *
+ * <p>The results are expected when the processor exits. If they are missing,
+ * the folder is watched for them until {@link #PROP_RESULT_TIMEOUT} expires
+ * as some processors hand the work over to a service. The ALTO is accepted
+ * only when it is well-formed, so a file still being written is not imported.
+ */
+public final class OcrPipeline<T> {
+
+    private static final Logger LOG = Logger.getLogger(OcrPipeline.class.getName());
+
+    /**
+     * The time in milliseconds to wait for results missing after the processor exited.
+     */
+    public static final String PROP_RESULT_TIMEOUT = "resultTimeout";
+
+    public static final long DEFAULT_RESULT_TIMEOUT = 30 * 1000;
+
+    /**
+     * Prepares images and takes over the results.
+     */
+    public interface Handler<T> {
+
+        /**
+         * Prepares the image of the item. It runs in the calling thread.
+         *
+         * @return the image or {@code null} to skip the item
+         */
+        File stage(T item) throws Exception;
+
+        /**
+         * Takes over the results of the item. It runs in the calling thread.
+         *
+         * @param ocrFile the generated plain text
+         * @param altoFile the generated ALTO
+         */
+        void finish(T item, File ocrFile, File altoFile) throws Exception;
+    }
+
+    private final Configuration processorConfig;
+    private final String plainOcrFileSuffix;
+    private final String altoFileSuffix;
+    private final int threads;
+
+    /**
+     * @param processorConfig the configuration of {@link OcrGenerator}
+     * @param threads the number of images processed in parallel
+     */
+    public OcrPipeline(Configuration processorConfig, String plainOcrFileSuffix, String altoFileSuffix, int threads) {
+        this.processorConfig = processorConfig;
+        this.plainOcrFileSuffix = plainOcrFileSuffix;
+        this.altoFileSuffix = altoFileSuffix;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Processes the items. The first failure stops the processing; images
+     * waiting for the processor are not processed then.
+     */
+    public void run(Iterable<T> items, Handler<T> handler) throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "ocr-generator-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletionService<Job> completion = new ExecutorCompletionService<Job>(executor);
+            int pending = 0;
+            for (Iterator<T> it = items.iterator(); it.hasNext();) {
+                T item = it.next();
+                File image = handler.stage(item);
+                if (image == null) {
+                    continue;
+                }
+                completion.submit(new Job(item, image));
+                pending++;
+                while (pending >= 2 * threads) {
+                    finishNext(completion, handler);
+                    pending--;
+                }
+            }
+            for (; pending > 0; pending--) {
+                finishNext(completion, handler);
+            }
+        } finally {
+            executor.shutdownNow();
+            try {
+                if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    LOG.warning("Threads generating OCR did not stop.");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void finishNext(CompletionService<Job> completion, Handler<T> handler) throws Exception {
+        Job job;
+        try {
+            job = completion.take().get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw ex;
+        }
+        handler.finish(job.item, job.ocrFile, job.altoFile);
+    }
+
+    /**
+     * Waits until the files exist, are not empty and the ALTO is well-formed.
+     *
+     * @return {@code false} if the files are missing or incomplete after the timeout
+     */
+    static boolean awaitFiles(File folder, long timeout, File ocrFile, File altoFile) throws IOException, InterruptedException {
+        if (exist(ocrFile, altoFile)) {
+            return true;
+        }
+        if (timeout <= 0) {
+            return false;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        Path path = folder.toPath();
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            path.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            // the files might be created before the registration
+            while (!exist(ocrFile, altoFile)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                WatchKey key = watcher.poll(remaining, TimeUnit.NANOSECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+            }
+            return true;
+        }
+    }
+
+    private static boolean exist(File ocrFile, File altoFile) {
+        return ocrFile.length() > 0 && altoFile.length() > 0 && isWellFormed(altoFile);
+    }
+
+    static boolean isWellFormed(File xml) {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        try (InputStream stream = new FileInputStream(xml)) {
+            XMLStreamReader reader = factory.createXMLStreamReader(stream);
+            try {
+                while (reader.hasNext()) {
+                    reader.next();
+                }
+            } finally {
+                reader.close();
+            }
+            return true;
+        } catch (IOException | XMLStreamException ex) {
+            LOG.log(Level.FINE, "Incomplete " + xml, ex);
+            return false;
+        }
+    }
+
+    long getResultTimeout() {
+        try {
+            return Math.max(0, processorConfig.getLong(PROP_RESULT_TIMEOUT, DEFAULT_RESULT_TIMEOUT));
+        } catch (ConversionException ex) {
+            LOG.log(Level.WARNING, null, ex);
+            return DEFAULT_RESULT_TIMEOUT;
+        }
+    }
+
+    private final class Job implements Callable<Job> {
+
+        private final T item;
+        private final File image;
+        private File ocrFile;
+        private File altoFile;
+
+        Job(T item, File image) {
+            this.item = item;
+            this.image = image;
+        }
+
+        @Override
+        public Job call() throws Exception {
+            File[] outputFiles = OcrGenerator.getOcrFiles(image, plainOcrFileSuffix, altoFileSuffix);
+            ocrFile = outputFiles[0];
+            altoFile = outputFiles[1];
+            OcrGenerator process = new OcrGenerator(processorConfig, image, plainOcrFileSuffix, altoFileSuffix);
+            process.run();
+            if (process.getExitCode() != 0
+                    || !awaitFiles(image.getAbsoluteFile().getParentFile(), getResultTimeout(), ocrFile, altoFile)) {
+                throw new IOException("Generating OCR for " + image.getName() + " failed. \n " + process.getFullOutput());
+            }
+            return this;
+        }
+    }
+}
@@ -17,7 +17,6 @@
 package cz.cas.lib.proarc.common.process.external;
 
 import com.yourmediashelf.fedora.client.FedoraClient;
-import com.yourmediashelf.fedora.client.FedoraClientException;
 import com.yourmediashelf.fedora.client.response.FedoraResponse;
 import cz.cas.lib.proarc.common.config.AppConfiguration;
 import cz.cas.lib.proarc.common.storage.BinaryEditor;
@@ -34,17 +33,18 @@ import cz.cas.lib.proarc.common.storage.akubra.AkubraUtils;
 import cz.cas.lib.proarc.common.ocr.AltoDatastream;
 import cz.cas.lib.proarc.common.process.export.DataStreamExport;
 import cz.cas.lib.proarc.common.process.export.mets.MetsUtils;
+import cz.cas.lib.proarc.common.process.imports.ImportProfile;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.logging.Level;
+import java.util.Map;
 import java.util.logging.Logger;
 import javax.ws.rs.core.MediaType;
-import javax.xml.bind.JAXBException;
-import javax.xml.transform.TransformerException;
 
 public class PeroProcess {
 
@@ -84,112 +84,98 @@ public class PeroProcess {
         }
     }
 
-    private void generateMultipleAlto(File folder) throws IOException {
+    private void generateMultipleAlto(File folder) throws Exception {
         if (folder == null || !folder.exists() || !folder.canRead() || !folder.canWrite()) {
             throw new IOException("It is not possiblke to access " + (folder == null ? null : folder.getAbsolutePath()));
         }
+        List<File> imgFiles = new ArrayList<>();
         for (File file : folder.listFiles()) {
             if (file.getName().endsWith("tiff") || file.getName().endsWith("tif") || file.getName().endsWith("jpg")) {
-                File imgFile = file;
-                generateOCR(imgFile);
+                imgFiles.add(file);
             }
         }
-    }
+        this.<File>createPipeline().run(imgFiles, new OcrPipeline.Handler<File>() {
 
-    private void generateSingleAlto(List<String> pids) throws JAXBException, IOException, TransformerException, FedoraClientException, InterruptedException, DigitalObjectException {
-        for (String pid : pids) {
-            ProArcObject object = null;
-            InputStream inputStream = null;
-            String dsId = "FULL";
-            if (Storage.FEDORA.equals(config.getTypeOfStorage())) {
-                FedoraStorage fedoraStorage = FedoraStorage.getInstance(config);
-                object = fedoraStorage.find(pid);
-                FedoraResponse response = FedoraClient.getDatastreamDissemination(object.getPid(), dsId)
-                        .execute(((FedoraStorage.RemoteObject) object).getClient());
-                inputStream = response.getEntityInputStream();
-            } else if (Storage.AKUBRA.equals(config.getTypeOfStorage())) {
-                AkubraStorage akubraStorage = AkubraStorage.getInstance(akubraConfiguration);
-                object = akubraStorage.find(pid);
-                inputStream = AkubraUtils.getDatastreamDissemination((AkubraStorage.AkubraObject) object, dsId);
-            } else {
-                throw new IllegalStateException("Unsupported type of storage: " + config.getTypeOfStorage());
+            @Override
+            public File stage(File imgFile) {
+                return imgFile;
             }
-            File pidFolder = prepareFolder(config.getConfigHome(), object.getPid(), "jpg");
-            Thread.sleep(5000);
-            try {
-                File jpgFile = new File(pidFolder, createFileName(object.getPid(), "jpg"));
-                boolean done = false;
-                try {
-                    FileOutputStream outputStream = new FileOutputStream(jpgFile);
-                    try {
-                        MetsUtils.copyStream(inputStream, outputStream);
-                            Thread.sleep(5000);
-                        done = true;
-                    } finally {
-                        try {
-                            outputStream.close();
-                        } catch (IOException ex) {
-                            if (done) {
-                                throw ex;
-                            } else {
-                                LOG.log(Level.SEVERE, jpgFile.toString(), ex);
-                            }
-                        }
-                    }
-                } finally {
-                    try {
-                        inputStream.close();
-                    } catch (IOException ex) {
-                        if (done) {
-                            throw ex;
-                        } else {
-                            LOG.log(Level.SEVERE, jpgFile.toString(), ex);
-                        }
+
+            @Override
+            public void finish(File imgFile, File ocrFile, File altoFile) {
+            }
+        });
+    }
+
+    /**
+     * Copies FULL streams of next pages to the temp folder while the OCR
+     * of previous pages is generated and imports the results as they arrive.
+     */
+    private void generateSingleAlto(List<String> pids) throws Exception {
+        Map<String, ProArcObject> objects = new HashMap<>();
+        Map<String, File> pidFolders = new HashMap<>();
+        try {
+            this.<String>createPipeline().run(pids, new OcrPipeline.Handler<String>() {
+
+                @Override
+                public File stage(String pid) throws Exception {
+                    ProArcObject object = null;
+                    InputStream inputStream = null;
+                    String dsId = "FULL";
+                    if (Storage.FEDORA.equals(config.getTypeOfStorage())) {
+                        FedoraStorage fedoraStorage = FedoraStorage.getInstance(config);
+                        object = fedoraStorage.find(pid);
+                        FedoraResponse response = FedoraClient.getDatastreamDissemination(object.getPid(), dsId)
+                                .execute(((FedoraStorage.RemoteObject) object).getClient());
+                        inputStream = response.getEntityInputStream();
+                    } else if (Storage.AKUBRA.equals(config.getTypeOfStorage())) {
+                        AkubraStorage akubraStorage = AkubraStorage.getInstance(akubraConfiguration);
+                        object = akubraStorage.find(pid);
+                        inputStream = AkubraUtils.getDatastreamDissemination((AkubraStorage.AkubraObject) object, dsId);
+                    } else {
+                        throw new IllegalStateException("Unsupported type of storage: " + config.getTypeOfStorage());
                     }
-                }
-                File ocrFile = new File(pidFolder, createFileName(object.getPid(), "txt"));
-                File altoFile = new File(pidFolder, createFileName(object.getPid(), "xml"));
-                generateOCR(jpgFile);
-                int i = 0;
-                while (!altoFile.exists()) {
-                    if (i > 25) {
-                        break;
+                    File pidFolder = prepareFolder(config.getConfigHome(), object.getPid(), "jpg");
+                    pidFolders.put(pid, pidFolder);
+                    objects.put(pid, object);
+                    File jpgFile = new File(pidFolder, createFileName(object.getPid(), "jpg"));
+                    try (InputStream input = inputStream; FileOutputStream outputStream = new FileOutputStream(jpgFile)) {
+                        MetsUtils.copyStream(input, outputStream);
                     }
-                    i++;
-                    Thread.sleep(5000);
+                    return jpgFile;
                 }
-                if (!(altoFile.exists() || ocrFile.exists())) {
-                    throw new IOException("Impossible to generate file with Pero");
-                }
-                // import alto
-                AltoDatastream.importAlto(object, altoFile.toURI(), null);
 
-                // import ocr
-                MediaType mime = MediaType.valueOf(Files.probeContentType(ocrFile.toPath()));
-                BinaryEditor editor = BinaryEditor.dissemination(object, StringEditor.OCR_ID, mime);
-                if (editor == null) {
-                    editor = new BinaryEditor(object, FoxmlUtils.managedProfile(StringEditor.OCR_ID, mime, StringEditor.OCR_LABEL));
-                }
-                editor.write(ocrFile, editor.getLastModified(), null);
+                @Override
+                public void finish(String pid, File ocrFile, File altoFile) throws Exception {
+                    ProArcObject object = objects.remove(pid);
+                    try {
+                        // import alto
+                        AltoDatastream.importAlto(object, altoFile.toURI(), null);
+
+                        // import ocr
+                        MediaType mime = MediaType.valueOf(Files.probeContentType(ocrFile.toPath()));
+                        BinaryEditor editor = BinaryEditor.dissemination(object, StringEditor.OCR_ID, mime);
+                        if (editor == null) {
+                            editor = new BinaryEditor(object, FoxmlUtils.managedProfile(StringEditor.OCR_ID, mime, StringEditor.OCR_LABEL));
+                        }
+                        editor.write(ocrFile, editor.getLastModified(), null);
 
-                object.flush();
-            } finally {
+                        object.flush();
+                    } finally {
+                        MetsUtils.deleteFolder(pidFolders.remove(pid));
+                    }
+                }
+            });
+        } finally {
+            for (File pidFolder : pidFolders.values()) {
                 MetsUtils.deleteFolder(pidFolder);
             }
         }
     }
 
-    private void generateOCR(File jpgFile) throws IOException {
-
-        ExternalProcess process = new OcrGenerator(config.getImportConfiguration().getOcrGenProcessor(), jpgFile, ".txt", ".xml");
-
-        if (process != null) {
-            process.run();
-
-            if (!process.isOk()) {
-                throw new IOException("Generating OCR for " + jpgFile.getName() + " failed. \n " + process.getFullOutput());
-            }
-        }
+    private <T> OcrPipeline<T> createPipeline() {
+        ImportProfile importConfig = config.getImportConfiguration();
+        return new OcrPipeline<>(importConfig.getOcrGenProcessor(), ".txt", ".xml", importConfig.getOcrGenThreads());
     }
 
     private String createFileName(String pid, String dsId) {
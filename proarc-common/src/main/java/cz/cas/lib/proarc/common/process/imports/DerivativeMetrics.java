@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.process.imports;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects timings of the stages that create image derivatives on import.
+ * Each batch has its own metrics that add the runs also to the
+ * {@link #getInstance() application metrics}.
+ */
+public final class DerivativeMetrics {
+
+    private static final DerivativeMetrics INSTANCE = new DerivativeMetrics();
+
+    public enum Stage {
+        /** Decoding of the source image. */
+        READ,
+        /** Creation of the full JPEG. */
+        FULL,
+        /** Creation of the preview JPEG. */
+        PREVIEW,
+        /** Creation of the thumbnail JPEG. */
+        THUMBNAIL
+    }
+
+    private final Map<Stage, StageCounter> counters = new EnumMap<>(Stage.class);
+    private final DerivativeMetrics parent;
+
+    public static DerivativeMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    DerivativeMetrics() {
+        this(null);
+    }
+
+    /**
+     * @param parent metrics that also get the recorded runs or {@code null}
+     */
+    DerivativeMetrics(DerivativeMetrics parent) {
+        this.parent = parent;
+        for (Stage stage : Stage.values()) {
+            counters.put(stage, new StageCounter());
+        }
+    }
+
+    /**
+     * Adds a run of the stage.
+     * @param time duration in nanoseconds
+     */
+    public void record(Stage stage, long time) {
+        StageCounter counter = counters.get(stage);
+        counter.count.incrementAndGet();
+        counter.total.addAndGet(time);
+        long max;
+        while ((max = counter.max.get()) < time && !counter.max.compareAndSet(max, time)) {
+        }
+        if (parent != null) {
+            parent.record(stage, time);
+        }
+    }
+
+    /** Checks whether any stage has run. */
+    public boolean isEmpty() {
+        for (StageCounter counter : counters.values()) {
+            if (counter.count.get() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Number of runs of the stage. */
+    public long getCount(Stage stage) {
+        return counters.get(stage).count.get();
+    }
+
+    /** Total time in ms spent in the stage. */
+    public long getTotalTime(Stage stage) {
+        return TimeUnit.NANOSECONDS.toMillis(counters.get(stage).total.get());
+    }
+
+    /** Max time in ms of a single run of the stage. */
+    public long getMaxTime(Stage stage) {
+        return TimeUnit.NANOSECONDS.toMillis(counters.get(stage).max.get());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DerivativeMetrics{");
+        for (Stage stage : Stage.values()) {
+            if (stage.ordinal() > 0) {
+                sb.append(", ");
+            }
+            sb.append(stage).append("=[count=").append(getCount(stage))
+                    .append(", total=").append(getTotalTime(stage))
+                    .append(", max=").append(getMaxTime(stage)).append(']');
+        }
+        return sb.append('}').toString();
+    }
+
+    private static final class StageCounter {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+    }
+}
@@ -23,7 +23,9 @@ import cz.cas.lib.proarc.common.dao.BatchItem.FileState;
 import cz.cas.lib.proarc.common.dao.BatchItem.ObjectState;
 import cz.cas.lib.proarc.common.dublincore.DcStreamEditor;
 import cz.cas.lib.proarc.common.process.BatchManager;
+import cz.cas.lib.proarc.common.process.export.mets.JhoveContext;
 import cz.cas.lib.proarc.common.process.export.mets.JhoveUtility;
+import cz.cas.lib.proarc.common.process.export.mets.MetsExportException;
 import cz.cas.lib.proarc.common.storage.DigitalObjectException;
 import cz.cas.lib.proarc.common.storage.ProArcObject;
 import cz.cas.lib.proarc.common.storage.FoxmlUtils;
@@ -53,8 +55,18 @@ import cz.cas.lib.proarc.mods.TitleInfoDefinition;
 import cz.cas.lib.proarc.oaidublincore.OaiDcType;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.xml.bind.JAXBContext;
@@ -121,6 +133,7 @@ public class FileSetImport implements ImportHandler {
             }
         } finally {
             importConfig.getJhoveContext().destroy();
+            logDerivativeMetrics(importConfig);
         }
     }
 
@@ -375,7 +388,22 @@ public class FileSetImport implements ImportHandler {
         return (ImportArchiveCatalog) unmarshaller.unmarshal(catalogFile);
     }
 
+    /**
+     * Logs timings of image derivatives of the batch.
+     */
+    protected void logDerivativeMetrics(ImportProcess.ImportOptions ctx) {
+        DerivativeMetrics metrics = ctx.getDerivativeMetrics();
+        if (!metrics.isEmpty()) {
+            LOG.log(Level.INFO, "Batch {0}: {1}", new Object[]{ctx.getBatch().getId(), metrics});
+        }
+    }
+
     protected void consumeFileSets(Batch batch, List<FileSet> fileSets, ImportProcess.ImportOptions ctx) throws InterruptedException {
+        int threadCount = ctx.getConfig().getThreadCount();
+        if (threadCount > 1 && fileSets.size() > 1) {
+            consumeFileSets(batch, fileSets, ctx, threadCount);
+            return;
+        }
         BatchManager batchManager = BatchManager.getInstance();
         long start = System.currentTimeMillis();
         for (FileSet fileSet : fileSets) {
@@ -400,6 +428,166 @@ public class FileSetImport implements ImportHandler {
         LOG.log(Level.FINE, "Total time: {0} ms", System.currentTimeMillis() - start);
     }
 
+    /**
+     * Consumes file sets with a pool of workers. Each worker has its own copy
+     * of the import options with a JHOVE context. Page indices are assigned
+     * in the order of file sets in advance, the results are recorded in that order
+     * and the members of the batch root are sorted at the end.
+     * <p>After a failure the file sets not started yet are skipped. The objects
+     * of the started ones are recorded. The workers are finished before
+     * the members are sorted and the JHOVE contexts are destroyed.
+     * <p>An interruption cancels the outstanding file sets.
+     */
+    private void consumeFileSets(Batch batch, List<FileSet> fileSets, ImportProcess.ImportOptions ctx,
+            int threadCount) throws InterruptedException {
+
+        BatchManager batchManager = BatchManager.getInstance();
+        long start = System.currentTimeMillis();
+        List<String> pids = new ArrayList<>(fileSets.size());
+        List<Future<BatchItemObject>> results = new ArrayList<>(fileSets.size());
+        List<AtomicBoolean> started = new ArrayList<>(fileSets.size());
+        AtomicBoolean stopped = new AtomicBoolean();
+        BlockingQueue<JhoveContext> jhoveContexts = new ArrayBlockingQueue<>(threadCount);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            for (int i = 0; i < threadCount; i++) {
+                jhoveContexts.add(JhoveUtility.createContext());
+            }
+            int fileCounter = ctx.getConsumedFileCounter();
+            for (FileSet fileSet : fileSets) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                List<BatchItem> existingBatchItems = batchManager.findBatchItemObject(ctx, fileSet.getName());
+                if (exists(existingBatchItems)) {
+                    pids.add(existingBatchItems.get(0).getPid());
+                    results.add(null);
+                    started.add(null);
+                    continue;
+                }
+                ImportProcess.ImportOptions workerCtx = ctx.copy();
+                workerCtx.setConsumedFileCounter(fileCounter);
+                if (canImport(fileSet)) {
+                    fileCounter++;
+                }
+                pids.add(null);
+                AtomicBoolean taskStarted = new AtomicBoolean();
+                started.add(taskStarted);
+                results.add(executor.submit(() -> {
+                    if (stopped.get()) {
+                        return null;
+                    }
+                    taskStarted.set(true);
+                    JhoveContext jhoveContext = jhoveContexts.take();
+                    try {
+                        workerCtx.setJhoveContext(jhoveContext);
+                        return consumeFileSet(fileSet, workerCtx);
+                    } finally {
+                        jhoveContexts.put(jhoveContext);
+                    }
+                }));
+            }
+            ctx.setConsumedFileCounter(fileCounter);
+
+            String failure = null;
+            RuntimeException error = null;
+            for (int i = 0; i < results.size(); i++) {
+                Future<BatchItemObject> result = results.get(i);
+                if (result == null) {
+                    continue;
+                }
+                BatchItemObject item;
+                try {
+                    item = getResult(result);
+                } catch (RuntimeException ex) {
+                    // collect the objects of the running workers first
+                    stopped.set(true);
+                    if (error == null) {
+                        error = ex;
+                    } else {
+                        error.addSuppressed(ex);
+                    }
+                    continue;
+                }
+                if (!started.get(i).get()) {
+                    // skipped after the failure
+                    continue;
+                }
+                String pid = item == null ? null : item.getPid();
+                FileState state = item == null ? FileState.SKIPPED : FileState.OK;
+                batchManager.addFileItem(batch.getId(), pid, state, fileSets.get(i).getFiles());
+                pids.set(i, pid);
+                if (failure == null && item != null && ObjectState.LOADING_FAILED == item.getState()) {
+                    failure = item.getFile() + "\n" + item.getLog();
+                    stopped.set(true);
+                }
+            }
+            executor.shutdown();
+            awaitTermination(executor);
+            if (error != null) {
+                throw error;
+            }
+            pids.removeIf(Objects::isNull);
+            batchManager.sortChildRelations(batch, pids);
+            if (failure != null) {
+                batch.setState(Batch.State.LOADING_FAILED);
+                batch.setLog(failure);
+                return;
+            }
+        } catch (DigitalObjectException | MetsExportException ex) {
+            throw new IllegalStateException(String.valueOf(batch), ex);
+        } finally {
+            stopped.set(true);
+            for (Future<BatchItemObject> result : results) {
+                if (result != null) {
+                    result.cancel(true);
+                }
+            }
+            executor.shutdownNow();
+            // the contexts must not be destroyed while in use
+            awaitTermination(executor);
+            for (JhoveContext jhoveContext : jhoveContexts) {
+                jhoveContext.destroy();
+            }
+        }
+        LOG.log(Level.FINE, "Total time: {0} ms, threads: {1}", new Object[] {System.currentTimeMillis() - start, threadCount});
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                        return;
+                    }
+                    LOG.warning("Waiting for import workers to finish.");
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                    executor.shutdownNow();
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static BatchItemObject getResult(Future<BatchItemObject> result) throws InterruptedException {
+        try {
+            return result.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
     private boolean exists(List<BatchItem> batchItemObject) {
         return batchItemObject != null && batchItemObject.size() > 0;
     }
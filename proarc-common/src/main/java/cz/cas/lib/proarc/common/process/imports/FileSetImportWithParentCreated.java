@@ -135,6 +135,7 @@ public class FileSetImportWithParentCreated extends FileSetImport {
                 }
             } finally {
                 importConfig.getJhoveContext().destroy();
+                logDerivativeMetrics(importConfig);
             }
         }
     }
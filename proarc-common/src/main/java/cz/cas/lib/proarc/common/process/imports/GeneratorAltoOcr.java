@@ -2,11 +2,12 @@ package cz.cas.lib.proarc.common.process.imports;
 
 import cz.cas.lib.proarc.common.config.AppConfiguration;
 import cz.cas.lib.proarc.common.process.BatchManager;
-import cz.cas.lib.proarc.common.process.external.ExternalProcess;
-import cz.cas.lib.proarc.common.process.external.OcrGenerator;
+import cz.cas.lib.proarc.common.process.external.OcrPipeline;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Logger;
 
 import static cz.cas.lib.proarc.common.process.external.OcrGenerator.getOcrFiles;
@@ -35,11 +36,13 @@ public class GeneratorAltoOcr implements ImportHandler {
     @Override
     public void start(ImportProcess.ImportOptions importConfig, BatchManager batchManager, AppConfiguration config) throws Exception {
         File importFolder = importConfig.getImportFolder();
-        processFolder(importFolder, importConfig);
+        List<File> imageFiles = new ArrayList<>();
+        processFolder(importFolder, imageFiles);
+        generateTechnicalFiles(imageFiles, importConfig);
     }
 
 
-    private static void processFolder(File sourceFile, ImportProcess.ImportOptions importConfig) throws Exception {
+    private static void processFolder(File sourceFile, List<File> imageFiles) throws Exception {
         if (sourceFile == null) {
             throw new IOException("Source file is null.");
         } else if (!sourceFile.exists()) {
@@ -51,13 +54,12 @@ public class GeneratorAltoOcr implements ImportHandler {
                 if (childFile.isDirectory()) {
                     LOG.info("Doing file: " + childFile.getAbsolutePath());
                 }
-                processFolder(childFile, importConfig);
+                processFolder(childFile, imageFiles);
             }
             return;
         } else {
             if (sourceFile.getName().endsWith(".tif") || sourceFile.getName().endsWith(".jpg") || sourceFile.getName().endsWith(".jpeg")) {
-                LOG.fine("Generating file for " + sourceFile.getAbsolutePath() + " starting.");
-                generateTechnicalFiles(sourceFile, importConfig);
+                imageFiles.add(sourceFile);
                 return;
             } else {
                 LOG.fine("Skipping file: " + sourceFile.getName());
@@ -66,37 +68,27 @@ public class GeneratorAltoOcr implements ImportHandler {
         }
     }
 
-    private static void generateTechnicalFiles(File imageFile, ImportProcess.ImportOptions importConfig) throws Exception {
-        if (imageFile.getName().endsWith(".tif") || imageFile.getName().endsWith(".jpg") || imageFile.getName().endsWith(".jpeg")) {
-            ImportProfile config = importConfig.getConfig();
-            File[] outputFiles = getOcrFiles(imageFile, config.getPlainOcrFileSuffix(), config.getAltoFileSuffix());
+    private static void generateTechnicalFiles(List<File> imageFiles, ImportProcess.ImportOptions importConfig) throws Exception {
+        ImportProfile config = importConfig.getConfig();
+        OcrPipeline<File> pipeline = new OcrPipeline<>(config.getOcrGenProcessor(),
+                config.getPlainOcrFileSuffix(), config.getAltoFileSuffix(), config.getOcrGenThreads());
+        pipeline.run(imageFiles, new OcrPipeline.Handler<File>() {
 
-            File outputOcr = outputFiles[0];
-            File outputAlto = outputFiles[1];
-            if (outputOcr.exists() && outputAlto.exists()) {
-                LOG.fine("Skipping file " + imageFile.getName() + " - files exists");
-            } else {
-                try {
-                    generateFromExternalProcess(imageFile, config);
-                } catch (IOException ex) {
-                    Thread.sleep(30000);
-                    if (!(outputOcr.exists() && outputAlto.exists())) {
-                        generateFromExternalProcess(imageFile, config);
-                    }
+            @Override
+            public File stage(File imageFile) {
+                File[] outputFiles = getOcrFiles(imageFile, config.getPlainOcrFileSuffix(), config.getAltoFileSuffix());
+                if (outputFiles[0].exists() && outputFiles[1].exists()) {
+                    LOG.fine("Skipping file " + imageFile.getName() + " - files exists");
+                    return null;
                 }
+                LOG.fine("Generating file for " + imageFile.getAbsolutePath() + " starting.");
+                return imageFile;
             }
-        } else {
-            LOG.fine("Skipping file: " + imageFile.getName());
-        }
-    }
 
-    private static void generateFromExternalProcess(File imageFile, ImportProfile config) throws IOException {
-        ExternalProcess process = new OcrGenerator(config.getOcrGenProcessor(), imageFile, config.getPlainOcrFileSuffix(), config.getAltoFileSuffix());
-        if (process != null) {
-            process.run();
-        }
-        if (!process.isOk()) {
-            throw new IOException("Generating OCR for " + imageFile.getName() + " failed. \n " + process.getFullOutput());
-        }
+            @Override
+            public void finish(File imageFile, File ocrFile, File altoFile) {
+                LOG.fine("Generating file for " + imageFile.getAbsolutePath() + " finished.");
+            }
+        });
     }
 }
@@ -17,26 +17,21 @@
 package cz.cas.lib.proarc.common.process.imports;
 
 import cz.cas.lib.proarc.common.dao.Batch;
+import cz.cas.lib.proarc.common.process.ProcessScheduler;
 import java.lang.Thread.UncaughtExceptionHandler;
-import java.sql.Timestamp;
-import java.util.Comparator;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.PriorityBlockingQueue;
-import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.apache.commons.configuration.Configuration;
 
 /**
  * Dispatcher controls scheduling of {@link ImportProcess import processes}.
  *
- * For now it runs processes in single thread to preserve memory resources.
+ * By default it runs processes in single thread to preserve memory resources.
+ * See {@link ProcessScheduler} for the options.
  *
  * @author Jan Pokorsky
  */
@@ -45,18 +40,31 @@ public final class ImportDispatcher {
     private static final Logger LOG = Logger.getLogger(ImportDispatcher.class.getName());
     private static ImportDispatcher INSTANCE = new ImportDispatcher();
 
-    private ExecutorService pool;
+    private ProcessScheduler pool;
     private final int threadCount;
+    private final Configuration limits;
 
     public ImportDispatcher() {
         this(1);
     }
 
     ImportDispatcher(int threadCount) {
+        this(threadCount, null);
+    }
+
+    /**
+     * @param limits thread limits of the {@link ProcessScheduler scheduler}
+     */
+    public ImportDispatcher(Configuration limits) {
+        this(1, limits);
+    }
+
+    private ImportDispatcher(int threadCount, Configuration limits) {
         if (threadCount < 1) {
             throw new IllegalArgumentException("threadCount: " + threadCount);
         }
         this.threadCount = threadCount;
+        this.limits = limits;
     }
 
     public static ImportDispatcher getDefault() {
@@ -107,7 +115,15 @@ public final class ImportDispatcher {
 
     <T extends Runnable> Future<T> addTask(T task) {
         checkRunning();
-        return pool.submit(new ExceptionHandlingTask(task), task);
+        Batch batch = task instanceof ImportProcess ? ((ImportProcess) task).getBatch() : null;
+        return pool.submit(new ExceptionHandlingTask(task), task, batch);
+    }
+
+    /**
+     * Gets queue depth and wait time statistics.
+     */
+    public ProcessScheduler.Metrics getMetrics() {
+        return pool == null ? null : pool.getMetrics();
     }
 
     private void checkRunning() {
@@ -125,20 +141,9 @@ public final class ImportDispatcher {
         }
     }
 
-    private ExecutorService newThreadPool() {
-        ExecutorService executorService = new ThreadPoolExecutor(threadCount, threadCount, 0L,
-                TimeUnit.MILLISECONDS, new PriorityBlockingQueue<Runnable>(11, new PriorityFutureComparator ()), new ImportDispatcherThreadFactory()) {
-
-
-
-            @Override
-            protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
-                RunnableFuture<T> newTaskFor = super.newTaskFor(runnable, value);
-                return new PriorityFuture<>(newTaskFor, ((ImportProcess) value).getBatch().getPriority(), ((ImportProcess) value).getBatch().getCreate());
-            }
-
-        };
-        return executorService;
+    private ProcessScheduler newThreadPool() {
+        return new ProcessScheduler(ImportDispatcher.class.getSimpleName(), threadCount, limits,
+                new ImportDispatcherThreadFactory());
     }
 
     private static final class ExceptionHandlingTask implements Runnable {
@@ -197,102 +202,4 @@ public final class ImportDispatcher {
         }
 
     }
-
-    private class PriorityFutureComparator  implements Comparator<Runnable> {
-
-        @Override
-        public int compare(Runnable o1, Runnable o2) {
-            if (o1 == null && o2 == null) {
-                return 0;
-            } else if (o1 == null) {
-                return -1;
-            } else if (o2 ==null) {
-                return 1;
-            } else {
-                int priorityO1 = transform(((PriorityFuture) o1).getPriority());
-                int priorityO2 = transform(((PriorityFuture) o2).getPriority());
-
-                // -1 pro to, co ma bezet nejdriv
-                // 0 pokud maji stejnou prioritu --> pote rozhoduje cas vzniku
-                // 1 pro to, co ma bezet naposled
-                return priorityO1 > priorityO2 ? -1 : (priorityO1 == priorityO2 ? compareTimestamp(o1, o2) : 1);
-            }
-        }
-
-        private int compareTimestamp(Runnable o1, Runnable o2) {
-            Timestamp timestampO1 = ((PriorityFuture) o1).getCreatedDate();
-            Timestamp timestampO2 = ((PriorityFuture) o2).getCreatedDate();
-
-            return timestampO1.compareTo(timestampO2);
-        }
-
-        private int transform(String priority) {
-            if (priority == null) {
-                return 0;
-            } else if (Batch.PRIORITY_HIGHEST.equals(priority)) {
-                return 2;
-            } else if (Batch.PRIORITY_HIGH.equals(priority)) {
-                return 1;
-            } else if (Batch.PRIORITY_MEDIUM.equals(priority)) {
-                return 0;
-            } else if (Batch.PRIORITY_LOW.equals(priority)) {
-                return -1;
-            } else if (Batch.PRIORITY_LOWEST.equals(priority)) {
-                return -2;
-            } else {
-                return 0;
-            }
-        }
-    }
-
-    private class PriorityFuture<T> implements RunnableFuture<T> {
-
-        private RunnableFuture<T> src;
-        private String priority;
-        private Timestamp createdDate;
-
-        public PriorityFuture(RunnableFuture<T> newTaskFor, String priority, Timestamp createdDate) {
-            this.src = newTaskFor;
-            this.priority = priority;
-            this.createdDate = createdDate;
-        }
-
-        public String getPriority() {
-            return priority;
-        }
-
-        public Timestamp getCreatedDate() {
-            return createdDate;
-        }
-
-        @Override
-        public void run() {
-            src.run();
-        }
-
-        @Override
-        public boolean cancel(boolean mayInterruptIfRunning) {
-            return src.cancel(mayInterruptIfRunning);
-        }
-
-        @Override
-        public boolean isCancelled() {
-            return src.isCancelled();
-        }
-
-        @Override
-        public boolean isDone() {
-            return src.isDone();
-        }
-
-        @Override
-        public T get() throws InterruptedException, ExecutionException {
-            return src.get();
-        }
-
-        @Override
-        public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-            return src.get(timeout, unit);
-        }
-    }
 }
@@ -388,6 +388,7 @@ public final class ImportProcess implements Runnable {
         private final ImportProfile profile;
         private JhoveContext jhoveContext;
         private ImportHandler importer;
+        private DerivativeMetrics derivativeMetrics = new DerivativeMetrics(DerivativeMetrics.getInstance());
         private String priority;
         private boolean useNewMetadata;
         private boolean useOriginalMetadata;
@@ -498,6 +499,30 @@ public final class ImportProcess implements Runnable {
             this.jhoveContext = jhoveContext;
         }
 
+        /**
+         * Gets timings of image derivatives of the batch.
+         */
+        public DerivativeMetrics getDerivativeMetrics() {
+            return derivativeMetrics;
+        }
+
+        /**
+         * Creates a copy for a worker thread. The copy shares the batch and
+         * the profile but it has its own file counter and JHOVE context.
+         */
+        public ImportOptions copy() {
+            ImportOptions options = new ImportOptions(importFolder, device, generateIndices, generatePageNumber,
+                    user, profile, priority, useNewMetadata, useOriginalMetadata);
+            options.targetFolder = targetFolder;
+            options.consumedFileCounter = consumedFileCounter;
+            options.batch = batch;
+            options.originalBatchState = originalBatchState;
+            options.jhoveContext = jhoveContext;
+            options.importer = importer;
+            options.derivativeMetrics = derivativeMetrics;
+            return options;
+        }
+
         public static ImportOptions fromBatch(Batch batch, File importFolder,
                                               boolean useNewMetadata, boolean useOriginalMetadata, UserProfile username, ImportProfile profile) {
 
@@ -76,7 +76,9 @@ public final class ImportProfile {
     public static final String CONVERTOR_JPG_LARGE_PROCESSOR = "import.jpg_large_convertor.processor";
     public static final String CONVERTOR_JP2_PROCESSOR = "import.jp2_convertor.processor";
     public static final String OCR_GEN_PROCESSOR = "import.ocr_generator.processor";
+    public static final String OCR_GEN_THREADS = "import.ocr_generator.threads";
     public static final String CONVERTOR_TIFF_JPG_PROCESSOR = "import.tiff_to_jpg_convertor.processor";
+    public static final String CONVERTOR_TIFF_JPG_THREADS = "import.tiff_to_jpg_convertor.threads";
     public static final String NDK_SOURCE_AUDIO_SUFFIX = "import.ndk_audio_source.file.suffix";
     public static final String NDK_ARCHIVAL_AUDIO_SUFFIX = "import.ndk_audio_archival.file.suffix";
     public static final String NDK_USER_AUDIO_SUFFIX = "import.ndk_audio_user.file.suffix";
@@ -89,6 +91,7 @@ public final class ImportProfile {
     public static final String DEFAULT_ALTO_AND_OCR = "import.default_alto_and_ocr";
     public static final String DELETE_PACKAGE_IMPORT = "import.delete_package";
     public static final String DEFAULT_IMPORT_FOLDER = "import.folder.default";
+    public static final String IMPORT_THREADS = "import.threads";
     public static final String IMPORT_FOLDER_PATH = "import.folder.path";
     public static final String IMPORT_FOXML_IMAGE_SERVER_PATH = "import.foxml.imageServer.path";
     public static final String IMPORT_FOXML_FOLDER_PATH = "import.foxml.folder.path";
@@ -294,6 +297,14 @@ public final class ImportProfile {
         return config.subset(PROCESSOR + "." + processor);
     }
 
+    /**
+     * Gets the number of images processed by the OCR generator in parallel.
+     */
+    public int getOcrGenThreads() {
+        Integer threads = getPositiveInteger(OCR_GEN_THREADS);
+        return threads == null ? 1 : threads;
+    }
+
     public boolean getDeletePackageImport() {
         String value = config.getString(DELETE_PACKAGE_IMPORT);
         return "true".equals(value);
@@ -333,6 +344,22 @@ public final class ImportProfile {
         return config.subset(PROCESSOR + "." + processor);
     }
 
+    /**
+     * Gets the number of external TIFF to JPEG conversions of a page run in parallel.
+     */
+    public int getConvertorTiffToJpgThreads() {
+        Integer threads = getPositiveInteger(CONVERTOR_TIFF_JPG_THREADS);
+        return threads == null ? 1 : threads;
+    }
+
+    /**
+     * Gets the number of file sets imported in parallel.
+     */
+    public int getThreadCount() {
+        Integer threads = getPositiveInteger(IMPORT_THREADS);
+        return threads == null ? 1 : threads;
+    }
+
     public Boolean getCreateModelsHierarchy() {
         String createHierarchy = config.getString(CREATE_MODELS_HIERARCHY, "false");
         return  Boolean.parseBoolean(createHierarchy);
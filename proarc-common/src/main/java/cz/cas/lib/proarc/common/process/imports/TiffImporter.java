@@ -50,12 +50,23 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
 import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageInputStream;
 import javax.ws.rs.core.MediaType;
 import org.apache.commons.configuration.Configuration;
 
@@ -108,7 +119,7 @@ public class TiffImporter implements ImageImporter {
             DigitalObjectHandler dobjHandler = DigitalObjectManager.getDefault().createHandler(localObj);
             createRelsExt(dobjHandler, f, ctx);
             createMetadata(dobjHandler, ctx);
-            createImages(ctx.getTargetFolder(), f, originalFilename, localObj, config, fileSet);
+            createImages(ctx.getTargetFolder(), f, originalFilename, localObj, config, fileSet, ctx.getDerivativeMetrics());
             importArchivalCopy(fileSet, f, localObj, ctx);
             importUserCopy(fileSet, f, localObj, ctx);
             importOcr(fileSet, f, localObj, ctx);
@@ -411,143 +422,252 @@ public class TiffImporter implements ImageImporter {
     }
 
     private void createImages(File tempBatchFolder, File original,
-            String originalFilename, LocalObject foxml, ImportProfile config, FileSet fileSet)
-            throws IOException, DigitalObjectException, AppConfigurationException {
+            String originalFilename, LocalObject foxml, ImportProfile config, FileSet fileSet,
+            DerivativeMetrics metrics) throws IOException, DigitalObjectException, AppConfigurationException {
         
         BinaryEditor.dissemination(foxml, BinaryEditor.RAW_ID, BinaryEditor.IMAGE_TIFF)
                 .write(original, 0, null);
 
         boolean runCustomConversion = config.isTiffToJpgDefined();
 
-        long start;
-        long endRead = 0;
-        BufferedImage tiff = null;
-        File f = null;
-
         ImageMimeType imageType = ImageMimeType.JPEG;
         MediaType mediaType = MediaType.valueOf(imageType.getMimeType());
 
-        start = System.nanoTime();
-        String targetName = String.format("%s.full.%s", originalFilename, imageType.getDefaultFileExtension());
-
+        // resolves sources of derivatives first; the missing ones are created below from a single decoding
         FileEntry fullEntry = findSibling(fileSet, config.getNdkFullFileSuffix());
         String fullId = BinaryEditor.FULL_ID;
-
+        boolean createFull = false;
         if (config.getSkippedDatastreamId().contains(fullId))  {
             LOG.info("Skip import " + fullId + " for uuid " + foxml.getPid());
-        } else if (fullEntry != null) {
-            f = fullEntry.getFile();
-        } else if (config.getRequiredDatastreamId().contains(fullId)) {
-            throw new FileNotFoundException("Missing full jpg: " + new File(
-                    original.getParentFile(), fileSet.getName() + config.getNdkFullFileSuffix()));
-        } else {
-            if (runCustomConversion) {
-                f = new File(tempBatchFolder, targetName);
-                ExternalProcess p = new TiffToJpgConvert(config.getConvertorTiffToJpgProcessor(), original, f);
-                p.run();
+        } else if (fullEntry == null) {
+            if (config.getRequiredDatastreamId().contains(fullId)) {
+                throw new FileNotFoundException("Missing full jpg: " + new File(
+                        original.getParentFile(), fileSet.getName() + config.getNdkFullFileSuffix()));
+            }
+            createFull = true;
+        }
+
+        FileEntry previewEntry = findSibling(fileSet, config.getNdkPreviewFileSuffix());
+        String previewId = BinaryEditor.PREVIEW_ID;
+        Integer previewMaxHeight = null;
+        Integer previewMaxWidth = null;
+        boolean createPreview = false;
+        if (config.getSkippedDatastreamId().contains(previewId))  {
+            LOG.info("Skip import " + previewId + " for uuid " + foxml.getPid());
+        } else if (previewEntry == null) {
+            if (config.getRequiredDatastreamId().contains(previewId)) {
+                throw new FileNotFoundException("Missing preview: " + new File(
+                        original.getParentFile(), fileSet.getName() + config.getNdkPreviewFileSuffix()));
+            }
+            previewMaxHeight = config.getPreviewMaxHeight();
+            previewMaxWidth = config.getPreviewMaxWidth();
+            config.checkPreviewScaleParams();
+            createPreview = true;
+        }
 
-                if (!p.isOk()) {
-                    throw new IllegalStateException("Converting tiff to FULL jpg failed: " + p.getFullOutput());
+        FileEntry thumbnailEntry = findSibling(fileSet, config.getNdkThumbnailFileSuffix());
+        String thumbnailId = BinaryEditor.THUMB_ID;
+        Integer thumbMaxHeight = null;
+        Integer thumbMaxWidth = null;
+        boolean createThumbnail = false;
+        if (config.getSkippedDatastreamId().contains(thumbnailId))  {
+            LOG.info("Skip import " + thumbnailId + " for uuid " + foxml.getPid());
+        } else if (thumbnailEntry == null) {
+            if (config.getRequiredDatastreamId().contains(thumbnailId)) {
+                throw new FileNotFoundException("Missing thumbnail: " + new File(
+                        original.getParentFile(), fileSet.getName() + config.getNdkThumbnailFileSuffix()));
+            }
+            thumbMaxHeight = config.getThumbnailMaxHeight();
+            thumbMaxWidth = config.getThumbnailMaxWidth();
+            config.checkThumbnailScaleParams();
+            createThumbnail = true;
+        }
+
+        File fullFile = fullEntry == null ? null : fullEntry.getFile();
+        File previewFile = previewEntry == null ? null : previewEntry.getFile();
+        File thumbnailFile = thumbnailEntry == null ? null : thumbnailEntry.getFile();
+        long read = 0;
+        long full = 0;
+        long preview = 0;
+        long thumb = 0;
+
+        if (runCustomConversion) {
+            List<Conversion> conversions = new ArrayList<>();
+            if (createFull) {
+                fullFile = new File(tempBatchFolder, String.format("%s.full.%s", originalFilename, imageType.getDefaultFileExtension()));
+                conversions.add(new Conversion(DerivativeMetrics.Stage.FULL,
+                        new TiffToJpgConvert(config.getConvertorTiffToJpgProcessor(), original, fullFile), metrics));
+            }
+            if (createPreview) {
+                previewFile = new File(tempBatchFolder, String.format("%s.preview.%s", originalFilename, imageType.getDefaultFileExtension()));
+                conversions.add(new Conversion(DerivativeMetrics.Stage.PREVIEW,
+                        new TiffToJpgConvert(config.getConvertorTiffToJpgProcessor(), original, previewFile, previewMaxWidth, previewMaxHeight), metrics));
+            }
+            if (createThumbnail) {
+                thumbnailFile = new File(tempBatchFolder, String.format("%s.thumb.%s", originalFilename, imageType.getDefaultFileExtension()));
+                conversions.add(new Conversion(DerivativeMetrics.Stage.THUMBNAIL,
+                        new TiffToJpgConvert(config.getConvertorTiffToJpgProcessor(), original, thumbnailFile, thumbMaxWidth, thumbMaxHeight), metrics));
+            }
+            runConversions(conversions, config.getConvertorTiffToJpgThreads());
+            for (Conversion conversion : conversions) {
+                switch (conversion.stage) {
+                    case FULL: full = conversion.time; break;
+                    case PREVIEW: preview = conversion.time; break;
+                    default: thumb = conversion.time;
                 }
+            }
+        } else if (createFull || createPreview || createThumbnail) {
+            long start = System.nanoTime();
+            // the full JPEG needs all pixels, otherwise it is enough to decode a subsampled image
+            BufferedImage tiff;
+            if (createFull) {
+                tiff = readImage(original, null, null);
+            } else if (createPreview) {
+                tiff = readImage(original, previewMaxWidth, previewMaxHeight);
             } else {
-                if (tiff == null) {
-                    start = System.nanoTime();
-                    tiff = removeAlphaChannel(ImageSupport.readImage(original.toURI().toURL(), ImageMimeType.TIFF));
-                    endRead = System.nanoTime() - start;
+                tiff = readImage(original, thumbMaxWidth, thumbMaxHeight);
+            }
+            tiff = removeAlphaChannel(tiff);
+            read = System.nanoTime() - start;
+            metrics.record(DerivativeMetrics.Stage.READ, read);
+
+            if (createFull) {
+                start = System.nanoTime();
+                fullFile = writeImage(tiff, tempBatchFolder,
+                        String.format("%s.full.%s", originalFilename, imageType.getDefaultFileExtension()), imageType);
+                full = System.nanoTime() - start;
+                metrics.record(DerivativeMetrics.Stage.FULL, full);
+            }
+            BufferedImage thumbnailSource = tiff;
+            if (createPreview) {
+                start = System.nanoTime();
+                BufferedImage previewImage = scale(tiff, config.getPreviewScaling(), previewMaxWidth, previewMaxHeight);
+                previewFile = writeImage(previewImage, tempBatchFolder,
+                        String.format("%s.preview.%s", originalFilename, imageType.getDefaultFileExtension()), imageType);
+                preview = System.nanoTime() - start;
+                metrics.record(DerivativeMetrics.Stage.PREVIEW, preview);
+                // the thumbnail is scaled from the preview when it does not lose details
+                if (getScaleFactor(tiff.getWidth(), tiff.getHeight(), thumbMaxWidth, thumbMaxHeight)
+                        <= getScaleFactor(tiff.getWidth(), tiff.getHeight(), previewMaxWidth, previewMaxHeight)) {
+                    thumbnailSource = previewImage;
                 }
-                f = writeImage(tiff, tempBatchFolder, targetName, imageType);
+            }
+            if (createThumbnail) {
+                start = System.nanoTime();
+                thumbnailFile = createThumbnail(tempBatchFolder, originalFilename, original, thumbnailSource, config);
+                thumb = System.nanoTime() - start;
+                metrics.record(DerivativeMetrics.Stage.THUMBNAIL, thumb);
             }
         }
 
+        File f = fullFile;
         if (!InputUtils.isJpeg(f)) {
             throw new IllegalStateException("Not a JPEG content: " + f);
         }
-        long endFull = System.nanoTime() - start;
         BinaryEditor.dissemination(foxml, fullId, mediaType).write(f, 0, null);
 
-        start = System.nanoTime();
-
-        FileEntry entry = findSibling(fileSet, config.getNdkPreviewFileSuffix());
-        String previewId = BinaryEditor.PREVIEW_ID;
-        if (config.getSkippedDatastreamId().contains(previewId))  {
-            LOG.info("Skip import " + previewId + " for uuid " + foxml.getPid());
-        } else if (entry != null) {
-            f = entry.getFile();
-        } else if (config.getRequiredDatastreamId().contains(previewId)) {
-            throw new FileNotFoundException("Missing preview: " + new File(
-                    original.getParentFile(), fileSet.getName() + config.getNdkPreviewFileSuffix()));
-        } else {
-            Integer previewMaxHeight = config.getPreviewMaxHeight();
-            Integer previewMaxWidth = config.getPreviewMaxWidth();
-            config.checkPreviewScaleParams();
-            targetName = String.format("%s.preview.%s", originalFilename, imageType.getDefaultFileExtension());
-            if (runCustomConversion) {
-                f = new File(tempBatchFolder, targetName);
-                ExternalProcess p = new TiffToJpgConvert(config.getConvertorTiffToJpgProcessor(), original, f, previewMaxWidth, previewMaxHeight);
-                p.run();
-
-                if (!p.isOk()) {
-                    throw new IllegalStateException("Converting tiff to PREVIEW jpg failed: " + p.getFullOutput());
-                }
-            } else {
-                if (tiff == null) {
-                    start = System.nanoTime();
-                    tiff = removeAlphaChannel(ImageSupport.readImage(original.toURI().toURL(), ImageMimeType.TIFF));
-                    endRead = System.nanoTime() - start;
-                }
-                f = writeImage(
-                        scale(tiff, config.getPreviewScaling(), previewMaxWidth, previewMaxHeight),
-                        tempBatchFolder, targetName, imageType);
-            }
-            if (!InputUtils.isJpeg(f)) {
+        if (previewFile != null) {
+            f = previewFile;
+            if (createPreview && !InputUtils.isJpeg(f)) {
                 throw new IllegalStateException("Not a JPEG content: " + f);
             }
         }
-
-        long endPreview = System.nanoTime() - start;
         BinaryEditor.dissemination(foxml, previewId, mediaType).write(f, 0, null);
 
-        start = System.nanoTime();
+        if (thumbnailFile != null) {
+            f = thumbnailFile;
+        }
+        BinaryEditor.dissemination(foxml, thumbnailId, mediaType).write(f, 0, null);
 
-        FileEntry thumbnailEntry = findSibling(fileSet, config.getNdkThumbnailFileSuffix());
-        String thumbnailId = BinaryEditor.THUMB_ID;
-        if (config.getSkippedDatastreamId().contains(thumbnailId))  {
-            LOG.info("Skip import " + thumbnailId + " for uuid " + foxml.getPid());
-        } else if (thumbnailEntry != null) {
-            f = thumbnailEntry.getFile();
-        } else if (config.getRequiredDatastreamId().contains(thumbnailId)) {
-            throw new FileNotFoundException("Missing thumbnail: " + new File(
-                    original.getParentFile(), fileSet.getName() + config.getNdkThumbnailFileSuffix()));
-        } else {
-            if (runCustomConversion) {
-                //check is done within createThumbnail() unlike full and preview variants, should be unified
-                targetName = String.format("%s.thumb.%s", originalFilename, imageType.getDefaultFileExtension());
-                Integer thumbMaxHeight = config.getThumbnailMaxHeight();
-                Integer thumbMaxWidth = config.getThumbnailMaxWidth();
-                config.checkThumbnailScaleParams();
-
-                f = new File(tempBatchFolder, targetName);
-                ExternalProcess p = new TiffToJpgConvert(config.getConvertorTiffToJpgProcessor(), original, f, thumbMaxWidth, thumbMaxHeight);
-                p.run();
-
-                if (!p.isOk()) {
-                    throw new IllegalStateException("Converting tiff to THUMBNAIL jpg failed: " + p.getFullOutput());
+        LOG.info(String.format("file: %s, read: %s, full: %s, preview: %s, thumb: %s",
+                originalFilename, read / 1000000, full / 1000000, preview / 1000000, thumb / 1000000));
+    }
+
+    /**
+     * Runs external conversions of a page. At most {@code threads} processes run at once.
+     */
+    private static void runConversions(List<Conversion> conversions, int threads) throws IOException {
+        if (threads <= 1 || conversions.size() <= 1) {
+            for (Conversion conversion : conversions) {
+                conversion.call();
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, conversions.size()));
+        try {
+            for (Future<Void> future : executor.invokeAll(conversions)) {
+                try {
+                    future.get();
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IOException(cause);
                 }
-            } else {
-                if (tiff == null) {
-                    start = System.nanoTime();
-                    tiff = removeAlphaChannel(ImageSupport.readImage(original.toURI().toURL(), ImageMimeType.TIFF));
-                    endRead = System.nanoTime() - start;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(ex.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Decodes the image. When the bounds are set it reads just every n-th pixel
+     * that is still enough to scale the image to the bounds in good quality.
+     *
+     * @param maxWidth max width of the derivative or {@code null}
+     * @param maxHeight max height of the derivative or {@code null}
+     */
+    static BufferedImage readImage(File file, Integer maxWidth, Integer maxHeight) throws IOException {
+        if (maxWidth != null || maxHeight != null) {
+            try (ImageInputStream iis = ImageIO.createImageInputStream(file)) {
+                Iterator<ImageReader> readers = iis == null ? null : ImageIO.getImageReaders(iis);
+                if (readers != null && readers.hasNext()) {
+                    ImageReader reader = readers.next();
+                    try {
+                        reader.setInput(iis, true, true);
+                        int subsampling = getSubsampling(reader.getWidth(0), reader.getHeight(0), maxWidth, maxHeight);
+                        if (subsampling > 1) {
+                            ImageReadParam param = reader.getDefaultReadParam();
+                            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                            return reader.read(0, param);
+                        }
+                    } finally {
+                        reader.dispose();
+                    }
                 }
-                f = createThumbnail(tempBatchFolder, originalFilename, original, tiff, config);
             }
         }
+        return ImageSupport.readImage(file.toURI().toURL(), ImageMimeType.TIFF);
+    }
 
-        long endThumb = System.nanoTime() - start;
-        BinaryEditor.dissemination(foxml, thumbnailId, mediaType).write(f, 0, null);
+    /**
+     * Gets the subsampling step of an image scaled to the bounds. It keeps
+     * the subsampled image at least twice as large as the scaled one.
+     */
+    static int getSubsampling(int width, int height, Integer maxWidth, Integer maxHeight) {
+        double scale = getScaleFactor(width, height, maxWidth, maxHeight);
+        return Math.max(1, (int) (1 / (2 * scale)));
+    }
 
-        LOG.info(String.format("file: %s, read: %s, full: %s, preview: %s, thumb: %s",
-                originalFilename, endRead / 1000000, endFull / 1000000, endPreview / 1000000, endThumb / 1000000));
+    /**
+     * Gets the factor to scale the image down to the bounds or 1.
+     */
+    static double getScaleFactor(int width, int height, Integer maxWidth, Integer maxHeight) {
+        double scale = 1;
+        if (maxHeight != null && height > maxHeight) {
+            scale = (double) maxHeight / height;
+        }
+        if (maxWidth != null && width > maxWidth) {
+            double scalew = (double) maxWidth / width;
+            scale = Math.min(scale, scalew);
+        }
+        return scale;
     }
 
     private BufferedImage removeAlphaChannel(BufferedImage bufferedImage) {
@@ -618,15 +738,8 @@ public class TiffImporter implements ImageImporter {
         int width = tiff.getWidth();
         int targetWidth = width;
         int targetHeight = height;
-        double scale = Double.MAX_VALUE;
-        if (maxHeight != null && height > maxHeight) {
-            scale = (double) maxHeight / height;
-        }
-        if (maxWidth != null && width > maxWidth) {
-            double scalew = (double) maxWidth / width;
-            scale = Math.min(scale, scalew);
-        }
-        if (scale != Double.MAX_VALUE) {
+        double scale = getScaleFactor(width, height, maxWidth, maxHeight);
+        if (scale < 1) {
             targetHeight = (int) (height * scale);
             targetWidth = (int) (width * scale);
         }
@@ -651,4 +764,33 @@ public class TiffImporter implements ImageImporter {
             mixEditor.write(file, jhoveCtx, mixEditor.getLastModified(), null);
         }
     }
+
+    /**
+     * External conversion of a derivative.
+     */
+    private static final class Conversion implements Callable<Void> {
+
+        private final DerivativeMetrics.Stage stage;
+        private final ExternalProcess process;
+        private final DerivativeMetrics metrics;
+        private long time;
+
+        Conversion(DerivativeMetrics.Stage stage, ExternalProcess process, DerivativeMetrics metrics) {
+            this.stage = stage;
+            this.process = process;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Void call() {
+            long start = System.nanoTime();
+            process.run();
+            if (!process.isOk()) {
+                throw new IllegalStateException("Converting tiff to " + stage + " jpg failed: " + process.getFullOutput());
+            }
+            time = System.nanoTime() - start;
+            metrics.record(stage, time);
+            return null;
+        }
+    }
 }
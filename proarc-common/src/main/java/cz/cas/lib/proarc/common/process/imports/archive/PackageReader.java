@@ -947,6 +947,13 @@ public class PackageReader {
         }
 
         public void checkRemote(List<String> pids) throws DigitalObjectException {
+            if (Storage.AKUBRA.equals(typeOfStorage)) {
+                // probe the storage and query the index just for details of already existing objects
+                pids = akubraStorage.filterExisting(pids);
+                if (pids.isEmpty()) {
+                    return;
+                }
+            }
             List<SearchViewItem> items;
             try {
                 items = search.find(false, pids);
@@ -966,6 +973,11 @@ public class PackageReader {
                     throw new DigitalObjectException(item.getPid(), batch.getId(), null, msg, null);
 //                }
             }
+            if (Storage.AKUBRA.equals(typeOfStorage)) {
+                // the object is stored but not indexed yet
+                String msg = String.format("The repository already contains the archived object pid:%s", pids.get(0));
+                throw new DigitalObjectException(pids.get(0), batch.getId(), null, msg, null);
+            }
         }
 
         public void checkObjectParent(List<String> archiveRootLeafPath, String pid) throws DigitalObjectException {
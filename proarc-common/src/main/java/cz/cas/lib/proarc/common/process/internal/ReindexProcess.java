@@ -0,0 +1,411 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.process.internal;
+
+import com.yourmediashelf.fedora.generated.foxml.DigitalObject;
+import cz.cas.lib.proarc.common.storage.FoxmlUtils;
+import cz.cas.lib.proarc.common.storage.LocalStorage;
+import cz.cas.lib.proarc.common.storage.ProArcObject;
+import cz.cas.lib.proarc.common.storage.akubra.AkubraConfiguration;
+import cz.cas.lib.proarc.common.storage.akubra.AkubraStorage;
+import cz.cas.lib.proarc.common.storage.akubra.SolrObjectFeeder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.xml.transform.stream.StreamSource;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.impl.ConcurrentUpdateSolrClient;
+
+/**
+ * Rebuilds the Solr processing index from all objects of the Akubra object store.
+ *
+ * <p>The top level folders of the store are indexed in parallel. Each finished
+ * folder is written to the checkpoint file once its documents are sent to Solr
+ * and no index update failed meanwhile.
+ * A restarted process skips the finished folders and does not clear the index.
+ * The checkpoint is removed when the whole store is indexed.
+ */
+public class ReindexProcess {
+
+    private static final Logger LOG = Logger.getLogger(ReindexProcess.class.getName());
+
+    /** Number of finished folders between two checkpoints. */
+    private static final int CHECKPOINT_INTERVAL = 16;
+    /** The key of the objects stored directly in the root folder. */
+    private static final String ROOT_FOLDER = ".";
+
+    private final AkubraConfiguration akubraConfiguration;
+    private final File checkpoint;
+    private final ProgressListener listener;
+    private final AtomicLong objectCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+
+    /**
+     * @param checkpoint file with the finished folders
+     * @param listener listener of the progress or {@code null}
+     */
+    public ReindexProcess(AkubraConfiguration akubraConfiguration, File checkpoint, ProgressListener listener) {
+        this.akubraConfiguration = akubraConfiguration;
+        this.checkpoint = checkpoint;
+        this.listener = listener;
+    }
+
+    /**
+     * Indexes the object store.
+     *
+     * @return the final progress
+     * @throws IOException some folders failed to index; they stay out of the checkpoint
+     *      and the next run resumes with them
+     */
+    public Progress reindex() throws IOException, SolrServerException, InterruptedException {
+        File root = new File(akubraConfiguration.getObjectStorePath());
+        SolrIndexer indexer = new SolrIndexer(root);
+        try {
+            return reindex(root, indexer, akubraConfiguration.getReindexThreadCount());
+        } finally {
+            indexer.close();
+        }
+    }
+
+    Progress reindex(File root, Indexer indexer, int threadCount)
+            throws IOException, SolrServerException, InterruptedException {
+
+        List<String> folders = listFolders(root);
+        boolean resume = checkpoint.exists();
+        Set<String> finished = resume ? readCheckpoint() : new HashSet<String>();
+        List<String> pending = new ArrayList<>();
+        for (String folder : folders) {
+            if (!finished.contains(folder)) {
+                pending.add(folder);
+            }
+        }
+        LOG.info(String.format("Indexing %s of %s folders of %s, resume: %s", pending.size(), folders.size(), root, resume));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            if (!resume) {
+                indexer.clear();
+                writeCheckpoint(Collections.<String>emptyList());
+            }
+            // the index errors are reported asynchronously and cannot be assigned
+            // to a folder; a folder is done only if there was no error since its start
+            Map<String, Long> startErrors = new ConcurrentHashMap<>();
+            CompletionService<String> completion = new ExecutorCompletionService<>(executor);
+            for (String folder : pending) {
+                completion.submit(() -> {
+                    startErrors.put(folder, indexer.getErrorCount());
+                    indexer.index(folder);
+                    return folder;
+                });
+            }
+            long start = System.currentTimeMillis();
+            List<String> done = new ArrayList<>();
+            List<String> failed = new ArrayList<>();
+            Progress progress = new Progress(objectCount.get(), errorCount.get(), finished.size(), folders.size(), 0, 0);
+            for (int i = 0; i < pending.size(); i++) {
+                done.add(getResult(completion));
+                if (done.size() >= CHECKPOINT_INTERVAL || i == pending.size() - 1) {
+                    indexer.flush();
+                    long errors = indexer.getErrorCount();
+                    List<String> indexed = new ArrayList<>();
+                    for (String folder : done) {
+                        if (startErrors.get(folder) == errors) {
+                            indexed.add(folder);
+                        } else {
+                            failed.add(folder);
+                        }
+                    }
+                    writeCheckpoint(indexed);
+                    finished.addAll(indexed);
+                    done.clear();
+                    progress = new Progress(objectCount.get(), errorCount.get(), finished.size(), folders.size(),
+                            i + 1, System.currentTimeMillis() - start);
+                    LOG.info(progress.toString());
+                    if (listener != null) {
+                        listener.onProgress(progress);
+                    }
+                }
+            }
+            indexer.flush();
+            if (!failed.isEmpty()) {
+                throw new IOException(String.format("Index updates of %s folders failed, run the reindex again to resume: %s",
+                        failed.size(), failed));
+            }
+            Files.deleteIfExists(checkpoint.toPath());
+            return progress;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String getResult(CompletionService<String> completion) throws InterruptedException, IOException {
+        try {
+            return completion.take().get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Lists the top level folders of the store sorted by name. The objects
+     * stored directly in the root folder make their own unit.
+     */
+    static List<String> listFolders(File root) throws IOException {
+        List<String> folders = new ArrayList<>();
+        boolean files = false;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(root.toPath())) {
+            for (Path path : stream) {
+                if (Files.isDirectory(path)) {
+                    folders.add(path.getFileName().toString());
+                } else {
+                    files = true;
+                }
+            }
+        }
+        Collections.sort(folders);
+        if (files) {
+            folders.add(0, ROOT_FOLDER);
+        }
+        return folders;
+    }
+
+    private void indexFolder(SolrObjectFeeder feeder, AkubraStorage storage, File folder, boolean recursive)
+            throws IOException, InterruptedException {
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder.toPath())) {
+            for (Path path : stream) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                if (Files.isDirectory(path)) {
+                    if (recursive) {
+                        indexFolder(feeder, storage, path.toFile(), true);
+                    }
+                } else {
+                    indexFile(feeder, storage, path.toFile());
+                }
+            }
+        }
+    }
+
+    private void indexFile(SolrObjectFeeder feeder, AkubraStorage storage, File file) {
+        try {
+            DigitalObject digitalObject = FoxmlUtils.unmarshal(new StreamSource(file), DigitalObject.class);
+            String pid = digitalObject.getPID();
+            // indexovat jen objekty s proarcu - modely z pluginu a zarizeni
+            boolean device = pid != null && pid.startsWith("device");
+            if (pid == null || !(device || pid.startsWith("uuid"))) {
+                return;
+            }
+            ProArcObject proArcObject = new LocalStorage().create(file, digitalObject);
+            try {
+                feed(feeder, digitalObject, proArcObject, device);
+            } catch (Exception ex) {
+                if (!"URI is not hierarchical".equals(ex.getMessage())) {
+                    throw ex;
+                }
+                feed(feeder, digitalObject, storage.find(pid), device);
+            }
+            long count = objectCount.incrementAndGet();
+            if (count % 1000 == 0) {
+                LOG.fine("Processed " + count + " objects");
+            }
+        } catch (Throwable throwable) {
+            errorCount.incrementAndGet();
+            LOG.log(Level.SEVERE, "Error in proccesing file: " + file.getAbsolutePath(), throwable);
+        }
+    }
+
+    private static void feed(SolrObjectFeeder feeder, DigitalObject digitalObject, ProArcObject proArcObject, boolean device) throws Exception {
+        if (device) {
+            feeder.feedDescriptionDevice(digitalObject, proArcObject, false);
+        } else {
+            feeder.feedDescriptionDocument(digitalObject, proArcObject, false);
+        }
+    }
+
+    private Set<String> readCheckpoint() throws IOException {
+        Set<String> folders = new HashSet<>();
+        for (String line : Files.readAllLines(checkpoint.toPath(), StandardCharsets.UTF_8)) {
+            if (!line.trim().isEmpty()) {
+                folders.add(line.trim());
+            }
+        }
+        return folders;
+    }
+
+    private void writeCheckpoint(List<String> folders) throws IOException {
+        Files.write(checkpoint.toPath(), folders, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Sends the objects of the folders to the index.
+     */
+    interface Indexer {
+
+        /** Removes all documents of the index. */
+        void clear() throws IOException, SolrServerException;
+
+        void index(String folder) throws IOException, InterruptedException;
+
+        /** Waits until the sent documents are processed by the index. */
+        void flush() throws IOException, SolrServerException;
+
+        /** @return the number of failed index updates so far */
+        long getErrorCount();
+    }
+
+    private final class SolrIndexer implements Indexer {
+
+        private final File root;
+        private final AtomicLong updateErrors = new AtomicLong();
+        private final ConcurrentUpdateSolrClient solrClient;
+        private final SolrObjectFeeder feeder;
+        private final AkubraStorage storage;
+
+        SolrIndexer(File root) throws IOException {
+            this.root = root;
+            // the builder does not allow to override the asynchronous error handler
+            this.solrClient = new ConcurrentUpdateSolrClient(akubraConfiguration.getSolrSearchHost(),
+                    akubraConfiguration.getSolrQueueSize(), akubraConfiguration.getSolrThreadCount()) {
+
+                @Override
+                public void handleError(Throwable ex) {
+                    updateErrors.incrementAndGet();
+                    super.handleError(ex);
+                }
+            };
+            this.feeder = new SolrObjectFeeder(solrClient);
+            feeder.setCommitWithin(akubraConfiguration.getSolrCommitWithin());
+            this.storage = AkubraStorage.getInstance(akubraConfiguration);
+        }
+
+        @Override
+        public void clear() throws IOException, SolrServerException {
+            feeder.deleteProcessingIndex();
+            feeder.commit();
+        }
+
+        @Override
+        public void index(String folder) throws IOException, InterruptedException {
+            indexFolder(feeder, storage, ROOT_FOLDER.equals(folder) ? root : new File(root, folder), !ROOT_FOLDER.equals(folder));
+        }
+
+        @Override
+        public void flush() throws IOException, SolrServerException {
+            feeder.flush();
+        }
+
+        @Override
+        public long getErrorCount() {
+            return updateErrors.get();
+        }
+
+        void close() throws IOException {
+            solrClient.close();
+        }
+    }
+
+    public interface ProgressListener {
+
+        void onProgress(Progress progress);
+    }
+
+    /**
+     * The state of the running reindex.
+     */
+    public static final class Progress {
+
+        private final long objects;
+        private final long errors;
+        private final int finishedFolders;
+        private final int folders;
+        private final int processedFolders;
+        private final long time;
+
+        Progress(long objects, long errors, int finishedFolders, int folders, int processedFolders, long time) {
+            this.objects = objects;
+            this.errors = errors;
+            this.finishedFolders = finishedFolders;
+            this.folders = folders;
+            this.processedFolders = processedFolders;
+            this.time = time;
+        }
+
+        /** Number of indexed objects since the last (re)start. */
+        public long getObjects() {
+            return objects;
+        }
+
+        /** Number of files that could not be indexed since the last (re)start. */
+        public long getErrors() {
+            return errors;
+        }
+
+        public int getFinishedFolders() {
+            return finishedFolders;
+        }
+
+        public int getFolders() {
+            return folders;
+        }
+
+        /** Indexed objects per second. */
+        public long getThroughput() {
+            return time == 0 ? 0 : objects * 1000 / time;
+        }
+
+        /** Estimated time in ms to finish the remaining folders or -1 if it is not known yet. */
+        public long getEstimatedTime() {
+            return processedFolders == 0 ? -1 : (folders - finishedFolders) * time / processedFolders;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Indexed objects: %s, errors: %s, folders: %s/%s, objects/s: %s, ETA: %s s",
+                    objects, errors, finishedFolders, folders, getThroughput(), getEstimatedTime() / 1000);
+        }
+    }
+}
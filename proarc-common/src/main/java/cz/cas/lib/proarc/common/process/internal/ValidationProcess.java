@@ -36,12 +36,15 @@ import cz.cas.lib.proarc.mods.OriginInfoDefinition;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.xml.bind.JAXBException;
@@ -58,12 +61,6 @@ public class ValidationProcess {
     private static SolrSearchView search;
 
     private static final Set<String> PAGE_MODELS = new HashSet<String>(Arrays.asList(NdkPlugin.MODEL_PAGE, NdkPlugin.MODEL_NDK_PAGE, OldPrintPlugin.MODEL_PAGE));
-    private int indexPageValue;
-    private boolean reprePageValue;
-    private String positionPageValue;
-    private boolean containsPdf;
-
-    private Map<String, Integer> pageTypeMap = new HashMap<>();
 
     private static final Set<String> CONTAINS_PDF = new HashSet<String>(Arrays.asList(NdkEbornPlugin.MODEL_EMONOGRAPHVOLUME, NdkEbornPlugin.MODEL_EMONOGRAPHSUPPLEMENT, NdkEbornPlugin.MODEL_ECHAPTER, NdkEbornPlugin.MODEL_EPERIODICALSUPPLEMENT, NdkEbornPlugin.MODEL_EPERIODICALISSUE, NdkEbornPlugin.MODEL_EARTICLE, BornDigitalModsPlugin.MODEL_ARTICLE));
     private static final Set<String> CONTAINS_AUDIO_PAGE = new HashSet<String>(Arrays.asList(NdkAudioPlugin.MODEL_SONG, NdkAudioPlugin.MODEL_TRACK));
@@ -89,86 +86,154 @@ public class ValidationProcess {
 //            OldPrintPlugin.MODEL_GRAPHICS, OldPrintPlugin.MODEL_CARTOGRAPHIC, OldPrintPlugin.MODEL_SHEETMUSIC
     ));
 
-    private void resetValues() {
-        this.indexPageValue = 1;
-
-        this.reprePageValue = false;
-
-        this.positionPageValue = null;
-
-        pageTypeMap.clear();
-        pageTypeMap.put("cover", 0);
-        pageTypeMap.put("frontCover", 0);
-        pageTypeMap.put("backCover", 0);
-        pageTypeMap.put("spine", 0);
-        pageTypeMap.put("jacket", 0);
-        pageTypeMap.put("frontEndPaper", 0);
-        pageTypeMap.put("backEndPaper", 0);
-        pageTypeMap.put("frontJacket", 0);
-        pageTypeMap.put("titlePage", 0);
-
-        this.containsPdf = false;
-    }
-
     public ValidationProcess(AppConfiguration appConfig, AkubraConfiguration akubraConfiguration, List<String> pids, Locale locale) {
         this.appConfig = appConfig;
         this.akubraConfiguration = akubraConfiguration;
         this.pids = pids;
         this.locale = locale;
-
-        resetValues();
     }
 
     public enum Type {
         EXPORT_NDK, EXPORT_ARCHIVE, EXPORT_KRAMERIUS, VALIDATION, UPDATE_CATALOG_RECORD
     }
 
+    /**
+     * Validates the trees of the objects. The trees are loaded from the index
+     * with one query per tree level first; the objects are then checked
+     * in parallel and the results are reported in the order of the trees.
+     */
     public Result validate(Type type) throws IOException {
         Result result = new Result();
 
         if (!Storage.AKUBRA.equals(appConfig.getTypeOfStorage())) {
             storage = null;
-            result.getValidationResults().add(new ValidationResult("Úložiště", "Validace je podporována jen s AKUBROU!", Level.SEVERE));
+            result.add(new ValidationResult("Úložiště", "Validace je podporována jen s AKUBROU!", Level.SEVERE));
             return result;
         } else {
             storage = AkubraStorage.getInstance(akubraConfiguration);
             search = storage.getSearch(locale);
+            // the members of a just reordered object must be searchable
+            storage.flushIndex();
         }
 
         List<SearchViewItem> items = search.find(pids);
+        List<String> itemPids = new ArrayList<>(items.size());
         for (SearchViewItem item : items) {
+            itemPids.add(item.getPid());
+        }
+        Map<String, List<SearchViewItem>> tree = search.findSortedChildrenTree(itemPids);
+        ForkJoinPool pool = new ForkJoinPool(appConfig.getValidationThreads());
+        try {
+            for (SearchViewItem item : items) {
 
-            resetValues();
-
-            List<SearchViewItem> parentsList = search.findReferrers(item.getPid());
-            if (parentsList.size() > 1) {
-                result.getValidationResults().add(new ValidationResult(item.getPid(), "Objekt má více nadřazených objektů!", Level.SEVERE));
-            }
-            if (Type.UPDATE_CATALOG_RECORD.equals(type)) {
-                containsPageOrPdf(item, result, parentsList.isEmpty() ? null : parentsList.get(0), type);
-            } else {
-                validatePid(item, result, parentsList.isEmpty() ? null : parentsList.get(0), type);
+                List<SearchViewItem> parentsList = search.findReferrers(item.getPid());
+                if (parentsList.size() > 1) {
+                    result.add(new ValidationResult(item.getPid(), "Objekt má více nadřazených objektů!", Level.SEVERE));
+                }
+                SearchViewItem parentItem = parentsList.isEmpty() ? null : parentsList.get(0);
+                validateTree(pool, item, parentItem, tree, type, result);
             }
+        } finally {
+            pool.shutdown();
         }
 
         return result;
     }
 
-    private void containsPageOrPdf(SearchViewItem item, Result result, SearchViewItem parentItem, Type type) {
+    /**
+     * Checks the tree of the object in parallel and adds the results
+     * in the pre-order of the tree.
+     *
+     * @param tree PID to the sorted children
+     */
+    void validateTree(ForkJoinPool pool, SearchViewItem item, SearchViewItem parentItem,
+            Map<String, List<SearchViewItem>> tree, Type type, Result result) {
+
+        if (!Type.UPDATE_CATALOG_RECORD.equals(type) && PAGE_MODELS.contains(item.getModel())) {
+            validatePage(item, new PageSequence(), result);
+        }
+        NodeTask root = new NodeTask(item, parentItem, null, tree, type);
+        pool.invoke(root);
+        root.collectResults(result);
+    }
+
+    /**
+     * Checks the object. The children are checked by own calls.
+     *
+     * @param children sorted children of the object
+     * @param parentMods {@code null} or MODS of the parent if already read
+     * @return MODS of the object or {@code null}
+     */
+    ModsDefinition validateNode(SearchViewItem item, SearchViewItem parentItem, ModsDefinition parentMods,
+            List<SearchViewItem> children, Type type, Result result) {
+
+        if (Type.UPDATE_CATALOG_RECORD.equals(type)) {
+            containsPageOrPdf(item, children, result, type);
+            return null;
+        }
+        return validatePid(item, children, result, parentItem, parentMods, type);
+    }
+
+    /**
+     * Checks an object and forks the checks of its children. Each task keeps
+     * its own results so that they can be collected in the order of the tree.
+     */
+    private final class NodeTask extends RecursiveAction {
+
+        private final SearchViewItem item;
+        private final SearchViewItem parentItem;
+        private final ModsDefinition parentMods;
+        private final Map<String, List<SearchViewItem>> tree;
+        private final Type type;
+        private final Result result = new Result();
+        private List<NodeTask> tasks = Collections.emptyList();
+
+        /**
+         * @param parentMods {@code null} or MODS of the parent if already read
+         */
+        NodeTask(SearchViewItem item, SearchViewItem parentItem, ModsDefinition parentMods,
+                Map<String, List<SearchViewItem>> tree, Type type) {
+            this.item = item;
+            this.parentItem = parentItem;
+            this.parentMods = parentMods;
+            this.tree = tree;
+            this.type = type;
+        }
+
+        @Override
+        protected void compute() {
+            List<SearchViewItem> children = tree.getOrDefault(item.getPid(), Collections.<SearchViewItem>emptyList());
+            ModsDefinition mods = validateNode(item, parentItem, parentMods, children, type, result);
+            List<NodeTask> childTasks = new ArrayList<>(children.size());
+            for (SearchViewItem child : children) {
+                childTasks.add(new NodeTask(child, item, mods, tree, type));
+            }
+            tasks = childTasks;
+            invokeAll(childTasks);
+        }
+
+        /**
+         * Adds the results of the object and then the results of its children.
+         */
+        void collectResults(Result target) {
+            for (ValidationResult validationResult : result.getValidationResults()) {
+                target.add(validationResult);
+            }
+            for (NodeTask task : tasks) {
+                task.collectResults(target);
+            }
+        }
+    }
+
+    private void containsPageOrPdf(SearchViewItem item, List<SearchViewItem> children, Result result, Type type) {
         if (item == null) {
-            result.getValidationResults().add(new ValidationResult("PID", "Objekt nenalezen v SOLRu", Level.SEVERE));
+            result.add(new ValidationResult("PID", "Objekt nenalezen v SOLRu", Level.SEVERE));
             return;
         }
 
         String model = item.getModel();
 
         AkubraStorage.AkubraObject akubraObject = storage.find(item.getPid());
-        List<SearchViewItem> children = new ArrayList<>();
-        try {
-            children = search.findSortedChildren(item.getPid());
-        } catch (Throwable t) {
-            result.getValidationResults().add(new ValidationResult(item.getPid(), "Nepodařilo se získat potomky a tím pádem je validovat.", Level.SEVERE));
-        }
 
         // seznam validaci
         if (CONTAINS_PDF.contains(model)) {
@@ -180,33 +245,26 @@ public class ValidationProcess {
         if (CONTAINS_PAGE.contains(model)) {
             validatePages(item, children, result, type);
         }
-
-        // validace potomku
-        for (SearchViewItem child : children) {
-            containsPageOrPdf(child, result, item, type);
-        }
     }
 
-    private void validatePid(SearchViewItem item, Result result, SearchViewItem parentItem, Type type) {
+    /**
+     * Checks the object and the order of its pages.
+     *
+     * @return MODS of the object or {@code null}
+     */
+    private ModsDefinition validatePid(SearchViewItem item, List<SearchViewItem> children, Result result,
+            SearchViewItem parentItem, ModsDefinition parentMods, Type type) {
+
         if (item == null) {
-            result.getValidationResults().add(new ValidationResult("PID", "Objekt nenalezen v SOLRu", Level.SEVERE));
-            return;
+            result.add(new ValidationResult("PID", "Objekt nenalezen v SOLRu", Level.SEVERE));
+            return null;
         }
 
         String model = item.getModel();
 
         AkubraStorage.AkubraObject akubraObject = storage.find(item.getPid());
-        List<SearchViewItem> children = new ArrayList<>();
-        try {
-            children = search.findSortedChildren(item.getPid());
-        } catch (Throwable t) {
-            result.getValidationResults().add(new ValidationResult(item.getPid(), "Nepodařilo se získat potomky a tím pádem je validovat.", Level.SEVERE));
-        }
 
         // seznam validaci
-        if (PAGE_MODELS.contains(model)) {
-            validatePage(item, result);
-        }
         if (CONTAINS_PDF.contains(model)) {
             validateContainsPdf(akubraObject, !children.isEmpty(), result);
         }
@@ -216,12 +274,13 @@ public class ValidationProcess {
         if (CONTAINS_PAGE.contains(model)) {
             validatePages(item, children, result, type);
         }
+        validateChildPages(children, result);
 
         ModsDefinition mods = null;
         try {
             mods = getMods(item.getPid());
         } catch (DigitalObjectException e) {
-            result.getValidationResults().add(new ValidationResult(item.getPid(), "Nepodařilo se načíst MODS.", Level.SEVERE, e));
+            result.add(new ValidationResult(item.getPid(), "Nepodařilo se načíst MODS.", Level.SEVERE, e));
         }
         DigitalObjectValidationException ex = new DigitalObjectValidationException(akubraObject.getPid(), null,
                 ModsStreamEditor.DATASTREAM_ID, "MODS validation", null);
@@ -241,39 +300,37 @@ public class ValidationProcess {
         }
 
         if (NdkPlugin.MODEL_PERIODICALSUPPLEMENT.equals(model) || NdkPlugin.MODEL_PERIODICALISSUE.equals(model)) {
-            validateDateIssued(item, mods, parentItem == null ? null : parentItem, result);
-        }
-
-        // validace potomku
-        for (SearchViewItem child : children) {
-            validatePid(child, result, item, type);
+            validateDateIssued(item, mods, parentItem == null ? null : parentItem, parentMods, result);
         }
 
-        // urnnbn validace jako posledni
+        // urnnbn validace
         if (REQUIRED_URNNBN_MODELS.contains(model) && !ArchiveObjectProcessor.containUrnNbn(mods.getIdentifier())) {
             if (!((NdkPlugin.MODEL_PERIODICALISSUE.equals(model) || NdkPlugin.MODEL_PERIODICALSUPPLEMENT.equals(model)) && containsBdmArticle(children))) {
-                result.getValidationResults().add(new ValidationResult(item.getPid(), "Objekt nemá validní identifikátor URN:NBN.", Level.SEVERE));
+                result.add(new ValidationResult(item.getPid(), "Objekt nemá validní identifikátor URN:NBN.", Level.SEVERE));
             }
         }
+        return mods;
     }
 
-    private void validateDateIssued(SearchViewItem item, ModsDefinition mods, SearchViewItem parentItem, Result result) {
+    private void validateDateIssued(SearchViewItem item, ModsDefinition mods, SearchViewItem parentItem, ModsDefinition parentMods, Result result) {
         String dateIssued = getDateIssued(mods);
         if (parentItem != null && NdkPlugin.MODEL_PERIODICALVOLUME.equals(parentItem.getModel())) {
             try {
-                ModsDefinition parentMods = getMods(parentItem.getPid());
+                if (parentMods == null) {
+                    parentMods = getMods(parentItem.getPid());
+                }
                 String parentDateIssued = getDateIssued(parentMods);
                 if (dateIssued.contains(".")) {
                     dateIssued = dateIssued.substring(dateIssued.lastIndexOf(".") + 1);
                 }
                 if (parentDateIssued == null || parentDateIssued.isEmpty()) {
-                    result.getValidationResults().add(new ValidationResult(parentItem.getPid(), "Nadřazený objekt neobsahuje date Issued (" + parentDateIssued + ").", Level.WARNING));
+                    result.add(new ValidationResult(parentItem.getPid(), "Nadřazený objekt neobsahuje date Issued (" + parentDateIssued + ").", Level.WARNING));
                 }
                 if (parentDateIssued != null && !parentDateIssued.equals(dateIssued)) {
-                    result.getValidationResults().add(new ValidationResult(item.getPid(), "Objekt nemá validní dateIssued vůči svému nadřazenému objektu (" + parentDateIssued + ":" + dateIssued + ").", Level.WARNING));
+                    result.add(new ValidationResult(item.getPid(), "Objekt nemá validní dateIssued vůči svému nadřazenému objektu (" + parentDateIssued + ":" + dateIssued + ").", Level.WARNING));
                 }
             } catch (DigitalObjectException ex) {
-                result.getValidationResults().add(new ValidationResult(item.getPid(), "Nepodařilo se načíst MODS.", Level.SEVERE, ex));
+                result.add(new ValidationResult(item.getPid(), "Nepodařilo se načíst MODS.", Level.SEVERE, ex));
             }
         }
     }
@@ -323,7 +380,7 @@ public class ValidationProcess {
                     }
                 }
                 if (message != null) {
-                    result.getValidationResults().add(new ValidationResult(pid, message, level));
+                    result.add(new ValidationResult(pid, message, level));
                     message = null;
                 }
             }
@@ -341,9 +398,6 @@ public class ValidationProcess {
     }
 
     private void validatePages(SearchViewItem item, List<SearchViewItem> children, Result result, Type type) {
-
-        resetValues();
-
         int pageCount = 0;
         int bdmArticleCount = 0;
         for (SearchViewItem child : children) {
@@ -356,12 +410,12 @@ public class ValidationProcess {
         }
         if (pageCount < 1) {
             if (Type.EXPORT_ARCHIVE.equals(type) || Type.EXPORT_NDK.equals(type)) {
-                result.getValidationResults().add(new ValidationResult(item.getPid(), "Objekt neobsahuje žádnou stranu.", Level.SEVERE));
+                result.add(new ValidationResult(item.getPid(), "Objekt neobsahuje žádnou stranu.", Level.SEVERE));
             } else if ((Type.VALIDATION.equals(type) || Type.EXPORT_KRAMERIUS.equals(type) || Type.UPDATE_CATALOG_RECORD.equals(type)) && (!(bdmArticleCount > 0 && (NdkPlugin.MODEL_PERIODICALISSUE.equals(item.getModel()) || NdkPlugin.MODEL_PERIODICALSUPPLEMENT.equals(item.getModel()))))) {
-                result.getValidationResults().add(new ValidationResult(item.getPid(), "Objekt neobsahuje žádnou stranu.", Level.SEVERE));
+                result.add(new ValidationResult(item.getPid(), "Objekt neobsahuje žádnou stranu.", Level.SEVERE));
             }
         } else if (pageCount % 2 == 1) {
-            result.getValidationResults().add(new ValidationResult(item.getPid(), "Objekt obsahuje lichý počet stran.", Level.WARNING));
+            result.add(new ValidationResult(item.getPid(), "Objekt obsahuje lichý počet stran.", Level.WARNING));
         }
     }
 
@@ -383,7 +437,7 @@ public class ValidationProcess {
                 }
             }
             if (audioPageCount > 1) {
-                result.getValidationResults().add(new ValidationResult(item.getPid(), "Objekt obsahuje více zvukových nahrávek.", Level.SEVERE));
+                result.add(new ValidationResult(item.getPid(), "Objekt obsahuje více zvukových nahrávek.", Level.SEVERE));
             }
         } else if (NdkAudioPlugin.MODEL_SONG.equals(item.getModel())) {
             for (SearchViewItem child : children) {
@@ -392,7 +446,7 @@ public class ValidationProcess {
                 }
             }
             if (audioPageCount > 1) {
-                result.getValidationResults().add(new ValidationResult(item.getPid(), "Objekt obsahuje více zvukových nahrávek.", Level.SEVERE));
+                result.add(new ValidationResult(item.getPid(), "Objekt obsahuje více zvukových nahrávek.", Level.SEVERE));
             }
         }
     }
@@ -403,79 +457,123 @@ public class ValidationProcess {
                 return;
             }
             if (!AkubraUtils.containsDatastream(object, BinaryEditor.RAW_ID)) {
-                result.getValidationResults().add(new ValidationResult(object.getPid(), "Objekt neobsahuje RAW stream.", Level.SEVERE));
+                result.add(new ValidationResult(object.getPid(), "Objekt neobsahuje RAW stream.", Level.SEVERE));
             }
         } catch (JAXBException e) {
-            result.getValidationResults().add(new ValidationResult(object.getPid(), "Nepodařilo se načíst RAW stream.", Level.SEVERE));
+            result.add(new ValidationResult(object.getPid(), "Nepodařilo se načíst RAW stream.", Level.SEVERE));
+        }
+    }
+
+    /**
+     * Checks the pages of an object in the order of its children.
+     */
+    void validateChildPages(List<SearchViewItem> children, Result result) {
+        // strany se validuji postupne v poradi potomku
+        PageSequence pageSequence = new PageSequence();
+        for (SearchViewItem child : children) {
+            if (PAGE_MODELS.contains(child.getModel())) {
+                validatePage(child, pageSequence, result);
+            }
         }
     }
 
-    private void validatePage(SearchViewItem item, Result result) {
+    private void validatePage(SearchViewItem item, PageSequence sequence, Result result) {
         if (item.getPageIndex() == null || item.getPageIndex().isEmpty()) {
-            result.getValidationResults().add(new ValidationResult(item.getPid(), "Není vyplněný index strany.", Level.SEVERE));
+            result.add(new ValidationResult(item.getPid(), "Není vyplněný index strany.", Level.SEVERE));
         } else {
             String pageIndex = item.getPageIndex();
-            if (String.valueOf(indexPageValue).equals(pageIndex)) {
-                indexPageValue++;
+            if (String.valueOf(sequence.indexPageValue).equals(pageIndex)) {
+                sequence.indexPageValue++;
             } else {
-                result.getValidationResults().add(new ValidationResult(item.getPid(), "Neočekávaný index=" + pageIndex + ", očekávaná hodnota=" + String.valueOf(indexPageValue) + ".", Level.SEVERE));
+                result.add(new ValidationResult(item.getPid(), "Neočekávaný index=" + pageIndex + ", očekávaná hodnota=" + String.valueOf(sequence.indexPageValue) + ".", Level.SEVERE));
             }
         }
         if (item.getPageNumber() == null || item.getPageNumber().isEmpty()) {
-            result.getValidationResults().add(new ValidationResult(item.getPid(), "Není vyplněný číslo strany.", Level.SEVERE));
+            result.add(new ValidationResult(item.getPid(), "Není vyplněný číslo strany.", Level.SEVERE));
         }
 
         /* normalPage pageType vyplněný nemá. Nutné zrušit kontrolu  @link https://github.com/proarc/proarc-client/issues/592 */
 //        if (item.getPageType() == null || item.getPageType().isEmpty()) {
-//            result.getValidationResults().add(new ValidationResult(item.getPid(), "Není vyplněný typ strany.", Level.SEVERE));
+//            result.add(new ValidationResult(item.getPid(), "Není vyplněný typ strany.", Level.SEVERE));
 //        }
 
         if (item.getPageRepre() != null && !item.getPageRepre().isEmpty()) {
             if ("reprePage".equals(item.getPageRepre())) {
-                if (reprePageValue) {
-                    result.getValidationResults().add(new ValidationResult(item.getPid(), "Vícenásobný výskyt reprezentativní strany.", Level.SEVERE));
+                if (sequence.reprePageValue) {
+                    result.add(new ValidationResult(item.getPid(), "Vícenásobný výskyt reprezentativní strany.", Level.SEVERE));
                 } else {
-                    reprePageValue = true;
+                    sequence.reprePageValue = true;
                 }
             }
         }
         if (item.getPageType() != null && !item.getPageType().isEmpty()) {
-            if (pageTypeMap.containsKey(item.getPageType())) {
-                if (pageTypeMap.get(item.getPageType()) > 0) {
-                    result.getValidationResults().add(new ValidationResult(item.getPid(), String.format("Vícenásobný výskyt typu strany \"%s\".", item.getPageType()), Level.WARNING));
+            if (sequence.pageTypeMap.containsKey(item.getPageType())) {
+                if (sequence.pageTypeMap.get(item.getPageType()) > 0) {
+                    result.add(new ValidationResult(item.getPid(), String.format("Vícenásobný výskyt typu strany \"%s\".", item.getPageType()), Level.WARNING));
                 } else {
-                    pageTypeMap.merge(item.getPageType(), 1, Integer::sum);
+                    sequence.pageTypeMap.merge(item.getPageType(), 1, Integer::sum);
                 }
             }
         }
         if (item.getPagePosition() != null && !item.getPagePosition().isEmpty()) {
-            if (positionPageValue == null) {
-                positionPageValue = item.getPagePosition();
-            } else if (positionPageValue.equals(item.getPagePosition())) {
-                result.getValidationResults().add(new ValidationResult(item.getPid(), "Opakující se pozice strany.", Level.SEVERE));
+            if (sequence.positionPageValue == null) {
+                sequence.positionPageValue = item.getPagePosition();
+            } else if (sequence.positionPageValue.equals(item.getPagePosition())) {
+                result.add(new ValidationResult(item.getPid(), "Opakující se pozice strany.", Level.SEVERE));
             } else {
-                positionPageValue = item.getPagePosition();
+                sequence.positionPageValue = item.getPagePosition();
             }
         }
     }
 
+    /**
+     * The state of the checks of the pages of an object, in the order of the pages.
+     */
+    private static final class PageSequence {
+
+        private int indexPageValue = 1;
+        private boolean reprePageValue;
+        private String positionPageValue;
+        private final Map<String, Integer> pageTypeMap = new HashMap<>();
+
+        PageSequence() {
+            pageTypeMap.put("cover", 0);
+            pageTypeMap.put("frontCover", 0);
+            pageTypeMap.put("backCover", 0);
+            pageTypeMap.put("spine", 0);
+            pageTypeMap.put("jacket", 0);
+            pageTypeMap.put("frontEndPaper", 0);
+            pageTypeMap.put("backEndPaper", 0);
+            pageTypeMap.put("frontJacket", 0);
+            pageTypeMap.put("titlePage", 0);
+        }
+    }
+
     public void indexResult(Batch batch) throws DigitalObjectException, IOException {
         if (storage != null) {
-            storage.indexValidationResult(batch);
-            SolrUtils.indexParentResult(storage.getSearch(), storage.getSolrObjectFeeder(), batch.getFolder());
+            // the new status may not be searchable yet, pass it to the ancestors
+            String status = storage.indexValidationResult(batch);
+            SolrUtils.indexParentResult(storage.getSearch(), storage.getSolrObjectFeeder(), batch.getFolder(), status);
         }
     }
 
     public static class Result {
         private List<ValidationResult> validationResults;
 
-        public List<ValidationResult> getValidationResults() {
+        public synchronized List<ValidationResult> getValidationResults() {
             if (validationResults == null) {
                 validationResults = new ArrayList<>();
             }
             return validationResults;
         }
 
+        /**
+         * Adds the result of a check. Checks of objects run in parallel.
+         */
+        synchronized void add(ValidationResult validationResult) {
+            getValidationResults().add(validationResult);
+        }
+
         public void setValidationResults(List<ValidationResult> validationResults) {
             this.validationResults = validationResults;
         }
@@ -505,7 +603,7 @@ public class ValidationProcess {
         }
     }
 
-    private static class ValidationResult {
+    static class ValidationResult {
 
         private String pid;
         private String message;
@@ -48,6 +48,13 @@ public abstract class AbstractProArcObject implements ProArcObject {
 //            return (T) editors.get(type);
 //        }
 
+    /**
+     * Gets the editors with changes to write.
+     */
+    protected final Set<XmlStreamEditor> getEditors() {
+        return editors;
+    }
+
     @Override
     public void flush() throws DigitalObjectException {
         // write changes
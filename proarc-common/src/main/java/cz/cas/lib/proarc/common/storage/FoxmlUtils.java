@@ -17,6 +17,7 @@
 package cz.cas.lib.proarc.common.storage;
 
 import com.yourmediashelf.fedora.client.FedoraClientException;
+import com.yourmediashelf.fedora.generated.foxml.ContentDigestType;
 import com.yourmediashelf.fedora.generated.foxml.DatastreamType;
 import com.yourmediashelf.fedora.generated.foxml.DatastreamVersionType;
 import com.yourmediashelf.fedora.generated.foxml.DigitalObject;
@@ -39,6 +40,7 @@ import java.net.URL;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -230,6 +232,26 @@ public final class FoxmlUtils {
         return null;
     }
 
+    /**
+     * Gets the digest of the datastream contents stored in FOXML
+     * by the repository.
+     *
+     * @param version datastream version
+     * @param type digest algorithm, e.g. {@code MD5}
+     * @return the lowercase hex digest or {@code null} if not available
+     */
+    public static String getContentDigest(DatastreamVersionType version, String type) {
+        ContentDigestType contentDigest = version == null ? null : version.getContentDigest();
+        if (contentDigest == null || !type.equalsIgnoreCase(contentDigest.getTYPE())) {
+            return null;
+        }
+        String digest = contentDigest.getDIGEST();
+        if (digest == null || digest.isEmpty() || "none".equalsIgnoreCase(digest)) {
+            return null;
+        }
+        return digest.toLowerCase(Locale.ENGLISH);
+    }
+
     /**
      * Finds newest version.
      * For now expects versions ordering from oldest to newest.
@@ -264,7 +286,11 @@ public final class FoxmlUtils {
         profile.setDsMIME(version.getMIMETYPE());
 
         profile.setDateTime(version.getCREATED());
-//        profile.setDsChecksum();
+        String checksum = getContentDigest(version, "MD5");
+        if (checksum != null) {
+            profile.setDsChecksumType("MD5");
+            profile.setDsChecksum(checksum);
+        }
         profile.setDsControlGroup(datastream.getCONTROLGROUP());
         profile.setDsState(datastream.getSTATE().value());
 //        profile.setDsVersionID();
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.storage.akubra;
+
+import cz.incad.kramerius.resourceindex.ProcessingIndexFeeder;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.impl.ConcurrentUpdateSolrClient;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.client.solrj.response.UpdateResponse;
+import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.SolrInputDocument;
+
+import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.FIELD_PID;
+
+/**
+ * Common parent of the ProArc index feeders.
+ *
+ * <p>When {@link #setCommitWithin commitWithin} is set the documents are sent
+ * with the commitWithin parameter and Solr makes them searchable on its own.
+ * The callers do not wait for a hard commit per document and a
+ * {@link ConcurrentUpdateSolrClient} may batch them in its queue. Use
+ * {@link #flush()} where the caller must read its own writes. The flush
+ * returns at once when all sent documents are already searchable.
+ *
+ * <p>Without commitWithin each {@link #commitChanges()} issues a hard commit
+ * as before.
+ */
+public abstract class AbstractSolrFeeder extends ProcessingIndexFeeder {
+
+    private final SolrClient solrClient;
+    private int commitWithin = -1;
+    /** The number of sent updates. */
+    private final AtomicLong updates = new AtomicLong();
+    /** The number of updates made searchable by the last flush. */
+    private volatile long flushedUpdates;
+
+    protected AbstractSolrFeeder(SolrClient solrClient) {
+        super(solrClient);
+        this.solrClient = solrClient;
+    }
+
+    /**
+     * @return time in ms in which Solr commits sent documents or a negative
+     *      number for the explicit commits
+     */
+    public int getCommitWithin() {
+        return commitWithin;
+    }
+
+    public void setCommitWithin(int commitWithin) {
+        this.commitWithin = commitWithin;
+    }
+
+    /**
+     * Sends the document to the index.
+     */
+    protected UpdateResponse add(SolrInputDocument sdoc) throws SolrServerException, IOException {
+        updates.incrementAndGet();
+        if (commitWithin < 0) {
+            return feedDescriptionDocument(sdoc);
+        }
+        UpdateRequest request = new UpdateRequest();
+        request.add(sdoc);
+        request.setCommitWithin(commitWithin);
+        return request.process(solrClient);
+    }
+
+    /**
+     * Removes documents of the object from the index.
+     */
+    public void deleteObject(String pid) throws SolrServerException, IOException {
+        updates.incrementAndGet();
+        UpdateRequest request = new UpdateRequest();
+        request.deleteByQuery(FIELD_PID + ":" + ClientUtils.escapeQueryChars(pid));
+        if (commitWithin >= 0) {
+            request.setCommitWithin(commitWithin);
+        }
+        request.process(solrClient);
+    }
+
+    /**
+     * Commits the sent documents unless Solr commits them within
+     * the configured time.
+     */
+    public void commitChanges() throws SolrServerException, IOException {
+        if (commitWithin < 0) {
+            long sent = updates.get();
+            commit();
+            flushedUpdates = Math.max(flushedUpdates, sent);
+        }
+    }
+
+    /**
+     * Waits until the queued documents are sent and makes them searchable.
+     * It is the barrier for callers that query the index right after the update.
+     */
+    public void flush() throws SolrServerException, IOException {
+        if (flushedUpdates >= updates.get()) {
+            return;
+        }
+        synchronized (this) {
+            long sent = updates.get();
+            if (flushedUpdates >= sent) {
+                // flushed by a concurrent caller
+                return;
+            }
+            if (solrClient instanceof ConcurrentUpdateSolrClient) {
+                ((ConcurrentUpdateSolrClient) solrClient).blockUntilFinished();
+            }
+            if (commitWithin < 0) {
+                commit();
+            } else {
+                solrClient.commit(true, true, true);
+            }
+            flushedUpdates = sent;
+        }
+    }
+}
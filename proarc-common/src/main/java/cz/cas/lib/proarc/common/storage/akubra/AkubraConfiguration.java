@@ -18,6 +18,7 @@ import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.configuration.reloading.FileChangedReloadingStrategy;
+import org.apache.commons.io.FileUtils;
 
 import static cz.cas.lib.proarc.common.config.AppConfiguration.initConfigFolder;
 
@@ -142,6 +143,35 @@ public class AkubraConfiguration {
         return config.getString("solrLogHost");
     }
 
+    /**
+     * @return max number of documents waiting in the queue of the Solr update client
+     */
+    public int getSolrQueueSize() {
+        return config.getInt("solrQueueSize", 100);
+    }
+
+    /**
+     * @return number of threads sending the queued documents to Solr
+     */
+    public int getSolrThreadCount() {
+        return config.getInt("solrThreadCount", 1);
+    }
+
+    /**
+     * @return time in ms in which Solr makes indexed documents searchable;
+     *      a negative number commits each update explicitly
+     */
+    public int getSolrCommitWithin() {
+        return config.getInt("solrCommitWithin", 1000);
+    }
+
+    /**
+     * @return number of threads indexing the object store on the full reindex
+     */
+    public int getReindexThreadCount() {
+        return config.getInt("reindexThreadCount", Runtime.getRuntime().availableProcessors());
+    }
+
     public String getObjectStorePath() {
         return config.getString("objectStore.path");
     }
@@ -150,6 +180,21 @@ public class AkubraConfiguration {
         return config.getString("objectStore.pattern");
     }
 
+    /**
+     * Gets the max total size in bytes of the serialized objects kept in memory.
+     */
+    public long getObjectCacheBytes() {
+        return config.getLong("objectStore.cacheBytes", 32L * 1024 * 1024);
+    }
+
+    /**
+     * Gets the folder for temporary copies of the written binary contents.
+     */
+    public File getTempFolder() {
+        String path = config.getString("tempPath", null);
+        return path == null || path.isEmpty() ? FileUtils.getTempDirectory() : new File(path);
+    }
+
     public String getDatastreamStorePath() {
         return config.getString("datastreamStore.path");
     }
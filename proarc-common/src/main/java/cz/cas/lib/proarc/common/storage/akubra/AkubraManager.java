@@ -10,13 +10,17 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringWriter;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.datatype.XMLGregorianCalendar;
@@ -24,6 +28,8 @@ import org.akubraproject.BlobStore;
 import org.akubraproject.fs.FSBlobStore;
 import org.akubraproject.map.IdMapper;
 import org.akubraproject.map.IdMappingBlobStore;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.fcrepo.server.errors.LowlevelStorageException;
 import org.fcrepo.server.errors.ObjectAlreadyInLowlevelStorageException;
 import org.fcrepo.server.errors.ObjectNotInLowlevelStorageException;
@@ -36,30 +42,89 @@ public class AkubraManager {
 
     public static final Logger LOGGER = Logger.getLogger(AkubraManager.class.getName());
     private ILowlevelStorage storage;
+    /**
+     * Serialized FOXML of recently used objects. A hit saves the lookup and
+     * read of the object file. The cached arrays are never modified
+     * and each read unmarshals its own instance that the caller may modify.
+     */
+    private final ObjectCache objectCache;
+    private final File tempFolder;
+    /** Incremented on each write to discard contents that became stale while being read. */
+    private final AtomicLong modificationCount = new AtomicLong();
 
-    private static Unmarshaller unmarshaller = null;
-    private static Marshaller marshaller = null;
+    private static final JAXBContext jaxbContext;
+    private static ThreadLocal<Marshaller> defaultMarshaller = new ThreadLocal<Marshaller>();
+    private static ThreadLocal<Unmarshaller> defaultUnmarshaller = new ThreadLocal<Unmarshaller>();
 
     static {
         try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(DigitalObject.class);
-            unmarshaller = jaxbContext.createUnmarshaller();
-
-            //JAXBContext jaxbdatastreamContext = JAXBContext.newInstance(DatastreamType.class);
-            marshaller = jaxbContext.createMarshaller();
-
+            jaxbContext = JAXBContext.newInstance(DigitalObject.class);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Cannot init JAXB", e);
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * FOXML marshaller for current thread. The JAXB context is thread safe
+     * while marshallers are not, so each thread gets its own instance.
+     */
+    private static Marshaller defaultMarshaller() throws JAXBException {
+        Marshaller m = defaultMarshaller.get();
+        if (m == null) {
+            m = jaxbContext.createMarshaller();
+            m.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+            defaultMarshaller.set(m);
+        }
+        return m;
+    }
+
+    /**
+     * FOXML unmarshaller for current thread.
+     */
+    private static Unmarshaller defaultUnmarshaller() throws JAXBException {
+        Unmarshaller m = defaultUnmarshaller.get();
+        if (m == null) {
+            m = jaxbContext.createUnmarshaller();
+            defaultUnmarshaller.set(m);
+        }
+        return m;
+    }
+
+    /**
+     * Marshals the object to UTF-8 bytes. The returned stream reads the marshaller
+     * buffer directly without any intermediate {@code String} or array copy.
+     */
+    private static InputStream toInputStream(DigitalObject object) throws JAXBException, IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        defaultMarshaller().marshal(object, buffer);
+        return buffer.toInputStream();
+    }
+
+    private static byte[] toByteArray(DigitalObject object) throws JAXBException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        defaultMarshaller().marshal(object, buffer);
+        return buffer.toByteArray();
+    }
+
     public AkubraManager(AkubraConfiguration configuration) throws IOException {
         try {
             this.storage = createAkubraLowLevelStorage(configuration);
+            this.objectCache = new ObjectCache(configuration.getObjectCacheBytes());
         } catch (Exception ex) {
             throw new IOException(ex);
         }
+        this.tempFolder = configuration.getTempFolder();
+        if (!tempFolder.mkdirs() && !tempFolder.isDirectory()) {
+            throw new IOException("Cannot create " + tempFolder);
+        }
+    }
+
+    /**
+     * Gets the folder for temporary copies of the written contents.
+     */
+    public File getTempFolder() {
+        return tempFolder;
     }
 
     private AkubraLowlevelStorage createAkubraLowLevelStorage(AkubraConfiguration configuration) throws Exception {
@@ -73,22 +138,81 @@ public class AkubraManager {
         return retval;
     }
 
+    /**
+     * Checks whether the object exists in the storage without parsing it.
+     */
     public boolean objectExists(String pid) throws DigitalObjectException {
-        return readObjectFromStorage(pid) != null;
+        if (objectCache.containsKey(pid)) {
+            return true;
+        }
+        try {
+            return ((ICheckable) storage).objectExists(pid);
+        } catch (Exception e) {
+            throw new DigitalObjectException(pid, e);
+        }
     }
 
+    /**
+     * Filters the PIDs of existing objects. Each PID is probed with
+     * {@link #objectExists(String)}; the blob store cannot look up more
+     * objects at once.
+     *
+     * @param pids PIDs to check
+     * @return PIDs of the existing objects in the order of the passed collection
+     */
+    public List<String> filterExistingObjects(Collection<String> pids) throws DigitalObjectException {
+        List<String> existing = new ArrayList<String>();
+        for (String pid : pids) {
+            if (objectExists(pid)) {
+                existing.add(pid);
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Reads the object from the cached FOXML or from the storage.
+     * <p>Each call returns a new instance owned by the caller. Its changes
+     * are not visible to other callers until it is stored.
+     *
+     * @return the object or {@code null} if it does not exist
+     */
     public DigitalObject readObjectFromStorage(String pid) throws DigitalObjectException {
-        Object obj;
-        try (InputStream inputStream = this.storage.retrieveObject(pid);){
-            synchronized (unmarshaller) {
-                obj = unmarshaller.unmarshal(inputStream);
+        byte[] content = objectCache.get(pid);
+        if (content == null) {
+            long modCount = modificationCount.get();
+            try (InputStream inputStream = this.storage.retrieveObject(pid);){
+                content = IOUtils.toByteArray(inputStream);
+            } catch (ObjectNotInLowlevelStorageException ex) {
+                return null;
+            } catch (Exception e) {
+                throw new DigitalObjectException(pid, e);
             }
-        } catch (ObjectNotInLowlevelStorageException ex) {
-            return null;
-        } catch (Exception e) {
+            synchronized (objectCache) {
+                if (modCount == modificationCount.get()) {
+                    objectCache.put(pid, content);
+                }
+            }
+        }
+        try {
+            return (DigitalObject) defaultUnmarshaller().unmarshal(new ByteArrayInputStream(content));
+        } catch (JAXBException e) {
             throw new DigitalObjectException(pid, e);
         }
-        return (DigitalObject) obj;
+    }
+
+    /**
+     * Discards the cached FOXML of the object.
+     */
+    public void invalidate(String pid) {
+        invalidateObject(pid);
+    }
+
+    private long invalidateObject(String pid) {
+        synchronized (objectCache) {
+            objectCache.remove(pid);
+            return modificationCount.incrementAndGet();
+        }
     }
 
     public InputStream retrieveDatastream(String dsKey) throws IOException {
@@ -122,6 +246,8 @@ public class AkubraManager {
             storage.removeObject(pid);
         } catch (LowlevelStorageException e) {
             LOGGER.warning("Could not remove object from Akubra: " + e);
+        } finally {
+            invalidate(pid);
         }
     }
 
@@ -139,12 +265,9 @@ public class AkubraManager {
         }
         try {
             setLastModified(object);
-            StringWriter stringWriter = new StringWriter();
-            synchronized (marshaller) {
-                marshaller.marshal(object, stringWriter);
-            }
-            addOrReplaceObject(pid, new ByteArrayInputStream(stringWriter.toString().getBytes("UTF-8")));
+            addOrReplaceObject(object);
         } catch (Exception e) {
+            invalidate(pid);
             LOGGER.warning("Could not replace object in Akubra: " + e);
         }
     }
@@ -184,23 +307,16 @@ public class AkubraManager {
             setLastModified(object);
             ensureCreatedDate(object);
             ensureActive(object);
-            StringWriter stringWriter = new StringWriter();
-            synchronized (marshaller) {
-                marshaller.marshal(object, stringWriter);
-            }
-            addOrReplaceObject(object.getPID(), new ByteArrayInputStream(stringWriter.toString().getBytes("UTF-8")));
+            addOrReplaceObject(object);
         } catch (Exception e) {
+            invalidate(object.getPID());
             LOGGER.warning("Could not replace object in Akubra: " + e);
         }
     }
 
     public InputStream marshallObject(DigitalObject object) {
         try {
-            StringWriter stringWriter = new StringWriter();
-            synchronized (marshaller) {
-                marshaller.marshal(object, stringWriter);
-            }
-            return new ByteArrayInputStream(stringWriter.toString().getBytes("UTF-8"));
+            return toInputStream(object);
         } catch (Exception e) {
             LOGGER.warning("Could not marshall object: " + e);
             throw new RuntimeException(e);
@@ -282,13 +398,48 @@ public class AkubraManager {
     }
 
     public void addOrReplaceObject(String pid, InputStream content) throws LowlevelStorageException {
-        if (((ICheckable) storage).objectExists(pid)) {
-            storage.replaceObject(pid, content, null);
-        } else {
-            storage.addObject(pid, content, null);
+        writeObject(pid, content);
+    }
+
+    /**
+     * Stores the object. The cached FOXML is replaced only after a successful write.
+     */
+    public void addOrReplaceObject(DigitalObject object) throws LowlevelStorageException, DigitalObjectException {
+        String pid = object.getPID();
+        byte[] content;
+        try {
+            content = toByteArray(object);
+        } catch (JAXBException ex) {
+            invalidate(pid);
+            throw new DigitalObjectException(pid, ex);
+        }
+        long modCount = writeObject(pid, new ByteArrayInputStream(content));
+        synchronized (objectCache) {
+            if (modCount == modificationCount.get()) {
+                objectCache.put(pid, content);
+            }
         }
     }
 
+    /**
+     * Writes the object and invalidates its cached copy before and after the write.
+     * @return the modification count right after the write
+     */
+    private long writeObject(String pid, InputStream content) throws LowlevelStorageException {
+        invalidateObject(pid);
+        long modCount;
+        try {
+            if (((ICheckable) storage).objectExists(pid)) {
+                storage.replaceObject(pid, content, null);
+            } else {
+                storage.addObject(pid, content, null);
+            }
+        } finally {
+            modCount = invalidateObject(pid);
+        }
+        return modCount;
+    }
+
     public void addOrReplaceDatastream(String pid, InputStream content) throws LowlevelStorageException {
         if (storage instanceof AkubraLowlevelStorage) {
             if (((AkubraLowlevelStorage) storage).datastreamExists(pid)) {
@@ -305,4 +456,59 @@ public class AkubraManager {
         }
     }
 
+
+    /**
+     * LRU cache of serialized objects bounded by the total length of the cached
+     * arrays. Callers synchronize on the cache to make a check and an update atomic.
+     */
+    static final class ObjectCache {
+
+        private final long maxBytes;
+        private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+        private long bytes;
+
+        ObjectCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public synchronized byte[] get(String pid) {
+            return entries.get(pid);
+        }
+
+        public synchronized boolean containsKey(String pid) {
+            return entries.containsKey(pid);
+        }
+
+        /**
+         * Caches the content and evicts the least recently used entries over the limit.
+         * The content larger than the limit is not cached.
+         */
+        public synchronized void put(String pid, byte[] content) {
+            remove(pid);
+            if (content.length > maxBytes) {
+                return;
+            }
+            entries.put(pid, content);
+            bytes += content.length;
+            for (Iterator<byte[]> it = entries.values().iterator(); bytes > maxBytes && it.hasNext();) {
+                bytes -= it.next().length;
+                it.remove();
+            }
+        }
+
+        public synchronized void remove(String pid) {
+            byte[] old = entries.remove(pid);
+            if (old != null) {
+                bytes -= old.length;
+            }
+        }
+
+        synchronized long getBytes() {
+            return bytes;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
 }
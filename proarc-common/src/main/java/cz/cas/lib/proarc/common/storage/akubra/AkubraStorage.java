@@ -1,6 +1,7 @@
 package cz.cas.lib.proarc.common.storage.akubra;
 
 
+import com.yourmediashelf.fedora.generated.foxml.ContentDigestType;
 import com.yourmediashelf.fedora.generated.foxml.ContentLocationType;
 import com.yourmediashelf.fedora.generated.foxml.DatastreamType;
 import com.yourmediashelf.fedora.generated.foxml.DatastreamVersionType;
@@ -29,15 +30,21 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -58,7 +65,9 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.xpath.XPathFactory;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.ConcurrentUpdateSolrClient;
@@ -104,12 +113,20 @@ public class AkubraStorage {
     public static AkubraStorage getInstance(AkubraConfiguration conf) throws IOException {
         if (INSTANCE == null) {
             String searchSolrHost = conf.getSolrSearchHost();
-            SolrClient solrObjectClient = new ConcurrentUpdateSolrClient.Builder(searchSolrHost).withQueueSize(100).build();
+            SolrClient solrObjectClient = new ConcurrentUpdateSolrClient.Builder(searchSolrHost)
+                    .withQueueSize(conf.getSolrQueueSize())
+                    .withThreadCount(conf.getSolrThreadCount())
+                    .build();
             SolrObjectFeeder solrObjectFeeder = new SolrObjectFeeder(solrObjectClient);
+            solrObjectFeeder.setCommitWithin(conf.getSolrCommitWithin());
 
             String solrLoggingHost = conf.getSolrLoggingHost();
-            SolrClient solrLogClient = new ConcurrentUpdateSolrClient.Builder(solrLoggingHost).withQueueSize(100).build();
+            SolrClient solrLogClient = new ConcurrentUpdateSolrClient.Builder(solrLoggingHost)
+                    .withQueueSize(conf.getSolrQueueSize())
+                    .withThreadCount(conf.getSolrThreadCount())
+                    .build();
             SolrLogFeeder solrLogFeeder = new SolrLogFeeder(solrLogClient);
+            solrLogFeeder.setCommitWithin(conf.getSolrCommitWithin());
             INSTANCE = new AkubraStorage(conf, solrObjectFeeder, solrLogFeeder);
         }
         return INSTANCE;
@@ -141,6 +158,17 @@ public class AkubraStorage {
         return this.manager.objectExists(pid);
     }
 
+    /**
+     * Filters PIDs of objects that already exist in the storage.
+     *
+     * @param pids PIDs to check
+     * @return the existing PIDs in the order of the passed collection
+     * @see AkubraManager#filterExistingObjects(Collection)
+     */
+    public List<String> filterExisting(Collection<String> pids) throws DigitalObjectException {
+        return this.manager.filterExistingObjects(pids);
+    }
+
 
     public SolrSearchView getSearch(Locale locale) {
         SolrSearchView sv = new SolrSearchView(this, this.solrObjectClient);
@@ -158,6 +186,19 @@ public class AkubraStorage {
         return solrObjectFeeder;
     }
 
+    /**
+     * Makes the objects indexed so far searchable. Call it before searching
+     * objects that have just been written. It is cheap when nothing was
+     * written since the last flush.
+     */
+    public void flushIndex() throws IOException {
+        try {
+            solrObjectFeeder.flush();
+        } catch (SolrServerException ex) {
+            throw new IOException(ex);
+        }
+    }
+
 
     public void ingest(File foxml, String pid, String ingestUser, String log) throws DigitalObjectException {
         if (ingestUser == null || ingestUser.isEmpty()) {
@@ -221,6 +262,28 @@ public class AkubraStorage {
         }
     }
 
+    /**
+     * Streams the contents to the datastream store and records its size
+     * and MD5 digest computed on the fly in the datastream version.
+     * Exports read the checksum from FOXML instead of reading the contents again.
+     */
+    private static void addManagedContent(AkubraManager manager, String ref, InputStream input,
+            DatastreamVersionType datastreamVersion) throws IOException, LowlevelStorageException {
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        CountingInputStream counter = new CountingInputStream(new DigestInputStream(input, md5));
+        manager.addOrReplaceDatastream(ref, counter);
+        datastreamVersion.setSIZE(counter.getByteCount());
+        ContentDigestType contentDigest = new ContentDigestType();
+        contentDigest.setTYPE("MD5");
+        contentDigest.setDIGEST(new String(Hex.encodeHex(md5.digest())));
+        datastreamVersion.setContentDigest(contentDigest);
+    }
+
     private void processStreams(com.yourmediashelf.fedora.generated.foxml.DigitalObject digitalObject) throws IOException, LowlevelStorageException, URISyntaxException, TransformerException {
         for (com.yourmediashelf.fedora.generated.foxml.DatastreamType datastream : digitalObject.getDatastream()) {
             if (FoxmlUtils.ControlGroup.MANAGED.toExternal().equals(datastream.getCONTROLGROUP())) {
@@ -232,7 +295,7 @@ public class AkubraStorage {
                             try {
                                 inputStream = new FileInputStream(inputFile);
                                 String ref = digitalObject.getPID() + "+" + datastream.getID() + "+" + datastreamVersion.getID();
-                                this.manager.addOrReplaceDatastream(ref, inputStream);
+                                addManagedContent(this.manager, ref, inputStream, datastreamVersion);
                                 com.yourmediashelf.fedora.generated.foxml.ContentLocationType contentLocationType = new com.yourmediashelf.fedora.generated.foxml.ContentLocationType();
                                 contentLocationType.setTYPE("INTERNAL_ID");
                                 contentLocationType.setREF(ref);
@@ -258,7 +321,7 @@ public class AkubraStorage {
 //                        String elementValue = serializer.writeToString(element);
                         InputStream inputStream = new ByteArrayInputStream(elementValue.getBytes(StandardCharsets.UTF_8));
                         String ref = digitalObject.getPID() + "+" + datastream.getID() + "+" + datastreamVersion.getID();
-                        this.manager.addOrReplaceDatastream(ref, inputStream);
+                        addManagedContent(this.manager, ref, inputStream, datastreamVersion);
                         com.yourmediashelf.fedora.generated.foxml.ContentLocationType contentLocationType = new com.yourmediashelf.fedora.generated.foxml.ContentLocationType();
                         contentLocationType.setTYPE("INTERNAL_ID");
                         contentLocationType.setREF(ref);
@@ -269,7 +332,7 @@ public class AkubraStorage {
                     if (datastreamVersion.getBinaryContent() != null) {
                         InputStream inputStream = new ByteArrayInputStream(datastreamVersion.getBinaryContent());
                         String ref = digitalObject.getPID() + "+" + datastream.getID() + "+" + datastreamVersion.getID();
-                        this.manager.addOrReplaceDatastream(ref, inputStream);
+                        addManagedContent(this.manager, ref, inputStream, datastreamVersion);
                         com.yourmediashelf.fedora.generated.foxml.ContentLocationType contentLocationType = new com.yourmediashelf.fedora.generated.foxml.ContentLocationType();
                         contentLocationType.setTYPE("INTERNAL_ID");
                         contentLocationType.setREF(ref);
@@ -325,7 +388,7 @@ public class AkubraStorage {
             } else {
                 this.solrObjectFeeder.feedDescriptionDocument(dObject, aObject, true);
                 this.solrLoggingFeeder.feedIngestLog(pid, owner);
-                SolrUtils.indexParentResult(this.getSearch(), this.getSolrObjectFeeder(), pid);
+                SolrUtils.indexParentResult(this.getSearch(), this.getSolrObjectFeeder(), pid, VALIDATION_STATUS_UNKNOWN);
             }
         } else {
             if (DeviceRepository.METAMODEL_ID.equals(modelId) || DeviceRepository.METAMODEL_AUDIODEVICE_ID.equals(modelId)) {
@@ -334,7 +397,7 @@ public class AkubraStorage {
             } else {
                 this.solrObjectFeeder.feedDescriptionDocument(dObject, aObject, true);
                 this.solrLoggingFeeder.feedIngestLog(pid, owner);
-                SolrUtils.indexParentResult(this.getSearch(), this.getSolrObjectFeeder(), pid);
+                SolrUtils.indexParentResult(this.getSearch(), this.getSolrObjectFeeder(), pid, VALIDATION_STATUS_UNKNOWN);
             }
         }
     }
@@ -343,11 +406,17 @@ public class AkubraStorage {
         indexDocument(object.getPid(), object.getModel(), object.getOwner());
     }
 
-    public void indexValidationResult(Batch batch) throws DigitalObjectException {
-        indexValidationResult(batch.getFolder(), batch.getId(), batch.getState());
+    /**
+     * @return the written validation status
+     */
+    public String indexValidationResult(Batch batch) throws DigitalObjectException {
+        return indexValidationResult(batch.getFolder(), batch.getId(), batch.getState());
     }
 
-    public void indexValidationResult(String pid, Integer batchId, Batch.State state) throws DigitalObjectException {
+    /**
+     * @return the written validation status
+     */
+    public String indexValidationResult(String pid, Integer batchId, Batch.State state) throws DigitalObjectException {
         String batchState = VALIDATION_STATUS_UNKNOWN;
         switch (state) {
             case INTERNAL_DONE:
@@ -360,6 +429,7 @@ public class AkubraStorage {
                 batchState = VALIDATION_STATUS_UNKNOWN;
         }
         this.solrObjectFeeder.feedValidationResult(pid, batchId, batchState);
+        return batchState;
     }
 
     public static final class AkubraObject extends AbstractProArcObject {
@@ -418,9 +488,18 @@ public class AkubraStorage {
             this.indexHierarchical = indexHierarchical;
         }
 
+        /**
+         * Writes the changes. A failed flush discards the changes that are not
+         * written yet, see {@link #rollback()}.
+         */
         @Override
         public void flush() throws DigitalObjectException {
-            super.flush();
+            try {
+                super.flush();
+            } catch (DigitalObjectException ex) {
+                rollback();
+                throw ex;
+            }
             try {
                 DigitalObject object = this.manager.readObjectFromStorage(getPid());
                 if (label != null) {
@@ -433,24 +512,37 @@ public class AkubraStorage {
                 if (object == null) {
                     throw new DigitalObjectException(getPid(), "Object " + getPid() + "is can not be flushed to Low-Level storage.");
                 } else {
-                    InputStream inputStream = this.manager.marshallObject(object);
-                    this.manager.addOrReplaceObject(object.getPID(), inputStream);
+                    this.manager.addOrReplaceObject(object);
                     //this.manager.commit(object, null);
                     if (DeviceRepository.METAMODEL_ID.equals(this.modelId) || DeviceRepository.METAMODEL_AUDIODEVICE_ID.equals(this.modelId)) {
                         this.objectFeeder.feedDescriptionDevice(object, this, true);
                     } else {
                         this.objectFeeder.feedDescriptionDocument(object, this, true);
                         if (indexHierarchical) {
-                            SolrUtils.indexParentResult(solrSearchView, objectFeeder, object.getPID());
+                            SolrUtils.indexParentResult(solrSearchView, objectFeeder, object.getPID(), VALIDATION_STATUS_UNKNOWN);
                         }
                     }
                 }
             } catch (
                     Exception ex) {
+                this.manager.invalidate(getPid());
                 throw new DigitalObjectException(getPid(), ex);
             }
         }
 
+        /**
+         * Discards the changes of the datastreams that are not flushed
+         * and deletes their temporary files. Call it when the object
+         * is not going to be flushed.
+         */
+        public void rollback() {
+            for (XmlStreamEditor editor : getEditors()) {
+                if (editor instanceof AkubraXmlStreamEditor) {
+                    ((AkubraXmlStreamEditor) editor).rollback();
+                }
+            }
+        }
+
         private DigitalObject updateModifiedDate(DigitalObject object) {
             if (object != null) {
                 ObjectPropertiesType propertiesType = object.getObjectProperties();
@@ -525,19 +617,18 @@ public class AkubraStorage {
                 object = updateModifiedDate(object);
                 if (object == null) {
                     LOG.warning("Removing object from index, because object not exists in Low-Level storage. (" + getPid() + ").");
-                    this.objectFeeder.deleteByPid(getPid());
-                    this.objectFeeder.commit();
+                    this.objectFeeder.deleteObject(getPid());
+                    this.objectFeeder.commitChanges();
                     this.loggingFeeder.feedDeleteLog(getPid(), logMessage);
 //                    throw new DigitalObjectException(getPid(), "Object " + getPid() + "is can not be flushed to Low-Level storage.");
                 } else {
-                    InputStream inputStream = this.manager.marshallObject(object);
-                    this.manager.addOrReplaceObject(object.getPID(), inputStream);
+                    this.manager.addOrReplaceObject(object);
                     //this.manager.commit(object, null);
                     this.objectFeeder.feedDescriptionDocument(object, this, true);
-                    this.objectFeeder.commit();
                     this.loggingFeeder.feedDeleteLog(getPid(), logMessage);
                 }
             } catch (Exception ex) {
+                this.manager.invalidate(getPid());
                 throw new DigitalObjectException(getPid(), ex);
             }
         }
@@ -550,14 +641,13 @@ public class AkubraStorage {
                 if (object == null) {
                     throw new DigitalObjectException(getPid(), "Object " + getPid() + "is can not be flushed to Low-Level storage.");
                 } else {
-                    InputStream inputStream = this.manager.marshallObject(object);
-                    this.manager.addOrReplaceObject(object.getPID(), inputStream);
+                    this.manager.addOrReplaceObject(object);
                     //this.manager.commit(object, null);
                     this.objectFeeder.feedDescriptionDocument(object, this, true);
-                    this.objectFeeder.commit();
                     this.loggingFeeder.feedRestoreLog(getPid(), logMessage);
                 }
             } catch (Exception ex) {
+                this.manager.invalidate(getPid());
                 throw new DigitalObjectException(getPid(), ex);
             }
         }
@@ -565,8 +655,8 @@ public class AkubraStorage {
         public void purge(String logMessage) throws DigitalObjectException {
             try {
                 this.manager.deleteObject(getPid(), true);
-                this.objectFeeder.deleteByPid(getPid());
-                this.objectFeeder.commit();
+                this.objectFeeder.deleteObject(getPid());
+                this.objectFeeder.commitChanges();
                 this.loggingFeeder.feedPurgeLog(getPid(), logMessage);
             } catch (IOException | SolrServerException ex) {
                 throw new DigitalObjectException(getPid(), ex);
@@ -755,15 +845,29 @@ public class AkubraStorage {
 
         @Override
         public void write(InputStream data, long timestamp, String message) throws DigitalObjectException {
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            DatastreamProfile profile = getProfile();
+            boolean managed = FoxmlUtils.ControlGroup.MANAGED.toExternal().equals(profile.getDsControlGroup());
+            DatastreamContent content;
             try {
-                FoxmlUtils.copy(data, byteArrayOutputStream);
+                if (managed) {
+                    // binary contents may be huge; keep them on disk until flush
+                    content = DatastreamContent.spool(data, manager.getTempFolder());
+                } else {
+                    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+                    FoxmlUtils.copy(data, byteArrayOutputStream);
+                    content = new DatastreamContent(byteArrayOutputStream.toByteArray());
+                }
             } catch (IOException ex) {
                 throw new DigitalObjectException(object.getPid(), toLogString(), ex);
             } finally {
                 FoxmlUtils.closeQuietly(data, toLogString());
             }
-            write(new DatastreamContent(byteArrayOutputStream.toByteArray()), timestamp, message);
+            try {
+                write(content, timestamp, message);
+            } catch (DigitalObjectException ex) {
+                content.dispose();
+                throw ex;
+            }
         }
 
         @Override
@@ -789,6 +893,9 @@ public class AkubraStorage {
                 } else {
                     modifyDatastream();
                 }
+                if (data != null) {
+                    data.dispose();
+                }
                 missingDataStream = false;
                 modified = false;
                 DigitalObject digitalObject = this.manager.readObjectFromStorage(this.object.getPid());
@@ -801,6 +908,7 @@ public class AkubraStorage {
                 logMessage = null;
                 newProfile = null;
             } catch (Exception ex) {
+                this.manager.invalidate(this.object.getPid());
                 throw new DigitalObjectException(object.getPid(), toLogString(), ex);
             }
         }
@@ -818,8 +926,7 @@ public class AkubraStorage {
 
             object = replaceDatastream(object, datastreamType);
 
-            InputStream inputStream = this.manager.marshallObject(object);
-            this.manager.addOrReplaceObject(object.getPID(), inputStream);
+            this.manager.addOrReplaceObject(object);
             //this.manager.commit(object, profile.getDsID());
         }
 
@@ -842,8 +949,7 @@ public class AkubraStorage {
             DigitalObject object = this.manager.readObjectFromStorage(this.object.getPid());
             DatastreamType datastreamType = createNewDatastream(profile);
             object.getDatastream().add(datastreamType);
-            InputStream inputStream = this.manager.marshallObject(object);
-            this.manager.addOrReplaceObject(object.getPID(), inputStream);
+            this.manager.addOrReplaceObject(object);
             //this.manager.commit(object, profile.getDsID());
         }
 
@@ -874,7 +980,7 @@ public class AkubraStorage {
                 } else if (controlGroup == FoxmlUtils.ControlGroup.MANAGED) {
 //                    datastreamVersionType.setBinaryContent(IOUtils.toByteArray(this.data.asInputStream()));
                     String ref = object.getPid() + "+" + datastreamType.getID() + "+" + datastreamVersionType.getID();
-                    this.manager.addOrReplaceDatastream(ref, new ByteArrayInputStream(IOUtils.toByteArray(this.data.asInputStream())));
+                    writeManagedContent(ref, datastreamVersionType);
                     datastreamVersionType.setBinaryContent(null);
                     ContentLocationType contentLocationType = new ContentLocationType();
                     contentLocationType.setTYPE("INTERNAL_ID");
@@ -916,7 +1022,7 @@ public class AkubraStorage {
                 } else if (controlGroup == FoxmlUtils.ControlGroup.MANAGED) {
 //                    datastreamVersionType.setBinaryContent(IOUtils.toByteArray(this.data.asInputStream()));
                     String ref = object.getPid() + "+" + datastreamType.getID() + "+" + datastreamVersionType.getID();
-                    this.manager.addOrReplaceDatastream(ref, new ByteArrayInputStream(IOUtils.toByteArray(this.data.asInputStream())));
+                    writeManagedContent(ref, datastreamVersionType);
                     datastreamVersionType.setBinaryContent(null);
                     ContentLocationType contentLocationType = new ContentLocationType();
                     contentLocationType.setTYPE("INTERNAL_ID");
@@ -934,6 +1040,15 @@ public class AkubraStorage {
             return datastreamType;
         }
 
+        private void writeManagedContent(String ref, DatastreamVersionType datastreamVersionType) throws IOException, LowlevelStorageException {
+            InputStream input = this.data.asInputStream();
+            try {
+                addManagedContent(this.manager, ref, input, datastreamVersionType);
+            } finally {
+                FoxmlUtils.closeQuietly(input, toLogString());
+            }
+        }
+
         private void purgeDatastream(DatastreamProfile profile) throws IOException, DigitalObjectException {
             manager.deleteStream(this.object.getPid(), profile.getDsID());
         }
@@ -977,12 +1092,34 @@ public class AkubraStorage {
                         DateUtility.getXSDDateTime(new Date(timestamp)));
                 throw new DigitalObjectConcurrentModificationException(object.getPid(), msg);
             }
-            this.data = data;
+            replaceData(data);
             this.logMessage = message;
             object.register(this);
             modified = true;
         }
 
+        /**
+         * Sets the contents and releases the replaced ones.
+         */
+        private void replaceData(DatastreamContent data) {
+            if (this.data != null && this.data != data) {
+                this.data.dispose();
+            }
+            this.data = data;
+        }
+
+        /**
+         * Discards the changes that are not flushed yet.
+         */
+        void rollback() {
+            if (modified) {
+                replaceData(null);
+                newProfile = null;
+                logMessage = null;
+                modified = false;
+            }
+        }
+
         private void fetchData() throws DigitalObjectException {
             try {
                 DigitalObject object = manager.readObjectFromStorage(this.object.getPid());
@@ -999,13 +1136,13 @@ public class AkubraStorage {
                                     ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
                                     Result outputTarget = new StreamResult(outputStream);
                                     TransformerFactory.newInstance().newTransformer().transform(xmlSource, outputTarget);
-                                    this.data = new AkubraXmlStreamEditor.DatastreamContent(outputStream.toByteArray());
+                                    replaceData(new AkubraXmlStreamEditor.DatastreamContent(outputStream.toByteArray()));
                                     break;
                                 }
                             } else if (datastreamVersionType.getBinaryContent() != null) {
                                 byte[] binaryContent = datastreamVersionType.getBinaryContent();
                                 if (binaryContent != null) {
-                                    this.data = new AkubraXmlStreamEditor.DatastreamContent(binaryContent);
+                                    replaceData(new AkubraXmlStreamEditor.DatastreamContent(binaryContent));
                                     break;
                                 }
                             } else if (datastreamVersionType.getContentLocation() != null) {
@@ -1013,14 +1150,14 @@ public class AkubraStorage {
                                 if (contentLocationType != null) {
                                     String ref = contentLocationType.getREF();
                                     if ("URL".equals(contentLocationType.getTYPE())) { // bdmArticle has URL link to icons in Fedora, in Akubra we have to ignore it - http://local.fedora.server/fedora/get/icon:application_pdf/PREVIEW
-                                        this.data = null;
+                                        replaceData(null);
                                         break;
                                     } else {
                                         if (ref != null) {
 
                                             InputStream inputStream = this.manager.retrieveDatastream(ref);
                                             if (inputStream != null) {
-                                                this.data = new AkubraXmlStreamEditor.DatastreamContent(IOUtils.toByteArray(inputStream));
+                                                replaceData(new AkubraXmlStreamEditor.DatastreamContent(IOUtils.toByteArray(inputStream)));
                                                 inputStream.close();
                                                 break;
                                             }
@@ -1052,11 +1189,50 @@ public class AkubraStorage {
             private byte[] bytes;
             private URI reference;
             private Element xmlElement;
+            /** The temporary file holding spooled contents. */
+            private File spool;
 
             public DatastreamContent(byte[] bytes) {
                 this.bytes = bytes;
             }
 
+            private DatastreamContent(File spool) {
+                this.spool = spool;
+            }
+
+            /**
+             * Copies the stream to a temporary file that is deleted by {@link #dispose()}.
+             *
+             * @param folder folder of the temporary file
+             */
+            public static DatastreamContent spool(InputStream data, File folder) throws IOException {
+                File spool = File.createTempFile("proarc-datastream", ".tmp", folder);
+                try {
+                    OutputStream os = new FileOutputStream(spool);
+                    try {
+                        FoxmlUtils.copy(data, os);
+                    } finally {
+                        os.close();
+                    }
+                } catch (IOException ex) {
+                    spool.delete();
+                    throw ex;
+                }
+                return new DatastreamContent(spool);
+            }
+
+            /**
+             * Releases the temporary file, if any.
+             */
+            public void dispose() {
+                if (spool != null) {
+                    if (!spool.delete() && spool.exists()) {
+                        LOG.warning("Cannot delete " + spool);
+                    }
+                    spool = null;
+                }
+            }
+
             public DatastreamContent(URI reference) {
                 this.reference = reference;
             }
@@ -1070,6 +1246,8 @@ public class AkubraStorage {
             public Source asSource() {
                 if (bytes != null) {
                     return new StreamSource(new ByteArrayInputStream(bytes));
+                } else if (spool != null) {
+                    return new StreamSource(spool);
                 } else if (reference != null) {
                     return new StreamSource(reference.toASCIIString());
                 } else {
@@ -1080,7 +1258,12 @@ public class AkubraStorage {
             public InputStream asInputStream() throws IOException {
                 if (bytes != null) {
                     return new ByteArrayInputStream(bytes);
+                } else if (spool != null) {
+                    return new FileInputStream(spool);
                 } else if (reference != null) {
+                    if ("file".equals(reference.getScheme())) {
+                        return new FileInputStream(new File(reference));
+                    }
                     return reference.toURL().openStream();
                 } else {
                     return null;
@@ -209,6 +209,7 @@ public class AkubraUtils {
                     profile.setDsMIME(type.getMIMETYPE());
                     profile.setDsFormatURI(type.getFORMATURI());
                     profile.setDsSize(BigInteger.valueOf(type.getSIZE()));
+                    setChecksum(profile, type);
                 }
                 break;
             }
@@ -216,6 +217,14 @@ public class AkubraUtils {
         return normalizeProfile(profile);
     }
 
+    private static void setChecksum(DatastreamProfile profile, DatastreamVersionType version) {
+        String checksum = FoxmlUtils.getContentDigest(version, "MD5");
+        if (checksum != null) {
+            profile.setDsChecksumType("MD5");
+            profile.setDsChecksum(checksum);
+        }
+    }
+
     public static List<DatastreamProfile> createDatastremProfiles(DigitalObject digitalObject) {
         List<DatastreamProfile> profileList = new ArrayList<>();
 
@@ -239,6 +248,7 @@ public class AkubraUtils {
                 profile.setDsMIME(type.getMIMETYPE());
                 profile.setDsFormatURI(type.getFORMATURI());
                 profile.setDsSize(BigInteger.valueOf(type.getSIZE()));
+                setChecksum(profile, type);
             }
             profile = normalizeProfile(profile);
             profileList.add(profile);
@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.storage.akubra;
+
+import com.yourmediashelf.fedora.generated.foxml.DatastreamType;
+import com.yourmediashelf.fedora.generated.foxml.DatastreamVersionType;
+import com.yourmediashelf.fedora.generated.foxml.DigitalObject;
+import com.yourmediashelf.fedora.generated.foxml.XmlContentType;
+import cz.cas.lib.proarc.common.mods.ModsStreamEditor;
+import cz.cas.lib.proarc.common.mods.custom.ModsConstants;
+import cz.cas.lib.proarc.common.storage.relation.RelationEditor;
+import cz.cas.lib.proarc.common.storage.relation.RelationResource;
+import cz.cas.lib.proarc.common.storage.relation.Relations;
+import java.util.ArrayList;
+import java.util.List;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Fields of the processing index read from RELS-EXT and MODS of a FOXML.
+ *
+ * <p>{@link #read} walks the inline XML of the in-memory FOXML once. It does not
+ * serialize the datastreams and it does not unmarshal RDF and MODS with JAXB
+ * like {@link RelationEditor} and {@link ModsStreamEditor} do. The values follow
+ * the getters of these editors and of {@code ExportUtils}.
+ */
+final class IndexFields {
+
+    String model;
+    String organization;
+    String user;
+    String status;
+    String device;
+    String ndkExport;
+    String krameriusExport;
+    String archiveExport;
+    String crossrefExport;
+    boolean locked;
+    List<String> members = new ArrayList<>();
+
+    String pageIndex;
+    String pageType;
+    String pageNumber;
+    String pagePosition;
+    String genre;
+    String urnNbn;
+    String descriptionStandard;
+    String partNumber;
+    List<String> identifiers = new ArrayList<>();
+
+    /**
+     * Reads the fields from the inline datastreams.
+     *
+     * @param withMods whether to read MODS fields
+     * @return the fields or {@code null} if RELS-EXT or MODS is not stored inline
+     */
+    static IndexFields read(DigitalObject object, boolean withMods) {
+        Element rdf = findInlineXml(object, RelationEditor.DATASTREAM_ID);
+        if (rdf == null) {
+            return null;
+        }
+        Element mods = null;
+        if (withMods) {
+            mods = findInlineXml(object, ModsStreamEditor.DATASTREAM_ID);
+            if (mods != null && isElement(mods, ModsConstants.NS, "modsCollection")) {
+                mods = firstChild(mods, ModsConstants.NS, "mods");
+            }
+            if (mods == null) {
+                return null;
+            }
+        }
+        IndexFields fields = new IndexFields();
+        Element description = firstChild(rdf, Relations.RDF_NS, "Description");
+        if (description != null) {
+            fields.readRelations(description);
+        }
+        if (mods != null) {
+            fields.readMods(mods);
+        }
+        return fields;
+    }
+
+    private void readRelations(Element description) {
+        for (Element e = firstChild(description); e != null; e = nextSibling(e)) {
+            String ns = e.getNamespaceURI();
+            String name = e.getLocalName();
+            if (Relations.FEDORA_MODEL_NS.equals(ns)) {
+                if ("hasModel".equals(name)) {
+                    model = resourcePid(e);
+                }
+            } else if (Relations.FEDORA_EXTERNALS_NS.equals(ns)) {
+                if ("hasMember".equals(name)) {
+                    members.add(resourcePid(e));
+                }
+            } else if (Relations.PROARC_RELS_NS.equals(ns)) {
+                switch (name) {
+                    case "organization": organization = resourcePid(e); break;
+                    case "user": user = resourcePid(e); break;
+                    case "status": status = resourcePid(e); break;
+                    case "hasDevice": device = resourcePid(e); break;
+                    case "hasNdkExport": ndkExport = e.getTextContent(); break;
+                    case "hasKrameriusExport": krameriusExport = e.getTextContent(); break;
+                    case "hasArchiveExport": archiveExport = e.getTextContent(); break;
+                    case "hasCrossrefExport": crossrefExport = e.getTextContent(); break;
+                    case "isLocked": locked = Boolean.parseBoolean(e.getTextContent()); break;
+                    default:
+                }
+            }
+        }
+    }
+
+    private void readMods(Element mods) {
+        boolean firstPart = true;
+        List<String> recordIdentifiers = new ArrayList<>();
+        List<String> modsIdentifiers = new ArrayList<>();
+        List<String> shelfLocators = new ArrayList<>();
+        for (Element e = firstChild(mods); e != null; e = nextSibling(e)) {
+            if (!ModsConstants.NS.equals(e.getNamespaceURI())) {
+                continue;
+            }
+            switch (e.getLocalName()) {
+                case "part":
+                    readPart(e, firstPart);
+                    firstPart = false;
+                    break;
+                case "note":
+                    String note = e.getTextContent();
+                    if (pagePosition == null && (ModsConstants.VALUE_PAGE_NOTE_LEFT.equals(note)
+                            || ModsConstants.VALUE_PAGE_NOTE_RIGHT.equals(note)
+                            || ModsConstants.VALUE_PAGE_NOTE_SINGLE_PAGE.equals(note))) {
+                        pagePosition = note;
+                    }
+                    break;
+                case "genre":
+                    if (genre == null && !e.getTextContent().isEmpty()) {
+                        genre = e.getTextContent();
+                    }
+                    break;
+                case "identifier":
+                    String value = e.getTextContent();
+                    String invalid = attribute(e, "invalid");
+                    if (urnNbn == null && "urnnbn".equals(attribute(e, "type"))
+                            && (invalid == null || "".equals(invalid) || "false".equals(invalid))) {
+                        urnNbn = value;
+                    }
+                    if (!value.isEmpty() && (invalid == null || "false".equals(invalid) || "no".equals(invalid))) {
+                        modsIdentifiers.add(value);
+                    }
+                    break;
+                case "recordInfo":
+                    for (Element info = firstChild(e); info != null; info = nextSibling(info)) {
+                        if (isElement(info, ModsConstants.NS, "recordIdentifier")) {
+                            addNotEmpty(recordIdentifiers, info.getTextContent());
+                        } else if (descriptionStandard == null && isElement(info, ModsConstants.NS, "descriptionStandard")
+                                && !info.getTextContent().isEmpty()) {
+                            descriptionStandard = info.getTextContent();
+                        }
+                    }
+                    break;
+                case "titleInfo":
+                    for (Element title = firstChild(e); title != null && partNumber == null; title = nextSibling(title)) {
+                        if (isElement(title, ModsConstants.NS, "partNumber") && !title.getTextContent().isEmpty()) {
+                            partNumber = title.getTextContent();
+                        }
+                    }
+                    break;
+                case "location":
+                    for (Element location = firstChild(e); location != null; location = nextSibling(location)) {
+                        if (isElement(location, ModsConstants.NS, "shelfLocator")) {
+                            addNotEmpty(shelfLocators, location.getTextContent());
+                        }
+                    }
+                    break;
+                default:
+            }
+        }
+        identifiers.addAll(recordIdentifiers);
+        identifiers.addAll(modsIdentifiers);
+        identifiers.addAll(shelfLocators);
+    }
+
+    private void readPart(Element part, boolean firstPart) {
+        if (firstPart) {
+            pageType = attribute(part, "type");
+        }
+        for (Element detail = firstChild(part); detail != null; detail = nextSibling(detail)) {
+            if (!isElement(detail, ModsConstants.NS, "detail")) {
+                continue;
+            }
+            Element number = firstChild(detail, ModsConstants.NS, "number");
+            if (number == null) {
+                continue;
+            }
+            String type = attribute(detail, "type");
+            if (pageIndex == null && "pageIndex".equals(type)) {
+                pageIndex = number.getTextContent();
+            }
+            if (firstPart && pageNumber == null && ("pageNumber".equals(type) || "page number".equals(type))) {
+                pageNumber = number.getTextContent();
+            }
+        }
+    }
+
+    private static void addNotEmpty(List<String> values, String value) {
+        if (!value.isEmpty()) {
+            values.add(value);
+        }
+    }
+
+    private static Element findInlineXml(DigitalObject object, String dsId) {
+        for (DatastreamType datastream : object.getDatastream()) {
+            if (datastream != null && dsId.equals(datastream.getID())) {
+                // the same version as AkubraXmlStreamEditor reads
+                List<DatastreamVersionType> versions = datastream.getDatastreamVersion();
+                if (versions == null || versions.isEmpty() || versions.get(0) == null) {
+                    return null;
+                }
+                XmlContentType xmlContent = versions.get(0).getXmlContent();
+                if (xmlContent == null || xmlContent.getAny() == null || xmlContent.getAny().isEmpty()) {
+                    return null;
+                }
+                return xmlContent.getAny().get(0);
+            }
+        }
+        return null;
+    }
+
+    private static String resourcePid(Element relation) {
+        String resource = relation.getAttributeNS(Relations.RDF_NS, "resource");
+        return resource == null || resource.isEmpty() ? null : RelationResource.toPid(resource);
+    }
+
+    private static String attribute(Element e, String name) {
+        return e.hasAttribute(name) ? e.getAttribute(name) : null;
+    }
+
+    private static boolean isElement(Element e, String ns, String name) {
+        return ns.equals(e.getNamespaceURI()) && name.equals(e.getLocalName());
+    }
+
+    private static Element firstChild(Element parent, String ns, String name) {
+        for (Element e = firstChild(parent); e != null; e = nextSibling(e)) {
+            if (isElement(e, ns, name)) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    private static Element firstChild(Node parent) {
+        Node n = parent.getFirstChild();
+        while (n != null && n.getNodeType() != Node.ELEMENT_NODE) {
+            n = n.getNextSibling();
+        }
+        return (Element) n;
+    }
+
+    private static Element nextSibling(Node node) {
+        Node n = node.getNextSibling();
+        while (n != null && n.getNodeType() != Node.ELEMENT_NODE) {
+            n = n.getNextSibling();
+        }
+        return (Element) n;
+    }
+}
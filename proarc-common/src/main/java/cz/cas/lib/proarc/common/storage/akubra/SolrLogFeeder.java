@@ -1,7 +1,6 @@
 package cz.cas.lib.proarc.common.storage.akubra;
 
 import cz.cas.lib.proarc.common.storage.DigitalObjectException;
-import cz.incad.kramerius.resourceindex.ProcessingIndexFeeder;
 import java.io.IOException;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrServerException;
@@ -16,7 +15,7 @@ import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.FIELD_STREAM;
 import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.FIELD_USER;
 import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.now;
 
-public class SolrLogFeeder extends ProcessingIndexFeeder {
+public class SolrLogFeeder extends AbstractSolrFeeder {
 
     public SolrLogFeeder(SolrClient solrClient) {
         super(solrClient);
@@ -25,7 +24,7 @@ public class SolrLogFeeder extends ProcessingIndexFeeder {
     public void feedLogChange(String user, String pid, String stream, String operation) throws DigitalObjectException {
         try {
             feedLogChange(user, now(), pid, stream, operation);
-            commit();
+            commitChanges();
         } catch (SolrServerException | IOException ex) {
             throw new DigitalObjectException(pid, "Nepodarilo se zaindexovat objekt " + pid + " do SOLRu.");
         }
@@ -39,7 +38,7 @@ public class SolrLogFeeder extends ProcessingIndexFeeder {
         sdoc.addField(FIELD_PID, pid);
         sdoc.addField(FIELD_STREAM, stream);
         sdoc.addField(FIELD_OPERATION, operation);
-        return feedDescriptionDocument(sdoc);
+        return add(sdoc);
     }
 
     private Object getKey(String pid, String operation, String stream, String date) {
@@ -20,7 +20,6 @@ import cz.cas.lib.proarc.mods.RecordInfoDefinition;
 import cz.cas.lib.proarc.mods.StringPlusLanguage;
 import cz.cas.lib.proarc.mods.StringPlusLanguagePlusAuthority;
 import cz.cas.lib.proarc.mods.TitleInfoDefinition;
-import cz.incad.kramerius.resourceindex.ProcessingIndexFeeder;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -68,59 +67,75 @@ import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.FIELD_VALIDATION
 import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.PROPERTY_STATE_DEACTIVE;
 import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.VALIDATION_STATUS_UNKNOWN;
 
-public class SolrObjectFeeder extends ProcessingIndexFeeder {
+public class SolrObjectFeeder extends AbstractSolrFeeder {
 
     public SolrObjectFeeder(SolrClient solrClient) {
         super(solrClient);
     }
 
     public void feedDescriptionDocument(DigitalObject object, ProArcObject proArcObject, boolean commit) throws DigitalObjectException {
-        RelationEditor relationEditor = new RelationEditor(proArcObject);
         String pid = proArcObject.getPid();
-        String model = relationEditor.getModel();
+        IndexFields fields = IndexFields.read(object, true);
+        if (fields == null) {
+            fields = readIndexFields(proArcObject, true);
+        }
         String owner = getProperties(object, PROPERTY_OWNER);
         String label = getProperties(object, PROPERTY_LABEL);
         String state = updateState(getProperties(object, PROPERTY_STATE));
         String created = getProperties(object, PROPERTY_CREATEDATE);
         String modified = getProperties(object, PROPERTY_LASTMODIFIED);
 
-        String device = relationEditor.getDevice();
-        String organization = relationEditor.getOrganization();
-        String user = relationEditor.getUser();
-        String status = relationEditor.getStatus();
-        String ndkExport = relationEditor.getNdkExportResult();
-        String krameriusExport = relationEditor.getKrameriusExportResult();
-        String archiveExport = relationEditor.getArchiveExportResult();
-        String crossrefExport = relationEditor.getCrossrefExportResult();
-
-        ModsDefinition mods = getModsDefinition(proArcObject);
-        String pageIndex = ExportUtils.getPageIndexAsString(mods);
-        String pageType = ExportUtils.getPageType(mods);
-        String pageNumber = ExportUtils.getPageNumber(mods);
-        String pagePosition = ExportUtils.getPagePosition(mods);
-        String genre = ExportUtils.getGenre(mods);
-        String urnNbn = getUrnNbn(mods);
-        String descriptionStandard = getDescriptionStandatd(mods);
-        String partNumber = getPartNumber(mods);
-        String[] identifiers = getIdentifiersArray(mods);
-
-        Boolean isLocked = relationEditor.isLocked();
-
-        List<String> members = relationEditor.getMembers();
-
         try {
-            feedDescriptionDocument(pid, model, owner, label, state, created, modified, organization, user, status,
-                    ndkExport, krameriusExport, archiveExport, crossrefExport, isLocked, device, members,
-                    pageIndex, pageType, pageNumber, pagePosition, genre, urnNbn, descriptionStandard, partNumber, identifiers);
+            feedDescriptionDocument(pid, fields.model, owner, label, state, created, modified,
+                    fields.organization, fields.user, fields.status, fields.ndkExport, fields.krameriusExport,
+                    fields.archiveExport, fields.crossrefExport, fields.locked, fields.device, fields.members,
+                    fields.pageIndex, fields.pageType, fields.pageNumber, fields.pagePosition, fields.genre,
+                    fields.urnNbn, fields.descriptionStandard, fields.partNumber,
+                    fields.identifiers.toArray(new String[0]));
             if (commit) {
-                commit();
+                commitChanges();
             }
         } catch (SolrServerException | IOException ex) {
             throw new DigitalObjectException(pid, "Nepodarilo se zaindexovat objekt " + pid + " do SOLRu.");
         }
     }
 
-    private String[] getIdentifiersArray(ModsDefinition mods) {
+    /**
+     * Reads the fields with the datastream editors. It is used when RELS-EXT
+     * or MODS is not stored inline in the FOXML.
+     */
+    private IndexFields readIndexFields(ProArcObject proArcObject, boolean withMods) throws DigitalObjectException {
+        RelationEditor relationEditor = new RelationEditor(proArcObject);
+        IndexFields fields = new IndexFields();
+        fields.model = relationEditor.getModel();
+        if (!withMods) {
+            return fields;
+        }
+        fields.device = relationEditor.getDevice();
+        fields.organization = relationEditor.getOrganization();
+        fields.user = relationEditor.getUser();
+        fields.status = relationEditor.getStatus();
+        fields.ndkExport = relationEditor.getNdkExportResult();
+        fields.krameriusExport = relationEditor.getKrameriusExportResult();
+        fields.archiveExport = relationEditor.getArchiveExportResult();
+        fields.crossrefExport = relationEditor.getCrossrefExportResult();
+        fields.locked = relationEditor.isLocked();
+        fields.members = relationEditor.getMembers();
+
+        ModsDefinition mods = getModsDefinition(proArcObject);
+        fields.pageIndex = ExportUtils.getPageIndexAsString(mods);
+        fields.pageType = ExportUtils.getPageType(mods);
+        fields.pageNumber = ExportUtils.getPageNumber(mods);
+        fields.pagePosition = ExportUtils.getPagePosition(mods);
+        fields.genre = ExportUtils.getGenre(mods);
+        fields.urnNbn = getUrnNbn(mods);
+        fields.descriptionStandard = getDescriptionStandatd(mods);
+        fields.partNumber = getPartNumber(mods);
+        fields.identifiers = getIdentifiers(mods);
+        return fields;
+    }
+
+    private List<String> getIdentifiers(ModsDefinition mods) {
         List<String> identifiers = new ArrayList<>();
         for (RecordInfoDefinition recordInfo : mods.getRecordInfo()) {
             for (RecordIdentifierDefinition recordIdentifier : recordInfo.getRecordIdentifier()) {
@@ -146,7 +161,7 @@ public class SolrObjectFeeder extends ProcessingIndexFeeder {
                 }
             }
         }
-        return identifiers.stream().toArray(String[]::new);
+        return identifiers;
     }
 
     private ModsDefinition getModsDefinition(ProArcObject object) throws DigitalObjectException {
@@ -222,7 +237,7 @@ public class SolrObjectFeeder extends ProcessingIndexFeeder {
         sdoc.addField(FIELD_PART_NUMBER, partNumber);
         sdoc.addField(FIELD_IDENTIFIRES, identifiers);
 
-        return feedDescriptionDocument(sdoc);
+        return add(sdoc);
     }
 
     public void feedValidationResult(String pid, Integer procesId, String status) throws DigitalObjectException {
@@ -239,8 +254,8 @@ public class SolrObjectFeeder extends ProcessingIndexFeeder {
         sdoc.addField(FIELD_VALIDATION_PROCES, updateProces);
 
         try {
-            UpdateResponse response = feedDescriptionDocument(sdoc);
-            commit();
+            add(sdoc);
+            commitChanges();
         } catch (SolrServerException | IOException ex) {
             throw new DigitalObjectException(pid, "Nepodarilo se zapsat stav validace pro pid " + pid + " do SOLRu.");
         }
@@ -261,9 +276,9 @@ public class SolrObjectFeeder extends ProcessingIndexFeeder {
     }
 
     public void feedDescriptionDevice(DigitalObject object, ProArcObject proArcObject, boolean commit) throws DigitalObjectException {
-        RelationEditor relationEditor = new RelationEditor(proArcObject);
         String pid = proArcObject.getPid();
-        String model = relationEditor.getModel();
+        IndexFields fields = IndexFields.read(object, false);
+        String model = (fields != null ? fields : readIndexFields(proArcObject, false)).model;
         String owner = getProperties(object, PROPERTY_OWNER);
         String label = getProperties(object, PROPERTY_LABEL);
         String state = updateState(getProperties(object, PROPERTY_STATE));
@@ -273,7 +288,7 @@ public class SolrObjectFeeder extends ProcessingIndexFeeder {
         try {
             feedDescriptionDevice(pid, model, owner, label, state, created, modified);
             if (commit) {
-                commit();
+                commitChanges();
             }
         } catch (SolrServerException | IOException ex) {
             throw new DigitalObjectException(pid, "Nepodarilo se zaindexovat objekt " + pid + " do SOLRu.");
@@ -290,7 +305,7 @@ public class SolrObjectFeeder extends ProcessingIndexFeeder {
         sdoc.addField(FIELD_STATE, state);
         sdoc.addField(FIELD_CREATED, created);
         sdoc.addField(FIELD_MODIFIED, modified);
-        return feedDescriptionDocument(sdoc);
+        return add(sdoc);
     }
 
     private String updateState(String state) {
@@ -15,12 +15,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.FacetField;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.util.ClientUtils;
 import org.apache.solr.common.SolrDocument;
@@ -39,6 +44,7 @@ import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.FIELD_PID;
 import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.FIELD_STATE;
 import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.FIELD_STATUS;
 import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.FIELD_USER;
+import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.FIELD_VALIDATION_STATUS;
 import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.appendAndValue;
 import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.createItem;
 import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.getModelQuery;
@@ -162,52 +168,102 @@ public class SolrSearchView extends SearchView {
         }
     }
 
+    /**
+     * Finds active referrers of the object. Only the pid, validation status
+     * and members are loaded.
+     */
+    List<SolrDocument> findReferrerStatuses(String pid) throws IOException {
+        try {
+            StringBuilder queryBuilder = new StringBuilder();
+            queryBuilder = appendAndValue(queryBuilder, FIELD_STATE + ":\"" + SolrUtils.PROPERTY_STATE_ACTIVE + "\"");
+            queryBuilder = appendAndValue(queryBuilder, FIELD_MEMBERS + ":\"" + ClientUtils.escapeQueryChars(pid) + "\"");
+            SolrQuery solrQuery = new SolrQuery(queryBuilder.toString());
+            solrQuery.setFields(FIELD_PID, FIELD_VALIDATION_STATUS, FIELD_MEMBERS);
+            return this.solrClient.query(solrQuery).getResults();
+        } catch (SolrServerException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Counts the validation statuses of the active objects with one facet query.
+     *
+     * @return status to count of objects
+     */
+    Map<String, Long> countValidationStatuses(Collection<String> pids) throws IOException {
+        Map<String, Long> counts = new HashMap<>();
+        if (pids.isEmpty()) {
+            return counts;
+        }
+        try {
+            SolrQuery solrQuery = new SolrQuery("{!terms f=" + FIELD_PID + "}" + String.join(",", pids));
+            solrQuery.addFilterQuery(FIELD_STATE + ":\"" + SolrUtils.PROPERTY_STATE_ACTIVE + "\"");
+            solrQuery.setRows(0);
+            solrQuery.setFacet(true);
+            solrQuery.setFacetMinCount(1);
+            solrQuery.addFacetField(FIELD_VALIDATION_STATUS);
+            QueryResponse response = this.solrClient.query(solrQuery, SolrRequest.METHOD.POST);
+            FacetField facet = response.getFacetField(FIELD_VALIDATION_STATUS);
+            if (facet != null) {
+                for (FacetField.Count count : facet.getValues()) {
+                    counts.put(count.getName(), count.getCount());
+                }
+            }
+            return counts;
+        } catch (SolrServerException ex) {
+            throw new IOException(ex);
+        }
+    }
+
     @Override
     public List<SearchViewItem> findSortedChildren(String parentPid) throws IOException, DigitalObjectException {
         AkubraObject parent = storage.find(parentPid);
         List<String> memberPids = new RelationEditor(parent).getMembers();
-        List<SearchViewItem> items = find(memberPids);
-        ArrayList<SearchViewItem> sortedItems = new ArrayList<SearchViewItem>(memberPids.size());
-        for (String memberPid : memberPids) {
-            for (Iterator<SearchViewItem> it = items.iterator(); it.hasNext();) {
-                SearchViewItem item = it.next();
-                if (memberPid.equals(item.getPid())) {
-                    sortedItems.add(item);
-                    it.remove();
-                    break;
-                }
-            }
-        }
-        return sortedItems;
+        return sortByPosition(memberPids, findItems(memberPids));
     }
 
     @Override
     public List<SearchViewItem> findSortedChildrenWithPagesFirst(String parentPid) throws FedoraClientException, IOException, DigitalObjectException {
         AkubraObject parent = storage.find(parentPid);
         List<String> memberPids = new RelationEditor(parent).getMembers();
-        List<SearchViewItem> items = find(memberPids);
-        ArrayList<SearchViewItem> sortedItems = new ArrayList<SearchViewItem>(memberPids.size());
-        ArrayList<SearchViewItem> pageModelsList = new ArrayList<>();
+        List<SearchViewItem> items = sortByPosition(memberPids, findItems(memberPids));
+        ArrayList<SearchViewItem> sortedItems = new ArrayList<SearchViewItem>(items.size());
         ArrayList<SearchViewItem> otherModelsList = new ArrayList<>();
-        for (String memberPid : memberPids) {
-            for (Iterator<SearchViewItem> it = items.iterator(); it.hasNext();) {
-                SearchViewItem item = it.next();
-                if (memberPid.equals(item.getPid())) {
-                    if (NdkPlugin.MODEL_PAGE.equals(item.getModel()) || NdkPlugin.MODEL_NDK_PAGE.equals(item.getModel()) || OldPrintPlugin.MODEL_PAGE.equals(item.getModel())) {
-                        pageModelsList.add(item);
-                    } else {
-                        otherModelsList.add(item);
-                    }
-                    it.remove();
-                    break;
-                }
+        for (SearchViewItem item : items) {
+            if (NdkPlugin.MODEL_PAGE.equals(item.getModel()) || NdkPlugin.MODEL_NDK_PAGE.equals(item.getModel()) || OldPrintPlugin.MODEL_PAGE.equals(item.getModel())) {
+                sortedItems.add(item);
+            } else {
+                otherModelsList.add(item);
             }
         }
-        sortedItems.addAll(pageModelsList);
         sortedItems.addAll(otherModelsList);
         return sortedItems;
     }
 
+    /**
+     * Orders items by the position of their PIDs in the list. Items of unknown PIDs are left out.
+     */
+    private static List<SearchViewItem> sortByPosition(List<String> pids, List<SearchViewItem> items) {
+        Map<String, Integer> positions = new HashMap<>(pids.size() * 2);
+        for (int i = 0; i < pids.size(); i++) {
+            positions.putIfAbsent(pids.get(i), i);
+        }
+        SearchViewItem[] sorted = new SearchViewItem[pids.size()];
+        for (SearchViewItem item : items) {
+            Integer position = positions.get(item.getPid());
+            if (position != null) {
+                sorted[position] = item;
+            }
+        }
+        List<SearchViewItem> sortedItems = new ArrayList<>(items.size());
+        for (SearchViewItem item : sorted) {
+            if (item != null) {
+                sortedItems.add(item);
+            }
+        }
+        return sortedItems;
+    }
+
     @Override
     public List<SearchViewItem> findChildren(String parentPid) throws IOException, DigitalObjectException {
         AkubraObject parent = storage.find(parentPid);
@@ -219,34 +275,139 @@ public class SolrSearchView extends SearchView {
         return items;
     }
 
+    /**
+     * Loads the hierarchy breadth first with one query per tree level. The members
+     * of the objects are taken from the index. The items are returned in the same
+     * order as before: the children of a node followed by the hierarchies of the children.
+     */
     @Override
     public List<SearchViewItem> findChildrenHierarchy(String parentPid) throws IOException, DigitalObjectException {
+        Map<String, List<String>> members = new HashMap<>();
+        Map<String, SearchViewItem> activeItems = new HashMap<>();
+        loadTrees(Collections.singletonList(parentPid), members, activeItems);
         List<SearchViewItem> items = new ArrayList<>();
+        appendHierarchy(items, parentPid, members, activeItems);
+        return items;
+    }
 
-        items = findChildrenHierarchy(items, parentPid);
+    /**
+     * Loads the active descendants of the objects breadth first with one query
+     * per tree level. The members of the objects are taken from the index,
+     * flush it first to see the members just written.
+     *
+     * @param pids the roots of the trees
+     * @return PID to the active children in the order of the members;
+     *          objects without active children are left out
+     */
+    public Map<String, List<SearchViewItem>> findSortedChildrenTree(Collection<String> pids) throws IOException {
+        Map<String, List<String>> members = new HashMap<>();
+        Map<String, SearchViewItem> activeItems = new HashMap<>();
+        loadTrees(pids, members, activeItems);
+        Map<String, List<SearchViewItem>> children = new HashMap<>(members.size() * 2);
+        for (Map.Entry<String, List<String>> entry : members.entrySet()) {
+            List<SearchViewItem> items = new ArrayList<>(entry.getValue().size());
+            for (String memberPid : entry.getValue()) {
+                SearchViewItem item = activeItems.get(memberPid);
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+            if (!items.isEmpty()) {
+                children.put(entry.getKey(), items);
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Reads the trees level by level.
+     *
+     * @param members collects PIDs to their members
+     * @param activeItems collects PIDs to the items of active objects
+     */
+    private void loadTrees(Collection<String> pids, Map<String, List<String>> members,
+            Map<String, SearchViewItem> activeItems) throws IOException {
+
+        Set<String> visited = new HashSet<>(pids);
+        List<String> level = new ArrayList<>(visited);
+        while (!level.isEmpty()) {
+            List<String> nextLevel = new ArrayList<>();
+            for (SolrDocument solrDocument : findDocuments(level)) {
+                String pid = (String) solrDocument.getFieldValue(FIELD_PID);
+                if (SolrUtils.PROPERTY_STATE_ACTIVE.equals(solrDocument.getFieldValue(FIELD_STATE))) {
+                    activeItems.put(pid, createItem(solrDocument, locale));
+                }
+                List<String> memberPids = getMembers(solrDocument);
+                members.put(pid, memberPids);
+                for (String memberPid : memberPids) {
+                    if (visited.add(memberPid)) {
+                        nextLevel.add(memberPid);
+                    }
+                }
+            }
+            level = nextLevel;
+        }
+    }
 
+    private static void appendHierarchy(List<SearchViewItem> items, String parentPid,
+            Map<String, List<String>> members, Map<String, SearchViewItem> activeItems) {
+
+        List<String> memberPids = members.remove(parentPid);
+        if (memberPids == null || memberPids.isEmpty()) {
+            return;
+        }
+        for (String memberPid : memberPids) {
+            SearchViewItem item = activeItems.get(memberPid);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        for (String memberPid : memberPids) {
+            appendHierarchy(items, memberPid, members, activeItems);
+        }
+    }
+
+    private static List<String> getMembers(SolrDocument solrDocument) {
+        Collection<Object> values = solrDocument.getFieldValues(FIELD_MEMBERS);
+        if (values == null) {
+            return Collections.emptyList();
+        }
+        List<String> memberPids = new ArrayList<>(values.size());
+        for (Object value : values) {
+            memberPids.add((String) value);
+        }
+        return memberPids;
+    }
+
+    /**
+     * Finds active objects with a single query.
+     */
+    private List<SearchViewItem> findItems(List<String> pids) throws IOException {
+        List<SearchViewItem> items = new ArrayList<>(pids.size());
+        for (SolrDocument solrDocument : findDocuments(pids)) {
+            if (SolrUtils.PROPERTY_STATE_ACTIVE.equals(solrDocument.getFieldValue(FIELD_STATE))) {
+                items.add(createItem(solrDocument, locale));
+            }
+        }
         return items;
     }
 
-    private List<SearchViewItem> findChildrenHierarchy(List<SearchViewItem> items, String parentPid) throws IOException, DigitalObjectException {
-        if (items == null) {
-            items = new ArrayList<>();
+    /**
+     * Loads index documents of the objects in any state with a single query.
+     */
+    private List<SolrDocument> findDocuments(Collection<String> pids) throws IOException {
+        if (pids.isEmpty()) {
+            return Collections.emptyList();
         }
-        AkubraObject parent = storage.find(parentPid);
-        List<String> memberPids = null;
         try {
-             memberPids = new RelationEditor(parent).getMembers();
-        } catch (Exception ex) {
-            memberPids = new ArrayList<>();
-        }
-        if (memberPids.isEmpty()) {
-            return items;
-        } else {
-            items.addAll(find(memberPids));
-            for (String memberPid : memberPids) {
-                items = findChildrenHierarchy(items, memberPid);
+            SolrQuery solrQuery = new SolrQuery("{!terms f=" + FIELD_PID + "}" + String.join(",", pids));
+            for (String filterQuery : defaultFilterQuery()) {
+                solrQuery.addFilterQuery(filterQuery);
             }
-            return items;
+            solrQuery.setRows(pids.size());
+            return this.solrClient.query(solrQuery, SolrRequest.METHOD.POST).getResults();
+        } catch (SolrServerException ex) {
+            throw new IOException(ex);
         }
     }
 
@@ -13,9 +13,12 @@ import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.util.ClientUtils;
 import org.apache.solr.common.SolrDocument;
 
@@ -322,34 +325,72 @@ public class SolrUtils {
         return formatter.format(new Date());
     }
 
-    public static void indexParentResult(SolrSearchView solrSearchView, SolrObjectFeeder solrObjectFeeder, String pid) throws DigitalObjectException, IOException {
+    /**
+     * Propagates the changed validation status of the object to its ancestors.
+     * Each level counts the statuses of the siblings with a single facet query
+     * and the propagation stops at the first ancestor whose status is not changed.
+     * The index is flushed first, so that the counts include statuses written
+     * just before, e.g. by other validations of the batch.
+     *
+     * @param status new validation status of the object
+     */
+    public static void indexParentResult(SolrSearchView solrSearchView, SolrObjectFeeder solrObjectFeeder, String pid, String status) throws DigitalObjectException, IOException {
         if (solrSearchView == null || solrObjectFeeder == null) {
             return;
         }
-        List<SearchViewItem> parents = solrSearchView.findReferrers(pid);
-        if (parents == null || parents.isEmpty() || parents.size() > 1) {
-            return;
-        }
-        List<SearchViewItem> children = solrSearchView.findChildren(parents.get(0).getPid());
-        if (children == null || children.isEmpty()) {
-            return;
+        try {
+            solrObjectFeeder.flush();
+        } catch (SolrServerException ex) {
+            throw new IOException(ex);
         }
-
-        String status = VALIDATION_STATUS_OK;
-
-        for (SearchViewItem child : children) {
-            if (VALIDATION_STATUS_OK.equals(child.getValidationStatus())) {
-                if (!status.equals(VALIDATION_STATUS_UNKNOWN)) {
-                    status = VALIDATION_STATUS_OK;
+        String childPid = pid;
+        String childStatus = status;
+        while (true) {
+            List<SolrDocument> parents = solrSearchView.findReferrerStatuses(childPid);
+            if (parents.size() != 1) {
+                return;
+            }
+            SolrDocument parent = parents.get(0);
+            String parentPid = getString(parent, FIELD_PID);
+            String parentStatus;
+            if (VALIDATION_STATUS_ERROR.equals(childStatus)) {
+                parentStatus = VALIDATION_STATUS_ERROR;
+            } else {
+                // the index may not contain the new status of the child yet
+                List<String> siblings = new ArrayList<>();
+                Collection<Object> members = parent.getFieldValues(FIELD_MEMBERS);
+                if (members != null) {
+                    for (Object member : members) {
+                        if (!childPid.equals(member)) {
+                            siblings.add((String) member);
+                        }
+                    }
                 }
-            } else if (VALIDATION_STATUS_ERROR.equals(child.getValidationStatus())) {
-                status = VALIDATION_STATUS_ERROR;
-                break;
-            } else if (VALIDATION_STATUS_UNKNOWN.equals(child.getValidationStatus())) {
-                status = VALIDATION_STATUS_UNKNOWN;
+                Map<String, Long> counts = solrSearchView.countValidationStatuses(siblings);
+                parentStatus = rollupValidationStatus(childStatus, counts);
+            }
+            if (parentStatus.equals(getString(parent, FIELD_VALIDATION_STATUS))) {
+                return;
             }
+            solrObjectFeeder.feedValidationResult(parentPid, null, parentStatus);
+            childPid = parentPid;
+            childStatus = parentStatus;
+        }
+    }
+
+    /**
+     * Resolves the status of a parent. Any error wins over unknown and unknown
+     * wins over OK.
+     *
+     * @param childStatus status of the changed child
+     * @param siblingCounts status to count of the other children
+     */
+    static String rollupValidationStatus(String childStatus, Map<String, Long> siblingCounts) {
+        if (VALIDATION_STATUS_ERROR.equals(childStatus) || siblingCounts.containsKey(VALIDATION_STATUS_ERROR)) {
+            return VALIDATION_STATUS_ERROR;
+        } else if (VALIDATION_STATUS_UNKNOWN.equals(childStatus) || siblingCounts.containsKey(VALIDATION_STATUS_UNKNOWN)) {
+            return VALIDATION_STATUS_UNKNOWN;
         }
-        solrObjectFeeder.feedValidationResult(parents.get(0).getPid(), null, status);
-        indexParentResult(solrSearchView, solrObjectFeeder, parents.get(0).getPid());
+        return VALIDATION_STATUS_OK;
     }
 }
@@ -248,6 +248,7 @@ public class TaskManager {
                 paramDao.remove(task.getId());
                 paramDao.add(task.getId(), params);
             }
+            jobDao.updateSummary(job.getId());
             tx.commit();
             return task;
         } catch (ConcurrentModificationException t) {
@@ -418,6 +419,7 @@ public class TaskManager {
                 }
                 wmgr.createMaterials(materialDao, step, task, materialCache, null, config);
             }
+            jobDao.updateSummary(job.getId());
             tx.commit();
             return task;
         } catch (WorkflowException t) {
@@ -418,6 +418,7 @@ public class WorkflowManager {
             }
         }
         dao.update(m);
+        jobDao.updateSummary(job.getId());
         return m;
     }
 
@@ -539,6 +540,7 @@ public class WorkflowManager {
                         taskDao.update(task);
                     }
                 }
+                jobDao.updateSummary(job.getId());
             }
             tx.commit();
             return job;
@@ -594,6 +596,7 @@ public class WorkflowManager {
                     createMaterials(materialDao, step, task, materialCache, physicalMaterial, appConfiguration);
                 }
             }
+            jobDao.updateSummary(job.getId());
             tx.commit();
             return job;
         } catch (Throwable ex) {
@@ -696,6 +699,7 @@ public class WorkflowManager {
                     createMaterials(materialDao, step, task, materialCache, physicalMaterial, appConfiguration);
                 }
             }
+            jobDao.updateSummary(job.getId());
             tx.commit();
             return job;
         } catch (Throwable ex) {
@@ -97,6 +97,8 @@ public class JobFilter {
     private String sortBy;
     @XmlElement(name = WorkflowModelConsts.JOB_FILTER_OFFSET)
     private int offset = 0;
+    @XmlElement(name = WorkflowModelConsts.JOB_FILTER_AFTER_ID)
+    private BigDecimal afterId;
 
     private List<BigDecimal> ids;
 
@@ -269,6 +271,20 @@ public class JobFilter {
         this.offset = offset;
     }
 
+    /**
+     * Gets the last job of the previous page. The next page is sought
+     * by the job instead of skipping {@link #getOffset() offset} rows.
+     * It is used only for jobs sorted by {@link WorkflowModelConsts#JOB_TIMESTAMP}.
+     * Clients that send only the start row still page with the offset.
+     */
+    public BigDecimal getAfterId() {
+        return afterId;
+    }
+
+    public void setAfterId(BigDecimal afterId) {
+        this.afterId = afterId;
+    }
+
     public int getMaxCount() {
         return maxCount;
     }
@@ -66,6 +66,7 @@ public final class WorkflowModelConsts {
     public static final String JOB_FILTER_MATERIAL_YEAR = "year";
     public static final String JOB_FILTER_MATERIAL_EDITION = "edition";
     public static final String JOB_FILTER_OFFSET = "_startRow";
+    public static final String JOB_FILTER_AFTER_ID = "_afterId";
     public static final String JOB_FILTER_OWNERID = "ownerId";
     public static final String JOB_FILTER_PARENTID = "parentId";
     public static final String JOB_FILTER_PRIORITY = "priority";
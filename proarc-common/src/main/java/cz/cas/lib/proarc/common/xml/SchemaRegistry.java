@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.xml;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import javax.xml.XMLConstants;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import org.w3c.dom.ls.LSResourceResolver;
+import org.xml.sax.SAXException;
+
+/**
+ * Compiled XML schemas shared by the whole application.
+ *
+ * <p>Each XSD is compiled once and the {@link Schema} is kept for the next
+ * calls. Schemas are thread-safe; create a new {@link javax.xml.validation.Validator}
+ * for each validation as validators are not.
+ */
+public final class SchemaRegistry {
+
+    private static final Logger LOG = Logger.getLogger(SchemaRegistry.class.getName());
+
+    private static final Map<String, Schema> SCHEMAS = new ConcurrentHashMap<>();
+
+    private SchemaRegistry() {
+    }
+
+    /**
+     * Gets the compiled schema.
+     *
+     * @param xsd the location of the schema
+     * @param resolver resolves imports and includes of the schema; it is used
+     *          only when the schema is compiled for the first time
+     */
+    public static Schema get(URL xsd, LSResourceResolver resolver) throws SAXException {
+        if (xsd == null) {
+            throw new IllegalArgumentException("Missing schema.");
+        }
+        String key = xsd.toExternalForm();
+        Schema schema = SCHEMAS.get(key);
+        if (schema == null) {
+            schema = compile(key, xsd, resolver);
+        }
+        return schema;
+    }
+
+    private static synchronized Schema compile(String key, URL xsd, LSResourceResolver resolver) throws SAXException {
+        Schema schema = SCHEMAS.get(key);
+        if (schema == null) {
+            long start = System.currentTimeMillis();
+            SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            if (resolver != null) {
+                factory.setResourceResolver(resolver);
+            }
+            schema = factory.newSchema(xsd);
+            SCHEMAS.put(key, schema);
+            LOG.fine("Compiled " + key + " in " + (System.currentTimeMillis() - start) + " ms.");
+        }
+        return schema;
+    }
+}
@@ -20,6 +20,7 @@ import cz.cas.lib.proarc.common.dao.BatchItem;
 import cz.cas.lib.proarc.common.dao.BatchItem.ObjectState;
 import cz.cas.lib.proarc.common.dao.BatchItem.Type;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 import org.dbunit.Assertion;
 import org.dbunit.database.IDatabaseConnection;
@@ -142,6 +143,42 @@ public class EmpireBatchItemDaoTest {
         assertEquals(item.getType(), result.getType());
     }
 
+    @Test
+    public void testInsert() throws Exception {
+        IDataSet db = database(
+                support.loadFlatXmlDataStream(getClass(), "user.xml"),
+                support.loadFlatXmlDataStream(getClass(), "batch.xml")
+                );
+        support.cleanInsert(support.getConnection(tx), db);
+        support.initSequences(tx, 1,
+                schema.tableBatchItem.id.getSequenceName()
+                );
+        tx.commit();
+
+        int batchId = 1;
+        List<BatchItem> items = new ArrayList<BatchItem>();
+        for (int i = 1; i <= 3; i++) {
+            BatchItem item = dao.create();
+            item.setBatchId(batchId);
+            item.setFile("file" + i + ".tiff");
+            item.setPid("uuid:4a7c2e50-af36-11dd-9643-000d606f5dc6");
+            item.setState("OK");
+            item.setType(Type.FILE);
+            items.add(item);
+        }
+        dao.insert(items);
+        tx.commit();
+
+        assertEquals(Integer.valueOf(1), items.get(0).getId());
+        assertNotNull(items.get(0).getTimestamp());
+        List<BatchItem> result = dao.find(batchId, null, null, null, null, Type.FILE.name());
+        assertEquals(3, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            assertEquals(items.get(i).getId(), result.get(i).getId());
+            assertEquals(items.get(i).getFile(), result.get(i).getFile());
+        }
+    }
+
     @Test
     public void testUpdate() throws Exception {
         IDataSet db = database(
@@ -183,6 +183,8 @@ public class EmpireWorkflowJobDaoTest {
                 support.loadFlatXmlDataStream(getClass(), "wf_material.xml")
                 );
         support.cleanInsert(support.getConnection(tx), db);
+        dao.updateSummary(BigDecimal.ONE);
+        dao.updateSummary(new BigDecimal(2));
         tx.commit();
 
         JobFilter filter = new JobFilter();
@@ -202,4 +204,30 @@ public class EmpireWorkflowJobDaoTest {
         assertEquals("job.ndk", job0.getProfileName());
     }
 
+    @Test
+    public void testViewAfterId() throws Exception {
+        IDataSet db = database(
+                support.loadFlatXmlDataStream(getClass(), "user.xml"),
+                support.loadFlatXmlDataStream(getClass(), "wf_job.xml")
+                );
+        support.cleanInsert(support.getConnection(tx), db);
+        tx.commit();
+
+        // both jobs have the same timestamp; the order falls back to IDs
+        JobFilter filter = new JobFilter();
+        filter.setMaxCount(1);
+        List<JobView> jobs = dao.view(filter);
+        assertEquals(1, jobs.size());
+        assertEquals(new BigDecimal(2), jobs.get(0).getId());
+
+        filter.setAfterId(jobs.get(0).getId());
+        jobs = dao.view(filter);
+        assertEquals(1, jobs.size());
+        assertEquals(BigDecimal.ONE, jobs.get(0).getId());
+
+        filter.setAfterId(jobs.get(0).getId());
+        jobs = dao.view(filter);
+        assertTrue(jobs.isEmpty());
+    }
+
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.dao.empiredb;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SqlStatisticsTest {
+
+    @Test
+    public void testCounters() {
+        SqlStatistics stats = new SqlStatistics();
+        stats.addConnection(TimeUnit.MILLISECONDS.toNanos(3));
+        stats.addConnection(TimeUnit.MILLISECONDS.toNanos(5));
+        stats.addStatement("select 1", TimeUnit.MILLISECONDS.toNanos(10));
+        stats.addBatch("insert", 20, TimeUnit.MILLISECONDS.toNanos(30));
+
+        assertEquals(2, stats.getConnectionCount());
+        assertEquals(8, stats.getConnectionTime());
+        assertEquals(5, stats.getMaxConnectionTime());
+        assertEquals(2, stats.getStatementCount());
+        assertEquals(40, stats.getStatementTime());
+        assertEquals(30, stats.getMaxStatementTime());
+        assertEquals(20, stats.getBatchedRows());
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.kramerius;
+
+import com.sun.net.httpserver.HttpServer;
+import cz.cas.lib.proarc.common.config.AppConfiguration;
+import cz.cas.lib.proarc.common.config.AppConfigurationFactory;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class K7HarvesterTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private HttpServer server;
+    private AppConfiguration appConfig;
+    private final Map<String, String> foxmls = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> downloads = new ConcurrentHashMap<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    /** Sends FOXML without Content-Length like Kramerius does. */
+    private volatile boolean chunked;
+
+    @Before
+    public void setUp() throws Exception {
+        File configHome = temp.newFolder(AppConfiguration.DEFAULT_APP_HOME_NAME);
+        Map<String, String> env = new HashMap<String, String>();
+        env.put(AppConfiguration.PROPERTY_APP_HOME, configHome.toString());
+        appConfig = AppConfigurationFactory.getInstance().create(env);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/login", exchange -> K7ProcessTrackerTest.respond(exchange, 200, "{\"access_token\":\"token\"}"));
+        server.createContext("/foxml/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            String pid = path.substring("/foxml/".length(), path.length() - "/foxml".length());
+            byte[] foxml = foxmls.get(pid).getBytes(StandardCharsets.UTF_8);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                if (!chunked) {
+                    exchange.getResponseHeaders().set("Content-Length", String.valueOf(foxml.length));
+                }
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+                return;
+            }
+            downloads.computeIfAbsent(pid, key -> new AtomicInteger()).incrementAndGet();
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+                exchange.sendResponseHeaders(200, chunked ? 0 : foxml.length);
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(foxml);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        KrameriusHttpClients.closeAll();
+    }
+
+    @Test
+    public void testReadRelations() throws Exception {
+        String foxml = foxml("model:monograph", "uuid:p1", "uuid:p2")
+                .replace("</rdf:RDF>", "<rdf:Description><kramerius:hasPage rdf:resource=\"info:fedora/uuid:p3\"/></rdf:Description></rdf:RDF>")
+                .replace("<kramerius:hasPage", "<kramerius:isOnPage rdf:resource=\"info:fedora/uuid:x\"/><kramerius:hasPage");
+        K7Harvester.ObjectRelations relations = K7Harvester.readRelations(new ByteArrayInputStream(foxml.getBytes(StandardCharsets.UTF_8)));
+        assertEquals("model:monograph", relations.getModel());
+        assertEquals(Arrays.asList("uuid:p1", "uuid:p2"), relations.getChildren());
+
+        relations = K7Harvester.readRelations(new ByteArrayInputStream(
+                "<foxml:digitalObject xmlns:foxml=\"info:fedora/fedora-system:def/foxml#\"/>".getBytes(StandardCharsets.UTF_8)));
+        assertNull(relations.getModel());
+        assertEquals(Collections.emptyList(), relations.getChildren());
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        foxmls.put("uuid:root", foxml("model:monograph", "uuid:p1", "uuid:p2"));
+        foxmls.put("uuid:p1", foxml("model:page"));
+        foxmls.put("uuid:p2", foxml("model:page"));
+        KrameriusOptions.KrameriusInstance instance = instance("resume", 2);
+        // a stale root, a complete page and a partial download of the other page
+        File root = KUtils.getFile(appConfig, instance.getId(), "uuid:root");
+        Files.write(root.toPath(), foxml("model:monograph", "uuid:p1").getBytes(StandardCharsets.UTF_8));
+        File page1 = KUtils.getFile(appConfig, instance.getId(), "uuid:p1");
+        Files.write(page1.toPath(), foxmls.get("uuid:p1").getBytes(StandardCharsets.UTF_8));
+        File page2 = KUtils.getFile(appConfig, instance.getId(), "uuid:p2");
+        File page2Part = new File(page2.getParentFile(), page2.getName() + ".part");
+        Files.write(page2Part.toPath(), "<foxml:digitalObject".getBytes(StandardCharsets.UTF_8));
+
+        K7Harvester.Result result = new K7Harvester(appConfig, instance, false).harvest("uuid:root");
+
+        assertEquals(2, result.getDownloaded());
+        assertEquals(1, result.getSkipped());
+        assertEquals(Collections.emptyList(), result.getFailed());
+        assertEquals(foxmls.get("uuid:root"), new String(Files.readAllBytes(root.toPath()), StandardCharsets.UTF_8));
+        assertEquals(foxmls.get("uuid:p2"), new String(Files.readAllBytes(page2.toPath()), StandardCharsets.UTF_8));
+        assertFalse(page2Part.exists());
+        assertNull(downloads.get("uuid:p1"));
+    }
+
+    @Test
+    public void testResumeChunked() throws Exception {
+        chunked = true;
+        foxmls.put("uuid:root", foxml("model:monograph", "uuid:p1", "uuid:p2"));
+        foxmls.put("uuid:p1", foxml("model:page"));
+        foxmls.put("uuid:p2", foxml("model:page"));
+        KrameriusOptions.KrameriusInstance instance = instance("chunked", 2);
+
+        K7Harvester.Result result = new K7Harvester(appConfig, instance, false).harvest("uuid:root");
+        assertEquals(3, result.getDownloaded());
+        File page1 = KUtils.getFile(appConfig, instance.getId(), "uuid:p1");
+        assertTrue(K7Downloader.isComplete(page1));
+
+        // the completed files are trusted without Content-Length
+        result = new K7Harvester(appConfig, instance, false).harvest("uuid:root");
+        assertEquals(0, result.getDownloaded());
+        assertEquals(3, result.getSkipped());
+
+        // a changed file is downloaded again
+        Files.write(page1.toPath(), "<foxml:digitalObject/>".getBytes(StandardCharsets.UTF_8));
+        assertFalse(K7Downloader.isComplete(page1));
+        result = new K7Harvester(appConfig, instance, false).harvest("uuid:root");
+        assertEquals(1, result.getDownloaded());
+        assertEquals(2, downloads.get("uuid:p1").get());
+        assertEquals(foxmls.get("uuid:p1"), new String(Files.readAllBytes(page1.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testBoundedDownloads() throws Exception {
+        List<String> pages = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            pages.add("uuid:p" + i);
+            foxmls.put("uuid:p" + i, foxml("model:page"));
+        }
+        foxmls.put("uuid:root", foxml("model:monograph", pages.toArray(new String[0])));
+
+        K7Harvester.Result result = new K7Harvester(appConfig, instance("bounded", 3), false).harvest("uuid:root");
+
+        assertEquals(13, result.getDownloaded());
+        assertTrue(String.valueOf(maxRunning.get()), maxRunning.get() <= 3);
+        assertTrue(String.valueOf(maxRunning.get()), maxRunning.get() > 1);
+    }
+
+    private KrameriusOptions.KrameriusInstance instance(String id, int threads) {
+        BaseConfiguration config = new BaseConfiguration();
+        config.setProperty(KrameriusOptions.KrameriusInstance.PROPERTY_URL, "http://localhost:" + server.getAddress().getPort());
+        config.setProperty(KrameriusOptions.KrameriusInstance.PROPERTY_URL_LOGIN, "/login");
+        config.setProperty(KrameriusOptions.KrameriusInstance.PROPERTY_URL_DOWNLOAD_FOXML, "/foxml/");
+        config.setProperty(KrameriusOptions.KrameriusInstance.PROPERTY_HARVEST_THREADS, threads);
+        return new KrameriusOptions.KrameriusInstance(getClass().getSimpleName() + "." + id, config);
+    }
+
+    private static String foxml(String model, String... pages) {
+        StringBuilder sb = new StringBuilder()
+                .append("<foxml:digitalObject xmlns:foxml=\"info:fedora/fedora-system:def/foxml#\">")
+                .append("<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\"")
+                .append(" xmlns:fedora-model=\"info:fedora/fedora-system:def/model#\"")
+                .append(" xmlns:kramerius=\"http://www.nsdl.org/ontologies/relationships#\">")
+                .append("<rdf:Description rdf:about=\"info:fedora/uuid:root\">")
+                .append("<fedora-model:hasModel rdf:resource=\"info:fedora/").append(model).append("\"/>");
+        for (String page : pages) {
+            sb.append("<kramerius:hasPage rdf:resource=\"info:fedora/").append(page).append("\"/>");
+        }
+        return sb.append("</rdf:Description></rdf:RDF></foxml:digitalObject>").toString();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.kramerius;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static cz.cas.lib.proarc.common.kramerius.KUtils.KRAMERIUS_BATCH_FINISHED_V7;
+import static cz.cas.lib.proarc.common.kramerius.KUtils.KRAMERIUS_PROCESS_FINISHED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class K7ProcessTrackerTest {
+
+    private HttpServer server;
+    private K7ProcessTracker tracker;
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        tracker = new K7ProcessTracker(2);
+    }
+
+    @After
+    public void tearDown() {
+        tracker.shutdown();
+        server.stop(0);
+        KrameriusHttpClients.closeAll();
+    }
+
+    @Test
+    public void testTrackUntilFinished() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext("/state/", exchange -> {
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            switch (requests.incrementAndGet()) {
+                case 1:
+                    respond(exchange, 200, state("RUNNING", "PLANNED"));
+                    break;
+                case 2:
+                    respond(exchange, 200, state("FINISHED", "RUNNING"));
+                    break;
+                default:
+                    respond(exchange, 200, state("FINISHED", "FINISHED"));
+            }
+        });
+        KUtils.ImportState state = tracker.track(instance("finished"), "p1", "token1",
+                () -> "token2").get(5, TimeUnit.SECONDS);
+        assertEquals(KRAMERIUS_PROCESS_FINISHED, state.getProcessState());
+        assertEquals(KRAMERIUS_BATCH_FINISHED_V7, state.getBatchState());
+        assertEquals(3, requests.get());
+        assertEquals("Bearer token1", authorizations.get(2));
+    }
+
+    @Test
+    public void testRefreshRefusedToken() throws Exception {
+        server.createContext("/state/", exchange -> {
+            if ("Bearer token2".equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                respond(exchange, 200, state("FINISHED", "FINISHED"));
+            } else {
+                respond(exchange, 403, "{}");
+            }
+        });
+        AtomicInteger authentications = new AtomicInteger();
+        KUtils.ImportState state = tracker.track(instance("refresh"), "p1", "token1", () -> {
+            authentications.incrementAndGet();
+            return "token2";
+        }).get(5, TimeUnit.SECONDS);
+        assertEquals(KRAMERIUS_BATCH_FINISHED_V7, state.getBatchState());
+        assertEquals(1, authentications.get());
+    }
+
+    @Test
+    public void testSlowInstanceDoesNotBlockOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        server.createContext("/slow/", exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, state("FINISHED", "FINISHED"));
+        });
+        server.createContext("/state/", exchange -> respond(exchange, 200, state("FINISHED", "FINISHED")));
+        CompletableFuture<KUtils.ImportState> slow = tracker.track(instance("slow", "/slow/"), "p1", null, () -> null);
+        KUtils.ImportState fast = tracker.track(instance("fast"), "p2", null, () -> null).get(5, TimeUnit.SECONDS);
+        assertEquals(KRAMERIUS_BATCH_FINISHED_V7, fast.getBatchState());
+        assertFalse(slow.isDone());
+
+        release.countDown();
+        assertEquals(KRAMERIUS_BATCH_FINISHED_V7, slow.get(5, TimeUnit.SECONDS).getBatchState());
+    }
+
+    @Test
+    public void testIsRunning() {
+        assertTrue(K7ProcessTracker.isRunning("RUNNING", "PLANNED"));
+        assertTrue(K7ProcessTracker.isRunning("FINISHED", "RUNNING"));
+        assertFalse(K7ProcessTracker.isRunning("FINISHED", "FINISHED"));
+        assertFalse(K7ProcessTracker.isRunning("FAILED", "PLANNED"));
+    }
+
+    private KrameriusOptions.KrameriusInstance instance(String id) {
+        return instance(id, "/state/");
+    }
+
+    private KrameriusOptions.KrameriusInstance instance(String id, String stateQuery) {
+        BaseConfiguration config = new BaseConfiguration();
+        config.setProperty(KrameriusOptions.KrameriusInstance.PROPERTY_URL, "http://localhost:" + server.getAddress().getPort());
+        config.setProperty(KrameriusOptions.KrameriusInstance.PROPERTY_URL_STATE_QUERY, stateQuery);
+        config.setProperty(KrameriusOptions.KrameriusInstance.PROPERTY_STATE_POLL_INTERVAL, 0);
+        return new KrameriusOptions.KrameriusInstance(getClass().getSimpleName() + "." + id, config);
+    }
+
+    private static String state(String process, String batch) {
+        return "{\"process\":{\"state\":\"" + process + "\"},\"batch\":{\"state\":\"" + batch + "\"}}";
+    }
+
+    static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.kramerius;
+
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class KrameriusHttpClientsTest {
+
+    private HttpServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> K7ProcessTrackerTest.respond(exchange, 200, "ok"));
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        KrameriusHttpClients.closeAll();
+    }
+
+    @Test
+    public void testClientPerInstance() {
+        CloseableHttpClient client = KrameriusHttpClients.get(instance("a"));
+        assertSame(client, KrameriusHttpClients.get(instance("a")));
+        assertNotSame(client, KrameriusHttpClients.get(instance("b")));
+
+        KrameriusHttpClients.closeAll();
+        assertNotSame(client, KrameriusHttpClients.get(instance("a")));
+    }
+
+    /**
+     * A single pooled connection serves all requests once the responses are consumed.
+     */
+    @Test
+    public void testConnectionReturnedToPool() throws Exception {
+        KrameriusOptions.KrameriusInstance instance = instance("pool");
+        for (int i = 0; i < 3; i++) {
+            HttpGet get = new HttpGet(instance.getUrl() + "/test");
+            try (CloseableHttpResponse response = KrameriusHttpClients.get(instance).execute(get)) {
+                assertEquals(200, response.getStatusLine().getStatusCode());
+                assertEquals("ok", EntityUtils.toString(response.getEntity()));
+            }
+        }
+    }
+
+    private KrameriusOptions.KrameriusInstance instance(String id) {
+        BaseConfiguration config = new BaseConfiguration();
+        config.setProperty(KrameriusOptions.KrameriusInstance.PROPERTY_URL, "http://localhost:" + server.getAddress().getPort());
+        config.setProperty(KrameriusOptions.KrameriusInstance.PROPERTY_HTTP_MAX_CONNECTIONS, 1);
+        config.setProperty(KrameriusOptions.KrameriusInstance.PROPERTY_HTTP_CONNECT_TIMEOUT, 1);
+        return new KrameriusOptions.KrameriusInstance(getClass().getSimpleName() + "." + id, config);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.object;
+
+import cz.cas.lib.proarc.common.CustomTemporaryFolder;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+import org.apache.commons.io.FileUtils;
+import org.easymock.EasyMock;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingDisseminationTest {
+
+    @Rule
+    public CustomTemporaryFolder temp = new CustomTemporaryFolder();
+
+    @Test
+    public void testParseRange() {
+        assertArrayEquals(new long[] {0, 499}, StreamingDissemination.parseRange("bytes=0-499", 1000));
+        assertArrayEquals(new long[] {500, 999}, StreamingDissemination.parseRange("bytes=500-", 1000));
+        assertArrayEquals(new long[] {500, 999}, StreamingDissemination.parseRange("bytes=500-5000", 1000));
+        assertArrayEquals(new long[] {900, 999}, StreamingDissemination.parseRange("bytes=-100", 1000));
+        assertArrayEquals(new long[] {0, 999}, StreamingDissemination.parseRange("bytes=-5000", 1000));
+        assertSame(StreamingDissemination.UNSATISFIABLE, StreamingDissemination.parseRange("bytes=1000-", 1000));
+        assertSame(StreamingDissemination.UNSATISFIABLE, StreamingDissemination.parseRange("bytes=-0", 1000));
+        // ignored
+        assertNull(StreamingDissemination.parseRange("bytes=0-1,5-6", 1000));
+        assertNull(StreamingDissemination.parseRange("bytes=9-1", 1000));
+        assertNull(StreamingDissemination.parseRange("bytes=a-", 1000));
+        assertNull(StreamingDissemination.parseRange("items=0-1", 1000));
+    }
+
+    @Test
+    public void testMatchesIfRange() {
+        Date lastModified = new Date(1_700_000_000_000L);
+        EntityTag etag = new EntityTag("d41d8cd98f00b204e9800998ecf8427e");
+        assertTrue(StreamingDissemination.matchesIfRange("\"d41d8cd98f00b204e9800998ecf8427e\"", lastModified, etag));
+        assertFalse(StreamingDissemination.matchesIfRange("\"other\"", lastModified, etag));
+        assertFalse(StreamingDissemination.matchesIfRange("W/\"d41d8cd98f00b204e9800998ecf8427e\"", lastModified, etag));
+        assertFalse(StreamingDissemination.matchesIfRange("\"d41d8cd98f00b204e9800998ecf8427e\"", lastModified, null));
+        assertTrue(StreamingDissemination.matchesIfRange("Tue, 14 Nov 2023 22:13:20 GMT", lastModified, etag));
+        assertFalse(StreamingDissemination.matchesIfRange("Tue, 14 Nov 2023 22:13:21 GMT", lastModified, etag));
+    }
+
+    @Test
+    public void testFileRange() throws Exception {
+        File file = temp.newFile();
+        FileUtils.writeStringToFile(file, "0123456789", StandardCharsets.UTF_8);
+        HttpHeaders headers = EasyMock.createMock(HttpHeaders.class);
+        EasyMock.expect(headers.getHeaderString("Range")).andReturn("bytes=2-5");
+        EasyMock.expect(headers.getHeaderString("If-Range")).andReturn(null);
+        EasyMock.replay(headers);
+
+        Response response = new StreamingDissemination(null, headers)
+                .file(file, "text/plain", new Date(), new EntityTag("x"), null);
+        assertEquals(Status.PARTIAL_CONTENT.getStatusCode(), response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeaderString("Content-Range"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(output);
+        assertEquals("2345", output.toString("UTF-8"));
+    }
+
+    @Test
+    public void testFileWithoutRange() throws Exception {
+        File file = temp.newFile();
+        FileUtils.writeStringToFile(file, "0123456789", StandardCharsets.UTF_8);
+        Response response = new StreamingDissemination(null, null)
+                .file(file, "text/plain", new Date(), new EntityTag("x"), "inline");
+        assertEquals(Status.OK.getStatusCode(), response.getStatus());
+        assertEquals("10", response.getHeaderString("Content-Length"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(output);
+        assertEquals("0123456789", output.toString("UTF-8"));
+        assertEquals("bytes", response.getHeaderString("Accept-Ranges"));
+        assertEquals("\"x\"", response.getHeaderString("ETag"));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.ocr;
+
+import cz.cas.lib.proarc.common.CustomTemporaryFolder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xml.sax.SAXException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class AltoDatastreamTest {
+
+    @Rule
+    public CustomTemporaryFolder temp = new CustomTemporaryFolder();
+
+    private static final String PAGE =
+              "<Layout><Page ID='P1' PHYSICAL_IMG_NR='1' HEIGHT='100' WIDTH='100'>"
+            + "<PrintSpace HEIGHT='100' WIDTH='100' HPOS='0' VPOS='0'>"
+            + "<TextBlock ID='B1' HEIGHT='10' WIDTH='100' HPOS='0' VPOS='0'>"
+            + "<TextLine HEIGHT='10' WIDTH='100' HPOS='0' VPOS='0'>"
+            + "<String CONTENT='Hello' HEIGHT='10' WIDTH='40' HPOS='0' VPOS='0' WC='0.9'/>"
+            + "<SP WIDTH='10' HPOS='40' VPOS='0'/>"
+            + "<String CONTENT='World' HEIGHT='10' WIDTH='50' HPOS='50' VPOS='0' WC='0.5'/>"
+            + "</TextLine></TextBlock></PrintSpace></Page></Layout>";
+
+    @Test
+    public void testValidateAlto2() throws Exception {
+        File alto = createAlto(AltoDatastream.ALTO_FORMAT_URI, PAGE);
+        AltoDatastream.Statistics statistics = AltoDatastream.validate(alto.toURI());
+        assertEquals(2, statistics.getWordCount());
+        assertEquals(0.7, statistics.getConfidence(), 0.0001);
+    }
+
+    @Test
+    public void testValidateAlto3() throws Exception {
+        File alto = createAlto(AltoDatastream.ALTO_V3_NS, PAGE.replace(" WC='0.5'", ""));
+        AltoDatastream.Statistics statistics = AltoDatastream.validate(alto.toURI());
+        assertEquals(2, statistics.getWordCount());
+        assertEquals(0.9, statistics.getConfidence(), 0.0001);
+    }
+
+    @Test
+    public void testValidateEmptyAlto() throws Exception {
+        File alto = createAlto(AltoDatastream.ALTO_FORMAT_URI, "<Layout><Page ID='P1' PHYSICAL_IMG_NR='1'/></Layout>");
+        AltoDatastream.Statistics statistics = AltoDatastream.validate(alto.toURI());
+        assertEquals(0, statistics.getWordCount());
+        assertNull(statistics.getConfidence());
+    }
+
+    @Test
+    public void testValidateInvalidAlto() throws Exception {
+        File alto = createAlto(AltoDatastream.ALTO_FORMAT_URI, "<Layout><Unknown/></Layout>");
+        try {
+            AltoDatastream.validate(alto.toURI());
+            fail();
+        } catch (SAXException ex) {
+            // expected
+        }
+        alto = createAlto("urn:unknown", PAGE);
+        try {
+            AltoDatastream.validate(alto.toURI());
+            fail();
+        } catch (SAXException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSchemasAreShared() throws Exception {
+        assertSame(AltoDatastream.getSchemasList().get(0), AltoDatastream.getSchemasList().get(0));
+    }
+
+    private File createAlto(String namespace, String content) throws IOException {
+        File alto = temp.newFile();
+        FileUtils.writeStringToFile(alto, "<?xml version='1.0' encoding='UTF-8'?>"
+                + "<alto xmlns='" + namespace + "'>" + content + "</alto>", StandardCharsets.UTF_8);
+        return alto;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.process;
+
+import cz.cas.lib.proarc.common.dao.Batch;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProcessSchedulerTest {
+
+    @Test
+    public void testProfileLimitAndPriority() throws Exception {
+        BaseConfiguration limits = new BaseConfiguration();
+        limits.setProperty(ProcessScheduler.PROPERTY_PROFILE_THREADS + "profile.slow", 1);
+        ProcessScheduler scheduler = new ProcessScheduler("test", 2, limits, Executors.defaultThreadFactory());
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch releaseFast = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+
+        Future<?> slow1 = scheduler.submit(task(order, "slow1", release), null, batch("profile.slow", null));
+        Future<?> fast = scheduler.submit(task(order, "fast", releaseFast), null, batch("profile.fast", null));
+        Future<?> slow2 = scheduler.submit(task(order, "slow2", null), null, batch("profile.slow", null));
+        Future<?> low = scheduler.submit(task(order, "low", null), null, batch("profile.fast", Batch.PRIORITY_LOW));
+        Future<?> high = scheduler.submit(task(order, "high", null), null, batch("profile.fast", Batch.PRIORITY_HIGH));
+        assertEquals(3, scheduler.getMetrics().getQueueDepth());
+
+        releaseFast.countDown();
+        fast.get(5, TimeUnit.SECONDS);
+        low.get(5, TimeUnit.SECONDS);
+        high.get(5, TimeUnit.SECONDS);
+        // slow2 waits for the profile limit even though a thread is free
+        assertEquals(1, scheduler.getMetrics().getQueueDepth());
+        assertTrue(order.toString(), order.indexOf("high") < order.indexOf("low"));
+
+        release.countDown();
+        slow1.get(5, TimeUnit.SECONDS);
+        slow2.get(5, TimeUnit.SECONDS);
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(5, scheduler.getMetrics().getStarted());
+        assertEquals("slow2", order.get(4));
+    }
+
+    @Test
+    public void testMetricsLogged() throws Exception {
+        List<LogRecord> records = Collections.synchronizedList(new ArrayList<LogRecord>());
+        Handler handler = new Handler() {
+
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getLevel() == Level.INFO) {
+                    records.add(record);
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Logger logger = Logger.getLogger(ProcessScheduler.class.getName());
+        logger.addHandler(handler);
+        try {
+            ProcessScheduler scheduler = new ProcessScheduler("test", 1, null, Executors.defaultThreadFactory());
+            scheduler.submit(task(new ArrayList<String>(), "first", null), null, null).get(5, TimeUnit.SECONDS);
+            scheduler.submit(task(new ArrayList<String>(), "second", null), null, null).get(5, TimeUnit.SECONDS);
+            scheduler.shutdown();
+            assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+        } finally {
+            logger.removeHandler(handler);
+        }
+        // the second start is within the interval
+        assertEquals(1, records.size());
+        assertTrue(records.get(0).getParameters()[1] instanceof ProcessScheduler.Metrics);
+    }
+
+    @Test
+    public void testTransformPriority() {
+        assertEquals(2, ProcessScheduler.transformPriority(Batch.PRIORITY_HIGHEST));
+        assertEquals(0, ProcessScheduler.transformPriority(null));
+        assertEquals(-2, ProcessScheduler.transformPriority(Batch.PRIORITY_LOWEST));
+    }
+
+    private static Batch batch(String profileId, String priority) {
+        Batch batch = new Batch();
+        batch.setProfileId(profileId);
+        batch.setPriority(priority);
+        return batch;
+    }
+
+    private static Runnable task(List<String> order, String name, CountDownLatch release) {
+        return () -> {
+            order.add(name);
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+}
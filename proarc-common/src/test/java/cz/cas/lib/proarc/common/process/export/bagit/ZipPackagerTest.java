@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.process.export.bagit;
+
+import cz.cas.lib.proarc.common.CustomTemporaryFolder;
+import java.io.File;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ZipPackagerTest {
+
+    @Rule
+    public CustomTemporaryFolder temp = new CustomTemporaryFolder();
+
+    @Test
+    public void testZip() throws Exception {
+        File base = temp.newFolder("package");
+        File root = new File(base, "uuid");
+        List<File> files = new ArrayList<File>();
+        Random random = new Random(1);
+        for (int i = 0; i < 20; i++) {
+            File xml = new File(root, "alto/alto_" + i + ".xml");
+            FileUtils.writeStringToFile(xml, "<alto>" + i + "</alto>", StandardCharsets.UTF_8);
+            files.add(xml);
+            byte[] image = new byte[10000 + i];
+            random.nextBytes(image);
+            File jp2 = new File(root, "mastercopy/mc_" + i + ".jp2");
+            FileUtils.writeByteArrayToFile(jp2, image);
+            files.add(jp2);
+        }
+        File empty = new File(root, "empty.txt");
+        FileUtils.touch(empty);
+        files.add(empty);
+
+        File zip = new File(temp.getRoot(), "package.zip");
+        ZipPackager packager = new ZipPackager(3);
+        packager.zip(base, files, zip);
+
+        assertEquals(DigestUtils.md5Hex(FileUtils.readFileToByteArray(zip)), packager.getMd5());
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            assertEquals(files.size(), zipFile.size());
+            for (File file : files) {
+                ZipEntry entry = zipFile.getEntry(ZipPackager.entryName(base, file));
+                assertNotNull(file.toString(), entry);
+                assertEquals(ZipPackager.isStored(entry.getName()) ? ZipEntry.STORED : ZipEntry.DEFLATED, entry.getMethod());
+                try (InputStream input = zipFile.getInputStream(entry)) {
+                    assertArrayEquals(FileUtils.readFileToByteArray(file), IOUtils.toByteArray(input));
+                }
+            }
+        }
+        // temporary files are deleted
+        assertEquals(2, temp.getRoot().list().length);
+    }
+
+    /**
+     * Compresses a file over the memory limit to a temporary file.
+     */
+    @Test
+    public void testZipLargeEntry() throws Exception {
+        File base = temp.newFolder("package");
+        File large = new File(base, "ocr.txt");
+        Random random = new Random(2);
+        byte[] content = new byte[9 * 1024 * 1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + random.nextInt(26));
+        }
+        FileUtils.writeByteArrayToFile(large, content);
+
+        File zip = new File(temp.getRoot(), "package.zip");
+        ZipPackager packager = new ZipPackager(2);
+        packager.zip(base, Collections.singletonList(large), zip);
+
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            ZipEntry entry = zipFile.getEntry("ocr.txt");
+            assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+            assertEquals(content.length, entry.getSize());
+            try (InputStream input = zipFile.getInputStream(entry)) {
+                assertArrayEquals(content, IOUtils.toByteArray(input));
+            }
+        }
+        assertEquals(2, temp.getRoot().list().length);
+    }
+
+    /**
+     * Writes more entries than the ZIP format without the ZIP64 extensions allows.
+     */
+    @Test
+    public void testZip64EntryCount() throws Exception {
+        File base = temp.newFolder("package");
+        List<File> files = new ArrayList<File>();
+        for (int i = 0; i < 0xFFFF + 10; i++) {
+            File file = new File(base, String.format("d%03d/f%05d.txt", i / 1000, i));
+            FileUtils.writeStringToFile(file, String.valueOf(i), StandardCharsets.UTF_8);
+            files.add(file);
+        }
+
+        File zip = new File(temp.getRoot(), "package.zip");
+        ZipPackager packager = new ZipPackager(2);
+        packager.zip(base, files, zip);
+
+        // the ZIP64 end of central directory locator precedes the end record
+        try (RandomAccessFile raf = new RandomAccessFile(zip, "r")) {
+            raf.seek(raf.length() - 22 - 20);
+            assertEquals(0x07064b50, Integer.reverseBytes(raf.readInt()));
+        }
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            assertEquals(files.size(), zipFile.size());
+            int i = 0;
+            for (Enumeration<? extends ZipEntry> entries = zipFile.entries(); entries.hasMoreElements(); i++) {
+                ZipEntry entry = entries.nextElement();
+                assertEquals(ZipPackager.entryName(base, files.get(i)), entry.getName());
+                if (i % 5000 == 0 || i == files.size() - 1) {
+                    try (InputStream input = zipFile.getInputStream(entry)) {
+                        assertEquals(String.valueOf(i), IOUtils.toString(input, StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            assertEquals(files.size(), i);
+        }
+    }
+
+    @Test
+    public void testIsStored() {
+        assertTrue(ZipPackager.isStored("mc_0001.JP2"));
+        assertTrue(ZipPackager.isStored("uc_0001.jpg"));
+        assertFalse(ZipPackager.isStored("alto_0001.xml"));
+        assertFalse(ZipPackager.isStored("info"));
+    }
+}
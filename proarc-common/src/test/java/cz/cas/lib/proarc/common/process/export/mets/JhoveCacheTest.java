@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.process.export.mets;
+
+import cz.cas.lib.proarc.common.CustomTemporaryFolder;
+import java.io.File;
+import java.util.Arrays;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class JhoveCacheTest {
+
+    @Rule
+    public CustomTemporaryFolder temp = new CustomTemporaryFolder();
+
+    @Test
+    public void testOutputsOfOtherRelease() throws Exception {
+        File folder = temp.newFolder();
+        String checksum = "0123456789abcdef0123456789abcdef";
+        File other = new File(folder, "1.0.0/01/" + checksum + ".xml");
+        FileUtils.writeStringToFile(other, "<jhove/>", "UTF-8");
+
+        JhoveCache cache = new JhoveCache(folder);
+        assertNull(cache.get(checksum));
+        cache.put(checksum, output("<jhove/>"));
+        File cached = cache.get(checksum);
+        assertNotNull(cached);
+        assertEquals(JhoveCache.getJhoveRelease(), cached.getParentFile().getParentFile().getName());
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws Exception {
+        char[] content = new char[100];
+        Arrays.fill(content, 'x');
+        JhoveCache cache = new JhoveCache(temp.newFolder(), 450);
+        long time = System.currentTimeMillis() - 100000;
+        String[] checksums = new String[4];
+        for (int i = 0; i < checksums.length; i++) {
+            checksums[i] = "000" + i + "456789abcdef0123456789abcdef";
+            cache.put(checksums[i], output(new String(content)));
+            cache.get(checksums[i]).setLastModified(time + i * 10000);
+        }
+        // the first output was used recently
+        assertNotNull(cache.get(checksums[0]));
+
+        String checksum = "0004456789abcdef0123456789abcdef";
+        cache.put(checksum, output(new String(content)));
+        assertNotNull(cache.get(checksums[0]));
+        assertNull(cache.get(checksums[1]));
+        assertNotNull(cache.get(checksums[2]));
+        assertNotNull(cache.get(checksums[3]));
+        assertNotNull(cache.get(checksum));
+        assertEquals(400, cache.size());
+    }
+
+    private File output(String content) throws Exception {
+        File file = File.createTempFile("jhove", "output", temp.getRoot());
+        FileUtils.writeStringToFile(file, content, "UTF-8");
+        return file;
+    }
+}
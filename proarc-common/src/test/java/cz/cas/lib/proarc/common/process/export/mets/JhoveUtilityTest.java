@@ -25,6 +25,8 @@ import cz.cas.lib.proarc.common.process.export.mets.MetsUtils;
 import cz.cas.lib.proarc.mix.Mix;
 import cz.cas.lib.proarc.mix.MixUtils;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import org.apache.commons.io.FileUtils;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -90,4 +92,50 @@ public class JhoveUtilityTest {
         assertEquals(toXml, "image/tiff", mix.getBasicDigitalObjectInformation()
                 .getFormatDesignation().getFormatName().getValue());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetMixCached() throws Exception {
+        File root = temp.getRoot();
+        File imageFile = new File(root, "test.tif");
+        FileUtils.copyURLToFile(TiffImporterTest.class.getResource("testscan.tiff"), imageFile);
+        String checksum;
+        try (InputStream is = new FileInputStream(imageFile)) {
+            checksum = MetsUtils.getDigest(is).getMd5();
+        }
+        JhoveCache cache = new JhoveCache(temp.newFolder());
+        JhoveCache.setDefault(cache);
+        try {
+            assertNull(JhoveUtility.getCachedMix(checksum, null, null, null));
+            JHoveOutput output = JhoveUtility.getMix(imageFile, root, null, null, null);
+            assertNotNull(output.getMix());
+            assertNotNull(cache.get(checksum));
+
+            JHoveOutput cached = JhoveUtility.getCachedMix(checksum, null, null, null);
+            assertNotNull(cached);
+            assertEquals(MixUtils.toXml(output.getMix(), true), MixUtils.toXml(cached.getMix(), true));
+        } finally {
+            JhoveCache.setDefault(null);
+        }
+    }
+
+    @Test
+    public void testGetMixCachedWithKnownChecksum() throws Exception {
+        File root = temp.getRoot();
+        File imageFile = new File(root, "test.tif");
+        FileUtils.copyURLToFile(TiffImporterTest.class.getResource("testscan.tiff"), imageFile);
+        // the stored digest is used as is, the file is not read to compute it
+        String checksum = "0123456789abcdef0123456789abcdef";
+        JhoveCache cache = new JhoveCache(temp.newFolder());
+        JhoveCache.setDefault(cache);
+        JhoveContext ctx = JhoveUtility.createContext(temp.newFolder());
+        try {
+            JHoveOutput output = JhoveUtility.getMix(imageFile, ctx, checksum, null, null, null);
+            assertNotNull(output.getMix());
+            assertNotNull(cache.get(checksum));
+            assertNotNull(JhoveUtility.getCachedMix(checksum, null, null, null));
+        } finally {
+            JhoveCache.setDefault(null);
+            ctx.destroy();
+        }
+    }
+}
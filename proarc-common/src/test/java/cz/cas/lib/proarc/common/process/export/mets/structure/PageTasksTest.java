@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.process.export.mets.structure;
+
+import cz.cas.lib.proarc.common.process.export.mets.JhoveContext;
+import cz.cas.lib.proarc.common.process.export.mets.MetsContext;
+import cz.cas.lib.proarc.common.process.export.mets.MetsExportException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class PageTasksTest {
+
+    @Test
+    public void testSubmitOrder() throws Exception {
+        MetsContext metsContext = new MetsContext();
+        List<Integer> applied = new ArrayList<Integer>();
+        Set<JhoveContext> jhoveContexts = Collections.synchronizedSet(new HashSet<JhoveContext>());
+        PageTasks tasks = new PageTasks(metsContext, 3);
+        try {
+            for (int i = 0; i < 20; i++) {
+                final int page = i;
+                tasks.submit(() -> {
+                    jhoveContexts.add(metsContext.getJhoveContext());
+                    return () -> applied.add(page);
+                });
+            }
+            tasks.finish();
+        } finally {
+            tasks.close();
+        }
+        assertEquals(20, applied.size());
+        for (int i = 0; i < applied.size(); i++) {
+            assertEquals(Integer.valueOf(i), applied.get(i));
+        }
+        assertEquals(3, jhoveContexts.size());
+        assertNull(metsContext.getJhoveContext());
+    }
+
+    @Test
+    public void testSubmitFailure() throws Exception {
+        PageTasks tasks = new PageTasks(new MetsContext(), 2);
+        try {
+            tasks.submit(() -> {
+                throw new MetsExportException("page");
+            });
+            tasks.finish();
+            fail();
+        } catch (MetsExportException ex) {
+            assertEquals("page", ex.getMessage());
+        } finally {
+            tasks.close();
+        }
+    }
+}
@@ -188,7 +188,7 @@ public class NdkSipExportTest {
         assertTrue("No mods file", Files.exists(sip.resolve("metadata/mods_volume.xml")));
 
 
-        List<String> errors = MetsUtils.validateAgainstXSD(sip.resolve("info_" + identifier + ".xml").toFile(), Info.class.getResourceAsStream("info.xsd"));
+        List<String> errors = MetsUtils.validateAgainstXSD(sip.resolve("info_" + identifier + ".xml").toFile(), Info.class.getResource("info.xsd"));
         assertTrue(errors.toString(), errors.isEmpty());
 
         JAXBContext jContext = JAXBContext.newInstance(Info.class);
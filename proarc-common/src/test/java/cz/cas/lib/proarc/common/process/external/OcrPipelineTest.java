@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.process.external;
+
+import cz.cas.lib.proarc.common.CustomTemporaryFolder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OcrPipelineTest {
+
+    @Rule
+    public CustomTemporaryFolder temp = new CustomTemporaryFolder();
+
+    private static final File SHELL = new File("/bin/sh");
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(SHELL.exists());
+    }
+
+    @Test
+    public void testRun() throws Exception {
+        // arguments: -i image -oO txt -oA alto -key key
+        Configuration conf = createConfig("echo text > \"$4\"; echo '<alto/>' > \"$6\"");
+        List<File> images = createImages(10);
+        Set<File> finished = Collections.synchronizedSet(new HashSet<File>());
+        List<String> threads = new ArrayList<String>();
+        new OcrPipeline<File>(conf, ".txt", ".xml", 3).run(images, new OcrPipeline.Handler<File>() {
+
+            @Override
+            public File stage(File image) {
+                threads.add(Thread.currentThread().getName());
+                return image.getName().equals("5.jpg") ? null : image;
+            }
+
+            @Override
+            public void finish(File image, File ocrFile, File altoFile) throws Exception {
+                threads.add(Thread.currentThread().getName());
+                assertEquals("<alto/>", FileUtils.readFileToString(altoFile, StandardCharsets.UTF_8).trim());
+                assertEquals("text", FileUtils.readFileToString(ocrFile, StandardCharsets.UTF_8).trim());
+                finished.add(image);
+            }
+        });
+        assertEquals(9, finished.size());
+        assertFalse(new File(temp.getRoot(), "5.xml").exists());
+        for (String thread : threads) {
+            assertEquals(Thread.currentThread().getName(), thread);
+        }
+    }
+
+    @Test
+    public void testRunWithDelayedResults() throws Exception {
+        Configuration conf = createConfig("(sleep 1; echo text > \"$4\"; echo '<alto>' > \"$6\"; sleep 1; echo '</alto>' >> \"$6\") > /dev/null 2>&1 &");
+        List<File> finished = new ArrayList<File>();
+        new OcrPipeline<File>(conf, ".txt", ".xml", 1).run(createImages(1), new OcrPipeline.Handler<File>() {
+
+            @Override
+            public File stage(File image) {
+                return image;
+            }
+
+            @Override
+            public void finish(File image, File ocrFile, File altoFile) {
+                assertTrue(OcrPipeline.isWellFormed(altoFile));
+                finished.add(image);
+            }
+        });
+        assertEquals(1, finished.size());
+    }
+
+    @Test
+    public void testRunFailure() throws Exception {
+        Configuration conf = createConfig("exit 1");
+        try {
+            new OcrPipeline<File>(conf, ".txt", ".xml", 2).run(createImages(3), new OcrPipeline.Handler<File>() {
+
+                @Override
+                public File stage(File image) {
+                    return image;
+                }
+
+                @Override
+                public void finish(File image, File ocrFile, File altoFile) {
+                    fail(image.toString());
+                }
+            });
+            fail();
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("Generating OCR for"));
+        }
+    }
+
+    @Test
+    public void testAwaitIncompleteAlto() throws Exception {
+        File ocrFile = temp.newFile("1.txt");
+        FileUtils.writeStringToFile(ocrFile, "text", StandardCharsets.UTF_8);
+        File altoFile = temp.newFile("1.xml");
+        FileUtils.writeStringToFile(altoFile, "<alto><Layout>", StandardCharsets.UTF_8);
+        assertFalse(OcrPipeline.awaitFiles(temp.getRoot(), 100, ocrFile, altoFile));
+
+        FileUtils.writeStringToFile(altoFile, "</Layout></alto>", StandardCharsets.UTF_8, true);
+        assertTrue(OcrPipeline.awaitFiles(temp.getRoot(), 0, ocrFile, altoFile));
+    }
+
+    private Configuration createConfig(String script) throws IOException {
+        File scriptFile = temp.newFile("ocr.sh");
+        FileUtils.writeStringToFile(scriptFile, script + "\n", StandardCharsets.UTF_8);
+        Configuration conf = new BaseConfiguration();
+        conf.setProperty(ExternalProcess.PROP_EXEC, SHELL.getPath());
+        conf.setProperty(ExternalProcess.PROP_ARG, scriptFile.getPath());
+        conf.setProperty(OcrGenerator.PROP_KEY, "key");
+        conf.setProperty(OcrPipeline.PROP_RESULT_TIMEOUT, 10000);
+        return conf;
+    }
+
+    private List<File> createImages(int count) throws IOException {
+        List<File> images = new ArrayList<File>();
+        for (int i = 0; i < count; i++) {
+            File image = new File(temp.getRoot(), i + ".jpg");
+            FileUtils.writeStringToFile(image, "image", StandardCharsets.UTF_8);
+            images.add(image);
+        }
+        return images;
+    }
+}
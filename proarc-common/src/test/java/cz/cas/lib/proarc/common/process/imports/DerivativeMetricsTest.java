@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.process.imports;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DerivativeMetricsTest {
+
+    @Test
+    public void testBatchMetrics() {
+        DerivativeMetrics application = new DerivativeMetrics();
+        DerivativeMetrics batch1 = new DerivativeMetrics(application);
+        DerivativeMetrics batch2 = new DerivativeMetrics(application);
+        assertTrue(batch1.isEmpty());
+
+        batch1.record(DerivativeMetrics.Stage.READ, TimeUnit.MILLISECONDS.toNanos(5));
+        batch2.record(DerivativeMetrics.Stage.READ, TimeUnit.MILLISECONDS.toNanos(7));
+        batch2.record(DerivativeMetrics.Stage.THUMBNAIL, TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertFalse(batch1.isEmpty());
+        assertEquals(1, batch1.getCount(DerivativeMetrics.Stage.READ));
+        assertEquals(0, batch1.getCount(DerivativeMetrics.Stage.THUMBNAIL));
+        assertEquals(2, application.getCount(DerivativeMetrics.Stage.READ));
+        assertEquals(12, application.getTotalTime(DerivativeMetrics.Stage.READ));
+        assertEquals(7, application.getMaxTime(DerivativeMetrics.Stage.READ));
+        assertEquals(1, application.getCount(DerivativeMetrics.Stage.THUMBNAIL));
+    }
+}
@@ -90,6 +90,22 @@ public class ImportProfileTest {
         }
     }
 
+    @Test
+    public void testGetThreadCount() {
+        ImportProfile instance = new ImportProfile(conf);
+        assertEquals(1, instance.getThreadCount());
+
+        conf.setProperty(ImportProfile.IMPORT_THREADS, "8");
+        assertEquals(8, instance.getThreadCount());
+
+        try {
+            conf.setProperty(ImportProfile.IMPORT_THREADS, 0);
+            instance.getThreadCount();
+            fail();
+        } catch (Exception e) {
+        }
+    }
+
     @Test
     public void testGetThumbnailScaling() {
         ImportProfile instance = new ImportProfile(conf);
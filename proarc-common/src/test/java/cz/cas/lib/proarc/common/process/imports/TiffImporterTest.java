@@ -267,6 +267,16 @@ public class TiffImporterTest {
         assertTrue(log, log.contains("Missing ALTO"));
     }
 
+    @Test
+    public void testGetSubsampling() {
+        assertEquals(1, TiffImporter.getSubsampling(1000, 2000, null, null));
+        assertEquals(1, TiffImporter.getSubsampling(1000, 2000, null, 1000));
+        assertEquals(2, TiffImporter.getSubsampling(1000, 2000, null, 500));
+        assertEquals(5, TiffImporter.getSubsampling(6000, 8000, 600, 800));
+        assertEquals(1.0, TiffImporter.getScaleFactor(1000, 2000, 1000, 2000), 0);
+        assertEquals(0.25, TiffImporter.getScaleFactor(1000, 2000, 500, 500), 0);
+    }
+
     private static String streamXPath(String dsId) {
         return "f:digitalObject/f:datastream[@ID='" + dsId + "']";
     }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.process.internal;
+
+import cz.cas.lib.proarc.common.CustomTemporaryFolder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReindexProcessTest {
+
+    @Rule
+    public CustomTemporaryFolder temp = new CustomTemporaryFolder();
+
+    @Test
+    public void testListFolders() throws Exception {
+        File root = temp.getRoot();
+        assertEquals(Collections.emptyList(), ReindexProcess.listFolders(root));
+
+        assertTrue(new File(root, "b2").mkdir());
+        assertTrue(new File(root, "0a").mkdir());
+        assertTrue(new File(new File(root, "0a"), "ff").mkdir());
+        assertEquals(Arrays.asList("0a", "b2"), ReindexProcess.listFolders(root));
+
+        assertTrue(new File(root, "info%3Afedora%2Fuuid%3A1").createNewFile());
+        assertEquals(Arrays.asList(".", "0a", "b2"), ReindexProcess.listFolders(root));
+    }
+
+    @Test
+    public void testResumeFromCheckpoint() throws Exception {
+        File root = temp.newFolder("store");
+        for (String folder : Arrays.asList("a", "b", "c")) {
+            assertTrue(new File(root, folder).mkdir());
+        }
+        File checkpoint = new File(temp.getRoot(), "checkpoint");
+        Files.write(checkpoint.toPath(), Arrays.asList("a"), StandardCharsets.UTF_8);
+        TestIndexer indexer = new TestIndexer(null);
+
+        ReindexProcess.Progress progress = new ReindexProcess(null, checkpoint, null).reindex(root, indexer, 2);
+        assertFalse(indexer.cleared);
+        Collections.sort(indexer.indexed);
+        assertEquals(Arrays.asList("b", "c"), indexer.indexed);
+        assertEquals(3, progress.getFinishedFolders());
+        assertFalse(checkpoint.exists());
+    }
+
+    @Test
+    public void testFailedFolderNotCheckpointed() throws Exception {
+        File root = temp.newFolder("store");
+        for (String folder : Arrays.asList("a", "b", "c")) {
+            assertTrue(new File(root, folder).mkdir());
+        }
+        File checkpoint = new File(temp.getRoot(), "checkpoint");
+        TestIndexer indexer = new TestIndexer("b");
+        try {
+            new ReindexProcess(null, checkpoint, null).reindex(root, indexer, 1);
+            fail();
+        } catch (IOException ex) {
+            // expected
+        }
+        assertTrue(indexer.cleared);
+        List<String> finished = Files.readAllLines(checkpoint.toPath(), StandardCharsets.UTF_8);
+        assertFalse(finished.toString(), finished.contains("b"));
+
+        indexer = new TestIndexer(null);
+        new ReindexProcess(null, checkpoint, null).reindex(root, indexer, 1);
+        assertFalse(indexer.cleared);
+        assertTrue(indexer.indexed.contains("b"));
+        for (String folder : finished) {
+            assertFalse(indexer.indexed.contains(folder));
+        }
+        assertFalse(checkpoint.exists());
+    }
+
+    private static final class TestIndexer implements ReindexProcess.Indexer {
+
+        private final String failingFolder;
+        private final List<String> indexed = Collections.synchronizedList(new ArrayList<String>());
+        private final AtomicLong errors = new AtomicLong();
+        private boolean cleared;
+
+        TestIndexer(String failingFolder) {
+            this.failingFolder = failingFolder;
+        }
+
+        @Override
+        public void clear() {
+            cleared = true;
+        }
+
+        @Override
+        public void index(String folder) {
+            indexed.add(folder);
+            if (folder.equals(failingFolder)) {
+                // the index reports the failed update asynchronously
+                errors.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public long getErrorCount() {
+            return errors.get();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.process.internal;
+
+import cz.cas.lib.proarc.common.object.ndk.NdkPlugin;
+import cz.cas.lib.proarc.common.storage.SearchViewItem;
+import cz.cas.lib.proarc.mods.ModsDefinition;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ValidationProcessTest {
+
+    /**
+     * Validates a periodical whose issues have their own page sequences.
+     * Each issue restarts the page index and the results keep the order
+     * of the tree even though the objects are checked in parallel.
+     */
+    @Test
+    public void testValidateTree() throws Exception {
+        Map<String, List<SearchViewItem>> tree = new HashMap<>();
+        SearchViewItem periodical = item("periodical", NdkPlugin.MODEL_PERIODICAL);
+        List<SearchViewItem> volumes = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        expected.add("periodical");
+        for (int v = 1; v <= 3; v++) {
+            SearchViewItem volume = item("volume" + v, NdkPlugin.MODEL_PERIODICALVOLUME);
+            volumes.add(volume);
+            expected.add(volume.getPid());
+            List<SearchViewItem> issues = new ArrayList<>();
+            for (int i = 1; i <= 3; i++) {
+                SearchViewItem issue = item(volume.getPid() + "-issue" + i, NdkPlugin.MODEL_PERIODICALISSUE);
+                issues.add(issue);
+                expected.add(issue.getPid());
+                List<SearchViewItem> pages = Arrays.asList(
+                        page(issue.getPid() + "-page1", "1"),
+                        page(issue.getPid() + "-page2", i == 2 ? "3" : "2"));
+                if (i == 2) {
+                    expected.add(issue.getPid() + "-page2 index");
+                }
+                tree.put(issue.getPid(), pages);
+            }
+            tree.put(volume.getPid(), issues);
+        }
+        tree.put(periodical.getPid(), volumes);
+
+        ValidationProcess process = new ValidationProcess(null, null, null, null) {
+
+            @Override
+            ModsDefinition validateNode(SearchViewItem item, SearchViewItem parentItem, ModsDefinition parentMods,
+                    List<SearchViewItem> children, ValidationProcess.Type type, ValidationProcess.Result result) {
+
+                if (!NdkPlugin.MODEL_PAGE.equals(item.getModel())) {
+                    result.add(new ValidationResult(item.getPid(), "checked", Level.INFO));
+                }
+                validateChildPages(children, result);
+                return null;
+            }
+        };
+        ValidationProcess.Result result = new ValidationProcess.Result();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            process.validateTree(pool, periodical, null, tree, ValidationProcess.Type.VALIDATION, result);
+        } finally {
+            pool.shutdown();
+        }
+
+        List<String> found = new ArrayList<>();
+        for (ValidationProcess.ValidationResult validationResult : result.getValidationResults()) {
+            found.add(Level.INFO.equals(validationResult.getLevel())
+                    ? validationResult.getPid()
+                    : validationResult.getPid() + " index");
+        }
+        assertEquals(expected, found);
+    }
+
+    private static SearchViewItem item(String pid, String model) {
+        SearchViewItem item = new SearchViewItem(pid);
+        item.setModel(model);
+        return item;
+    }
+
+    private static SearchViewItem page(String pid, String index) {
+        SearchViewItem item = item(pid, NdkPlugin.MODEL_PAGE);
+        item.setPageIndex(index);
+        item.setPageNumber(index);
+        return item;
+    }
+}
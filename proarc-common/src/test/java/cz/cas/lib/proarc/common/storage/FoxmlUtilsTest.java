@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.storage;
+
+import com.yourmediashelf.fedora.generated.foxml.ContentDigestType;
+import com.yourmediashelf.fedora.generated.foxml.DatastreamVersionType;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FoxmlUtilsTest {
+
+    @Test
+    public void testGetContentDigest() {
+        DatastreamVersionType version = new DatastreamVersionType();
+        assertNull(FoxmlUtils.getContentDigest(version, "MD5"));
+        assertNull(FoxmlUtils.getContentDigest(null, "MD5"));
+
+        ContentDigestType digest = new ContentDigestType();
+        digest.setTYPE("MD5");
+        digest.setDIGEST("D41D8CD98F00B204E9800998ECF8427E");
+        version.setContentDigest(digest);
+        assertEquals("d41d8cd98f00b204e9800998ecf8427e", FoxmlUtils.getContentDigest(version, "MD5"));
+        assertNull(FoxmlUtils.getContentDigest(version, "SHA-512"));
+
+        // fedora with disabled checksums
+        digest.setTYPE("DISABLED");
+        digest.setDIGEST("none");
+        assertNull(FoxmlUtils.getContentDigest(version, "MD5"));
+        assertNull(FoxmlUtils.getContentDigest(version, "DISABLED"));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.storage.akubra;
+
+import java.io.IOException;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.UpdateParams;
+import org.apache.solr.common.util.NamedList;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AbstractSolrFeederTest {
+
+    private RecordingClient client;
+    private AbstractSolrFeeder feeder;
+
+    @Before
+    public void setUp() {
+        client = new RecordingClient();
+        feeder = new AbstractSolrFeeder(client) {};
+        feeder.setCommitWithin(1000);
+    }
+
+    @Test
+    public void testFlushCommitsSentDocuments() throws Exception {
+        SolrInputDocument sdoc = new SolrInputDocument();
+        sdoc.addField(SolrUtils.FIELD_PID, "uuid:1");
+        feeder.add(sdoc);
+        feeder.flush();
+        assertEquals(1, client.commits);
+
+        feeder.deleteObject("uuid:1");
+        feeder.flush();
+        assertEquals(2, client.commits);
+    }
+
+    @Test
+    public void testFlushWithoutUpdates() throws Exception {
+        feeder.flush();
+        assertEquals(0, client.commits);
+
+        feeder.add(new SolrInputDocument());
+        feeder.flush();
+        feeder.flush();
+        assertEquals(1, client.commits);
+    }
+
+    private static final class RecordingClient extends SolrClient {
+
+        private int commits;
+
+        @Override
+        public NamedList<Object> request(SolrRequest request, String collection) throws SolrServerException, IOException {
+            if (request instanceof UpdateRequest
+                    && ((UpdateRequest) request).getParams() != null
+                    && ((UpdateRequest) request).getParams().get(UpdateParams.COMMIT) != null) {
+                commits++;
+            }
+            return new NamedList<>();
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+}
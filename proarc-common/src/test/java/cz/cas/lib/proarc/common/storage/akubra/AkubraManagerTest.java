@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.storage.akubra;
+
+import com.yourmediashelf.fedora.generated.foxml.DatastreamType;
+import com.yourmediashelf.fedora.generated.foxml.DigitalObject;
+import cz.cas.lib.proarc.common.CustomTemporaryFolder;
+import cz.cas.lib.proarc.common.config.AppConfiguration;
+import cz.cas.lib.proarc.common.storage.FoxmlUtils;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AkubraManagerTest {
+
+    private static final int OBJECT_COUNT = 200;
+    private static final int READS_PER_THREAD = 2000;
+    /** The lowest accepted ratio of the parallel and the single thread read rates. */
+    private static final double MIN_SPEEDUP = 1.2;
+
+    @Rule
+    public CustomTemporaryFolder tmp = new CustomTemporaryFolder();
+
+    private AkubraManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = createManager(1024 * 1024);
+    }
+
+    private AkubraManager createManager(long cacheBytes) throws Exception {
+        File home = tmp.getRoot();
+        Writer cfg = new OutputStreamWriter(new FileOutputStream(new File(home, AkubraConfiguration.CONFIG_FILE_NAME)), StandardCharsets.UTF_8);
+        try {
+            cfg.write("objectStore.path=" + new File(home, "objectStore").getAbsolutePath().replace('\\', '/') + "\n");
+            cfg.write("datastreamStore.path=" + new File(home, "datastreamStore").getAbsolutePath().replace('\\', '/') + "\n");
+            cfg.write("objectStore.cacheBytes=" + cacheBytes + "\n");
+        } finally {
+            cfg.close();
+        }
+        new File(home, "objectStore").mkdirs();
+        new File(home, "datastreamStore").mkdirs();
+        Map<String, String> env = new HashMap<String, String>();
+        env.put(AppConfiguration.PROPERTY_APP_HOME, home.getPath());
+        AkubraConfiguration conf = AkubraConfigurationFactory.getInstance().create(env, home);
+        return new AkubraManager(conf);
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        String pid = "uuid:00000000-0000-0000-0000-000000000001";
+        assertNull(manager.readObjectFromStorage(pid));
+        DigitalObject dobj = FoxmlUtils.createFoxml(pid);
+        manager.addOrReplaceObject(pid, manager.marshallObject(dobj));
+        DigitalObject result = manager.readObjectFromStorage(pid);
+        assertNotNull(result);
+        assertEquals(pid, result.getPID());
+    }
+
+    @Test
+    public void testObjectCache() throws Exception {
+        String pid = "uuid:00000000-0000-0000-0000-000000000002";
+        DigitalObject dobj = FoxmlUtils.createFoxml(pid);
+        manager.addOrReplaceObject(dobj);
+        DigitalObject read = manager.readObjectFromStorage(pid);
+        assertNotSame(dobj, read);
+        assertEquals(pid, read.getPID());
+        assertNotSame(read, manager.readObjectFromStorage(pid));
+
+        // changes of a read object are not visible until it is written
+        int datastreamCount = read.getDatastream().size();
+        DatastreamType datastream = new DatastreamType();
+        datastream.setID("TEST");
+        read.getDatastream().add(datastream);
+        assertEquals(datastreamCount, manager.readObjectFromStorage(pid).getDatastream().size());
+
+        manager.addOrReplaceObject(read);
+        DigitalObject reread = manager.readObjectFromStorage(pid);
+        assertEquals(datastreamCount + 1, reread.getDatastream().size());
+        assertEquals("TEST", reread.getDatastream().get(datastreamCount).getID());
+
+        manager.addOrReplaceObject(pid, manager.marshallObject(FoxmlUtils.createFoxml(pid)));
+        assertEquals(datastreamCount, manager.readObjectFromStorage(pid).getDatastream().size());
+
+        manager.invalidate(pid);
+        assertEquals(pid, manager.readObjectFromStorage(pid).getPID());
+
+        manager.deleteObject(pid, true);
+        assertNull(manager.readObjectFromStorage(pid));
+    }
+
+    @Test
+    public void testObjectCacheLimit() throws Exception {
+        AkubraManager.ObjectCache cache = new AkubraManager.ObjectCache(10);
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+        assertEquals(8, cache.getBytes());
+        cache.get("a");
+        cache.put("c", new byte[4]);
+        // the least recently used entry is evicted
+        assertTrue(cache.containsKey("a"));
+        assertFalse(cache.containsKey("b"));
+        assertTrue(cache.containsKey("c"));
+        assertEquals(8, cache.getBytes());
+
+        cache.put("a", new byte[2]);
+        assertEquals(6, cache.getBytes());
+        cache.put("d", new byte[11]);
+        assertFalse(cache.containsKey("d"));
+        cache.remove("c");
+        assertEquals(2, cache.getBytes());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testFilterExistingObjects() throws Exception {
+        String pid1 = "uuid:00000000-0000-0000-0000-000000000003";
+        String pid2 = "uuid:00000000-0000-0000-0000-000000000004";
+        String missing = "uuid:00000000-0000-0000-0000-000000000005";
+        manager.addOrReplaceObject(pid1, manager.marshallObject(FoxmlUtils.createFoxml(pid1)));
+        manager.addOrReplaceObject(pid2, manager.marshallObject(FoxmlUtils.createFoxml(pid2)));
+        assertTrue(manager.objectExists(pid1));
+        assertFalse(manager.objectExists(missing));
+        assertEquals(Arrays.asList(pid2, pid1), manager.filterExistingObjects(Arrays.asList(pid2, missing, pid1)));
+    }
+
+    /**
+     * Reads the same objects from several threads at once. Each read must return
+     * the requested object as a new instance.
+     */
+    @Test
+    public void testConcurrentReads() throws Exception {
+        final List<String> pids = new ArrayList<String>();
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            String pid = String.format("uuid:00000000-0000-0000-0000-%012d", i);
+            manager.addOrReplaceObject(pid, manager.marshallObject(FoxmlUtils.createFoxml(pid)));
+            pids.add(pid);
+        }
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<List<DigitalObject>>> tasks = new ArrayList<Callable<List<DigitalObject>>>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(new Callable<List<DigitalObject>>() {
+
+                    @Override
+                    public List<DigitalObject> call() throws Exception {
+                        List<DigitalObject> result = new ArrayList<DigitalObject>();
+                        for (String pid : pids) {
+                            DigitalObject dobj = manager.readObjectFromStorage(pid);
+                            assertEquals(pid, dobj.getPID());
+                            result.add(dobj);
+                        }
+                        return result;
+                    }
+                });
+            }
+            List<List<DigitalObject>> results = new ArrayList<List<DigitalObject>>();
+            for (Future<List<DigitalObject>> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            for (int i = 0; i < pids.size(); i++) {
+                Set<DigitalObject> instances = Collections.newSetFromMap(new IdentityHashMap<DigitalObject, Boolean>());
+                for (List<DigitalObject> result : results) {
+                    assertEquals(pids.get(i), result.get(i).getPID());
+                    instances.add(result.get(i));
+                }
+                assertEquals(threads, instances.size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the same objects with a single thread and then with a thread per core.
+     * The cache is disabled, so the reads measure the unmarshalling. It must scale
+     * as it is not serialized on a shared lock.
+     */
+    @Test
+    public void testConcurrentReadThroughput() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        Assume.assumeTrue("The throughput check needs more cores.", cores > 1);
+        manager = createManager(0);
+        List<String> pids = new ArrayList<String>();
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            String pid = String.format("uuid:00000000-0000-0000-0000-%012d", i);
+            manager.addOrReplaceObject(pid, manager.marshallObject(FoxmlUtils.createFoxml(pid)));
+            pids.add(pid);
+        }
+        // warm up JIT and per thread unmarshallers
+        readConcurrently(pids, cores);
+
+        double single = readConcurrently(pids, 1);
+        double parallel = readConcurrently(pids, cores);
+        String rates = String.format("AkubraManager reads/s: 1 thread: %.0f, %d threads: %.0f, speedup: %.2f",
+                single, cores, parallel, parallel / single);
+        System.out.println(rates);
+        assertTrue(rates, parallel > single * MIN_SPEEDUP);
+    }
+
+    private double readConcurrently(final List<String> pids, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+            for (int t = 0; t < threads; t++) {
+                final int offset = t;
+                tasks.add(new Callable<Void>() {
+
+                    @Override
+                    public Void call() throws Exception {
+                        for (int i = 0; i < READS_PER_THREAD; i++) {
+                            String pid = pids.get((i + offset) % pids.size());
+                            DigitalObject dobj = manager.readObjectFromStorage(pid);
+                            assertEquals(pid, dobj.getPID());
+                        }
+                        return null;
+                    }
+                });
+            }
+            long start = System.nanoTime();
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+            long time = System.nanoTime() - start;
+            return (double) threads * READS_PER_THREAD / time * TimeUnit.SECONDS.toNanos(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
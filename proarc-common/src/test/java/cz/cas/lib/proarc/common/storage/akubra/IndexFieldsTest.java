@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.storage.akubra;
+
+import cz.cas.lib.proarc.common.mods.ModsStreamEditor;
+import cz.cas.lib.proarc.common.mods.ModsUtils;
+import cz.cas.lib.proarc.common.process.export.ExportUtils;
+import cz.cas.lib.proarc.common.storage.LocalStorage;
+import cz.cas.lib.proarc.common.storage.LocalStorage.LocalObject;
+import cz.cas.lib.proarc.common.storage.relation.RelationEditor;
+import cz.cas.lib.proarc.mods.ModsDefinition;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class IndexFieldsTest {
+
+    private static final String MODS = "<mods:mods xmlns:mods=\"http://www.loc.gov/mods/v3\">"
+            + "<mods:titleInfo><mods:title>Title</mods:title><mods:partNumber>5</mods:partNumber></mods:titleInfo>"
+            + "<mods:genre></mods:genre><mods:genre>page</mods:genre>"
+            + "<mods:identifier type=\"urnnbn\" invalid=\"yes\">urn:nbn:cz:old</mods:identifier>"
+            + "<mods:identifier type=\"urnnbn\">urn:nbn:cz:new</mods:identifier>"
+            + "<mods:identifier type=\"uuid\">0eaa6730-9068-11dd-97de-000d606f5dc6</mods:identifier>"
+            + "<mods:note>note</mods:note><mods:note>left</mods:note>"
+            + "<mods:part type=\"normalPage\">"
+            + "<mods:detail type=\"pageNumber\"><mods:number>[1]</mods:number></mods:detail>"
+            + "</mods:part>"
+            + "<mods:part><mods:detail type=\"pageIndex\"><mods:number>3</mods:number></mods:detail></mods:part>"
+            + "<mods:location><mods:shelfLocator>SIG 1</mods:shelfLocator></mods:location>"
+            + "<mods:recordInfo><mods:descriptionStandard>aacr</mods:descriptionStandard>"
+            + "<mods:recordIdentifier>sysno</mods:recordIdentifier></mods:recordInfo>"
+            + "</mods:mods>";
+
+    @Test
+    public void testRead() throws Exception {
+        LocalObject object = new LocalStorage().create();
+        RelationEditor relations = new RelationEditor(object);
+        relations.setModel("model:ndkpage");
+        relations.setDevice("device:scanner");
+        relations.setOrganization("org");
+        relations.setUser("user");
+        relations.setStatus("new");
+        relations.setNdkExportResult("ndk");
+        relations.setMembers(Arrays.asList("uuid:1", "uuid:2"));
+        relations.setLock("user");
+        relations.write(relations.getLastModified(), null);
+        ModsStreamEditor modsEditor = new ModsStreamEditor(object);
+        ModsDefinition mods = ModsUtils.unmarshal(MODS, ModsDefinition.class);
+        modsEditor.write(mods, modsEditor.getLastModified(), null);
+        object.flush();
+
+        IndexFields fields = IndexFields.read(object.getDigitalObject(), true);
+        relations = new RelationEditor(object);
+        assertEquals(relations.getModel(), fields.model);
+        assertEquals(relations.getDevice(), fields.device);
+        assertEquals(relations.getOrganization(), fields.organization);
+        assertEquals(relations.getUser(), fields.user);
+        assertEquals(relations.getStatus(), fields.status);
+        assertEquals(relations.getNdkExportResult(), fields.ndkExport);
+        assertNull(fields.krameriusExport);
+        assertEquals(relations.getMembers(), fields.members);
+        assertTrue(fields.locked);
+
+        assertEquals(ExportUtils.getPageIndexAsString(mods), fields.pageIndex);
+        assertEquals(ExportUtils.getPageNumber(mods), fields.pageNumber);
+        assertEquals(ExportUtils.getPageType(mods), fields.pageType);
+        assertEquals(ExportUtils.getPagePosition(mods), fields.pagePosition);
+        assertEquals(ExportUtils.getGenre(mods), fields.genre);
+        assertEquals("urn:nbn:cz:new", fields.urnNbn);
+        assertEquals(SolrObjectFeeder.getDescriptionStandatd(mods), fields.descriptionStandard);
+        assertEquals(SolrObjectFeeder.getPartNumber(mods), fields.partNumber);
+        List<String> identifiers = Arrays.asList("sysno", "urn:nbn:cz:new",
+                "0eaa6730-9068-11dd-97de-000d606f5dc6", "SIG 1");
+        assertEquals(identifiers, fields.identifiers);
+    }
+
+    @Test
+    public void testReadWithoutMods() throws Exception {
+        LocalObject object = new LocalStorage().create();
+        RelationEditor relations = new RelationEditor(object);
+        relations.setModel("proarc:device");
+        relations.write(relations.getLastModified(), null);
+        object.flush();
+
+        assertNull(IndexFields.read(object.getDigitalObject(), true));
+        IndexFields fields = IndexFields.read(object.getDigitalObject(), false);
+        assertEquals("proarc:device", fields.model);
+        assertFalse(fields.locked);
+        assertTrue(fields.members.isEmpty());
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.storage.akubra;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.VALIDATION_STATUS_ERROR;
+import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.VALIDATION_STATUS_OK;
+import static cz.cas.lib.proarc.common.storage.akubra.SolrUtils.VALIDATION_STATUS_UNKNOWN;
+import static org.junit.Assert.assertEquals;
+
+public class SolrUtilsTest {
+
+    @Test
+    public void testRollupValidationStatus() {
+        Map<String, Long> counts = new HashMap<>();
+        assertEquals(VALIDATION_STATUS_OK, SolrUtils.rollupValidationStatus(VALIDATION_STATUS_OK, counts));
+        assertEquals(VALIDATION_STATUS_UNKNOWN, SolrUtils.rollupValidationStatus(VALIDATION_STATUS_UNKNOWN, counts));
+        assertEquals(VALIDATION_STATUS_ERROR, SolrUtils.rollupValidationStatus(VALIDATION_STATUS_ERROR, counts));
+
+        counts.put(VALIDATION_STATUS_OK, 999L);
+        assertEquals(VALIDATION_STATUS_OK, SolrUtils.rollupValidationStatus(VALIDATION_STATUS_OK, counts));
+
+        counts.put(VALIDATION_STATUS_UNKNOWN, 1L);
+        assertEquals(VALIDATION_STATUS_UNKNOWN, SolrUtils.rollupValidationStatus(VALIDATION_STATUS_OK, counts));
+        assertEquals(VALIDATION_STATUS_ERROR, SolrUtils.rollupValidationStatus(VALIDATION_STATUS_ERROR, counts));
+
+        counts.put(VALIDATION_STATUS_ERROR, 1L);
+        assertEquals(VALIDATION_STATUS_ERROR, SolrUtils.rollupValidationStatus(VALIDATION_STATUS_OK, counts));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2026 ProArc contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.cas.lib.proarc.common.xml;
+
+import cz.cas.lib.proarc.common.process.export.mets.MetsLSResolver;
+import cz.cas.lib.proarc.common.process.export.mets.MetsUtils;
+import cz.cas.lib.proarc.mods.ModsDefinition;
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.validation.Schema;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SchemaRegistryTest {
+
+    private static final String MODS = "<mods:mods xmlns:mods=\"http://www.loc.gov/mods/v3\" version=\"3.6\">"
+            + "<mods:titleInfo><mods:title>Title</mods:title></mods:titleInfo>"
+            + "%s</mods:mods>";
+
+    @Test
+    public void testGet() throws Exception {
+        URL xsd = ModsDefinition.class.getResource("mods-3-6.xsd");
+        Schema schema = SchemaRegistry.get(xsd, MetsLSResolver.getInstance());
+        assertNotNull(schema);
+        assertSame(schema, SchemaRegistry.get(xsd, MetsLSResolver.getInstance()));
+    }
+
+    @Test
+    public void testValidateDocument() throws Exception {
+        URL xsd = ModsDefinition.class.getResource("mods-3-6.xsd");
+        List<String> errors = MetsUtils.validateAgainstXSD(parse(String.format(MODS, ""), true), xsd);
+        assertTrue(errors.toString(), errors.isEmpty());
+
+        errors = MetsUtils.validateAgainstXSD(parse(String.format(MODS, "<mods:unknown/>"), true), xsd);
+        assertEquals(errors.toString(), 1, errors.size());
+
+        // not namespace aware document
+        errors = MetsUtils.validateAgainstXSD(parse(String.format(MODS, "<mods:unknown/>"), false), xsd);
+        assertEquals(errors.toString(), 1, errors.size());
+    }
+
+    private static Document parse(String xml, boolean namespaceAware) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(namespaceAware);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -626,7 +626,10 @@ public final class SIP2DESATransporter {
     }
 
     /**
-     * Calculate the MD5 checksum of the given file
+     * Calculate the MD5 checksum of the given file. The file is a SIP zip written
+     * by the DESA export. Its checksum is not stored anywhere, because the FOXML
+     * contentDigest describes single datastreams and not packages. The zip is
+     * therefore read once before the upload.
      *
      * @param file
      * @return
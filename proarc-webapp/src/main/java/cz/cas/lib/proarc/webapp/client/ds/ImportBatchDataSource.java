@@ -167,6 +167,8 @@ public final class ImportBatchDataSource extends ProarcDataSource {
 //        profiles.put("exportProfile.aleph", i18n.ExportProfile_Aleph());
 
         profiles.put("internalProfile.reindex", i18n.InternalProfile_Reindex());
+        profiles.put("internalProfile.fullReindex", i18n.InternalProfile_FullReindex());
+        profiles.put("internalProfile.krameriusHarvest", i18n.InternalProfile_KrameriusHarvest());
         profiles.put("internalProfile.pero", i18n.InternalProfile_Pero());
         profiles.put("internalProfile.changeOwners", i18n.InternalProfile_Change_Owners());
         profiles.put("internalProfile.validation", i18n.InternalProfile_Validation());
@@ -24,17 +24,22 @@ import cz.cas.lib.proarc.common.dao.BatchUtils;
 import cz.cas.lib.proarc.common.dao.DaoFactory;
 import cz.cas.lib.proarc.common.dao.empiredb.EmpireConfiguration;
 import cz.cas.lib.proarc.common.dao.empiredb.EmpireDaoFactory;
+import cz.cas.lib.proarc.common.dao.empiredb.SqlStatistics;
 import cz.cas.lib.proarc.common.process.export.ExportDispatcher;
 import cz.cas.lib.proarc.common.process.export.ExportProcess;
+import cz.cas.lib.proarc.common.process.export.mets.JhoveCache;
 import cz.cas.lib.proarc.common.storage.fedora.FedoraStorageInitializer;
 import cz.cas.lib.proarc.common.storage.fedora.FedoraStorage;
 import cz.cas.lib.proarc.common.storage.Storage;
 import cz.cas.lib.proarc.common.storage.akubra.AkubraConfiguration;
 import cz.cas.lib.proarc.common.storage.akubra.AkubraConfigurationFactory;
 import cz.cas.lib.proarc.common.process.BatchManager;
+import cz.cas.lib.proarc.common.process.imports.DerivativeMetrics;
 import cz.cas.lib.proarc.common.process.imports.ImportDispatcher;
 import cz.cas.lib.proarc.common.process.imports.ImportProcess;
 import cz.cas.lib.proarc.common.jobs.JobHandler;
+import cz.cas.lib.proarc.common.kramerius.K7ProcessTracker;
+import cz.cas.lib.proarc.common.kramerius.KrameriusHttpClients;
 import cz.cas.lib.proarc.common.object.DigitalObjectManager;
 import cz.cas.lib.proarc.common.object.model.MetaModelRepository;
 import cz.cas.lib.proarc.common.process.InternalExternalDispatcher;
@@ -102,6 +107,7 @@ public final class ProarcInitializer {
             akubraConfiguration = initAkubraConfig(env, config);
         }
         initProarcModel(config);
+        initJhoveCache(config);
         DataSource proarcSource = initProarcDb();
         initUsers(config, proarcSource, daoFactory);
         finishedExportingBatch(config, daoFactory);
@@ -134,10 +140,18 @@ public final class ProarcInitializer {
 //        LOG.info("Destroing " + AppConfiguration.FULL_VERSION);
 //        HazelcastServerNode hazelcastServerNode = new HazelcastServerNode();
 //        hazelcastServerNode.contextDestroyed(null);
+        // completes the pending futures first, exports waiting for Kramerius would block the stop
+        K7ProcessTracker.getInstance().shutdown();
         ImportDispatcher importDispatcher = ImportDispatcher.getDefault();
         importDispatcher.stop();
         ExportDispatcher exportDispatcher = ExportDispatcher.getDefault();
         exportDispatcher.stop();
+        KrameriusHttpClients.closeAll();
+        LOG.info(SqlStatistics.getDefault().toString());
+        LOG.log(Level.INFO, "import: {0}", importDispatcher.getMetrics());
+        LOG.log(Level.INFO, "export: {0}", exportDispatcher.getMetrics());
+        LOG.log(Level.INFO, "internal: {0}", InternalExternalDispatcher.getDefault().getMetrics());
+        LOG.info(DerivativeMetrics.getInstance().toString());
         daoFactory = null;
     }
 
@@ -196,6 +210,13 @@ public final class ProarcInitializer {
         MetaModelRepository.setInstance(config.getPlugins());
     }
 
+    private void initJhoveCache(AppConfiguration config) {
+        File folder = config.getJhoveCacheFolder();
+        if (folder != null) {
+            JhoveCache.setDefault(new JhoveCache(folder, config.getJhoveCacheMaxSize()));
+        }
+    }
+
     private DataSource initProarcDb() {
         try {
             DataSource proarcSource = DbUtils.getProarcSource();
@@ -219,7 +240,7 @@ public final class ProarcInitializer {
     private void initImport(AppConfiguration config, DaoFactory daoFactory) {
         BatchManager.setInstance(config, daoFactory);
         BatchManager ibm = BatchManager.getInstance();
-        ImportDispatcher importDispatcher = new ImportDispatcher();
+        ImportDispatcher importDispatcher = new ImportDispatcher(config.getDispatcherConfiguration("import"));
         ImportDispatcher.setDefault(importDispatcher);
         importDispatcher.init();
         ImportProcess.resumeAll(ibm, importDispatcher, config);
@@ -228,7 +249,7 @@ public final class ProarcInitializer {
     private void initExport(AppConfiguration config, AkubraConfiguration akubraConfiguration, DaoFactory daoFactory) {
         BatchManager.setInstance(config, daoFactory);
         BatchManager ibm = BatchManager.getInstance();
-        ExportDispatcher exportDispatcher = new ExportDispatcher();
+        ExportDispatcher exportDispatcher = new ExportDispatcher(config.getDispatcherConfiguration("export"));
         ExportDispatcher.setDefault(exportDispatcher);
         exportDispatcher.init();
         ExportProcess.resumeAll(ibm, exportDispatcher, config, akubraConfiguration);
@@ -237,7 +258,7 @@ public final class ProarcInitializer {
     private void initInternal(AppConfiguration config, AkubraConfiguration akubraConfiguration, DaoFactory daoFactory) {
         BatchManager.setInstance(config, daoFactory);
         BatchManager ibm = BatchManager.getInstance();
-        InternalExternalDispatcher internalExternalDispatcher = new InternalExternalDispatcher();
+        InternalExternalDispatcher internalExternalDispatcher = new InternalExternalDispatcher(config.getDispatcherConfiguration("internal"));
         InternalExternalDispatcher.setDefault(internalExternalDispatcher);
         internalExternalDispatcher.init();
         InternalExternalProcess.resumeAll(ibm, internalExternalDispatcher, config, akubraConfiguration);
@@ -876,6 +876,8 @@ public class DigitalObjectResourceV1 {
             search = storage.getSearch(session.getLocale(httpHeaders));
         } else if (Storage.AKUBRA.equals(appConfig.getTypeOfStorage())) {
             AkubraStorage akubraStorage = AkubraStorage.getInstance(akubraConfiguration);
+            // members may have been written by the previous request
+            akubraStorage.flushIndex();
             search = akubraStorage.getSearch(session.getLocale(httpHeaders));
         } else {
             throw new IllegalStateException("Unsupported type of storage: " + appConfig.getTypeOfStorage());
@@ -1904,7 +1906,7 @@ public class DigitalObjectResourceV1 {
 
         DigitalObjectHandler doHandler = findHandler(pid, batchId);
         DisseminationHandler dissemination = doHandler.dissemination(dsId);
-        return dissemination.getDissemination(httpRequest);
+        return dissemination.getDissemination(httpRequest, httpHeaders);
     }
 
     /**
@@ -5070,6 +5072,7 @@ public class DigitalObjectResourceV1 {
             } else if (Storage.AKUBRA.equals(appConfig.getTypeOfStorage())) {
                 AkubraStorage storage = AkubraStorage.getInstance(akubraConfiguration);
                 fobject = storage.find(pid);
+                storage.flushIndex();
                 SolrSearchView solrSearch = storage.getSearch();
                 List<SearchViewItem> items = solrSearch.find(Collections.singletonList(pid));
                 if (items != null && items.size() > 0) {
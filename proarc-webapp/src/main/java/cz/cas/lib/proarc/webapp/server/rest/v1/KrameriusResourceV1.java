@@ -22,7 +22,10 @@ import cz.cas.lib.proarc.common.config.AppConfigurationFactory;
 import cz.cas.lib.proarc.common.dao.Batch;
 import cz.cas.lib.proarc.common.dao.BatchParams;
 import cz.cas.lib.proarc.common.dao.BatchUtils;
+import cz.cas.lib.proarc.common.process.InternalExternalDispatcher;
+import cz.cas.lib.proarc.common.process.InternalExternalProcess;
 import cz.cas.lib.proarc.common.process.export.mets.MetsUtils;
+import cz.cas.lib.proarc.common.storage.BinaryEditor;
 import cz.cas.lib.proarc.common.storage.DigitalObjectConcurrentModificationException;
 import cz.cas.lib.proarc.common.storage.DigitalObjectException;
 import cz.cas.lib.proarc.common.storage.DigitalObjectNotFoundException;
@@ -36,6 +39,7 @@ import cz.cas.lib.proarc.common.kramerius.K7Downloader;
 import cz.cas.lib.proarc.common.kramerius.KDataHandler;
 import cz.cas.lib.proarc.common.kramerius.KImporter;
 import cz.cas.lib.proarc.common.kramerius.KUtils;
+import cz.cas.lib.proarc.common.kramerius.KrameriusHttpClients;
 import cz.cas.lib.proarc.common.kramerius.KrameriusOptions;
 import cz.cas.lib.proarc.common.mods.custom.IdentifierMapper;
 import cz.cas.lib.proarc.common.mods.ndk.NdkPageMapper;
@@ -53,11 +57,13 @@ import cz.cas.lib.proarc.webapp.server.ServerMessages;
 import cz.cas.lib.proarc.webapp.server.rest.RestException;
 import cz.cas.lib.proarc.webapp.server.rest.SessionContext;
 import cz.cas.lib.proarc.webapp.server.rest.SmartGwtResponse;
+import cz.cas.lib.proarc.webapp.server.rest.v1.DigitalObjectResourceV1.InternalExternalProcessResult;
 import cz.cas.lib.proarc.webapp.shared.rest.DigitalObjectResourceApi;
 import cz.cas.lib.proarc.webapp.shared.rest.KrameriusResourceApi;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.logging.Logger;
 import javax.servlet.http.HttpServletRequest;
@@ -76,10 +82,9 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.core.UriInfo;
 import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicHeader;
+import org.apache.http.util.EntityUtils;
 import org.fcrepo.utilities.FileUtils;
 
 import static cz.cas.lib.proarc.common.kramerius.KUtils.KRAMERIUS_BATCH_FAILED_V5;
@@ -273,7 +278,6 @@ public class KrameriusResourceV1 {
 //                result.setStatus("Successful");
 //                result.setMessage("Redirected to ProArc Image View");
 //                result.setUrl(url);
-                HttpClient httpClient = HttpClients.createDefault();
                 HttpGet httpGet = new HttpGet(url);
 
                 httpGet.setHeader(new BasicHeader("Keep-Alive", "timeout=600, max=1000"));
@@ -282,11 +286,12 @@ public class KrameriusResourceV1 {
                 }
                 httpGet.setHeader(new BasicHeader("Connection", "Keep-Alive, Upgrade"));
 
-                HttpResponse response = httpClient.execute(httpGet);
+                HttpResponse response = KrameriusHttpClients.get(instance).execute(httpGet);
                 if (HTTP_OK == response.getStatusLine().getStatusCode()) {
                     Response proarcResponse = Response.ok(response.getEntity().getContent(), response.getFirstHeader("Content-Type").getValue()).header("Content-Disposition", "default.jpg").build();
                     return proarcResponse;
                 } else {
+                    EntityUtils.consume(response.getEntity());
                     result.setStatus("Failed");
                     result.setMessage(ServerMessages.get(locale).getFormattedMessage("KrameriusResource_ImpossibleToDownloadJpg", pid));
                     return new SmartGwtResponse<>(result);
@@ -548,4 +553,45 @@ public class KrameriusResourceV1 {
         ServerMessages msgs = ServerMessages.get(locale);
         return msgs.getFormattedMessage(key, arguments);
     }
+
+    /**
+     * Schedules the download of the FOXMLs of the object tree to the ProArc home.
+     * The process runs in the background and resumes after a restart.
+     */
+    @POST
+    @Path(KrameriusResourceApi.HARVEST)
+    @Produces({MediaType.APPLICATION_JSON})
+    public SmartGwtResponse<InternalExternalProcessResult> harvest(
+            @FormParam(KrameriusResourceApi.KRAMERIUS_OBJECT_PID) String pid,
+            @FormParam(KrameriusResourceApi.KRAMERIUS_INSTANCE) String krameriusInstanceId,
+            @FormParam(KrameriusResourceApi.KRAMERIUS_WITH_IMAGES) @DefaultValue("false") boolean withImages
+    ) throws IOException {
+
+        LOG.fine(String.format("pid: %s, krameriusInstanceId: %s, withImages: %s", pid, krameriusInstanceId, withImages));
+
+        Locale locale = session.getLocale(httpHeaders);
+        if (pid == null || pid.isEmpty()) {
+            throw RestException.plainText(Response.Status.BAD_REQUEST, ServerMessages.get(locale).getFormattedMessage("KrameriusResource_Missing_Value", KrameriusResourceApi.KRAMERIUS_OBJECT_PID));
+        }
+        if (krameriusInstanceId == null || krameriusInstanceId.isEmpty()) {
+            return SmartGwtResponse.asError(ServerMessages.get(locale).getFormattedMessage("KrameriusResource_Missing_Value", KrameriusResourceApi.KRAMERIUS_INSTANCE));
+        }
+        if (KRAMERIUS_INSTANCE_LOCAL.equals(krameriusInstanceId)) {
+            return SmartGwtResponse.asError(ServerMessages.get(locale).getFormattedMessage("KrameriusResource_Unsupported_Value", KrameriusResourceApi.KRAMERIUS_INSTANCE));
+        }
+        KrameriusOptions.KrameriusInstance instance = findKrameriusInstance(appConfig.getKrameriusOptions().getKrameriusInstances(), krameriusInstanceId);
+        if (instance == null) {
+            return SmartGwtResponse.asError(ServerMessages.get(locale).getFormattedMessage("KrameriusResource_Unknown_Value", krameriusInstanceId, KrameriusResourceApi.KRAMERIUS_INSTANCE));
+        }
+
+        List<String> dsIds = withImages ? Collections.singletonList(BinaryEditor.FULL_ID) : Collections.<String>emptyList();
+        BatchParams params = new BatchParams(Collections.singletonList(pid), krameriusInstanceId, dsIds);
+        Batch batch = BatchUtils.addNewInternalBatch(this.batchManager, pid, user, Batch.INTERNAL_KRAMERIUS_HARVEST, params);
+
+        InternalExternalProcess process = InternalExternalProcess.prepare(appConfig, null, batch, batchManager, user, session.asFedoraLog(), locale);
+        InternalExternalDispatcher.getDefault().addInternalExternalProcess(process);
+        InternalExternalProcessResult result = new InternalExternalProcessResult(batch.getId(), "Proces naplánován.");
+        return new SmartGwtResponse<>(result);
+    }
+
 }
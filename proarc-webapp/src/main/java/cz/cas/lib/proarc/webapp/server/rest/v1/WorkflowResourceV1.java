@@ -155,6 +155,7 @@ public class WorkflowResourceV1 {
             @QueryParam(WorkflowModelConsts.JOB_FILTER_MATERIAL_YEAR) String mYear,
             @QueryParam(WorkflowModelConsts.JOB_FILTER_MATERIAL_EDITION) String mEdition,
             @QueryParam(WorkflowModelConsts.JOB_FILTER_OFFSET) int startRow,
+            @QueryParam(WorkflowModelConsts.JOB_FILTER_AFTER_ID) BigDecimal afterId,
             @QueryParam(WorkflowModelConsts.JOB_FILTER_FINANCED) String financed,
             @QueryParam(WorkflowModelConsts.JOB_FILTER_SORTBY) String sortBy,
             @QueryParam(WorkflowModelConsts.JOB_TASK_NAME) String taskName,
@@ -170,6 +171,7 @@ public class WorkflowResourceV1 {
         filter.setLocale(session.getLocale(httpHeaders));
         filter.setMaxCount(pageSize);
         filter.setOffset(startRow);
+        filter.setAfterId(afterId);
         filter.setSortBy(sortBy);
 
         filter.setId(id);
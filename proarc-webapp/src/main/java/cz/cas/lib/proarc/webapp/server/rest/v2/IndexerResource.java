@@ -22,6 +22,7 @@ import cz.cas.lib.proarc.common.config.AppConfigurationException;
 import cz.cas.lib.proarc.common.storage.SearchViewItem;
 import cz.cas.lib.proarc.webapp.client.ds.RestConfig;
 import cz.cas.lib.proarc.webapp.server.rest.SmartGwtResponse;
+import cz.cas.lib.proarc.webapp.server.rest.v1.DigitalObjectResourceV1.InternalExternalProcessResult;
 import cz.cas.lib.proarc.webapp.server.rest.v1.IndexerResourceV1;
 import cz.cas.lib.proarc.webapp.shared.rest.IndexerResourceApi;
 import java.util.logging.Level;
@@ -52,7 +53,7 @@ public class IndexerResource extends IndexerResourceV1 {
 
     @POST
     @Produces({MediaType.APPLICATION_JSON})
-    public SmartGwtResponse<SearchViewItem> indexObjects () {
+    public SmartGwtResponse<InternalExternalProcessResult> indexObjects () {
         try {
             return super.indexObjects();
         } catch (Throwable t) {
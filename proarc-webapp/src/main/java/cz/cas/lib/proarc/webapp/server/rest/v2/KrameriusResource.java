@@ -22,6 +22,7 @@ import cz.cas.lib.proarc.common.object.DescriptionMetadata;
 import cz.cas.lib.proarc.webapp.client.ds.MetaModelDataSource;
 import cz.cas.lib.proarc.webapp.client.ds.RestConfig;
 import cz.cas.lib.proarc.webapp.server.rest.SmartGwtResponse;
+import cz.cas.lib.proarc.webapp.server.rest.v1.DigitalObjectResourceV1.InternalExternalProcessResult;
 import cz.cas.lib.proarc.webapp.server.rest.v1.KrameriusResourceV1;
 import cz.cas.lib.proarc.webapp.shared.rest.DigitalObjectResourceApi;
 import cz.cas.lib.proarc.webapp.shared.rest.KrameriusResourceApi;
@@ -209,4 +210,30 @@ public class KrameriusResource extends KrameriusResourceV1 {
             return SmartGwtResponse.asError(t);
         }
     }
+
+    @POST
+    @Path(KrameriusResourceApi.HARVEST)
+    @Produces({MediaType.APPLICATION_JSON})
+    public SmartGwtResponse<InternalExternalProcessResult> harvest(
+            @FormParam(KrameriusResourceApi.KRAMERIUS_OBJECT_PID) String pid,
+            @FormParam(KrameriusResourceApi.KRAMERIUS_INSTANCE) String krameriusInstanceId,
+            @FormParam(KrameriusResourceApi.KRAMERIUS_WITH_IMAGES) @DefaultValue("false") boolean withImages
+    ) {
+        if (pid == null || pid.isEmpty()) {
+            return SmartGwtResponse.asError(returnLocalizedMessage(ERR_MISSING_PARAMETER, KrameriusResourceApi.KRAMERIUS_OBJECT_PID));
+        }
+        if (krameriusInstanceId == null || krameriusInstanceId.isEmpty()) {
+            return SmartGwtResponse.asError(returnLocalizedMessage(ERR_MISSING_PARAMETER, KrameriusResourceApi.KRAMERIUS_INSTANCE));
+        }
+        if (KRAMERIUS_INSTANCE_LOCAL.equals(krameriusInstanceId)) {
+            return SmartGwtResponse.asError(returnLocalizedMessage(ERR_UNSUPPORTED_VALUE, KrameriusResourceApi.KRAMERIUS_INSTANCE));
+        }
+        try {
+            return super.harvest(pid, krameriusInstanceId, withImages);
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, t.getMessage(), t);
+            return SmartGwtResponse.asError(t);
+        }
+    }
+
 }
@@ -107,6 +107,7 @@ public class WorkflowResource extends WorkflowResourceV1 {
             @QueryParam(WorkflowModelConsts.JOB_FILTER_MATERIAL_YEAR) String mYear,
             @QueryParam(WorkflowModelConsts.JOB_FILTER_MATERIAL_EDITION) String mEdition,
             @QueryParam(WorkflowModelConsts.JOB_FILTER_OFFSET) int startRow,
+            @QueryParam(WorkflowModelConsts.JOB_FILTER_AFTER_ID) BigDecimal afterId,
             @QueryParam(WorkflowModelConsts.JOB_FILTER_FINANCED) String financed,
             @QueryParam(WorkflowModelConsts.JOB_FILTER_SORTBY) String sortBy,
             @QueryParam(WorkflowModelConsts.JOB_TASK_NAME) String taskName,
@@ -119,7 +120,7 @@ public class WorkflowResource extends WorkflowResourceV1 {
     ) {
         try {
             return super.getJob(id, created, label, modified, priority, profileName, state, userId, parentId, mBarcode,
-                    mDetail, mField001, mIssue, mSigla, mSignature, mVolume, mYear, mEdition, startRow, financed,
+                    mDetail, mField001, mIssue, mSigla, mSignature, mVolume, mYear, mEdition, startRow, afterId, financed,
                     sortBy, taskName, taskDate, taskUser, taskUserName, pid, rawPath, deviceId);
         } catch (Throwable t) {
             LOG.log(Level.SEVERE, t.getMessage(), t);
@@ -27,10 +27,12 @@ public class KrameriusResourceApi {
     public static final String UPDATE_MODS = "updateMods";
     public static final String IMPORT_2_PROARC = "importToProArc";
     public static final String IMPORT_2_KRAMERIUS = "importToKramerius";
+    public static final String HARVEST = "harvest";
 
     //parameters
     public static final String KRAMERIUS_OBJECT_PID = "pid";
     public static final String KRAMERIUS_INSTANCE = "instance";
     public static final String KRAMERIUS_IMPORT_INSTANCE = "importInstance";
     public static final String KRAMERIUD_RERUN = "rerun";
+    public static final String KRAMERIUS_WITH_IMAGES = "withImages";
 }